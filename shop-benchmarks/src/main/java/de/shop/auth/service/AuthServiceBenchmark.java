@@ -0,0 +1,42 @@
+package de.shop.auth.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Hashwert eines Passworts berechnen, z.B. beim Anlegen eines Kunden oder beim Aendern des Passworts.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthServiceBenchmark {
+	private AuthService authService;
+	private String password;
+
+	@Setup
+	public void setup() {
+		// verschluesseln() benoetigt weder injizierte Objekte noch @PostConstruct
+		authService = new AuthService();
+		password = "p";
+	}
+
+	@Benchmark
+	public String verschluesseln() {
+		return authService.verschluesseln(password);
+	}
+}
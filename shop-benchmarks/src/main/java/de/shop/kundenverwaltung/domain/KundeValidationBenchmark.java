@@ -0,0 +1,126 @@
+package de.shop.kundenverwaltung.domain;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.groups.Default;
+
+import org.hibernate.validator.constraints.ScriptAssert;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Bean Validation eines Kunden wie beim Anlegen und Aendern ueber REST, einschliesslich der
+ * Class-Level-Constraints von {@link AbstractKunde}, und zum Vergleich nur der Adresse.
+ * Bei einem ungueltigen Kunden werden zusaetzlich die Meldungen interpoliert.
+ * "scriptAssert" validiert zusaetzlich das fruehere @ScriptAssert mit JavaScript; die Differenz zu
+ * "kundeGueltig" sind die Kosten, die @PasswordEqual einspart. "ersteValidierung" misst den Aufbau der
+ * Metadaten beim ersten Aufruf, den Initializer beim Start vorwegnimmt.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KundeValidationBenchmark {
+	private static final long TAG_MILLIS = 24L * 60 * 60 * 1000;
+
+	private ValidatorFactory validatorFactory;
+	private Validator validator;
+	private Privatkunde kundeGueltig;
+	private Privatkunde kundeUngueltig;
+	private Privatkunde kundeScriptAssert;
+
+	@Setup
+	public void setup() {
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		validator = validatorFactory.getValidator();
+
+		kundeGueltig = createKunde("Alpha", "76133");
+		kundeUngueltig = createKunde("!", "1234");
+		kundeScriptAssert = initKunde(new PrivatkundeScriptAssert(), "Alpha", "76133");
+	}
+
+	@TearDown
+	public void tearDown() {
+		validatorFactory.close();
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Privatkunde>> kundeGueltig() {
+		return validator.validate(kundeGueltig);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Privatkunde>> kundeUngueltig() {
+		return validator.validate(kundeUngueltig);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Privatkunde>> scriptAssert() {
+		return validator.validate(kundeScriptAssert);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Privatkunde>> ersteValidierung() {
+		final ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+		try {
+			return factory.getValidator().validate(kundeGueltig);
+		}
+		finally {
+			factory.close();
+		}
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Adresse>> adresse() {
+		return validator.validate(kundeGueltig.getAdresse());
+	}
+
+	private static Privatkunde createKunde(String nachname, String plz) {
+		return initKunde(new Privatkunde(), nachname, plz);
+	}
+
+	private static Privatkunde initKunde(Privatkunde kunde, String nachname, String plz) {
+		kunde.setNachname(nachname);
+		kunde.setVorname("Vorname");
+		kunde.setEmail("alpha@hs-karlsruhe.de");
+		kunde.setSeit(new Date(System.currentTimeMillis() - TAG_MILLIS));
+		kunde.setPassword("p");
+		kunde.setPasswordWdh("p");
+		kunde.setAgbAkzeptiert(true);
+		final Adresse adresse = new Adresse(plz, "Karlsruhe", "Moltkestrasse", "30");
+		adresse.setKunde(kunde);
+		kunde.setAdresse(adresse);
+		return kunde;
+	}
+
+	/**
+	 * Privatkunde mit dem frueheren Class-Level-Constraint als Vergleich
+	 */
+	@ScriptAssert(lang = "javascript",
+		          script = "_this.password != null && !_this.password.equals(\"\")"
+		          		   + "&& _this.password.equals(_this.passwordWdh)",
+		          message = "{kunde.password.notEqual}",
+		          groups = { Default.class, PasswordGroup.class })
+	public static class PrivatkundeScriptAssert extends Privatkunde {
+		private static final long serialVersionUID = 1L;
+	}
+}
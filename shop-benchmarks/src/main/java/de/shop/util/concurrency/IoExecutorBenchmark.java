@@ -0,0 +1,77 @@
+package de.shop.util.concurrency;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Zeit, bis ein Schub blockierender Aufgaben abgearbeitet ist, z.B. Bestaetigungs-Emails nach vielen
+ * gleichzeitigen Bestellungen. Jede Aufgabe wartet wie beim SMTP-Server eine feste Zeit, ohne CPU zu
+ * belegen. Mit 4 Threads entspricht der Executor einem kleinen Pool wie beim ManagedExecutorService des
+ * Containers, mit mehr Threads dem IoExecutor mit dem Limit aus web.xml.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IoExecutorBenchmark {
+	// Anzahl der Aufgaben im Schub und Wartezeit pro Aufgabe
+	private static final int SCHUB = 500;
+	private static final long LATENZ_MILLIS = 10;
+
+	@Param({ "4", "32", "128" })
+	private int maxThreads;
+
+	private IoExecutor executor;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		executor = new IoExecutor(maxThreads, Executors.defaultThreadFactory());
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() throws InterruptedException {
+		executor.shutdown(1, TimeUnit.MINUTES);
+	}
+
+	@Benchmark
+	public int schubAbarbeiten() throws InterruptedException {
+		final CountDownLatch fertig = new CountDownLatch(SCHUB);
+		final Runnable aufgabe = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(LATENZ_MILLIS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				fertig.countDown();
+			}
+		};
+		for (int i = 0; i < SCHUB; i++) {
+			executor.execute(aufgabe);
+		}
+		final int warteschlange = executor.getWarteschlange();
+		fertig.await();
+		return warteschlange;
+	}
+}
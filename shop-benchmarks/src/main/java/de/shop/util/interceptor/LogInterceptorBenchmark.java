@@ -0,0 +1,88 @@
+package de.shop.util.interceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Aufbereitung von Argumenten und Rueckgabewerten im {@link LogInterceptor} bei Level DEBUG:
+ * kleine Collections und Arrays werden Element fuer Element ausgegeben, grosse nur mit ihrer Anzahl.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogInterceptorBenchmark {
+	private static final int KLEIN = 3;
+	private static final int GROSS = 100;
+
+	private List<Long> collectionKlein;
+	private List<Long> collectionGross;
+	private Object[] objectArray;
+	private long[] longArray;
+	private int[] intArray;
+	private String string;
+
+	@Setup
+	public void setup() {
+		collectionKlein = createList(KLEIN);
+		collectionGross = createList(GROSS);
+		objectArray = createList(KLEIN).toArray();
+		longArray = new long[] { 100, 101, 102 };
+		intArray = new int[] { 1, 2, 3 };
+		string = "Alpha";
+	}
+
+	@Benchmark
+	public String collectionKlein() {
+		return LogInterceptor.toString(collectionKlein);
+	}
+
+	@Benchmark
+	public String collectionGross() {
+		return LogInterceptor.toString(collectionGross);
+	}
+
+	@Benchmark
+	public String objectArray() {
+		return LogInterceptor.arrayToString(objectArray);
+	}
+
+	@Benchmark
+	public String longArray() {
+		return LogInterceptor.arrayToString(longArray);
+	}
+
+	@Benchmark
+	public String intArray() {
+		return LogInterceptor.arrayToString(intArray);
+	}
+
+	@Benchmark
+	public String objekt() {
+		return LogInterceptor.toString(string);
+	}
+
+	private static List<Long> createList(int anzahl) {
+		final List<Long> list = new ArrayList<>(anzahl);
+		for (int i = 0; i < anzahl; i++) {
+			list.add(Long.valueOf(100 + i));
+		}
+		return list;
+	}
+}
@@ -0,0 +1,66 @@
+package de.shop.util.persistence;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * MIME-Type hochgeladener Dateien anhand der ersten Bytes ermitteln, wie beim Upload von Bildern und Videos.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileHelperBenchmark {
+	private static final int GROESSE = 64 * 1024;
+	private static final byte[] PNG_HEADER = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+	private static final byte[] JPEG_HEADER = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0 };
+
+	private FileHelper fileHelper;
+	private byte[] png;
+	private byte[] jpeg;
+	private byte[] unbekannt;
+
+	@Setup
+	public void setup() {
+		// getMimeType() benoetigt keine Initialisierung durch @PostConstruct
+		fileHelper = new FileHelper();
+		png = createBytes(PNG_HEADER);
+		jpeg = createBytes(JPEG_HEADER);
+		unbekannt = createBytes(new byte[0]);
+	}
+
+	@Benchmark
+	public MimeType png() {
+		return fileHelper.getMimeType(png);
+	}
+
+	@Benchmark
+	public MimeType jpeg() {
+		return fileHelper.getMimeType(jpeg);
+	}
+
+	@Benchmark
+	public MimeType unbekannt() {
+		return fileHelper.getMimeType(unbekannt);
+	}
+
+	private static byte[] createBytes(byte[] header) {
+		final byte[] bytes = new byte[GROESSE];
+		System.arraycopy(header, 0, bytes, 0, header.length);
+		return bytes;
+	}
+}
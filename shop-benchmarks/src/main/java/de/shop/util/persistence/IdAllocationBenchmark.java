@@ -0,0 +1,116 @@
+package de.shop.util.persistence;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * IDs fuer neue Entities erzeugen, wenn mehrere Threads gleichzeitig einfuegen und sich dieselbe Sequenz
+ * teilen. Der Zugriff auf die Sequenz wird durch eine Sperre mit simuliertem Roundtrip nachgebildet, wie bei
+ * einer Tabelle, die eine Sequenz emuliert. Mit "none" greift jede ID auf die Sequenz zu, mit "pooled" und
+ * "pooled-lo" nur jede increment-te ID.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class IdAllocationBenchmark {
+	// Dauer eines Zugriffs auf die Sequenz, waehrend dessen die Zeile gesperrt ist
+	private static final long ROUNDTRIP_TOKENS = 2000;
+	private static final long ERSTE_ID = 1000;
+
+	@Param({ "none", "pooled", "pooled-lo" })
+	private String optimizer;
+
+	@Param({ "20", "50" })
+	private int increment;
+
+	private Optimizer idOptimizer;
+	private Sequenz sequenz;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		idOptimizer = OptimizerFactory.buildOptimizer(optimizer, Long.class, increment, ERSTE_ID);
+		sequenz = new Sequenz(increment);
+	}
+
+	@Benchmark
+	public Serializable generate(Verbindung verbindung, Zugriffe zugriffe) {
+		verbindung.sequenz = sequenz;
+		verbindung.zugriffe = zugriffe;
+		return idOptimizer.generate(verbindung);
+	}
+
+	/**
+	 * Anzahl der Zugriffe eines Threads auf die Sequenz, wird von JMH neben dem Durchsatz ausgegeben
+	 */
+	@State(Scope.Thread)
+	@AuxCounters
+	public static class Zugriffe {
+		public long roundtrips;
+	}
+
+	/**
+	 * Zugriff eines Threads auf die gemeinsam genutzte Sequenz
+	 */
+	@State(Scope.Thread)
+	public static class Verbindung implements AccessCallback {
+		private Sequenz sequenz;
+		private Zugriffe zugriffe;
+
+		@Override
+		public IntegralDataTypeHolder getNextValue() {
+			zugriffe.roundtrips++;
+			return sequenz.getNextValue();
+		}
+
+		@Override
+		public String getTenantIdentifier() {
+			return null;
+		}
+	}
+
+	/**
+	 * Gemeinsam genutzte Sequenz: Jeder Zugriff sperrt die Zeile fuer die Dauer eines Roundtrips
+	 */
+	private static final class Sequenz {
+		private final int increment;
+		private long naechsterWert = ERSTE_ID;
+
+		Sequenz(int increment) {
+			this.increment = increment;
+		}
+
+		synchronized IntegralDataTypeHolder getNextValue() {
+			Blackhole.consumeCPU(ROUNDTRIP_TOKENS);
+			final long wert = naechsterWert;
+			naechsterWert += increment;
+			return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class).initialize(wert);
+		}
+	}
+}
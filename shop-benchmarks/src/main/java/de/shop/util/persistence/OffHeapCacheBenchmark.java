@@ -0,0 +1,86 @@
+package de.shop.util.persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.shop.util.persistence.OffHeapCache.Eintrag;
+
+
+/**
+ * Ein Bild mit 256 KiB herunterladen: aus dem Cache ausserhalb des Heaps bzw. als neues byte[] wie beim Lesen
+ * der LOB-Spalte. Mit -prof gc ist der Unterschied bei der Allokation pro Download zu sehen.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OffHeapCacheBenchmark {
+	private static final int GROESSE = 256 * 1024;
+	private static final long MAX_BYTES = 16L * 1024 * 1024;
+	private static final int ANZAHL_KEYS = 1000;
+
+	private OffHeapCache<Long> cache;
+	private byte[] bytes;
+	private OutputStream out;
+	private long naechsterKey;
+
+	@Setup
+	public void setup(final Blackhole blackhole) {
+		cache = new OffHeapCache<>(MAX_BYTES);
+		bytes = new byte[GROESSE];
+		cache.put(Long.valueOf(0), bytes).release();
+		// Simuliert den Rumpf der Response
+		out = new OutputStream() {
+			@Override
+			public void write(int b) {
+				blackhole.consume(b);
+			}
+			@Override
+			public void write(byte[] b, int off, int len) {
+				blackhole.consume(b);
+			}
+		};
+	}
+
+	@Benchmark
+	public void cache() throws IOException {
+		final Eintrag eintrag = cache.get(Long.valueOf(0));
+		try {
+			eintrag.writeTo(out);
+		}
+		finally {
+			eintrag.release();
+		}
+	}
+
+	@Benchmark
+	public void heap() throws IOException {
+		final byte[] kopie = bytes.clone();
+		out.write(kopie, 0, kopie.length);
+	}
+
+	/**
+	 * Immer neue Dateien, so dass jedes put() einen Eintrag verdraengt
+	 */
+	@Benchmark
+	public void putMitVerdraengung() {
+		naechsterKey = (naechsterKey + 1) % ANZAHL_KEYS;
+		cache.put(Long.valueOf(naechsterKey + 1), bytes).release();
+	}
+}
@@ -0,0 +1,81 @@
+package de.shop.util.rest;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.jboss.resteasy.specimpl.ResteasyHttpHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Meldung fuer eine 404-Response ermitteln: {@link Messages} mit zwischengespeicherten MessageFormat-Objekten
+ * im Vergleich zum Parsen des Patterns bei jedem Aufruf.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagesBenchmark {
+	private static final String LOCALES = "de,en";
+	private static final String KEY = "kunde.notFound.id";
+	private static final Long KUNDE_ID = Long.valueOf(999);
+
+	// leerer String: kein Header "Accept-Language"
+	@Param({ "de", "en-US,en;q=0.8", "" })
+	private String acceptLanguage;
+
+	private Messages messages;
+	private HttpHeaders headers;
+	private String pattern;
+
+	@Setup
+	public void setup() throws ReflectiveOperationException {
+		// wie im Applikationsserver: Environment-Eintrag aus web.xml injizieren und @PostConstruct aufrufen
+		messages = new Messages();
+		final Field locales = Messages.class.getDeclaredField("locales");
+		locales.setAccessible(true);
+		locales.set(messages, LOCALES);
+		final Method postConstruct = Messages.class.getDeclaredMethod("postConstruct");
+		postConstruct.setAccessible(true);
+		postConstruct.invoke(messages);
+
+		final MultivaluedMap<String, String> requestHeaders = new MultivaluedHashMap<>();
+		if (!acceptLanguage.isEmpty()) {
+			requestHeaders.add(HttpHeaders.ACCEPT_LANGUAGE, acceptLanguage);
+		}
+		headers = new ResteasyHttpHeaders(requestHeaders);
+
+		pattern = ResourceBundle.getBundle("ApplicationMessages", Locale.GERMAN).getString(KEY);
+	}
+
+	@Benchmark
+	public String getMessage() {
+		return messages.getMessage(headers, KEY, KUNDE_ID);
+	}
+
+	@Benchmark
+	public String messageFormatNeu() {
+		return new MessageFormat(pattern, Locale.GERMAN).format(new Object[] { KUNDE_ID });
+	}
+}
@@ -0,0 +1,71 @@
+package de.shop.util.rest;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.UriInfo;
+
+import org.jboss.resteasy.spi.ResteasyUriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.shop.kundenverwaltung.rest.KundeResource;
+
+
+/**
+ * Vergleich: URI per UriBuilder und Reflection bei jedem Aufruf bauen (bisherige Implementierung)
+ * oder ueber die zwischengespeicherten Templates von {@link UriHelper}.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriHelperBenchmark {
+	private static final String BASE_URI = "https://localhost:8443/shop/rest/";
+	private static final Long KUNDE_ID = Long.valueOf(101);
+
+	private UriInfo uriInfo;
+	private UriHelper uriHelper;
+
+	@Setup
+	public void setup() {
+		uriInfo = new ResteasyUriInfo(URI.create(BASE_URI), URI.create("kunden"));
+		uriHelper = new UriHelper();
+	}
+
+	@Benchmark
+	public URI uriBuilder() {
+		return uriInfo.getBaseUriBuilder()
+		              .path(KundeResource.class)
+		              .path(KundeResource.class, "findBestellungenByKundeId")
+		              .build(KUNDE_ID);
+	}
+
+	@Benchmark
+	public URI uriHelper() {
+		return uriHelper.getUri(KundeResource.class, "findBestellungenByKundeId", KUNDE_ID, uriInfo);
+	}
+
+	@Benchmark
+	public URI uriBuilderClass() {
+		return uriInfo.getBaseUriBuilder()
+				      .path(KundeResource.class)
+				      .build();
+	}
+
+	@Benchmark
+	public URI uriHelperClass() {
+		return uriHelper.getUri(KundeResource.class, uriInfo);
+	}
+}
@@ -0,0 +1,225 @@
+package de.shop.util.rest;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+
+import org.jboss.resteasy.plugins.providers.jackson.ResteasyJacksonProvider;
+import org.jboss.resteasy.plugins.providers.jaxb.JaxbCollection;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.shop.artikelverwaltung.domain.Artikel;
+import de.shop.bestellverwaltung.domain.Bestellposition;
+import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.kundenverwaltung.domain.Adresse;
+import de.shop.kundenverwaltung.domain.Privatkunde;
+
+
+/**
+ * Vergleich der Wire-Formate fuer Listen von Kunden bzw. Bestellungen: JSON, XML und Smile, jeweils
+ * unkomprimiert und mit gzip wie im {@link CompressionInterceptor}. Gemessen wird die CPU-Zeit pro Response;
+ * die Groesse der Rumpfe ergibt sich aus den zusaetzlichen Spalten "bytes" / "responses" der Ergebnisse
+ * (siehe {@link Groesse}).
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+	private static final String KUNDEN = "kunden";
+	private static final int ANZAHL_POSITIONEN = 3;
+	private static final int BUFFER_SIZE = 16 * 1024;
+	private static final QName COLLECTION = new QName("collection");
+
+	@Param({ KUNDEN, "bestellungen" })
+	private String daten;
+
+	@Param({ "10", "100" })
+	private int anzahl;
+
+	private Object entity;
+	private Type genericType;
+	private MessageBodyWriter<Object> json;
+	private MessageBodyWriter<Object> smile;
+	private JAXBContext jaxbContext;
+	private final Annotation[] annotations = new Annotation[0];
+	private final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+
+	@Setup
+	public void setup() throws IOException, JAXBException {
+		if (KUNDEN.equals(daten)) {
+			final List<AbstractKunde> kunden = createKunden(anzahl);
+			entity = kunden;
+			genericType = new GenericEntity<List<AbstractKunde>>(kunden) { }.getType();
+			jaxbContext = JAXBContext.newInstance(JaxbCollection.class, AbstractKunde.class);
+		}
+		else {
+			final List<Bestellung> bestellungen = createBestellungen(anzahl);
+			entity = bestellungen;
+			genericType = new GenericEntity<List<Bestellung>>(bestellungen) { }.getType();
+			jaxbContext = JAXBContext.newInstance(JaxbCollection.class, Bestellung.class);
+		}
+
+		json = writer(new ResteasyJacksonProvider());
+		smile = writer(new SmileProvider());
+	}
+
+	@Benchmark
+	public int json(Groesse groesse) throws IOException {
+		out.reset();
+		json.writeTo(entity, entity.getClass(), genericType, annotations, APPLICATION_JSON_TYPE, headers, out);
+		return groesse.set(out.size());
+	}
+
+	@Benchmark
+	public int jsonGzip(Groesse groesse) throws IOException {
+		return groesse.set(gzip(json, APPLICATION_JSON_TYPE));
+	}
+
+	@Benchmark
+	public int xml(Groesse groesse) throws JAXBException {
+		out.reset();
+		writeXml(out);
+		return groesse.set(out.size());
+	}
+
+	@Benchmark
+	public int xmlGzip(Groesse groesse) throws IOException, JAXBException {
+		out.reset();
+		try (final OutputStream gzipOut = new GZIPOutputStream(out, BUFFER_SIZE)) {
+			writeXml(gzipOut);
+		}
+		return groesse.set(out.size());
+	}
+
+	@Benchmark
+	public int smile(Groesse groesse) throws IOException {
+		out.reset();
+		smile.writeTo(entity, entity.getClass(), genericType, annotations, SmileProvider.APPLICATION_SMILE_TYPE,
+				      headers, out);
+		return groesse.set(out.size());
+	}
+
+	@Benchmark
+	public int smileGzip(Groesse groesse) throws IOException {
+		return groesse.set(gzip(smile, SmileProvider.APPLICATION_SMILE_TYPE));
+	}
+
+	/**
+	 * Summe der Rumpfe und Anzahl der Responses ueber alle Messiterationen; JMH gibt die oeffentlichen Felder
+	 * als zusaetzliche Spalten aus
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Groesse {
+		public long bytes;
+		public long responses;
+
+		int set(int groesse) {
+			bytes += groesse;
+			responses++;
+			return groesse;
+		}
+	}
+
+	private int gzip(MessageBodyWriter<Object> writer, MediaType mediaType) throws IOException {
+		out.reset();
+		try (final OutputStream gzipOut = new GZIPOutputStream(out, BUFFER_SIZE)) {
+			writer.writeTo(entity, entity.getClass(), genericType, annotations, mediaType, headers, gzipOut);
+		}
+		return out.size();
+	}
+
+	/**
+	 * Liste wie beim CollectionProvider von RESTEasy in ein Element "collection" einbetten; der Marshaller
+	 * wird je Response neu erzeugt, der JAXBContext wiederverwendet.
+	 */
+	private void writeXml(OutputStream os) throws JAXBException {
+		final JaxbCollection collection = new JaxbCollection();
+		collection.getValue().addAll((List<?>) entity);
+		final Marshaller marshaller = jaxbContext.createMarshaller();
+		marshaller.marshal(new JAXBElement<>(COLLECTION, JaxbCollection.class, collection), os);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static MessageBodyWriter<Object> writer(MessageBodyWriter<?> writer) {
+		return (MessageBodyWriter<Object>) writer;
+	}
+
+	private static List<AbstractKunde> createKunden(int anzahl) {
+		final List<AbstractKunde> kunden = new ArrayList<>(anzahl);
+		for (int i = 0; i < anzahl; i++) {
+			kunden.add(createKunde(i));
+		}
+		return kunden;
+	}
+
+	private static Privatkunde createKunde(int i) {
+		final Privatkunde kunde = new Privatkunde("Nachname" + i, "Vorname" + i, "kunde" + i + "@hs-karlsruhe.de",
+				                                  new Date());
+		kunde.setId(Long.valueOf(100 + i));
+		kunde.setKategorie((short) (i % 5));
+		kunde.setRabatt(new BigDecimal("0.05"));
+		kunde.setUmsatz(new BigDecimal("1234.56"));
+		final Adresse adresse = new Adresse("76133", "Karlsruhe", "Moltkestrasse", String.valueOf(i + 1));
+		adresse.setId(Long.valueOf(200 + i));
+		adresse.setKunde(kunde);
+		kunde.setAdresse(adresse);
+		return kunde;
+	}
+
+	private static List<Bestellung> createBestellungen(int anzahl) {
+		final List<Bestellung> bestellungen = new ArrayList<>(anzahl);
+		for (int i = 0; i < anzahl; i++) {
+			final List<Bestellposition> positionen = new ArrayList<>(ANZAHL_POSITIONEN);
+			for (int j = 0; j < ANZAHL_POSITIONEN; j++) {
+				final Artikel artikel = new Artikel("Artikel" + j);
+				artikel.setId(Long.valueOf(300 + j));
+				final Bestellposition position = new Bestellposition(artikel, (short) (j + 1));
+				position.setId(Long.valueOf(400 + i * ANZAHL_POSITIONEN + j));
+				positionen.add(position);
+			}
+			final Bestellung bestellung = new Bestellung(createKunde(i), positionen);
+			bestellung.setId(Long.valueOf(500 + i));
+			bestellungen.add(bestellung);
+		}
+		return bestellungen;
+	}
+}
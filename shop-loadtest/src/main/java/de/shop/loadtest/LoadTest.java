@@ -0,0 +1,221 @@
+package de.shop.loadtest;
+
+import static org.apache.http.HttpHeaders.ACCEPT;
+import static org.apache.http.HttpHeaders.AUTHORIZATION;
+import static org.apache.http.HttpStatus.SC_BAD_REQUEST;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.BrowserCompatHostnameVerifier;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+
+/**
+ * Lasttest fuer die REST-Schnittstelle mit einem offenen Lastmodell: Die Requests werden mit einer festen
+ * Ankunftsrate gestartet, unabhaengig davon, wie schnell der Server antwortet. Ist der Server langsamer,
+ * warten die Requests in der Warteschlange des Executors, und diese Wartezeit ist Teil der Antwortzeit.
+ * Dadurch wird "coordinated omission" vermieden, d.h. langsame Phasen werden nicht unterschlagen.
+ * Die Verbindungen werden in einem Pool wiederverwendet.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public final class LoadTest {
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final long TIMEOUT_SEKUNDEN = 60;
+	private static final int HTTP_PORT = 80;
+	private static final int HTTPS_PORT = 443;
+	private static final String HTTPS = "https";
+	private static final String KEYSTORE_TYPE = "JKS";
+	private static final String TRUSTSTORE_NAME = "client.truststore";
+	private static final String MEDIA_TYPE = "application/json";
+
+	private final LoadTestConfig config;
+	private final DefaultHttpClient httpClient;
+	private final String authorization;
+
+	private LoadTest(LoadTestConfig config) throws IOException, GeneralSecurityException {
+		this.config = config;
+
+		final SchemeRegistry schemeRegistry = new SchemeRegistry();
+		schemeRegistry.register(new Scheme("http", HTTP_PORT, PlainSocketFactory.getSocketFactory()));
+		if (config.getBaseUri().startsWith(HTTPS)) {
+			schemeRegistry.register(new Scheme(HTTPS, HTTPS_PORT, createSocketFactory(config)));
+		}
+		final PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager(schemeRegistry);
+		connectionManager.setMaxTotal(config.getThreads());
+		connectionManager.setDefaultMaxPerRoute(config.getThreads());
+		httpClient = new DefaultHttpClient(connectionManager);
+
+		// Basic Authentication ohne vorherige 401-Response
+		if (config.getUsername().isEmpty()) {
+			authorization = null;
+		}
+		else {
+			final String credentials = config.getUsername() + ':' + config.getPassword();
+			authorization = "Basic "
+					        + DatatypeConverter.printBase64Binary(credentials.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Lasttest gemaess loadtest.properties und den System Properties "loadtest.*" ausfuehren
+	 * @param args wird nicht ausgewertet
+	 * @throws Exception Falls die Konfiguration ungueltig ist oder der Bericht nicht gespeichert werden kann
+	 */
+	public static void main(String[] args) throws Exception {
+		final LoadTestConfig config = LoadTestConfig.load();
+		System.out.printf("Lasttest fuer %s: %s Requests/s, %d s Einschwingphase, %d s Messphase%n",
+				          config.getBaseUri(), config.getRate(), config.getWarmup(), config.getDauer());
+
+		final LoadTest loadTest = new LoadTest(config);
+		final LoadTestReport report;
+		try {
+			report = loadTest.run();
+		}
+		finally {
+			loadTest.httpClient.getConnectionManager().shutdown();
+		}
+
+		report.print(System.out);
+		final Path datei = report.write(config.getReport());
+		System.out.println("Bericht: " + datei.toAbsolutePath());
+	}
+
+	private LoadTestReport run() throws InterruptedException {
+		final Map<Operation, OperationStatistics> statistics = new LinkedHashMap<>();
+		final List<Operation> auswahl = new ArrayList<>();
+		for (Entry<Operation, Integer> entry : config.getMix().entrySet()) {
+			statistics.put(entry.getKey(), new OperationStatistics());
+			for (int i = 0; i < entry.getValue(); i++) {
+				auswahl.add(entry.getKey());
+			}
+		}
+		final OperationStatistics gesamt = new OperationStatistics();
+
+		final Random random = new Random(config.getSeed());
+		final double intervall = NANOS_PER_SECOND / config.getRate();
+		final ExecutorService executor = Executors.newFixedThreadPool(config.getThreads());
+
+		final long start = System.nanoTime();
+		final long messbeginn = start + config.getWarmup() * NANOS_PER_SECOND;
+		final long ende = messbeginn + config.getDauer() * NANOS_PER_SECOND;
+		long maxVerzoegerung = 0;
+		for (long n = 0;; n++) {
+			// Startzeitpunkt gemaess Plan, nicht abhaengig von der Antwortzeit vorheriger Requests
+			final long geplant = start + (long) (n * intervall);
+			if (geplant >= ende) {
+				break;
+			}
+			long jetzt = System.nanoTime();
+			while (jetzt < geplant) {
+				LockSupport.parkNanos(geplant - jetzt);
+				jetzt = System.nanoTime();
+			}
+			maxVerzoegerung = Math.max(maxVerzoegerung, jetzt - geplant);
+
+			final Operation op = auswahl.get(random.nextInt(auswahl.size()));
+			final String uri = config.getBaseUri() + op.getPath(config, random);
+			final boolean messen = geplant >= messbeginn;
+			executor.execute(new Request(uri, geplant,
+					                     messen ? statistics.get(op) : null,
+					                     messen ? gesamt : null));
+		}
+
+		executor.shutdown();
+		if (!executor.awaitTermination(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS)) {
+			System.err.println("Nicht alle Requests wurden innerhalb von " + TIMEOUT_SEKUNDEN + " s beendet");
+			executor.shutdownNow();
+		}
+
+		final Map<String, OperationStatistics> ergebnis = new LinkedHashMap<>();
+		for (Entry<Operation, OperationStatistics> entry : statistics.entrySet()) {
+			ergebnis.put(entry.getKey().name(), entry.getValue());
+		}
+		ergebnis.put(LoadTestReport.GESAMT, gesamt);
+		return new LoadTestReport(config.toMap(), ergebnis, config.getDauer(), maxVerzoegerung);
+	}
+
+	private static SSLSocketFactory createSocketFactory(LoadTestConfig config)
+			throws IOException, GeneralSecurityException {
+		final Path path = config.getTruststore().isEmpty()
+				          ? Paths.get(System.getenv("JBOSS_HOME"), "standalone", "configuration", TRUSTSTORE_NAME)
+				          : Paths.get(config.getTruststore());
+		final KeyStore trustStore = KeyStore.getInstance(KEYSTORE_TYPE);
+		try (final InputStream stream = Files.newInputStream(path)) {
+			trustStore.load(stream, config.getTruststorePassword().toCharArray());
+		}
+		return new SSLSocketFactory(SSLSocketFactory.TLS, null, null, trustStore, null, null,
+				                    new BrowserCompatHostnameVerifier());
+	}
+
+	/**
+	 * Ein einzelner GET-Request, der im Executor ausgefuehrt wird
+	 */
+	private final class Request implements Runnable {
+		private final String uri;
+		private final long geplant;
+		private final OperationStatistics statistics;
+		private final OperationStatistics gesamt;
+
+		Request(String uri, long geplant, OperationStatistics statistics, OperationStatistics gesamt) {
+			this.uri = uri;
+			this.geplant = geplant;
+			this.statistics = statistics;
+			this.gesamt = gesamt;
+		}
+
+		@Override
+		public void run() {
+			final long gesendet = System.nanoTime();
+			final HttpGet get = new HttpGet(uri);
+			get.setHeader(ACCEPT, MEDIA_TYPE);
+			if (authorization != null) {
+				get.setHeader(AUTHORIZATION, authorization);
+			}
+
+			boolean erfolgreich;
+			try {
+				final HttpResponse response = httpClient.execute(get);
+				erfolgreich = response.getStatusLine().getStatusCode() < SC_BAD_REQUEST;
+				// Rumpf vollstaendig lesen, damit die Verbindung in den Pool zurueckgegeben wird
+				EntityUtils.consume(response.getEntity());
+			}
+			catch (IOException e) {
+				get.abort();
+				erfolgreich = false;
+			}
+			final long ende = System.nanoTime();
+
+			if (statistics != null) {
+				statistics.record(geplant, gesendet, ende, erfolgreich);
+				gesamt.record(geplant, gesendet, ende, erfolgreich);
+			}
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package de.shop.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+
+/**
+ * Konfiguration eines Lasttests: Defaults aus loadtest.properties, die durch System Properties
+ * mit demselben Namen ueberschrieben werden koennen.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public final class LoadTestConfig {
+	private static final String DEFAULTS = "/loadtest.properties";
+	private static final String PREFIX = "loadtest.";
+	private static final String MIX_PREFIX = PREFIX + "mix.";
+
+	private final Properties properties;
+	private final String baseUri;
+	private final double rate;
+	private final int warmup;
+	private final int dauer;
+	private final int threads;
+	private final long seed;
+	private final String username;
+	private final String password;
+	private final String truststore;
+	private final String truststorePassword;
+	private final Map<Operation, Integer> mix;
+	private final List<Long> kundeIds;
+	private final List<String> nachnamen;
+	private final List<Long> bestellungIds;
+	private final List<Long> artikelIds;
+	private final Path report;
+
+	private LoadTestConfig(Properties properties) {
+		this.properties = properties;
+		baseUri = getString("baseUri");
+		rate = Double.parseDouble(getString("rate"));
+		warmup = getInt("warmup");
+		dauer = getInt("dauer");
+		threads = getInt("threads");
+		seed = Long.parseLong(getString("seed"));
+		username = getString("username");
+		password = getString("password");
+		truststore = getString("truststore");
+		truststorePassword = getString("truststorePassword");
+		kundeIds = getLongs("kundeIds");
+		nachnamen = getStrings("nachnamen");
+		bestellungIds = getLongs("bestellungIds");
+		artikelIds = getLongs("artikelIds");
+		report = Paths.get(getString("report"));
+
+		final Map<Operation, Integer> gewichte = new EnumMap<>(Operation.class);
+		for (Operation op : Operation.values()) {
+			final String gewicht = properties.getProperty(MIX_PREFIX + op.name(), "0").trim();
+			final int wert = Integer.parseInt(gewicht);
+			if (wert > 0) {
+				gewichte.put(op, wert);
+			}
+		}
+		if (gewichte.isEmpty()) {
+			throw new IllegalArgumentException("Keine Operation mit einer Gewichtung > 0 in " + MIX_PREFIX + "*");
+		}
+		mix = Collections.unmodifiableMap(gewichte);
+
+		if (rate <= 0 || dauer <= 0 || threads <= 0) {
+			throw new IllegalArgumentException("rate, dauer und threads muessen groesser als 0 sein");
+		}
+	}
+
+	/**
+	 * Konfiguration aus loadtest.properties und den System Properties einlesen
+	 * @return Die Konfiguration
+	 * @throws IOException Falls loadtest.properties nicht gelesen werden kann
+	 */
+	public static LoadTestConfig load() throws IOException {
+		final Properties properties = new Properties();
+		try (final InputStream in = LoadTestConfig.class.getResourceAsStream(DEFAULTS)) {
+			properties.load(in);
+		}
+		for (String name : System.getProperties().stringPropertyNames()) {
+			if (name.startsWith(PREFIX)) {
+				properties.setProperty(name, System.getProperty(name));
+			}
+		}
+		return new LoadTestConfig(properties);
+	}
+
+	/**
+	 * Alle Einstellungen fuer den Bericht, ohne Password
+	 * @return Einstellungen mit Namen ohne Praefix "loadtest."
+	 */
+	public Map<String, String> toMap() {
+		final Map<String, String> map = new TreeMap<>();
+		for (String name : properties.stringPropertyNames()) {
+			if (name.startsWith(PREFIX) && !name.endsWith("password") && !name.endsWith("Password")) {
+				map.put(name.substring(PREFIX.length()), properties.getProperty(name).trim());
+			}
+		}
+		return map;
+	}
+
+	private String getString(String name) {
+		final String wert = properties.getProperty(PREFIX + name);
+		if (wert == null) {
+			throw new IllegalArgumentException("Die Property " + PREFIX + name + " fehlt");
+		}
+		return wert.trim();
+	}
+
+	private int getInt(String name) {
+		return Integer.parseInt(getString(name));
+	}
+
+	private List<String> getStrings(String name) {
+		final List<String> werte = new ArrayList<>();
+		for (String wert : getString(name).split(",")) {
+			if (!wert.trim().isEmpty()) {
+				werte.add(wert.trim());
+			}
+		}
+		if (werte.isEmpty()) {
+			throw new IllegalArgumentException("Die Property " + PREFIX + name + " enthaelt keine Werte");
+		}
+		return Collections.unmodifiableList(werte);
+	}
+
+	private List<Long> getLongs(String name) {
+		final List<Long> werte = new ArrayList<>();
+		for (String wert : getStrings(name)) {
+			werte.add(Long.valueOf(wert));
+		}
+		return Collections.unmodifiableList(werte);
+	}
+
+	public String getBaseUri() {
+		return baseUri;
+	}
+
+	public double getRate() {
+		return rate;
+	}
+
+	public int getWarmup() {
+		return warmup;
+	}
+
+	public int getDauer() {
+		return dauer;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public String getTruststore() {
+		return truststore;
+	}
+
+	public String getTruststorePassword() {
+		return truststorePassword;
+	}
+
+	public Map<Operation, Integer> getMix() {
+		return mix;
+	}
+
+	public List<Long> getKundeIds() {
+		return kundeIds;
+	}
+
+	public List<String> getNachnamen() {
+		return nachnamen;
+	}
+
+	public List<Long> getBestellungIds() {
+		return bestellungIds;
+	}
+
+	public List<Long> getArtikelIds() {
+		return artikelIds;
+	}
+
+	public Path getReport() {
+		return report;
+	}
+}
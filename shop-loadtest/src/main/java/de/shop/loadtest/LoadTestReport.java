@@ -0,0 +1,145 @@
+package de.shop.loadtest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import de.shop.util.metrics.LatencyHistogram;
+
+
+/**
+ * Ergebnis eines Lasttests als Tabelle auf der Konsole und als JSON-Datei, damit die Laeufe
+ * verschiedener Builds miteinander verglichen werden koennen.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+final class LoadTestReport {
+	static final String GESAMT = "GESAMT";
+
+	private static final double[] PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+	private static final String[] PERCENTILE_NAMES = { "p50", "p90", "p99", "p99.9" };
+	private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final String ZEILE = "%-22s %8d %6d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n";
+
+	private final Date zeitpunkt = new Date();
+	private final Map<String, String> config;
+	private final Map<String, OperationStatistics> statistics;
+	private final double dauerSekunden;
+	private final long maxVerzoegerungNanos;
+
+	/**
+	 * @param config Einstellungen des Laufs
+	 * @param statistics Messwerte je Operation und fuer alle Operationen unter {@link #GESAMT}
+	 * @param dauerSekunden Dauer der Messphase
+	 * @param maxVerzoegerungNanos Max. Verspaetung des Lastgenerators gegenueber dem Plan
+	 */
+	LoadTestReport(Map<String, String> config, Map<String, OperationStatistics> statistics, double dauerSekunden,
+			       long maxVerzoegerungNanos) {
+		this.config = config;
+		this.statistics = statistics;
+		this.dauerSekunden = dauerSekunden;
+		this.maxVerzoegerungNanos = maxVerzoegerungNanos;
+	}
+
+	void print(PrintStream out) {
+		out.println();
+		out.println("Antwortzeiten in ms ab geplantem Start (korrigiert um coordinated omission)");
+		out.printf("%-22s %8s %6s %9s %9s %9s %9s %9s %9s %9s%n",
+				   "Operation", "Anzahl", "Fehler", "Req/s", "Mittel", "p50", "p90", "p99", "p99.9", "Max");
+		for (Entry<String, OperationStatistics> entry : statistics.entrySet()) {
+			final OperationStatistics stats = entry.getValue();
+			final LatencyHistogram antwortzeit = stats.getAntwortzeit();
+			final long[] percentiles = antwortzeit.getPercentiles(PERCENTILES);
+			out.printf(Locale.ROOT, ZEILE,
+					   entry.getKey(),
+					   antwortzeit.getCount(),
+					   stats.getFehler(),
+					   antwortzeit.getCount() / dauerSekunden,
+					   toMillis(antwortzeit.getMean()),
+					   toMillis(percentiles[0]),
+					   toMillis(percentiles[1]),
+					   toMillis(percentiles[2]),
+					   toMillis(percentiles[3]),
+					   toMillis(antwortzeit.getMax()));
+		}
+		out.printf(Locale.ROOT, "Max. Verzoegerung des Lastgenerators: %.2f ms%n", toMillis(maxVerzoegerungNanos));
+	}
+
+	/**
+	 * Bericht als JSON-Datei speichern
+	 * @param verzeichnis Verzeichnis fuer die Berichte
+	 * @return Pfad der neuen Datei
+	 * @throws IOException Falls die Datei nicht geschrieben werden kann
+	 */
+	Path write(Path verzeichnis) throws IOException {
+		Files.createDirectories(verzeichnis);
+		final String name = "loadtest-" + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(zeitpunkt);
+		final Path datei = verzeichnis.resolve(name + ".json");
+		try (final Writer writer = Files.newBufferedWriter(datei, UTF_8)) {
+			writer.write(toJson());
+		}
+		return datei;
+	}
+
+	String toJson() {
+		final StringBuilder sb = new StringBuilder(1024);
+		sb.append("{\n  \"zeitpunkt\": ")
+		  .append(quote(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ", Locale.ROOT).format(zeitpunkt)))
+		  .append(",\n  \"dauerSekunden\": ").append(format(dauerSekunden))
+		  .append(",\n  \"maxVerzoegerungMs\": ").append(format(toMillis(maxVerzoegerungNanos)))
+		  .append(",\n  \"config\": {");
+		String trenner = "\n    ";
+		for (Entry<String, String> entry : config.entrySet()) {
+			sb.append(trenner).append(quote(entry.getKey())).append(": ").append(quote(entry.getValue()));
+			trenner = ",\n    ";
+		}
+		sb.append("\n  },\n  \"operationen\": {");
+		trenner = "\n    ";
+		for (Entry<String, OperationStatistics> entry : statistics.entrySet()) {
+			final OperationStatistics stats = entry.getValue();
+			final long anzahl = stats.getAntwortzeit().getCount();
+			sb.append(trenner).append(quote(entry.getKey())).append(": {")
+			  .append("\n      \"anzahl\": ").append(anzahl)
+			  .append(",\n      \"fehler\": ").append(stats.getFehler())
+			  .append(",\n      \"durchsatz\": ").append(format(anzahl / dauerSekunden))
+			  .append(",\n      \"antwortzeitMs\": ");
+			appendHistogram(sb, stats.getAntwortzeit());
+			sb.append(",\n      \"servicezeitMs\": ");
+			appendHistogram(sb, stats.getServicezeit());
+			sb.append("\n    }");
+			trenner = ",\n    ";
+		}
+		sb.append("\n  }\n}\n");
+		return sb.toString();
+	}
+
+	private static void appendHistogram(StringBuilder sb, LatencyHistogram histogram) {
+		final long[] percentiles = histogram.getPercentiles(PERCENTILES);
+		sb.append("{ \"mittel\": ").append(format(toMillis(histogram.getMean())));
+		for (int i = 0; i < PERCENTILES.length; i++) {
+			sb.append(", ").append(quote(PERCENTILE_NAMES[i])).append(": ").append(format(toMillis(percentiles[i])));
+		}
+		sb.append(", \"max\": ").append(format(toMillis(histogram.getMax()))).append(" }");
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / NANOS_PER_MILLI;
+	}
+
+	private static String format(double wert) {
+		return String.format(Locale.ROOT, "%.3f", wert);
+	}
+
+	private static String quote(String str) {
+		return '"' + str.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+	}
+}
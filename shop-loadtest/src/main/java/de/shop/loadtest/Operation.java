@@ -0,0 +1,59 @@
+package de.shop.loadtest;
+
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Lesende Operationen des gemischten Workloads ueber /kunden, /bestellungen und /artikel.
+ * Die Gewichtung wird in loadtest.properties konfiguriert.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public enum Operation {
+	KUNDE_BY_ID {
+		@Override
+		String getPath(LoadTestConfig config, Random random) {
+			return "/kunden/" + pick(config.getKundeIds(), random);
+		}
+	},
+
+	KUNDEN_BY_NACHNAME {
+		@Override
+		String getPath(LoadTestConfig config, Random random) {
+			return "/kunden?nachname=" + pick(config.getNachnamen(), random);
+		}
+	},
+
+	BESTELLUNGEN_BY_KUNDE {
+		@Override
+		String getPath(LoadTestConfig config, Random random) {
+			return "/kunden/" + pick(config.getKundeIds(), random) + "/bestellungen";
+		}
+	},
+
+	BESTELLUNG_BY_ID {
+		@Override
+		String getPath(LoadTestConfig config, Random random) {
+			return "/bestellungen/" + pick(config.getBestellungIds(), random);
+		}
+	},
+
+	ARTIKEL_BY_ID {
+		@Override
+		String getPath(LoadTestConfig config, Random random) {
+			return "/artikel/" + pick(config.getArtikelIds(), random);
+		}
+	};
+
+	/**
+	 * Relativen Pfad fuer den naechsten Request ermitteln
+	 * @param config Konfiguration mit den IDs und Nachnamen der Testdaten
+	 * @param random Zufallszahlen fuer die Auswahl der Testdaten
+	 * @return Pfad relativ zur Basis-URI einschliesslich Query-Parameter
+	 */
+	abstract String getPath(LoadTestConfig config, Random random);
+
+	private static <T> T pick(List<T> werte, Random random) {
+		return werte.get(random.nextInt(werte.size()));
+	}
+}
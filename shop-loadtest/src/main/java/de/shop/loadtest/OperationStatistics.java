@@ -0,0 +1,45 @@
+package de.shop.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.shop.util.metrics.LatencyHistogram;
+
+
+/**
+ * Messwerte einer Operation waehrend der Messphase. Die Antwortzeit wird ab dem geplanten Startzeitpunkt
+ * gemessen, d.h. Wartezeiten in der Warteschlange des Lastgenerators zaehlen mit ("coordinated omission"
+ * ist damit korrigiert). Die Servicezeit wird erst ab dem tatsaechlichen Senden gemessen.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+final class OperationStatistics {
+	private final LatencyHistogram antwortzeit = new LatencyHistogram();
+	private final LatencyHistogram servicezeit = new LatencyHistogram();
+	private final AtomicLong fehler = new AtomicLong();
+
+	/**
+	 * Einen abgeschlossenen Request aufzeichnen
+	 * @param geplant Geplanter Startzeitpunkt gemaess Ankunftsrate in Nanosekunden
+	 * @param gesendet Tatsaechlicher Startzeitpunkt in Nanosekunden
+	 * @param ende Zeitpunkt, zu dem die Response vollstaendig gelesen war
+	 * @param erfolgreich false bei einem Statuscode ab 400 oder einem Verbindungsfehler
+	 */
+	void record(long geplant, long gesendet, long ende, boolean erfolgreich) {
+		antwortzeit.record(ende - geplant);
+		servicezeit.record(ende - gesendet);
+		if (!erfolgreich) {
+			fehler.incrementAndGet();
+		}
+	}
+
+	LatencyHistogram getAntwortzeit() {
+		return antwortzeit;
+	}
+
+	LatencyHistogram getServicezeit() {
+		return servicezeit;
+	}
+
+	long getFehler() {
+		return fehler.get();
+	}
+}
@@ -0,0 +1,203 @@
+-- ===============================================================================
+-- Testdaten fuer H2 (Maven-Profil "h2"), generiert aus src/main/resources/sql/load.sql:
+-- Dezimalzahlen mit Punkt statt Komma, Datumsangaben im Format yyyy-MM-dd
+-- Jede SQL-Anweisung muss in genau 1 Zeile
+-- Kommentare durch -- am Zeilenanfang
+-- ===============================================================================
+
+--
+-- kunde
+--
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES(1,0,'Admin','Admin',1,0,'2001-01-31','F',NULL,NULL,0,0,'1@hs-karlsruhe.de','a4ayc/80/OGda4BO/1o/V0etpOqiLx1JwB5S3beHW0s=',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (101,0,'Alpha','Adriana',1,1500.5,'2001-01-31','P','VH','W',1,0.1,'101@hs-karlsruhe.de','Ftw2iom0KLJIVIQxO6Z6ORLKA/KytCQpF0pPiz3ITkQ=',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (102,0,'Alpha','Alfred',1,500.5,'2002-02-28','P','L','M',1,0,'102@hs-karlsruhe.de','N4NPLyV2LyPh90pTHL5EXbc9Z2Xr5gh4p9++zX1K9uE=',NULL,'2007-08-02 00:00:00','2007-08-02 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (103,0,'Alpha','Anton',1,0.5,'2003-09-15','F',NULL,NULL,0,0.1,'103@hs-karlsruhe.de','RU9jrDDIMimX7wJe3/ar0j4NvnuKPVEmqJTkoWjBtZs=',NULL,'2007-08-03 00:00:00','2007-08-03 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (104,0,'Delta','Dirk',1,1500.5,'2004-04-30','F',NULL,NULL,1,0.15,'104@hs-karlsruhe.de','Xvb98yUTqnzRH3K+zPEyuSJNM/JxRx//QCdCiHoXHt8=',NULL,'2007-08-04 00:00:00','2007-08-04 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (105,0,'Epsilon','Emil',1,1500.5,'2005-03-31','P','G','M',0,0,'105@hs-karlsruhe.de','ElPpNz54G3UAJmyqVRUOCOIQvIzYzHDYmYXjYAFV6GA=',NULL,'2007-08-05 00:00:00','2007-08-05 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (120,0,'N','Na',1,1500.5,'2000-02-29','P','VH','M',1,0,'120@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (121,0,'N','Nb',1,1500.5,'2000-02-29','P','VH','M',1,0,'121@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (122,0,'N','Nc',1,1500.5,'2000-02-29','P','VH','M',1,0,'122@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (123,0,'N','Nd',1,1500.5,'2000-02-29','P','VH','M',1,0,'123@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (124,0,'N','Ne',1,1500.5,'2000-02-29','P','VH','M',1,0,'124@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (140,0,'Omega','Oa',1,1500.5,'2000-02-29','P','VH','M',1,0,'140@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (141,0,'Omega','Ob',2,11500.5,'2000-02-29','P','VH','M',1,0,'141@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (142,0,'Omega','Oc',3,21500.5,'2000-02-29','P','VH','M',1,0,'142@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (143,0,'Omega','Od',4,31500.5,'2000-02-29','P','VH','M',1,0,'143@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (144,0,'Omega','Oe',5,41500.5,'2000-02-29','P','VH','M',1,0,'144@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (145,0,'Omega','Of',1,51500.5,'2000-02-29','P','VH','M',1,0,'145@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (146,0,'Omega','Og',2,61500.5,'2000-02-29','P','VH','M',1,0,'146@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (147,0,'Omega','Oh',3,71500.5,'2000-02-29','P','VH','M',1,0,'147@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (148,0,'Omega','Oi',4,81500.5,'2000-02-29','P','VH','M',1,0,'148@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (149,0,'Omega','Oj',5,911500.5,'2000-02-29','P','VH','M',1,0,'149@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (150,0,'Omega','Ok',1,101500.5,'2000-02-29','P','VH','M',1,0,'150@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (151,0,'Omega','Ol',2,111500.5,'2000-02-29','P','VH','M',1,0,'151@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO kunde (id, version, nachname, vorname, kategorie, umsatz, seit, art, familienstand, geschlecht, newsletter, rabatt, email, password, bemerkungen, erzeugt, aktualisiert) VALUES (152,0,'Omega','Om',3,121500.5,'2000-02-29','P','VH','M',1,0,'152@hs-karlsruhe.de','x',NULL,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+
+--
+-- file_tbl
+--
+-- Die eigene Stored Procedure "insert_file_kunde" fuegt in die Tabelle file_tbl eine Zeile bzw. einen Datensatz ein,
+-- der u.a. eine Datei enthaelt 
+--CALL insert_file_kunde(101,1,0,'image.png','Privatkunde_101.png','png','I','01.01.2007 01:00:00','01.01.2007 01:00:00');
+--CALL insert_file_kunde(102,2,0,'video.mp4','Privatkunde_102.mp4','mp4','V','01.01.2007 01:00:00','01.01.2007 01:00:00');
+
+--
+-- kunde_rolle
+--
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (1,'admin');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (1,'mitarbeiter');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (1,'abteilungsleiter');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (1,'kunde');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (101,'admin');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (101,'mitarbeiter');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (101,'kunde');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (102,'mitarbeiter');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (102,'kunde');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (103,'mitarbeiter');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (103,'kunde');
+INSERT INTO kunde_rolle (kunde_fk, rolle) VALUES (104,'kunde');
+
+--
+-- adresse
+--
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (1,0,'76133','Karlsruhe','Moltkestrae','30',1,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (101,0,'76133','Karlsruhe','Moltkestrae','31',101,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (102,0,'76133','Karlsruhe','Moltkestrae','32',102,'2007-08-02 00:00:00','2007-08-02 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (103,0,'76133','Karlsruhe','Moltkestrae','33',103,'2007-08-03 00:00:00','2007-08-03 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (104,0,'76133','Karlsruhe','Moltkestrae','34',104,'2007-08-04 00:00:00','2007-08-04 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (105,0,'76133','Karlsruhe','Moltkestrae','35',105,'2007-08-05 00:00:00','2007-08-05 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (120,0,'76133','Karlsruhe','Moltkestrae','20',120,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (121,0,'76133','Karlsruhe','Moltkestrae','21',121,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (122,0,'76133','Karlsruhe','Moltkestrae','22',122,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (123,0,'76133','Karlsruhe','Moltkestrae','23',123,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (124,0,'76133','Karlsruhe','Moltkestrae','24',124,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (140,0,'76133','Karlsruhe','Moltkestrae','40',140,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (141,0,'76133','Karlsruhe','Moltkestrae','41',141,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (142,0,'76133','Karlsruhe','Moltkestrae','42',142,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (143,0,'76133','Karlsruhe','Moltkestrae','43',143,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (144,0,'76133','Karlsruhe','Moltkestrae','44',144,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (145,0,'76133','Karlsruhe','Moltkestrae','45',145,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (146,0,'76133','Karlsruhe','Moltkestrae','46',146,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (147,0,'76133','Karlsruhe','Moltkestrae','47',147,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (148,0,'76133','Karlsruhe','Moltkestrae','48',148,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (149,0,'76133','Karlsruhe','Moltkestrae','49',149,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (150,0,'76133','Karlsruhe','Moltkestrae','50',150,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (151,0,'76133','Karlsruhe','Moltkestrae','51',151,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+INSERT INTO adresse(id, version, plz, ort, strasse, hausnr, kunde_fk, erzeugt, aktualisiert) VALUES (152,0,'76133','Karlsruhe','Moltkestrae','52',152,'2007-08-01 00:00:00','2007-08-01 00:00:00');
+
+--
+-- kunde_hobby : S = SPORT, L = LESEN, R = REISEN
+--
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (101,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (101,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (102,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (102,'R');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (105,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (105,'R');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (120,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (120,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (121,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (121,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (122,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (122,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (123,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (123,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (124,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (124,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (140,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (140,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (141,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (141,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (142,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (142,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (143,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (143,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (144,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (144,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (145,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (145,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (146,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (146,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (147,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (147,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (148,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (148,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (149,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (149,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (150,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (150,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (151,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (151,'L');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (152,'S');
+INSERT INTO kunde_hobby (kunde_fk, hobby) VALUES (152,'L');
+
+--
+-- wartungsvertrag
+--
+INSERT INTO wartungsvertrag (nr, datum, version, inhalt, kunde_fk, idx, erzeugt, aktualisiert) VALUES (1,'2005-01-31',0,'Wartungsvertrag_1_K1',101,0,'2007-01-01 01:00:00','2007-01-01 01:00:00');
+INSERT INTO wartungsvertrag (nr, datum, version, inhalt, kunde_fk, idx, erzeugt, aktualisiert) VALUES (2,'2006-01-31',0,'Wartungsvertrag_2_K1',101,1,'2007-01-01 02:00:00','2007-01-01 02:00:00');
+INSERT INTO wartungsvertrag (nr, datum, version, inhalt, kunde_fk, idx, erzeugt, aktualisiert) VALUES (1,'2006-06-30',0,'Wartungsvertrag_1_K2',102,0,'2007-01-01 03:00:00','2007-01-01 03:00:00');
+
+--
+-- artikel
+--
+INSERT INTO artikel (id, version, bezeichnung, ausgesondert, erzeugt, aktualisiert) VALUES (300,0,'Tisch ''Oval''',0,'2007-01-01 01:00:00','2007-01-01 01:00:00');
+INSERT INTO artikel (id, version, bezeichnung, ausgesondert, erzeugt, aktualisiert) VALUES (301,0,'Stuhl ''Sitz bequem''',0,'2007-01-01 02:00:00','2007-01-01 02:00:00');
+INSERT INTO artikel (id, version, bezeichnung, ausgesondert, erzeugt, aktualisiert) VALUES (302,0,'Tr ''Hoch und breit''',0,'2007-01-01 03:00:00','2007-01-01 03:00:00');
+INSERT INTO artikel (id, version, bezeichnung, ausgesondert, erzeugt, aktualisiert) VALUES (303,0,'Fenster ''Glasklar''',0,'2007-01-01 04:00:00','2007-01-01 04:00:00');
+INSERT INTO artikel (id, version, bezeichnung, ausgesondert, erzeugt, aktualisiert) VALUES (304,0,'Spiegel ''Mach mich schner''',0,'2007-01-01 05:00:00','2007-01-01 05:00:00');
+INSERT INTO artikel (id, version, bezeichnung, ausgesondert, erzeugt, aktualisiert) VALUES (305,0,'Kleiderschrank ''Viel Platz''',0,'2007-01-01 06:00:00','2007-01-01 06:00:00');
+INSERT INTO artikel (id, version, bezeichnung, ausgesondert, erzeugt, aktualisiert) VALUES (306,0,'Bett ''Mit Holzwurm''',0,'2007-08-07 00:00:00','2007-08-07 00:00:00');
+
+--
+-- bestellung
+--
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (400,0,101,'2007-01-01 01:00:00','2007-01-01 01:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (401,0,101,'2007-01-01 02:00:00','2007-01-01 02:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (402,0,102,'2007-01-01 03:00:00','2007-01-01 03:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (403,0,102,'2007-01-01 04:00:00','2007-01-01 04:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (404,0,104,'2007-01-01 05:00:00','2007-01-01 05:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (410,0,121,'2007-01-01 06:00:00','2007-01-01 06:00:00');
+
+--
+-- bestellposition
+--
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (500,0,400,300,1,0);
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (501,0,400,301,4,1);
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (502,0,401,302,5,0);
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (503,0,402,303,3,0);
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (504,0,402,304,2,1);
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (505,0,403,305,1,0);
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (506,0,404,300,5,0);
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (507,0,404,300,2,1);
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (508,0,404,301,8,2);
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (550,0,410,302,1,0);
+INSERT INTO bestellposition (id, version, bestellung_fk, artikel_fk, anzahl, idx) VALUES (551,0,410,303,3,1);
+
+--
+-- lieferung
+--
+INSERT INTO lieferung (id, version, liefernr, transport_art, erzeugt, aktualisiert) VALUES (600,0,'20051005-001','ST','2007-01-01 01:00:00','2007-01-01 01:00:00');
+INSERT INTO lieferung (id, version, liefernr, transport_art, erzeugt, aktualisiert) VALUES (601,0,'20051005-002','SCH','2007-01-01 02:00:00','2007-01-01 02:00:00');
+INSERT INTO lieferung (id, version, liefernr, transport_art, erzeugt, aktualisiert) VALUES (602,0,'20051005-003','L','2007-01-01 03:00:00','2007-01-01 03:00:00');
+INSERT INTO lieferung (id, version, liefernr, transport_art, erzeugt, aktualisiert) VALUES (603,0,'20051008-001','W','2007-01-01 04:00:00','2007-01-01 04:00:00');
+
+--
+-- bestellung_lieferung
+--
+INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk) VALUES (400,600);
+INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk) VALUES (401,600);
+INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk) VALUES (402,601);
+INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk) VALUES (402,602);
+INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk) VALUES (403,602);
+INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk) VALUES (410,603);
+
+--
+-- lieferstatus
+--
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (400,600,'20051005-001','ST','2007-01-01 01:00:00','2007-01-01 01:00:00');
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (401,600,'20051005-001','ST','2007-01-01 01:00:00','2007-01-01 01:00:00');
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (402,601,'20051005-002','SCH','2007-01-01 02:00:00','2007-01-01 02:00:00');
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (402,602,'20051005-003','L','2007-01-01 03:00:00','2007-01-01 03:00:00');
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (403,602,'20051005-003','L','2007-01-01 03:00:00','2007-01-01 03:00:00');
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (410,603,'20051008-001','W','2007-01-01 04:00:00','2007-01-01 04:00:00');
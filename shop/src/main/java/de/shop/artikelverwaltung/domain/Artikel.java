@@ -1,7 +1,9 @@
 package de.shop.artikelverwaltung.domain;
 
+import static de.shop.util.Constants.ERSTE_GENERIERTE_ID;
 import static de.shop.util.Constants.ERSTE_VERSION;
 import static de.shop.util.Constants.KEINE_ID;
+import static javax.persistence.GenerationType.SEQUENCE;
 import static javax.persistence.TemporalType.TIMESTAMP;
 
 import java.io.Serializable;
@@ -19,6 +21,7 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.PostPersist;
 import javax.persistence.PostUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.Version;
@@ -58,6 +61,9 @@ public class Artikel implements Serializable {
 	private static final long serialVersionUID = -3700579190995722151L;
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
 	
+	private static final String ID_SEQUENCE = "artikel_seq";
+	private static final int ID_ALLOCATION_SIZE = 20;
+	
 	private static final int BEZEICHNUNG_LENGTH_MAX = 32;
 	
 	private static final String PREFIX = "Artikel."; 
@@ -68,7 +74,9 @@ public class Artikel implements Serializable {
 	public static final String PARAM_BEZEICHNUNG = "bezeichnung";
 
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, initialValue = ERSTE_GENERIERTE_ID,
+	                   allocationSize = ID_ALLOCATION_SIZE)
 	@Column(nullable = false, updatable = false)
 	private Long id = KEINE_ID;
 
@@ -17,8 +17,11 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Link;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriInfo;
 
 import org.jboss.logging.Logger;
@@ -26,6 +29,7 @@ import org.jboss.logging.Logger;
 import de.shop.artikelverwaltung.domain.Artikel;
 import de.shop.artikelverwaltung.service.ArtikelService;
 import de.shop.util.interceptor.Log;
+import de.shop.util.rest.EntityTagHelper;
 import de.shop.util.rest.NotFoundException;
 import de.shop.util.rest.UriHelper;
 
@@ -47,6 +51,9 @@ public class ArtikelResource {
 	@Inject
 	private UriHelper uriHelper;
 	
+	@Inject
+	private EntityTagHelper entityTagHelper;
+	
 	@PostConstruct
 	private void postConstruct() {
 		LOGGER.debugf("CDI-faehiges Bean %s wurde erzeugt", this);
@@ -61,18 +68,26 @@ public class ArtikelResource {
 	 * Mit der URL /artikel/{id} einen Artikel ermitteln
 	 * @param id ID des Artikels
 	 * @param uriInfo Injiziertes UriInfo-Objekt zum Aufbau des Link-Headers
+	 * @param request Injiziertes Request-Objekt zur Auswertung von "If-None-Match"
 	 * @return Objekt mit Artikeldaten, falls die ID vorhanden ist
 	 */
 	@GET
 	@Path("{id:[1-9][0-9]*}")
-	public Response findArtikelById(@PathParam("id") Long id, @Context UriInfo uriInfo) {
+	public Response findArtikelById(@PathParam("id") Long id, @Context UriInfo uriInfo, @Context Request request) {
 		final Artikel artikel = as.findArtikelById(id);
 		if (artikel == null) {
 			throw new NotFoundException(NOT_FOUND_ID, id);
 		}
+		
+		final EntityTag etag = entityTagHelper.getEntityTag(artikel.getId(), artikel.getVersion());
+		final ResponseBuilder notModified = request.evaluatePreconditions(etag);
+		if (notModified != null) {
+			return notModified.build();
+		}
 
 		return Response.ok(artikel)
 	                   .links(getTransitionalLinks(artikel, uriInfo))
+	                   .tag(etag)
 	                   .build();
 	}
 	
@@ -20,7 +20,9 @@ import org.jboss.logging.Logger;
 import com.google.common.base.Strings;
 
 import de.shop.artikelverwaltung.domain.Artikel;
+import de.shop.util.interceptor.Coalesced;
 import de.shop.util.interceptor.Log;
+import de.shop.util.interceptor.ReadOnly;
 
 
 /**
@@ -49,6 +51,7 @@ public class ArtikelService implements Serializable {
 	 * Verfuegbare Artikel ermitteln
 	 * @return Liste der verfuegbaren Artikel
 	 */
+	@ReadOnly
 	public List<Artikel> findVerfuegbareArtikel() {
 		return em.createNamedQuery(Artikel.FIND_VERFUEGBARE_ARTIKEL, Artikel.class)
 				 .getResultList();
@@ -60,6 +63,7 @@ public class ArtikelService implements Serializable {
 	 * @param id ID des gesuchten Artikels
 	 * @return Der Artikel zur gegebenen ID oder null, falls es keinen gibt.
 	 */
+	@Coalesced
 	public Artikel findArtikelById(Long id) {
 		return em.find(Artikel.class, id);
 	}
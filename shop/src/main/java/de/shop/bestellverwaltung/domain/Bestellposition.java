@@ -1,7 +1,9 @@
 package de.shop.bestellverwaltung.domain;
 
+import static de.shop.util.Constants.ERSTE_GENERIERTE_ID;
 import static de.shop.util.Constants.ERSTE_VERSION;
 import static de.shop.util.Constants.KEINE_ID;
+import static javax.persistence.GenerationType.SEQUENCE;
 
 import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
@@ -18,6 +20,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.PostPersist;
 import javax.persistence.PostUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.persistence.Version;
@@ -39,10 +42,15 @@ public class Bestellposition implements Serializable {
 	private static final long serialVersionUID = 1031749849939138054L;
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
 	
+	private static final String ID_SEQUENCE = "bestellposition_seq";
+	private static final int ID_ALLOCATION_SIZE = 50;
+	
 	private static final int ANZAHL_MIN = 1;
 
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, initialValue = ERSTE_GENERIERTE_ID,
+	                   allocationSize = ID_ALLOCATION_SIZE)
 	@Column(nullable = false, updatable = false)
 	private Long id = KEINE_ID;
 
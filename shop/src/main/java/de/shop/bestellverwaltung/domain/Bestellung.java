@@ -1,10 +1,12 @@
 package de.shop.bestellverwaltung.domain;
 
+import static de.shop.util.Constants.ERSTE_GENERIERTE_ID;
 import static de.shop.util.Constants.ERSTE_VERSION;
 import static de.shop.util.Constants.KEINE_ID;
 import static javax.persistence.CascadeType.PERSIST;
 import static javax.persistence.CascadeType.REMOVE;
 import static javax.persistence.FetchType.EAGER;
+import static javax.persistence.GenerationType.SEQUENCE;
 import static javax.persistence.TemporalType.TIMESTAMP;
 
 import java.io.Serializable;
@@ -39,6 +41,7 @@ import javax.persistence.PostPersist;
 import javax.persistence.PostUpdate;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.Transient;
@@ -85,7 +88,24 @@ import de.shop.kundenverwaltung.domain.AbstractKunde;
                 query = "SELECT COUNT(b)"
                         + " FROM   AbstractKunde k JOIN k.bestellungen b"
                         + " WHERE  k.adresse.plz BETWEEN :" + Bestellung.PARAM_PLZ_MIN
-                        +        " AND :" + Bestellung.PARAM_PLZ_MAX)
+                        +        " AND :" + Bestellung.PARAM_PLZ_MAX),
+	// Grundlage fuer die PLZ-Statistik im Hauptspeicher
+	@NamedQuery(name  = Bestellung.FIND_ANZ_BESTELLUNGEN_GROUP_BY_PLZ,
+                query = "SELECT   a.plz, COUNT(b)"
+                        + " FROM     Bestellung b JOIN b.kunde k JOIN k.adresse a"
+                        + " GROUP BY a.plz"),
+	// Grundlage fuer Sammellieferungen: Bestellungen ohne Lieferung, nach PLZ sortiert
+	@NamedQuery(name  = Bestellung.FIND_OFFENE_BESTELLUNGEN_PLZ,
+                query = "SELECT   b.id, a.plz"
+                        + " FROM     Bestellung b JOIN b.kunde k JOIN k.adresse a"
+                        + " WHERE    b.lieferungen IS EMPTY"
+                        + " ORDER BY a.plz, b.id"),
+	// Projektion fuer den Export: 1 Zeile pro Bestellposition
+	@NamedQuery(name  = Bestellung.EXPORT_BESTELLUNGEN,
+                query = "SELECT   b.id, b.kunde.id, b.erzeugt, bp.id, bp.artikel.id, bp.anzahl"
+                        + " FROM     Bestellung b JOIN b.bestellpositionen bp"
+                        + " WHERE    b.erzeugt >= :" + Bestellung.PARAM_ERZEUGT
+                        + " ORDER BY b.id, bp.id")
 })
 @Cacheable
 @XmlRootElement
@@ -93,6 +113,9 @@ public class Bestellung implements Serializable {
 	private static final long serialVersionUID = 7560752199018702446L;
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
 	
+	private static final String ID_SEQUENCE = "bestellung_seq";
+	private static final int ID_ALLOCATION_SIZE = 20;
+	
 	private static final String PREFIX = "Bestellung.";
 	public static final String FIND_BESTELLUNGEN_BY_KUNDEID = PREFIX + "findBestellungenByKundeId";
 	public static final String FIND_BESTELLUNGEN_BY_KUNDEID_FETCH_LIEFERUNGEN =
@@ -102,14 +125,20 @@ public class Bestellung implements Serializable {
 		                       PREFIX + "findBestellungenByIdFetchLieferungen";
 	public static final String FIND_ANZ_BESTELLUNGEN_BY_PLZ_V1 = PREFIX + "findAnzBestellungenByPlzV1";
 	public static final String FIND_ANZ_BESTELLUNGEN_BY_PLZ_V2 = PREFIX + "findAnzBestellungenByPlzV2";
+	public static final String FIND_ANZ_BESTELLUNGEN_GROUP_BY_PLZ = PREFIX + "findAnzBestellungenGroupByPlz";
+	public static final String FIND_OFFENE_BESTELLUNGEN_PLZ = PREFIX + "findOffeneBestellungenPlz";
+	public static final String EXPORT_BESTELLUNGEN = PREFIX + "exportBestellungen";
 	
 	public static final String PARAM_KUNDEID = "kundeId";
 	public static final String PARAM_ID = "id";
 	public static final String PARAM_PLZ_MIN = "min";
 	public static final String PARAM_PLZ_MAX = "max";
+	public static final String PARAM_ERZEUGT = "erzeugt";
 
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, initialValue = ERSTE_GENERIERTE_ID,
+	                   allocationSize = ID_ALLOCATION_SIZE)
 	@Column(nullable = false, updatable = false)
 	private Long id = KEINE_ID;
 
@@ -125,7 +154,7 @@ public class Bestellung implements Serializable {
 	private List<Bestellposition> bestellpositionen;
 
 	@ManyToOne
-	@JoinColumn(name = "kunde_fk", nullable = false, insertable = false, updatable = false)
+	@JoinColumn(name = "kunde_fk", nullable = false, updatable = false)
 	//NICHT @NotNull, weil der Kunde durch den Principal implizit festgelegt ist
 	//NICHT @Valid, weil der Kunde bereits vor der Bestellung existiert
 	@XmlTransient
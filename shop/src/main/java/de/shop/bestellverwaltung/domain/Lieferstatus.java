@@ -0,0 +1,248 @@
+package de.shop.bestellverwaltung.domain;
+
+import static javax.persistence.TemporalType.TIMESTAMP;
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Basic;
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+
+
+/**
+ * Lieferstatus einer Bestellung: 1 Datensatz pro Bestellung und Lieferung mit den Daten der Lieferung, die
+ * fuer die Auskunft benoetigt werden. Die Datensaetze werden beim Anlegen einer Lieferung geschrieben und
+ * danach nicht mehr geaendert, so dass sie ueber den Index fuer bestellung_fk bzw. aus dem L2-Cache gelesen
+ * werden koennen, ohne die Tabellen lieferung und bestellung_lieferung zu verknuepfen. Der Primaerschluessel
+ * besteht aus den beiden Fremdschluesseln, damit Sammellieferungen den Lieferstatus mit 1 INSERT ... SELECT
+ * ohne Sequenz anlegen koennen.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Entity
+@Table(indexes = @Index(columnList = "bestellung_fk"))
+@NamedQueries({
+	@NamedQuery(name  = Lieferstatus.FIND_LIEFERSTATUS_BY_BESTELLUNG_ID,
+                query = "SELECT   s"
+                        + " FROM     Lieferstatus s"
+                        + " WHERE    s.bestellungId = :" + Lieferstatus.PARAM_BESTELLUNG_ID
+                        + " ORDER BY s.erzeugt, s.lieferungId",
+                hints = @QueryHint(name = CACHEABLE, value = "true"))
+})
+@IdClass(Lieferstatus.LieferstatusId.class)
+@Cacheable
+@XmlRootElement
+public class Lieferstatus implements Serializable {
+	private static final long serialVersionUID = -2795233962314128340L;
+
+	private static final int LIEFERNR_LENGTH_MAX = 12;
+
+	private static final String PREFIX = "Lieferstatus.";
+	public static final String FIND_LIEFERSTATUS_BY_BESTELLUNG_ID = PREFIX + "findLieferstatusByBestellungId";
+	public static final String PARAM_BESTELLUNG_ID = "bestellungId";
+
+	// Nur die Fremdschluessel, damit beim Lesen weder Bestellung noch Lieferung geladen werden
+	@Id
+	@Column(name = "bestellung_fk", nullable = false, updatable = false)
+	@XmlTransient
+	private Long bestellungId;
+
+	@Id
+	@Column(name = "lieferung_fk", nullable = false, updatable = false)
+	private Long lieferungId;
+
+	@Column(name = "liefernr", length = LIEFERNR_LENGTH_MAX, nullable = false, updatable = false)
+	private String lieferNr;
+
+	@Column(name = "transport_art", length = 3, updatable = false)
+	private TransportType transportArt;
+
+	// Zeitpunkte der Lieferung, nicht des Datensatzes
+	@Basic(optional = false)
+	@Temporal(TIMESTAMP)
+	private Date erzeugt;
+
+	@Basic(optional = false)
+	@Temporal(TIMESTAMP)
+	private Date aktualisiert;
+
+	public Lieferstatus() {
+		super();
+	}
+
+	public Lieferstatus(Long bestellungId, Lieferung lieferung) {
+		super();
+		this.bestellungId = bestellungId;
+		lieferungId = lieferung.getId();
+		lieferNr = lieferung.getLieferNr();
+		transportArt = lieferung.getTransportArt();
+		erzeugt = lieferung.getErzeugt();
+		aktualisiert = lieferung.getAktualisiert();
+	}
+
+	public Long getBestellungId() {
+		return bestellungId;
+	}
+	public void setBestellungId(Long bestellungId) {
+		this.bestellungId = bestellungId;
+	}
+
+	public Long getLieferungId() {
+		return lieferungId;
+	}
+	public void setLieferungId(Long lieferungId) {
+		this.lieferungId = lieferungId;
+	}
+
+	public String getLieferNr() {
+		return lieferNr;
+	}
+	public void setLieferNr(String lieferNr) {
+		this.lieferNr = lieferNr;
+	}
+
+	public TransportType getTransportArt() {
+		return transportArt;
+	}
+	public void setTransportArt(TransportType transportArt) {
+		this.transportArt = transportArt;
+	}
+
+	public Date getErzeugt() {
+		return erzeugt == null ? null : (Date) erzeugt.clone();
+	}
+	public void setErzeugt(Date erzeugt) {
+		this.erzeugt = erzeugt == null ? null : (Date) erzeugt.clone();
+	}
+
+	public Date getAktualisiert() {
+		return aktualisiert == null ? null : (Date) aktualisiert.clone();
+	}
+	public void setAktualisiert(Date aktualisiert) {
+		this.aktualisiert = aktualisiert == null ? null : (Date) aktualisiert.clone();
+	}
+
+	@Override
+	public String toString() {
+		return "Lieferstatus [bestellungId=" + bestellungId + ", lieferungId=" + lieferungId
+		       + ", lieferNr=" + lieferNr
+		       + ", transportArt=" + transportArt
+		       + ", erzeugt=" + erzeugt
+		       + ", aktualisiert=" + aktualisiert + ']';
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((bestellungId == null) ? 0 : bestellungId.hashCode());
+		result = prime * result + ((lieferungId == null) ? 0 : lieferungId.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		final Lieferstatus other = (Lieferstatus) obj;
+		if (bestellungId == null) {
+			if (other.bestellungId != null) {
+				return false;
+			}
+		}
+		else if (!bestellungId.equals(other.bestellungId)) {
+			return false;
+		}
+		if (lieferungId == null) {
+			if (other.lieferungId != null) {
+				return false;
+			}
+		}
+		else if (!lieferungId.equals(other.lieferungId)) {
+			return false;
+		}
+		return true;
+	}
+	
+	public static class LieferstatusId implements Serializable {
+		private static final long serialVersionUID = 4217380927516439211L;
+
+		private Long bestellungId;
+		private Long lieferungId;
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((bestellungId == null) ? 0 : bestellungId.hashCode());
+			result = prime * result + ((lieferungId == null) ? 0 : lieferungId.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null) {
+				return false;
+			}
+			if (getClass() != obj.getClass()) {
+				return false;
+			}
+			final LieferstatusId other = (LieferstatusId) obj;
+			if (bestellungId == null) {
+				if (other.bestellungId != null) {
+					return false;
+				}
+			}
+			else if (!bestellungId.equals(other.bestellungId)) {
+				return false;
+			}
+			if (lieferungId == null) {
+				if (other.lieferungId != null) {
+					return false;
+				}
+			}
+			else if (!lieferungId.equals(other.lieferungId)) {
+				return false;
+			}
+			return true;
+		}
+
+		public Long getBestellungId() {
+			return bestellungId;
+		}
+
+		public void setBestellungId(Long bestellungId) {
+			this.bestellungId = bestellungId;
+		}
+
+		public Long getLieferungId() {
+			return lieferungId;
+		}
+
+		public void setLieferungId(Long lieferungId) {
+			this.lieferungId = lieferungId;
+		}
+	}
+}
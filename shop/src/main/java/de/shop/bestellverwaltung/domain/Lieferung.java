@@ -1,8 +1,10 @@
 package de.shop.bestellverwaltung.domain;
 
+import static de.shop.util.Constants.ERSTE_GENERIERTE_ID;
 import static de.shop.util.Constants.ERSTE_VERSION;
 import static de.shop.util.Constants.KEINE_ID;
 import static javax.persistence.CascadeType.PERSIST;
+import static javax.persistence.GenerationType.SEQUENCE;
 import static javax.persistence.TemporalType.TIMESTAMP;
 
 import java.io.Serializable;
@@ -27,6 +29,7 @@ import javax.persistence.PostPersist;
 import javax.persistence.PostUpdate;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Temporal;
 import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
@@ -53,6 +56,9 @@ public class Lieferung implements Serializable {
 	private static final long serialVersionUID = 7560752199018702446L;
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
 	
+	private static final String ID_SEQUENCE = "lieferung_seq";
+	private static final int ID_ALLOCATION_SIZE = 20;
+	
 	private static final int LIEFERNR_LENGTH_MAX = 12;
 	
 	private static final String PREFIX = "Lieferung.";
@@ -62,7 +68,9 @@ public class Lieferung implements Serializable {
 
 	
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, initialValue = ERSTE_GENERIERTE_ID,
+	                   allocationSize = ID_ALLOCATION_SIZE)
 	@Column(nullable = false, updatable = false)
 	private Long id = KEINE_ID;
 
@@ -1,12 +1,16 @@
 package de.shop.bestellverwaltung.rest;
 
 import static de.shop.util.Constants.ADD_LINK;
+import static de.shop.util.Constants.CSV;
+import static de.shop.util.Constants.NDJSON;
 import static de.shop.util.Constants.SELF_LINK;
+import static de.shop.util.rest.AsyncResponseHelper.Pool.BESTELLUNGEN;
+import static de.shop.util.rest.ExportOutput.DATUM_PATTERN;
+import static de.shop.util.rest.SmileProvider.APPLICATION_SMILE;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static javax.ws.rs.core.MediaType.TEXT_XML;
-import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 
 import java.lang.invoke.MethodHandles;
 import java.net.URI;
@@ -14,21 +18,30 @@ import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
-import javax.transaction.Transactional;
 import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.Link;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.jboss.logging.Logger;
@@ -38,11 +51,16 @@ import de.shop.artikelverwaltung.rest.ArtikelResource;
 import de.shop.artikelverwaltung.service.ArtikelService;
 import de.shop.bestellverwaltung.domain.Bestellposition;
 import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.bestellverwaltung.domain.Lieferstatus;
 import de.shop.bestellverwaltung.service.BestellungService;
 import de.shop.bestellverwaltung.service.BestellungService.FetchType;
+import de.shop.bestellverwaltung.service.PlzStatistik;
 import de.shop.kundenverwaltung.domain.AbstractKunde;
 import de.shop.kundenverwaltung.rest.KundeResource;
 import de.shop.util.interceptor.Log;
+import de.shop.util.rest.AsyncResponseHelper;
+import de.shop.util.rest.EntityTagHelper;
+import de.shop.util.rest.ExportOutput;
 import de.shop.util.rest.NotFoundException;
 import de.shop.util.rest.UriHelper;
 
@@ -51,7 +69,7 @@ import de.shop.util.rest.UriHelper;
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
  */
 @Path("/bestellungen")
-@Produces({ APPLICATION_JSON, APPLICATION_XML + ";qs=0.75", TEXT_XML + ";qs=0.5" })
+@Produces({ APPLICATION_JSON, APPLICATION_XML + ";qs=0.75", TEXT_XML + ";qs=0.5", APPLICATION_SMILE + ";qs=0.25" })
 @Consumes
 @Log
 public class BestellungResource {
@@ -59,10 +77,25 @@ public class BestellungResource {
 	private static final String NOT_FOUND_ID = "bestellung.notFound.id";
 	private static final String NOT_FOUND_USERNAME = "bestellung.notFound.username";
 	private static final String NOT_FOUND_ID_ARTIKEL = "artikel.notFound.id";
+
+	public static final String BESTELLUNGEN_ERZEUGT_QUERY_PARAM = "erzeugt";
+	public static final String BESTELLUNGEN_PLZ_MIN_QUERY_PARAM = "min";
+	public static final String BESTELLUNGEN_PLZ_MAX_QUERY_PARAM = "max";
+	
+	private static final String PLZ_PRAEFIX_PATTERN = "\\d{0,5}";
+	
+	private static final long CREATE_BESTELLUNG_TIMEOUT_MILLIS = 10000;
+	
+	// Reihenfolge wie in der SELECT-Klausel von Bestellung.EXPORT_BESTELLUNGEN
+	private static final String[] EXPORT_SPALTEN = { "id", "kundeId", "erzeugt", "bestellpositionId", "artikelId",
+		                                             "anzahl" };
 	
 	@Context
 	private UriInfo uriInfo;
 	
+	@Context
+	private Request request;
+	
     @Inject
 	private ArtikelResource artikelResource;
 	
@@ -75,9 +108,18 @@ public class BestellungResource {
 	@Inject
 	private ArtikelService as;
 	
+	@Inject
+	private PlzStatistik plzStatistik;
+	
 	@Inject
 	private UriHelper uriHelper;
 	
+	@Inject
+	private EntityTagHelper entityTagHelper;
+	
+	@Inject
+	private AsyncResponseHelper asyncResponseHelper;
+	
 	@Inject
 	private Principal principal;
 	
@@ -103,6 +145,13 @@ public class BestellungResource {
 		if (bestellung == null) {
 			throw new NotFoundException(NOT_FOUND_ID, id);
 		}
+		
+		// Unveraendert seit "If-None-Match"? Dann 304 ohne Serialisierung
+		final EntityTag etag = entityTagHelper.getEntityTag(bestellung.getId(), bestellung.getVersion());
+		final ResponseBuilder notModified = request.evaluatePreconditions(etag);
+		if (notModified != null) {
+			return notModified.build();
+		}
 
 		// URIs innerhalb der gefundenen Bestellung anpassen
 		setStructuralLinks(bestellung, uriInfo);
@@ -110,6 +159,7 @@ public class BestellungResource {
 		// Link-Header setzen
 		return Response.ok(bestellung)
                        .links(getTransitionalLinks(bestellung, uriInfo))
+                       .tag(etag)
                        .build();
 	}
 	
@@ -148,6 +198,55 @@ public class BestellungResource {
 	}
 
 	
+	/**
+	 * Mit der URL /bestellungen/export alle Bestellungen mit ihren Bestellpositionen als NDJSON ermitteln,
+	 * ohne die Liste im Speicher aufzubauen, z.B. statt /kunden/{id}/bestellungen fuer jeden Kunden.
+	 * @param erzeugt Nur Bestellungen, die ab diesem Zeitpunkt erzeugt wurden
+	 * @return Rumpf mit 1 Zeile pro Bestellposition, der direkt aus der DB gelesen wird
+	 */
+	@GET
+	@Path("/export")
+	@Produces(NDJSON)
+	public StreamingOutput exportBestellungenNdjson(@QueryParam(BESTELLUNGEN_ERZEUGT_QUERY_PARAM)
+	                                                @Pattern(regexp = DATUM_PATTERN, message = "{export.datum}")
+	                                                String erzeugt) {
+		return ExportOutput.ndjson(bs.exportBestellungen(ExportOutput.toDate(erzeugt)), EXPORT_SPALTEN);
+	}
+	
+	/**
+	 * Mit der URL /bestellungen/export alle Bestellungen mit ihren Bestellpositionen als CSV ermitteln.
+	 * @param erzeugt Nur Bestellungen, die ab diesem Zeitpunkt erzeugt wurden
+	 * @return Rumpf mit Kopfzeile und 1 Zeile pro Bestellposition, der direkt aus der DB gelesen wird
+	 */
+	@GET
+	@Path("/export")
+	@Produces(CSV + ";qs=0.5")
+	public StreamingOutput exportBestellungenCsv(@QueryParam(BESTELLUNGEN_ERZEUGT_QUERY_PARAM)
+	                                             @Pattern(regexp = DATUM_PATTERN, message = "{export.datum}")
+	                                             String erzeugt) {
+		return ExportOutput.csv(bs.exportBestellungen(ExportOutput.toDate(erzeugt)), EXPORT_SPALTEN);
+	}
+	
+	/**
+	 * Mit der URL /bestellungen/statistik/plz die Anzahl der Bestellungen in einem Bereich von Postleitzahlen
+	 * ermitteln, z.B. mit min=7 und max=76 fuer die Postleitzahlen von 70000 bis 76999. Die Anzahl wird aus
+	 * Zaehlern im Hauptspeicher ermittelt und nicht aus der DB.
+	 * @param min Die ersten Ziffern der kleinsten Postleitzahl; ohne Angabe ab 00000
+	 * @param max Die ersten Ziffern der groessten Postleitzahl; ohne Angabe bis 99999
+	 * @return Anzahl der Bestellungen
+	 */
+	@GET
+	@Path("/statistik/plz")
+	@Produces({ APPLICATION_JSON, TEXT_PLAIN })
+	public Long countBestellungenByPlz(@QueryParam(BESTELLUNGEN_PLZ_MIN_QUERY_PARAM)
+	                                   @Pattern(regexp = PLZ_PRAEFIX_PATTERN, message = "{bestellung.plz.praefix}")
+	                                   String min,
+	                                   @QueryParam(BESTELLUNGEN_PLZ_MAX_QUERY_PARAM)
+	                                   @Pattern(regexp = PLZ_PRAEFIX_PATTERN, message = "{bestellung.plz.praefix}")
+	                                   String max) {
+		return plzStatistik.countBestellungen(min, max);
+	}
+	
 	/**
 	 * Mit der URL /bestellungen/{id}/kunde den Kunden einer Bestellung ermitteln
 	 * @param id ID der Bestellung
@@ -170,45 +269,55 @@ public class BestellungResource {
 	}
 	
 	/**
-	 * Mit der URL /bestellungen/{id}/lieferungen die Lieferung ermitteln
-	 * zu einer bestimmten Bestellung ermitteln
+	 * Mit der URL /bestellungen/{id}/lieferungen den Lieferstatus zu einer bestimmten Bestellung ermitteln:
+	 * Liefernummer, Transportart und Zeitpunkte jeder Lieferung
 	 * @param id ID der Bestellung
-	 * @return Objekt mit Lieferdaten, falls die ID vorhanden ist
+	 * @return Liste mit Lieferdaten, leer falls die Bestellung noch nicht geliefert wurde
 	 */
 	@GET
 	@Path("{id:[1-9][0-9]*}/lieferungen")
 	public Response findLieferungenByBestellungId(@PathParam("id") Long id) {
-		// Diese Methode ist bewusst NICHT implementiert, um zu zeigen,
-		// wie man Methodensignaturen an der Schnittstelle fuer andere
-		// Teammitglieder schon mal bereitstellt, indem einfach ein "Internal
-		// Server Error (500)" produziert wird.
-		// Die Kolleg/inn/en koennen nun weiterarbeiten, waehrend man selbst
-		// gerade keine Zeit hat, weil andere Aufgaben Vorrang haben.
+		final List<Lieferstatus> lieferstatus = bs.findLieferstatusByBestellungId(id);
 		
-		// TODO findLieferungenByBestellungId noch nicht implementiert
-		return Response.status(INTERNAL_SERVER_ERROR)
-				       .entity("findLieferungenByBestellungId: NOT YET IMPLEMENTED")
-				       .type(TEXT_PLAIN)
-				       .build();
+		// Nur ohne Lieferstatus pruefen, ob es die Bestellung ueberhaupt gibt
+		if (lieferstatus.isEmpty() && bs.findBestellungById(id, FetchType.NUR_BESTELLUNG) == null) {
+			throw new NotFoundException(NOT_FOUND_ID, id);
+		}
+		
+		return Response.ok(new GenericEntity<List<Lieferstatus>>(lieferstatus) {})
+		               .build();
 	}
 
 	
 	/**
-	 * Mit der URL /bestellverwaltung/bestellungen eine neue Bestellung anlegen
+	 * Mit der URL /bestellverwaltung/bestellungen eine neue Bestellung anlegen. Die Bestellung wird
+	 * asynchron in einer eigenen Transaktion angelegt, damit langsame Bestellungen keine Request-Threads belegen.
 	 * @param bestellung die neue Bestellung
-	 * @return Objekt mit Bestelldaten, falls die ID vorhanden ist
+	 * @param uriInfo Die URI des Requests fuer die URI der neuen Bestellung
+	 * @param asyncResponse Response mit der URI der neuen Bestellung bzw. 503 ohne "Retry-After" nach einem
+	 *        Timeout; die Transaktion wurde dann zurueckgerollt, d.h. die Bestellung wurde nicht angelegt
 	 */
 	@POST
 	@Consumes({ APPLICATION_JSON, APPLICATION_XML, TEXT_XML })
-	@Transactional
-	public Response createBestellung(@Valid Bestellung bestellung) {
+	public void createBestellung(@Valid final Bestellung bestellung,
+			                     @Context final UriInfo uriInfo,
+			                     @Suspended AsyncResponse asyncResponse) {
+		// Username aus dem Principal im Request-Thread ermitteln
+		final String username = principal.getName();
+		asyncResponseHelper.executeTransactional(asyncResponse, BESTELLUNGEN, CREATE_BESTELLUNG_TIMEOUT_MILLIS,
+				                                 new Callable<Response>() {
+			@Override
+			public Response call() {
+				return createBestellung(bestellung, username, uriInfo);
+			}
+		});
+	}
+	
+	private Response createBestellung(Bestellung bestellung, String username, UriInfo uriInfo) {
 		if (bestellung == null) {
 			return null;
 		}
 		
-		// Username aus dem Principal ermitteln
-		final String username = principal.getName();
-		
 		// IDs der (persistenten) Artikel ermitteln
 		final Collection<Bestellposition> bestellpositionen = bestellung.getBestellpositionen();
 		final List<Long> artikelIds = new ArrayList<>(bestellpositionen.size());
@@ -3,9 +3,9 @@ package de.shop.bestellverwaltung.service;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.Executor;
 
 import javax.annotation.PostConstruct;
-import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
@@ -21,6 +21,7 @@ import org.jboss.logging.Logger;
 import de.shop.bestellverwaltung.domain.Bestellposition;
 import de.shop.bestellverwaltung.domain.Bestellung;
 import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.util.concurrency.Blockierend;
 import de.shop.util.interceptor.Log;
 import de.shop.util.mail.AbsenderMail;
 import de.shop.util.mail.AbsenderName;
@@ -47,7 +48,8 @@ public class BestellungObserver implements Serializable {
 	private String absenderName;
 	
 	@Inject
-	private transient ManagedExecutorService managedExecutorService;
+	@Blockierend
+	private transient Executor ioExecutor;
 
 	@PostConstruct
 	private void postConstruct() {
@@ -108,6 +110,6 @@ public class BestellungObserver implements Serializable {
 			}
 		};
 		
-		managedExecutorService.execute(sendMail);
+		ioExecutor.execute(sendMail);
 	}
 }
@@ -0,0 +1,148 @@
+package de.shop.bestellverwaltung.service;
+
+import static javax.ejb.TransactionAttributeType.NOT_SUPPORTED;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.ejb.Schedule;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.hibernate.HibernateException;
+import org.jboss.logging.Logger;
+
+import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.bestellverwaltung.domain.TransportType;
+import de.shop.util.interceptor.Log;
+
+/**
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Stateless
+@Log
+public class BestellungScheduler {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
+
+	// Sammellieferungen pro Leitregion, d.h. nach den ersten beiden Ziffern der PLZ
+	private static final int PLZ_PRAEFIX_LAENGE = 2;
+	// Bestellungen haben (noch) keine Transportart
+	private static final TransportType TRANSPORT_ART_STANDARD = TransportType.STRASSE;
+	private static final int MAX_BESTELLUNGEN_PRO_LAUF = 20000;
+	// Bestellungen pro Sammellieferung, d.h. Groesse der IN-Liste beim INSERT der Zuordnungen
+	private static final int MAX_BESTELLUNGEN_PRO_LIEFERUNG = 500;
+
+	@Inject
+	private EntityManager em;
+
+	@Inject
+	private BestellungService bs;
+
+	@Inject
+	private PlzStatistik plzStatistik;
+
+	/**
+	 * Die Zaehler der PLZ-Statistik regelmaessig mit der DB abgleichen, z.B. nach Umzuegen von Kunden
+	 */
+	@Schedule(hour = "*", minute = "*/15", persistent = false)
+	public void plzStatistikAbgleichen() {
+		plzStatistik.abgleichen();
+	}
+
+	/**
+	 * Offene Bestellungen, d.h. Bestellungen ohne Lieferung, nach PLZ-Praefix und Transportart gruppieren und
+	 * pro Gruppe Sammellieferungen mit hoechstens MAX_BESTELLUNGEN_PRO_LIEFERUNG Bestellungen anlegen.
+	 * Gelesen werden nur IDs und Postleitzahlen; jede Sammellieferung wird in einer eigenen Transaktion mit
+	 * 4 SQL-Anweisungen geschrieben, so dass ein Fehler nur die betroffene Teilmenge zuruecksetzt. Die Bestellungen
+	 * der Teilmenge werden dabei zuerst gesperrt: Ueberlappende Laeufe, auch auf anderen Knoten im Cluster, ordnen
+	 * eine Bestellung deshalb nicht mehreren Sammellieferungen zu.
+	 */
+	@Schedule(hour = "*", minute = "30", persistent = false)
+	@TransactionAttribute(NOT_SUPPORTED)
+	public void lieferungenBuendeln() {
+		final List<Object[]> offen = em.createNamedQuery(Bestellung.FIND_OFFENE_BESTELLUNGEN_PLZ, Object[].class)
+		                               .setMaxResults(MAX_BESTELLUNGEN_PRO_LAUF)
+		                               .getResultList();
+		if (offen.isEmpty()) {
+			return;
+		}
+
+		final Map<Gruppe, List<Long>> gruppen = new LinkedHashMap<>();
+		for (Object[] zeile : offen) {
+			final String plz = (String) zeile[1];
+			final String praefix = plz.length() > PLZ_PRAEFIX_LAENGE ? plz.substring(0, PLZ_PRAEFIX_LAENGE) : plz;
+			final Gruppe gruppe = new Gruppe(praefix, TRANSPORT_ART_STANDARD);
+			List<Long> ids = gruppen.get(gruppe);
+			if (ids == null) {
+				ids = new ArrayList<>();
+				gruppen.put(gruppe, ids);
+			}
+			ids.add((Long) zeile[0]);
+		}
+
+		int lieferungen = 0;
+		int bestellungen = 0;
+		for (Entry<Gruppe, List<Long>> entry : gruppen.entrySet()) {
+			final List<Long> ids = entry.getValue();
+			for (int von = 0; von < ids.size(); von += MAX_BESTELLUNGEN_PRO_LIEFERUNG) {
+				final List<Long> teilmenge = ids.subList(von, Math.min(von + MAX_BESTELLUNGEN_PRO_LIEFERUNG,
+				                                                       ids.size()));
+				try {
+					final int anzahl = bs.createSammellieferung(teilmenge, entry.getKey().transportArt);
+					if (anzahl > 0) {
+						lieferungen++;
+						bestellungen += anzahl;
+					}
+				}
+				catch (PersistenceException | HibernateException e) {
+					// Die Transaktion der Teilmenge wurde zurueckgerollt, die uebrigen Teilmengen bleiben erhalten
+					LOGGER.warnf(e, "Sammellieferung fuer %s nicht angelegt", entry.getKey());
+				}
+			}
+		}
+		LOGGER.infof("%d Sammellieferungen fuer %d Bestellungen in %d Gruppen angelegt",
+		             lieferungen, bestellungen, gruppen.size());
+	}
+
+	/**
+	 * Schluessel fuer die Gruppierung der offenen Bestellungen
+	 */
+	private static final class Gruppe {
+		private final String plzPraefix;
+		private final TransportType transportArt;
+
+		Gruppe(String plzPraefix, TransportType transportArt) {
+			this.plzPraefix = plzPraefix;
+			this.transportArt = transportArt;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * plzPraefix.hashCode() + transportArt.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Gruppe)) {
+				return false;
+			}
+			final Gruppe other = (Gruppe) obj;
+			return plzPraefix.equals(other.plzPraefix) && transportArt == other.transportArt;
+		}
+
+		@Override
+		public String toString() {
+			return "Gruppe [plzPraefix=" + plzPraefix + ", transportArt=" + transportArt + ']';
+		}
+	}
+}
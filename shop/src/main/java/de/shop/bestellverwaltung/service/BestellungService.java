@@ -1,10 +1,14 @@
 package de.shop.bestellverwaltung.service;
 
+import java.util.Date;
 import java.util.List;
 
 import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.bestellverwaltung.domain.Lieferstatus;
 import de.shop.bestellverwaltung.domain.Lieferung;
+import de.shop.bestellverwaltung.domain.TransportType;
 import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.util.persistence.ExportCursor;
 
 /**
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
@@ -31,6 +35,15 @@ public interface BestellungService {
 	 */
 	List<Bestellung> findBestellungenByKunde(AbstractKunde kunde, FetchType fetch);
 	
+	/**
+	 * Bestellungen zu einer gegebenen Kunde-ID suchen, ohne dass der Aufrufer den Kunden vorher laden muss.
+	 * Weil Bestellung.kunde eine eager geladene @ManyToOne-Beziehung ist, wird der Kunde trotzdem mitgelesen.
+	 * @param kundeId Die ID des Kunden
+	 * @param fetch Welche Objekte sollen mitgeladen werden, z.B. Lieferungen
+	 * @return Die gefundenen Bestellungen
+	 */
+	List<Bestellung> findBestellungenByKundeId(Long kundeId, FetchType fetch);
+	
 	/**
 	 * Den Kunden zu einer gegebenen Bestellung-ID suchen
 	 * @param id Bestellung-ID
@@ -51,6 +64,9 @@ public interface BestellungService {
 	 * Zuordnung einer neuen, transienten Bestellung zu einem existierenden, persistenten Kunden.
 	 * Der Kunde ist fuer den EntityManager bekannt, die Bestellung dagegen nicht. Das Zusammenbauen
 	 * wird sowohl fuer einen Web Service aus auch fuer eine Webanwendung benoetigt.
+	 * Der Aufwand ist unabhaengig von der Anzahl der bisherigen Bestellungen des Kunden, und der Kunde
+	 * selbst wird nicht geaendert. Ist die Liste seiner Bestellungen bereits geladen, wird die neue
+	 * Bestellung dort angefuegt.
 	 * @param bestellung Die neue Bestellung
 	 * @param kunde Der existierende Kunde
 	 * @return Die neue Bestellung einschliesslich generierter ID
@@ -65,9 +81,36 @@ public interface BestellungService {
 	List<Lieferung> findLieferungen(String nr);
 	
 	/**
-	 * Eine neue Lieferung in der DB anlegen
+	 * Eine neue Lieferung in der DB anlegen. Fuer jede zugehoerige Bestellung wird dabei ein Lieferstatus
+	 * angelegt.
 	 * @param lieferung Die neue Lieferung
 	 * @return Die neue Lieferung einschliesslich generierter ID
 	 */
 	Lieferung createLieferung(Lieferung lieferung);
+	
+	/**
+	 * Eine Sammellieferung fuer mehrere Bestellungen in einer eigenen Transaktion anlegen. Die Lieferung, die
+	 * Zuordnung zu den Bestellungen und der Lieferstatus werden mit jeweils 1 SQL-Anweisung geschrieben, ohne
+	 * die Bestellungen zu laden. Bestellungen, die inzwischen eine Lieferung haben, werden uebersprungen.
+	 * Die Bestellungen werden vorher gesperrt, damit gleichzeitige Aufrufe eine Bestellung nicht mehrfach
+	 * zuordnen.
+	 * @param bestellungIds IDs der Bestellungen, hoechstens 1000 wegen IN bei Oracle
+	 * @param transportArt Transportart der Lieferung
+	 * @return Anzahl der zugeordneten Bestellungen; bei 0 wird keine Lieferung angelegt
+	 */
+	int createSammellieferung(List<Long> bestellungIds, TransportType transportArt);
+	
+	/**
+	 * Den Lieferstatus zu einer gegebenen Bestellung-ID suchen, ohne Bestellung und Lieferungen zu laden
+	 * @param id Bestellung-ID
+	 * @return 1 Lieferstatus pro Lieferung, nach dem Anlegen sortiert; leer, falls noch nicht geliefert
+	 */
+	List<Lieferstatus> findLieferstatusByBestellungId(Long id);
+	
+	/**
+	 * Bestellungen mit ihren Bestellpositionen fuer den Export lesen
+	 * @param erzeugt Nur Bestellungen, die ab diesem Zeitpunkt erzeugt wurden
+	 * @return Cursor mit 1 Zeile pro Bestellposition, der nach dem Lesen geschlossen werden muss
+	 */
+	ExportCursor exportBestellungen(Date erzeugt);
 }
@@ -1,11 +1,16 @@
 package de.shop.bestellverwaltung.service;
 
 import static de.shop.util.Constants.KEINE_ID;
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
 
 import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -13,15 +18,22 @@ import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
+import javax.transaction.Transactional;
 
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.jboss.logging.Logger;
 
 import de.shop.bestellverwaltung.domain.Bestellposition;
 import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.bestellverwaltung.domain.Lieferstatus;
 import de.shop.bestellverwaltung.domain.Lieferung;
+import de.shop.bestellverwaltung.domain.TransportType;
 import de.shop.kundenverwaltung.domain.AbstractKunde;
 import de.shop.kundenverwaltung.service.KundeService;
 import de.shop.util.interceptor.Log;
+import de.shop.util.persistence.ExportCursor;
+import de.shop.util.persistence.ExportHelper;
 
 
 /**
@@ -33,12 +45,50 @@ public class BestellungServiceImpl implements Serializable, BestellungService {
 	
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
 	
+	private static final String ATTR_BESTELLUNGEN = "bestellungen";
+	
+	// Sammellieferungen: Liefernummer aus der ID, z.B. S00000001000
+	private static final String SAMMELLIEFERUNG_NR = "S%011d";
+	private static final String PARAM_LIEFERUNG_ID = "lieferungId";
+	private static final String PARAM_LIEFER_NR = "lieferNr";
+	private static final String PARAM_TRANSPORT_ART = "transportArt";
+	private static final String PARAM_ZEITPUNKT = "zeitpunkt";
+	private static final String PARAM_BESTELLUNG_IDS = "bestellungIds";
+	private static final String TABELLE_LIEFERUNG = "lieferung";
+	private static final String TABELLE_BESTELLUNG = "bestellung";
+	private static final String TABELLE_BESTELLUNG_LIEFERUNG = "bestellung_lieferung";
+	// Gleichzeitige Sammellieferungen, z.B. durch einen zweiten Timer-Lauf oder einen anderen Knoten im Cluster,
+	// warten auf die Sperre und sehen danach die bereits zugeordneten Bestellungen. "FOR UPDATE" o.ae. wird
+	// gemaess Dialekt angehaengt.
+	private static final String SELECT_BESTELLUNGEN_SPERREN =
+		"SELECT b.id FROM bestellung b WHERE b.id IN (:" + PARAM_BESTELLUNG_IDS + ") ORDER BY b.id";
+	private static final String INSERT_LIEFERUNG =
+		"INSERT INTO lieferung (id, version, liefernr, transport_art, erzeugt, aktualisiert)"
+		+ " VALUES (:" + PARAM_LIEFERUNG_ID + ", 0, :" + PARAM_LIEFER_NR + ", :" + PARAM_TRANSPORT_ART
+		+ ", :" + PARAM_ZEITPUNKT + ", :" + PARAM_ZEITPUNKT + ")";
+	// Bestellungen, die inzwischen eine Lieferung haben, z.B. durch createLieferung(), nicht nochmals zuordnen
+	private static final String INSERT_BESTELLUNG_LIEFERUNG =
+		"INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk)"
+		+ " SELECT b.id, :" + PARAM_LIEFERUNG_ID
+		+ " FROM bestellung b"
+		+ " WHERE b.id IN (:" + PARAM_BESTELLUNG_IDS + ")"
+		+ " AND NOT EXISTS (SELECT 1 FROM bestellung_lieferung bl WHERE bl.bestellung_fk = b.id)";
+	private static final String INSERT_LIEFERSTATUS =
+		"INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert)"
+		+ " SELECT bl.bestellung_fk, l.id, l.liefernr, l.transport_art, l.erzeugt, l.aktualisiert"
+		+ " FROM bestellung_lieferung bl JOIN lieferung l ON l.id = bl.lieferung_fk"
+		+ " WHERE l.id = :" + PARAM_LIEFERUNG_ID;
+	private static final String DELETE_LIEFERUNG = "DELETE FROM lieferung WHERE id = :" + PARAM_LIEFERUNG_ID;
+	
 	@Inject
 	private transient EntityManager em;
 	
 	@Inject
 	private KundeService ks;
 	
+	@Inject
+	private ExportHelper exportHelper;
+	
 	@Inject
 	@NeueBestellung
 	private transient Event<Bestellung> event;
@@ -83,18 +133,29 @@ public class BestellungServiceImpl implements Serializable, BestellungService {
 		if (kunde == null) {
 			return Collections.emptyList();
 		}
+		return findBestellungenByKundeId(kunde.getId(), fetch);
+	}
+
+	/**
+	 * {inheritDoc}
+	 */
+	@Override
+	public List<Bestellung> findBestellungenByKundeId(Long kundeId, FetchType fetch) {
+		if (kundeId == null) {
+			return Collections.emptyList();
+		}
 		
 		List<Bestellung> bestellungen;
 		switch (fetch) {
 			case NUR_BESTELLUNG:
 				bestellungen = em.createNamedQuery(Bestellung.FIND_BESTELLUNGEN_BY_KUNDEID, Bestellung.class)
-	                             .setParameter(Bestellung.PARAM_KUNDEID, kunde.getId())
+	                             .setParameter(Bestellung.PARAM_KUNDEID, kundeId)
 	                             .getResultList();
 				break;
 			case MIT_LIEFERUNGEN:
 				bestellungen = em.createNamedQuery(Bestellung.FIND_BESTELLUNGEN_BY_KUNDEID_FETCH_LIEFERUNGEN,
                                                    Bestellung.class)
-                                 .setParameter(Bestellung.PARAM_KUNDEID, kunde.getId())
+                                 .setParameter(Bestellung.PARAM_KUNDEID, kundeId)
                                  .getResultList();
 				break;
 			default:
@@ -144,12 +205,19 @@ public class BestellungServiceImpl implements Serializable, BestellungService {
 			return null;
 		}
 
-		// Den persistenten Kunden mit der transienten Bestellung verknuepfen
+		// Den persistenten Kunden mit der transienten Bestellung verknuepfen: Fuer den Fremdschluessel genuegt
+		// eine Referenz. Der Kunde wird nicht geaendert und seine bisherigen Bestellungen werden nicht geladen.
+		// Gelesen wird der Kunde trotzdem, und zwar durch die Observer von @NeueBestellung (Email, Adresse).
 		if (!em.contains(kunde)) {
-			kunde = ks.findKundeById(kunde.getId(), KundeService.FetchType.MIT_BESTELLUNGEN);
+			kunde = em.getReference(AbstractKunde.class, kunde.getId());
 		}
 		bestellung.setKunde(kunde);
-		kunde.addBestellung(bestellung);
+		
+		// Eine bereits geladene Liste der Bestellungen aktuell halten: "bestellungen" ist die inverse Seite,
+		// d.h. die Aenderung erhoeht nicht die Version des Kunden
+		if (em.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(kunde, ATTR_BESTELLUNGEN)) {
+			kunde.addBestellung(bestellung);
+		}
 		
 		// Vor dem Abspeichern IDs zuruecksetzen:
 		// IDs koennten einen Wert != null haben, wenn sie durch einen Web Service uebertragen wurden
@@ -186,6 +254,86 @@ public class BestellungServiceImpl implements Serializable, BestellungService {
 		
 		lieferung.setId(KEINE_ID);
 		em.persist(lieferung);
+		
+		// Lesemodell fuer findLieferstatusByBestellungId() in derselben Transaktion fortschreiben
+		final Set<Bestellung> bestellungen = lieferung.getBestellungen();
+		if (bestellungen != null) {
+			for (Bestellung bestellung : bestellungen) {
+				em.persist(new Lieferstatus(bestellung.getId(), lieferung));
+			}
+		}
 		return lieferung;
 	}
+	
+	/**
+	 * {inheritDoc}
+	 */
+	@Override
+	@Transactional(REQUIRES_NEW)
+	public int createSammellieferung(List<Long> bestellungIds, TransportType transportArt) {
+		if (bestellungIds == null || bestellungIds.isEmpty()) {
+			return 0;
+		}
+		
+		final Session session = em.unwrap(Session.class);
+		final SessionImplementor sessionImpl = (SessionImplementor) session;
+		final String forUpdate = sessionImpl.getFactory().getDialect().getForUpdateString();
+		session.createSQLQuery(SELECT_BESTELLUNGEN_SPERREN + forUpdate)
+		       .addSynchronizedQuerySpace(TABELLE_BESTELLUNG)
+		       .setParameterList(PARAM_BESTELLUNG_IDS, bestellungIds)
+		       .list();
+		
+		// ID aus derselben Sequenz und mit demselben Optimizer wie bei em.persist()
+		final Long lieferungId = (Long) sessionImpl.getFactory()
+		                                           .getIdentifierGenerator(Lieferung.class.getName())
+		                                           .generate(sessionImpl, null);
+		
+		// Bei nativen Anweisungen nur die betroffenen Tabellen im L2-Cache invalidieren, nicht den ganzen Cache
+		session.createSQLQuery(INSERT_LIEFERUNG)
+		       .addSynchronizedQuerySpace(TABELLE_LIEFERUNG)
+		       .setParameter(PARAM_LIEFERUNG_ID, lieferungId)
+		       .setParameter(PARAM_LIEFER_NR, String.format(SAMMELLIEFERUNG_NR, lieferungId))
+		       .setParameter(PARAM_TRANSPORT_ART, transportArt.getDbString())
+		       .setTimestamp(PARAM_ZEITPUNKT, new Date())
+		       .executeUpdate();
+		final int anzahl = session.createSQLQuery(INSERT_BESTELLUNG_LIEFERUNG)
+		                          .addSynchronizedQuerySpace(TABELLE_BESTELLUNG_LIEFERUNG)
+		                          .setParameter(PARAM_LIEFERUNG_ID, lieferungId)
+		                          .setParameterList(PARAM_BESTELLUNG_IDS, bestellungIds)
+		                          .executeUpdate();
+		if (anzahl == 0) {
+			session.createSQLQuery(DELETE_LIEFERUNG)
+			       .addSynchronizedQuerySpace(TABELLE_LIEFERUNG)
+			       .setParameter(PARAM_LIEFERUNG_ID, lieferungId)
+			       .executeUpdate();
+			return 0;
+		}
+		session.createSQLQuery(INSERT_LIEFERSTATUS)
+		       .addSynchronizedEntityClass(Lieferstatus.class)
+		       .setParameter(PARAM_LIEFERUNG_ID, lieferungId)
+		       .executeUpdate();
+		
+		LOGGER.debugf("Sammellieferung mit ID=%d fuer %d Bestellungen", lieferungId, anzahl);
+		return anzahl;
+	}
+	
+	/**
+	 * {inheritDoc}
+	 */
+	@Override
+	public List<Lieferstatus> findLieferstatusByBestellungId(Long id) {
+		return em.createNamedQuery(Lieferstatus.FIND_LIEFERSTATUS_BY_BESTELLUNG_ID, Lieferstatus.class)
+		         .setParameter(Lieferstatus.PARAM_BESTELLUNG_ID, id)
+		         .getResultList();
+	}
+	
+	/**
+	 * {inheritDoc}
+	 */
+	@Override
+	public ExportCursor exportBestellungen(Date erzeugt) {
+		final Map<String, Object> params = new HashMap<>(1, 1);
+		params.put(Bestellung.PARAM_ERZEUGT, erzeugt);
+		return exportHelper.open(Bestellung.EXPORT_BESTELLUNGEN, params);
+	}
 }
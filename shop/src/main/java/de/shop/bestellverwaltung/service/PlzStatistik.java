@@ -0,0 +1,203 @@
+package de.shop.bestellverwaltung.service;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.logging.Logger;
+
+import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.kundenverwaltung.domain.Adresse;
+import de.shop.util.interceptor.Log;
+
+
+/**
+ * Anzahl der Bestellungen pro Postleitzahl-Praefix mit 1 bis 5 Ziffern im Hauptspeicher. Ein beliebiger
+ * Bereich von Postleitzahlen wird aus hoechstens 9 Praefixen pro Stelle und Bereichsgrenze zusammengesetzt,
+ * statt Bestellungen, Kunden und Adressen bei jeder Anfrage zu joinen.
+ * Neue Bestellungen werden nach dem Commit mitgezaehlt. Geaenderte Postleitzahlen bisheriger Bestellungen
+ * und verlorene Zaehlungen werden beim periodischen Abgleich mit der DB korrigiert (siehe BestellungScheduler).
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+@Log
+public class PlzStatistik implements Serializable {
+	private static final long serialVersionUID = -4219906553264436187L;
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
+	
+	public static final int PLZ_STELLEN = 5;
+	
+	@Inject
+	private transient EntityManager em;
+	
+	@Resource
+	private transient TransactionSynchronizationRegistry tsr;
+	
+	// null bis zum ersten Abgleich
+	private volatile Zaehler zaehler;
+	
+	/**
+	 * Eine neue Bestellung nach dem Commit der Transaktion mitzaehlen
+	 * @param bestellung Die neue Bestellung
+	 */
+	public void onCreateBestellung(@Observes @NeueBestellung Bestellung bestellung) {
+		final Adresse adresse = bestellung.getKunde().getAdresse();
+		if (adresse == null || !isPlz(adresse.getPlz())) {
+			return;
+		}
+		
+		final String plz = adresse.getPlz();
+		if (tsr.getTransactionKey() == null) {
+			addBestellung(plz);
+			return;
+		}
+		tsr.registerInterposedSynchronization(new Synchronization() {
+			@Override
+			public void beforeCompletion() {
+				// nichts zu tun
+			}
+			
+			@Override
+			public void afterCompletion(int status) {
+				if (status == Status.STATUS_COMMITTED) {
+					addBestellung(plz);
+				}
+			}
+		});
+	}
+	
+	void addBestellung(String plz) {
+		final Zaehler z = zaehler;
+		if (z != null) {
+			z.add(Integer.parseInt(plz));
+		}
+	}
+	
+	/**
+	 * Die Anzahl der Bestellungen in einem Bereich von Postleitzahlen ermitteln
+	 * @param min Untergrenze, ggf. nur die ersten Ziffern, z.B. "7" fuer "70000"
+	 * @param max Obergrenze, ggf. nur die ersten Ziffern, z.B. "76" fuer "76999"
+	 * @return Anzahl der Bestellungen von Kunden, deren Postleitzahl im Bereich liegt
+	 */
+	public long countBestellungen(String min, String max) {
+		Zaehler z = zaehler;
+		if (z == null) {
+			abgleichen();
+			z = zaehler;
+		}
+		return z.count(toPlz(min, '0'), toPlz(max, '9'));
+	}
+	
+	/**
+	 * Alle Zaehler aus der DB neu ermitteln und danach auf einmal austauschen
+	 */
+	public void abgleichen() {
+		abgleichen(em.createNamedQuery(Bestellung.FIND_ANZ_BESTELLUNGEN_GROUP_BY_PLZ, Object[].class)
+				     .getResultList());
+	}
+	
+	/**
+	 * @param zeilen Postleitzahl und Anzahl der Bestellungen pro Zeile
+	 */
+	void abgleichen(List<Object[]> zeilen) {
+		final Zaehler neu = new Zaehler();
+		for (Object[] zeile : zeilen) {
+			final String plz = (String) zeile[0];
+			if (isPlz(plz)) {
+				neu.add(Integer.parseInt(plz), ((Number) zeile[1]).longValue());
+			}
+		}
+		
+		final Zaehler alt = zaehler;
+		zaehler = neu;
+		LOGGER.debugf("PLZ-Statistik abgeglichen: %d Bestellungen, vorher %d",
+				      neu.count(0, Zaehler.MAX_PLZ), alt == null ? 0 : alt.count(0, Zaehler.MAX_PLZ));
+	}
+	
+	private static boolean isPlz(String plz) {
+		if (plz == null || plz.length() != PLZ_STELLEN) {
+			return false;
+		}
+		for (int i = 0; i < PLZ_STELLEN; i++) {
+			if (!Character.isDigit(plz.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static int toPlz(String praefix, char fuellzeichen) {
+		final StringBuilder sb = new StringBuilder(PLZ_STELLEN);
+		if (praefix != null) {
+			sb.append(praefix);
+		}
+		while (sb.length() < PLZ_STELLEN) {
+			sb.append(fuellzeichen);
+		}
+		return Integer.parseInt(sb.toString());
+	}
+	
+	/**
+	 * Zaehler pro Praefix: stufen[n] enthaelt die Zaehler fuer alle Praefixe mit n Ziffern,
+	 * stufen[0] die Gesamtzahl.
+	 */
+	static final class Zaehler {
+		static final int MAX_PLZ = 99999;
+		private static final int BASIS = 10;
+		
+		private final AtomicLongArray[] stufen = new AtomicLongArray[PLZ_STELLEN + 1];
+		
+		Zaehler() {
+			int groesse = 1;
+			for (int n = 0; n <= PLZ_STELLEN; n++) {
+				stufen[n] = new AtomicLongArray(groesse);
+				groesse *= BASIS;
+			}
+		}
+		
+		void add(int plz) {
+			add(plz, 1);
+		}
+		
+		void add(int plz, long anzahl) {
+			int praefix = plz;
+			for (int n = PLZ_STELLEN; n >= 0; n--) {
+				stufen[n].addAndGet(praefix, anzahl);
+				praefix /= BASIS;
+			}
+		}
+		
+		long count(int min, int max) {
+			long summe = 0;
+			int von = min;
+			int bis = max;
+			// Von der feinsten Stufe aus die Raender einzeln addieren, bis nur noch vollstaendige Praefixe
+			// der naechsthoeheren Stufe uebrig sind
+			for (int n = PLZ_STELLEN; n > 0; n--) {
+				while (von % BASIS != 0 && von <= bis) {
+					summe += stufen[n].get(von++);
+				}
+				while (bis % BASIS != BASIS - 1 && von <= bis) {
+					summe += stufen[n].get(bis--);
+				}
+				if (von > bis) {
+					return summe;
+				}
+				von /= BASIS;
+				bis /= BASIS;
+			}
+			// alle Postleitzahlen
+			return summe + stufen[0].get(0);
+		}
+	}
+}
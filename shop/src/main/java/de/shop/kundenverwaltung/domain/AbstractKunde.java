@@ -1,11 +1,13 @@
 package de.shop.kundenverwaltung.domain;
 
+import static de.shop.util.Constants.ERSTE_GENERIERTE_ID;
 import static de.shop.util.Constants.ERSTE_VERSION;
 import static de.shop.util.Constants.KEINE_ID;
 import static javax.persistence.CascadeType.PERSIST;
 import static javax.persistence.CascadeType.REMOVE;
 import static javax.persistence.FetchType.EAGER;
 import static javax.persistence.FetchType.LAZY;
+import static javax.persistence.GenerationType.SEQUENCE;
 import static javax.persistence.TemporalType.DATE;
 import static javax.persistence.TemporalType.TIMESTAMP;
 
@@ -39,12 +41,14 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.OrderBy;
 import javax.persistence.OrderColumn;
 import javax.persistence.PostLoad;
 import javax.persistence.PostPersist;
 import javax.persistence.PostUpdate;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.Transient;
@@ -66,7 +70,6 @@ import org.codehaus.jackson.annotate.JsonSubTypes;
 import org.codehaus.jackson.annotate.JsonSubTypes.Type;
 import org.codehaus.jackson.annotate.JsonTypeInfo;
 import org.hibernate.validator.constraints.Email;
-import org.hibernate.validator.constraints.ScriptAssert;
 import org.jboss.logging.Logger;
 import org.jboss.resteasy.annotations.providers.jaxb.Formatted;
 
@@ -119,6 +122,14 @@ import de.shop.util.persistence.File;
                 query = "SELECT   k"
 			            + " FROM  AbstractKunde k"
             		    + " WHERE UPPER(k.email) = UPPER(:" + AbstractKunde.PARAM_KUNDE_EMAIL + ")"),
+	@NamedQuery(name  = AbstractKunde.FIND_ID_BY_EMAIL,
+                query = "SELECT   k.id"
+			            + " FROM  AbstractKunde k"
+            		    + " WHERE UPPER(k.email) = UPPER(:" + AbstractKunde.PARAM_KUNDE_EMAIL + ")"),
+	@NamedQuery(name  = AbstractKunde.FIND_EMAILS_BY_EMAILS,
+                query = "SELECT   UPPER(k.email)"
+			            + " FROM  AbstractKunde k"
+            		    + " WHERE UPPER(k.email) IN :" + AbstractKunde.PARAM_KUNDE_EMAILS),
 	@NamedQuery(name  = AbstractKunde.FIND_NACHNAMEN_BY_PREFIX,
    	            query = "SELECT   DISTINCT k.nachname"
 				        + " FROM  AbstractKunde k "
@@ -152,8 +163,29 @@ import de.shop.util.persistence.File;
    	@NamedQuery(name = AbstractKunde.FIND_PRIVATKUNDEN_FIRMENKUNDEN,
    			    query = "SELECT   k"
    			            + " FROM  AbstractKunde k"
-   			    		+ " WHERE TYPE(k) IN (Privatkunde, Firmenkunde)")
-
+   			    		+ " WHERE TYPE(k) IN (Privatkunde, Firmenkunde)"),
+   	@NamedQuery(name = AbstractKunde.FIND_VERSION_BY_ID,
+   			    query = "SELECT   k.version"
+   			            + " FROM  AbstractKunde k"
+   			    		+ " WHERE k.id = :" + AbstractKunde.PARAM_KUNDE_ID),
+   	// Nur der MIME-Type, damit die Datei selbst nicht geladen wird
+   	@NamedQuery(name = AbstractKunde.FIND_FILE_MIME_TYPE_BY_ID,
+   			    query = "SELECT   f.mimeType"
+   			            + " FROM  AbstractKunde k JOIN k.file f"
+   			    		+ " WHERE k.id = :" + AbstractKunde.PARAM_KUNDE_ID),
+   	@NamedQuery(name = AbstractKunde.FIND_FILE_OHNE_BYTES_BY_ID,
+   			    query = "SELECT   NEW de.shop.util.persistence.File(f.id, f.version, f.mimeType)"
+   			            + " FROM  AbstractKunde k JOIN k.file f"
+   			    		+ " WHERE k.id = :" + AbstractKunde.PARAM_KUNDE_ID),
+   	// Projektion fuer den Export: keine Entities, keine Collections und keine Passwoerter
+   	@NamedQuery(name = AbstractKunde.EXPORT_KUNDEN,
+   			    query = "SELECT      k.id, CASE WHEN TYPE(k) = Firmenkunde THEN 'F' ELSE 'P' END,"
+   			            + "          k.nachname, k.vorname, k.email, k.kategorie, k.rabatt, k.umsatz, k.seit,"
+   			            + "          k.newsletter, a.plz, a.ort, a.strasse, a.hausnr, k.erzeugt, k.aktualisiert"
+   			            + " FROM     AbstractKunde k LEFT JOIN k.adresse a"
+   			    		+ " WHERE    k.seit >= :" + AbstractKunde.PARAM_KUNDE_SEIT
+   			    		+ "          AND k.erzeugt >= :" + AbstractKunde.PARAM_KUNDE_ERZEUGT
+   			    		+ " ORDER BY k.id")
 })
 @NamedEntityGraphs({
 	@NamedEntityGraph(name = AbstractKunde.GRAPH_BESTELLUNGEN,
@@ -161,11 +193,7 @@ import de.shop.util.persistence.File;
 	@NamedEntityGraph(name = AbstractKunde.GRAPH_WARTUNGSVERTRAEGE,
 					  attributeNodes = @NamedAttributeNode("wartungsvertraege"))
 })
-@ScriptAssert(lang = "javascript",
-	          script = "_this.password != null && !_this.password.equals(\"\")"
-	          		   + "&& _this.password.equals(_this.passwordWdh)",
-	          message = "{kunde.password.notEqual}",
-	          groups = { Default.class, PasswordGroup.class })
+@PasswordEqual(groups = { Default.class, PasswordGroup.class })
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
 @JsonSubTypes({
 	@Type(value = Privatkunde.class, name = AbstractKunde.PRIVATKUNDE),
@@ -177,6 +205,9 @@ public abstract class AbstractKunde implements Serializable, Cloneable {
 	private static final long serialVersionUID = 4190012483483113483L;
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
 	
+	private static final String ID_SEQUENCE = "kunde_seq";
+	private static final int ID_ALLOCATION_SIZE = 50;
+	
 	private static final String NAME_PATTERN = "[A-Z\u00C4\u00D6\u00DC][a-z\u00E4\u00F6\u00FC\u00DF]+";
 	private static final String PREFIX_ADEL = "(o'|von|von der|von und zu|van)?";
 	public static final String NACHNAME_PATTERN = PREFIX_ADEL + NAME_PATTERN + "(-" + NAME_PATTERN + ")?";
@@ -203,6 +234,8 @@ public abstract class AbstractKunde implements Serializable, Cloneable {
 	public static final String FIND_KUNDEN_BY_NACHNAME_FETCH_BESTELLUNGEN =
 		                       PREFIX + "findKundenByNachnameFetchBestellungen";
 	public static final String FIND_KUNDE_BY_EMAIL = PREFIX + "findKundeByEmail";
+	public static final String FIND_ID_BY_EMAIL = PREFIX + "findIdByEmail";
+	public static final String FIND_EMAILS_BY_EMAILS = PREFIX + "findEmailsByEmails";
 	public static final String FIND_NACHNAMEN_BY_PREFIX = PREFIX + "findNachnamenByPrefix";
 	public static final String FIND_ALL_NACHNAMEN = PREFIX + "findAllNachnamen";
 	public static final String FIND_KUNDEN_OHNE_BESTELLUNGEN = PREFIX + "findKundenOhneBestellungen";
@@ -211,6 +244,10 @@ public abstract class AbstractKunde implements Serializable, Cloneable {
 	public static final String FIND_USERNAME_BY_USERNAME_PREFIX = PREFIX + "findKundeByUsernamePrefix";
 	public static final String FIND_KUNDEN_BY_DATE = PREFIX + "findKundenByDate";
 	public static final String FIND_PRIVATKUNDEN_FIRMENKUNDEN = PREFIX + "findPrivatkundenFirmenkunden";
+	public static final String FIND_VERSION_BY_ID = PREFIX + "findVersionById";
+	public static final String FIND_FILE_MIME_TYPE_BY_ID = PREFIX + "findFileMimeTypeById";
+	public static final String FIND_FILE_OHNE_BYTES_BY_ID = PREFIX + "findFileOhneBytesById";
+	public static final String EXPORT_KUNDEN = PREFIX + "exportKunden";
 
 	public static final String PARAM_KUNDE_ID = "id";
 	public static final String PARAM_KUNDE_ID_PREFIX = "idPrefix";
@@ -220,14 +257,18 @@ public abstract class AbstractKunde implements Serializable, Cloneable {
 	public static final String PARAM_KUNDE_USERNAME = "username";
 	public static final String PARAM_USERNAME_PREFIX = "usernamePrefix";
 	public static final String PARAM_KUNDE_EMAIL = "email";
+	public static final String PARAM_KUNDE_EMAILS = "emails";
 	public static final String PARAM_KUNDE_SEIT = "seit";
+	public static final String PARAM_KUNDE_ERZEUGT = "erzeugt";
 	
 	public static final String GRAPH_BESTELLUNGEN = "bestellungen";
 	public static final String GRAPH_WARTUNGSVERTRAEGE = "wartungsvertraege";
 
 	
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, initialValue = ERSTE_GENERIERTE_ID,
+	                   allocationSize = ID_ALLOCATION_SIZE)
 	@Column(nullable = false, updatable = false)
 	private Long id = KEINE_ID;
 
@@ -275,7 +316,7 @@ public abstract class AbstractKunde implements Serializable, Cloneable {
 	@Transient
 	private String passwordWdh;
 
-//  siehe @ScriptAssert
+//  siehe @PasswordEqual
 //	@AssertTrue(/*groups = PasswordGroup.class,*/ message = "{kunde.password.notEqual}")
 //	public boolean isPasswortEqual() {
 //		if (password == null) {
@@ -295,9 +336,10 @@ public abstract class AbstractKunde implements Serializable, Cloneable {
 	
 	// Default: fetch = LAZY, keine Kaskadierungen
 	// Alternativen: cascade = PERSIST, cascade = { PERSIST, REMOVE } usw.
-	@OneToMany
-	@JoinColumn(name = "kunde_fk", nullable = false)
-	@OrderColumn(name = "idx", nullable = false)
+	// Den Fremdschluessel kunde_fk schreibt die Bestellung: Eine neue Bestellung muss deshalb weder die
+	// bisherigen Bestellungen laden noch den Kunden aendern, d.h. auch nicht dessen Version erhoehen
+	@OneToMany(mappedBy = "kunde")
+	@OrderBy("id")
 	@XmlTransient
 	private List<Bestellung> bestellungen;
 	
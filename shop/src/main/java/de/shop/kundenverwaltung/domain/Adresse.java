@@ -1,7 +1,9 @@
 package de.shop.kundenverwaltung.domain;
 
+import static de.shop.util.Constants.ERSTE_GENERIERTE_ID;
 import static de.shop.util.Constants.ERSTE_VERSION;
 import static de.shop.util.Constants.KEINE_ID;
+import static javax.persistence.GenerationType.SEQUENCE;
 import static javax.persistence.TemporalType.TIMESTAMP;
 
 import java.io.Serializable;
@@ -20,6 +22,7 @@ import javax.persistence.PostPersist;
 import javax.persistence.PostUpdate;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.Version;
@@ -28,6 +31,7 @@ import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 import javax.xml.bind.annotation.XmlTransient;
 
+import org.hibernate.annotations.DynamicUpdate;
 import org.jboss.logging.Logger;
 
 
@@ -36,10 +40,14 @@ import org.jboss.logging.Logger;
  */
 @Entity
 @Table(indexes = @Index(columnList = "plz"))  // Zu kunde_fk wird unten ein UNIQUE Index definiert
+@DynamicUpdate   // UPDATE nur mit den geaenderten Spalten, z.B. bei PATCH
 public class Adresse implements Serializable {
 	private static final long serialVersionUID = 4618817696314640065L;
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
 
+	private static final String ID_SEQUENCE = "adresse_seq";
+	private static final int ID_ALLOCATION_SIZE = 50;
+
 	private static final int PLZ_LENGTH_MAX = 5;
 	private static final int ORT_LENGTH_MIN = 2;
 	private static final int ORT_LENGTH_MAX = 32;
@@ -48,7 +56,9 @@ public class Adresse implements Serializable {
 	private static final int HAUSNR_LENGTH_MAX = 4;
 	
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, initialValue = ERSTE_GENERIERTE_ID,
+	                   allocationSize = ID_ALLOCATION_SIZE)
 	@Column(nullable = false, updatable = false)
 	private Long id = KEINE_ID;
 	
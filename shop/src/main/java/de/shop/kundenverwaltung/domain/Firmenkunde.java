@@ -10,6 +10,8 @@ import javax.persistence.Entity;
 import javax.persistence.Inheritance;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 
 /**
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
@@ -18,6 +20,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 @Inheritance
 @DiscriminatorValue(FIRMENKUNDE)
 @Cacheable
+@DynamicUpdate   // UPDATE nur mit den geaenderten Spalten, z.B. bei PATCH
 @XmlRootElement
 public class Firmenkunde extends AbstractKunde {
 	private static final long serialVersionUID = -3962271877965533586L;
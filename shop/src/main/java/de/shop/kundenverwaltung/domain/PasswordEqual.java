@@ -0,0 +1,30 @@
+package de.shop.kundenverwaltung.domain;
+
+import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+
+
+/**
+ * Class-Level-Constraint fuer einen Kunden: das Password ist gesetzt und stimmt mit der Wiederholung ueberein.
+ * Ersetzt @ScriptAssert, damit die Validierung ohne JavaScript-Engine auskommt.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Target({ TYPE, ANNOTATION_TYPE })
+@Retention(RUNTIME)
+@Constraint(validatedBy = PasswordEqualValidator.class)
+@Documented
+public @interface PasswordEqual {
+	String message() default "{kunde.password.notEqual}";
+	
+	Class<?>[] groups() default { };
+	
+	Class<? extends Payload>[] payload() default { };
+}
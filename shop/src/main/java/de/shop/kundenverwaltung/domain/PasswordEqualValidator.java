@@ -0,0 +1,26 @@
+package de.shop.kundenverwaltung.domain;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+
+/**
+ * Validator fuer {@link PasswordEqual}
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class PasswordEqualValidator implements ConstraintValidator<PasswordEqual, AbstractKunde> {
+	@Override
+	public void initialize(PasswordEqual constraintAnnotation) {
+		// nichts zu initialisieren
+	}
+
+	@Override
+	public boolean isValid(AbstractKunde kunde, ConstraintValidatorContext context) {
+		if (kunde == null) {
+			return true;
+		}
+		
+		final String password = kunde.getPassword();
+		return password != null && !password.isEmpty() && password.equals(kunde.getPasswordWdh());
+	}
+}
@@ -20,6 +20,8 @@ import javax.persistence.NamedQuery;
 import javax.persistence.UniqueConstraint;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 /**
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
  */
@@ -33,6 +35,7 @@ import javax.xml.bind.annotation.XmlRootElement;
                 		+ " WHERE k.geschlecht = :" + Privatkunde.PARAM_GESCHLECHT)
 })
 @Cacheable
+@DynamicUpdate   // UPDATE nur mit den geaenderten Spalten, z.B. bei PATCH
 @XmlRootElement
 public class Privatkunde extends AbstractKunde {
 	private static final long serialVersionUID = -1783340753647408724L;
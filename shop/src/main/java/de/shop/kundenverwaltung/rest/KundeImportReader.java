@@ -0,0 +1,247 @@
+package de.shop.kundenverwaltung.rest;
+
+import static de.shop.util.Constants.CSV;
+import static de.shop.util.Constants.KEINE_ID;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.ws.rs.core.MediaType;
+
+import org.codehaus.jackson.map.AnnotationIntrospector;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.introspect.JacksonAnnotationIntrospector;
+import org.codehaus.jackson.xc.JaxbAnnotationIntrospector;
+
+import com.google.common.base.Strings;
+
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.kundenverwaltung.domain.Adresse;
+import de.shop.kundenverwaltung.domain.Firmenkunde;
+import de.shop.kundenverwaltung.domain.Privatkunde;
+import de.shop.kundenverwaltung.service.KundeImportZeile;
+
+
+/**
+ * Zeilenweises Lesen von Kunden fuer den Import, ohne den gesamten Rumpf des Requests im Speicher zu halten.
+ * Bei NDJSON ist jede Zeile ein JSON-Objekt wie bei POST /kunden. Bei CSV enthaelt die erste Zeile die
+ * Spaltennamen, d.h. die Namen der Attribute; Werte in Anfuehrungszeichen duerfen keinen Zeilenumbruch
+ * enthalten.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+final class KundeImportReader implements Closeable {
+	// wie beim JSON-Provider von RESTEasy werden die Jackson- und die JAXB-Annotationen ausgewertet
+	private static final ObjectReader KUNDE_READER = new ObjectMapper()
+		.setAnnotationIntrospector(new AnnotationIntrospector.Pair(new JacksonAnnotationIntrospector(),
+		                                                           new JaxbAnnotationIntrospector()))
+		.reader(AbstractKunde.class);
+	private static final MediaType CSV_TYPE = MediaType.valueOf(CSV);
+	
+	private static final char TRENNZEICHEN = ',';
+	private static final char QUOTE = '"';
+	private static final String DATUM_FORMAT = "yyyy-MM-dd";
+	
+	private final BufferedReader reader;
+	private final boolean csv;
+	private final DateFormat datumFormat;
+	private List<String> spalten;
+	private int nr;
+	
+	/**
+	 * @param stream Der Rumpf des Requests
+	 * @param mediaType NDJSON oder CSV, ggf. mit dem Parameter charset; Default ist UTF-8
+	 */
+	KundeImportReader(InputStream stream, MediaType mediaType) {
+		final String charset = mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+		reader = new BufferedReader(new InputStreamReader(stream, charset == null
+		                                                          ? StandardCharsets.UTF_8
+		                                                          : Charset.forName(charset)));
+		csv = CSV_TYPE.isCompatible(mediaType);
+		datumFormat = new SimpleDateFormat(DATUM_FORMAT);
+		datumFormat.setLenient(false);
+	}
+	
+	/**
+	 * Die naechsten Zeilen lesen. Leere Zeilen werden uebersprungen, aber mitgezaehlt.
+	 * @param max Maximale Anzahl der Zeilen
+	 * @return Die gelesenen Zeilen; leer am Ende des Rumpfs
+	 * @throws IOException Falls der Rumpf nicht gelesen werden kann
+	 */
+	List<KundeImportZeile> read(int max) throws IOException {
+		final List<KundeImportZeile> zeilen = new ArrayList<>(max);
+		String line;
+		while (zeilen.size() < max && (line = reader.readLine()) != null) {
+			nr++;
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			if (csv && spalten == null) {
+				spalten = split(line);
+				continue;
+			}
+			zeilen.add(parse(line));
+		}
+		return zeilen;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+	
+	private KundeImportZeile parse(String line) {
+		final AbstractKunde kunde;
+		try {
+			kunde = csv ? toKunde(split(line)) : KUNDE_READER.<AbstractKunde>readValue(line);
+		}
+		catch (IOException | IllegalArgumentException e) {
+			return new KundeImportZeile(nr, e.getMessage());
+		}
+		
+		// wie bei POST /kunden
+		kunde.setId(KEINE_ID);
+		final Adresse adresse = kunde.getAdresse();
+		if (adresse != null) {
+			adresse.setKunde(kunde);
+		}
+		if (Strings.isNullOrEmpty(kunde.getPasswordWdh())) {
+			kunde.setPasswordWdh(kunde.getPassword());
+		}
+		return new KundeImportZeile(nr, kunde);
+	}
+	
+	private AbstractKunde toKunde(List<String> werte) {
+		if (werte.size() != spalten.size()) {
+			throw new IllegalArgumentException("Die Zeile hat " + werte.size() + " statt " + spalten.size()
+			                                   + " Werte");
+		}
+		
+		final int typIndex = spalten.indexOf("type");
+		final AbstractKunde kunde = typIndex >= 0 && AbstractKunde.FIRMENKUNDE.equals(werte.get(typIndex))
+		                            ? new Firmenkunde()
+		                            : new Privatkunde();
+		final Adresse adresse = new Adresse();
+		kunde.setAdresse(adresse);
+		
+		for (int i = 0; i < werte.size(); i++) {
+			final String name = spalten.get(i);
+			final String wert = werte.get(i);
+			if (wert.isEmpty()) {
+				continue;
+			}
+			switch (name) {
+				case "type":
+					break;
+				case "nachname":
+					kunde.setNachname(wert);
+					break;
+				case "vorname":
+					kunde.setVorname(wert);
+					break;
+				case "kategorie":
+					kunde.setKategorie(Short.parseShort(wert));
+					break;
+				case "rabatt":
+					kunde.setRabatt(new BigDecimal(wert));
+					break;
+				case "seit":
+					kunde.setSeit(toDate(name, wert));
+					break;
+				case "email":
+					kunde.setEmail(wert);
+					break;
+				case "newsletter":
+					kunde.setNewsletter(Boolean.parseBoolean(wert));
+					break;
+				case "password":
+					kunde.setPassword(wert);
+					break;
+				case "passwordWdh":
+					kunde.setPasswordWdh(wert);
+					break;
+				case "agbAkzeptiert":
+					kunde.setAgbAkzeptiert(Boolean.parseBoolean(wert));
+					break;
+				case "bemerkungen":
+					kunde.setBemerkungen(wert);
+					break;
+				case "plz":
+					adresse.setPlz(wert);
+					break;
+				case "ort":
+					adresse.setOrt(wert);
+					break;
+				case "strasse":
+					adresse.setStrasse(wert);
+					break;
+				case "hausnr":
+					adresse.setHausnr(wert);
+					break;
+				default:
+					throw new IllegalArgumentException("Unbekannte Spalte " + name);
+			}
+		}
+		return kunde;
+	}
+	
+	private Date toDate(String name, String wert) {
+		try {
+			return datumFormat.parse(wert);
+		}
+		catch (ParseException e) {
+			throw new IllegalArgumentException("Kein Datum im Format " + DATUM_FORMAT + " fuer " + name + ": "
+			                                   + wert, e);
+		}
+	}
+	
+	/**
+	 * Eine CSV-Zeile in ihre Werte zerlegen. Werte in Anfuehrungszeichen duerfen das Trennzeichen und doppelte
+	 * Anfuehrungszeichen fuer ein einzelnes enthalten.
+	 */
+	private static List<String> split(String line) {
+		final List<String> werte = new ArrayList<>();
+		final StringBuilder sb = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+		while (i < line.length()) {
+			final char c = line.charAt(i++);
+			if (quoted) {
+				if (c != QUOTE) {
+					sb.append(c);
+				}
+				else if (i < line.length() && line.charAt(i) == QUOTE) {
+					sb.append(QUOTE);
+					i++;
+				}
+				else {
+					quoted = false;
+				}
+			}
+			else if (c == QUOTE) {
+				quoted = true;
+			}
+			else if (c == TRENNZEICHEN) {
+				werte.add(sb.toString().trim());
+				sb.setLength(0);
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		werte.add(sb.toString().trim());
+		return werte;
+	}
+}
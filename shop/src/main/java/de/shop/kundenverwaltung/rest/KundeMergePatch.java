@@ -0,0 +1,176 @@
+package de.shop.kundenverwaltung.rest;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ObjectNode;
+import org.codehaus.jackson.type.TypeReference;
+import org.jboss.logging.Logger;
+
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.kundenverwaltung.domain.Adresse;
+import de.shop.kundenverwaltung.domain.FamilienstandType;
+import de.shop.kundenverwaltung.domain.GeschlechtType;
+import de.shop.kundenverwaltung.domain.HobbyType;
+import de.shop.kundenverwaltung.domain.Privatkunde;
+
+
+/**
+ * JSON Merge Patch (RFC 7386) auf einen Kunden anwenden: Nur die im Patch enthaltenen Attribute werden
+ * geaendert, null entfernt einen Wert. ID, Versionsnummer, Typ und berechnete Attribute wie z.B. URIs
+ * werden ignoriert. Da nur die betroffenen Setter aufgerufen werden, erkennt Hibernate beim Dirty Checking
+ * genau die geaenderten Spalten.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+final class KundeMergePatch {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	static final String PASSWORD = "password";
+
+	private KundeMergePatch() {
+	}
+
+	/**
+	 * Patch auf einen Kunden anwenden
+	 * @param patch Die zu aendernden Attribute
+	 * @param kunde Der zu aendernde Kunde
+	 * @throws IllegalArgumentException Falls ein Wert nicht zum Typ des Attributs passt
+	 */
+	static void apply(ObjectNode patch, AbstractKunde kunde) {
+		final Iterator<Entry<String, JsonNode>> felder = patch.getFields();
+		while (felder.hasNext()) {
+			final Entry<String, JsonNode> feld = felder.next();
+			final String name = feld.getKey();
+			final JsonNode wert = feld.getValue();
+			switch (name) {
+				case "nachname":
+					kunde.setNachname(toValue(name, wert, String.class));
+					break;
+				case "vorname":
+					kunde.setVorname(toValue(name, wert, String.class));
+					break;
+				case "kategorie":
+					kunde.setKategorie(toNotNull(name, wert, Short.class));
+					break;
+				case "rabatt":
+					kunde.setRabatt(toValue(name, wert, BigDecimal.class));
+					break;
+				case "umsatz":
+					kunde.setUmsatz(toValue(name, wert, BigDecimal.class));
+					break;
+				case "seit":
+					kunde.setSeit(toValue(name, wert, Date.class));
+					break;
+				case "email":
+					kunde.setEmail(toValue(name, wert, String.class));
+					break;
+				case "newsletter":
+					kunde.setNewsletter(toNotNull(name, wert, Boolean.class));
+					break;
+				case PASSWORD:
+					final String password = toValue(name, wert, String.class);
+					kunde.setPassword(password);
+					kunde.setPasswordWdh(password);
+					break;
+				case "bemerkungen":
+					kunde.setBemerkungen(toValue(name, wert, String.class));
+					break;
+				case "adresse":
+					applyAdresse(name, wert, kunde.getAdresse());
+					break;
+				default:
+					if (kunde instanceof Privatkunde && applyPrivatkunde(name, wert, (Privatkunde) kunde)) {
+						break;
+					}
+					LOGGER.tracef("Das Attribut %s wird ignoriert", name);
+					break;
+			}
+		}
+	}
+
+	private static void applyAdresse(String name, JsonNode wert, Adresse adresse) {
+		if (wert == null || !wert.isObject()) {
+			// Die Adresse ist Pflicht und kann deshalb nicht entfernt werden
+			throw new IllegalArgumentException("Ungueltiger Wert fuer " + name);
+		}
+
+		final Iterator<Entry<String, JsonNode>> felder = wert.getFields();
+		while (felder.hasNext()) {
+			final Entry<String, JsonNode> feld = felder.next();
+			final String adresseName = name + '.' + feld.getKey();
+			switch (feld.getKey()) {
+				case "plz":
+					adresse.setPlz(toValue(adresseName, feld.getValue(), String.class));
+					break;
+				case "ort":
+					adresse.setOrt(toValue(adresseName, feld.getValue(), String.class));
+					break;
+				case "strasse":
+					adresse.setStrasse(toValue(adresseName, feld.getValue(), String.class));
+					break;
+				case "hausnr":
+					adresse.setHausnr(toValue(adresseName, feld.getValue(), String.class));
+					break;
+				default:
+					LOGGER.tracef("Das Attribut %s wird ignoriert", adresseName);
+					break;
+			}
+		}
+	}
+
+	private static boolean applyPrivatkunde(String name, JsonNode wert, Privatkunde privatkunde) {
+		switch (name) {
+			case "familienstand":
+				privatkunde.setFamilienstand(toValue(name, wert, FamilienstandType.class));
+				return true;
+			case "geschlecht":
+				privatkunde.setGeschlecht(toValue(name, wert, GeschlechtType.class));
+				return true;
+			case "hobbies":
+				final Set<HobbyType> hobbies = wert.isNull()
+						                       ? null
+						                       : toValue(name, wert, new TypeReference<Set<HobbyType>>() { });
+				privatkunde.setHobbies(hobbies);
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private static <T> T toValue(String name, JsonNode wert, Class<T> clazz) {
+		if (wert.isNull()) {
+			return null;
+		}
+		try {
+			return MAPPER.readValue(MAPPER.treeAsTokens(wert), clazz);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Ungueltiger Wert fuer " + name, e);
+		}
+	}
+
+	private static <T> T toValue(String name, JsonNode wert, TypeReference<T> typeRef) {
+		try {
+			return MAPPER.readValue(MAPPER.treeAsTokens(wert), typeRef);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Ungueltiger Wert fuer " + name, e);
+		}
+	}
+
+	private static <T> T toNotNull(String name, JsonNode wert, Class<T> clazz) {
+		final T value = toValue(name, wert, clazz);
+		if (value == null) {
+			throw new IllegalArgumentException("Das Attribut " + name + " kann nicht entfernt werden");
+		}
+		return value;
+	}
+}
@@ -0,0 +1,57 @@
+package de.shop.kundenverwaltung.rest;
+
+import java.net.URI;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.kundenverwaltung.domain.Wartungsvertrag;
+
+
+/**
+ * Alle Daten, die fuer die Anzeige eines Kunden benoetigt werden, in einem Dokument: der Kunde, seine
+ * Bestellungen und Wartungsvertraege sowie die URI seiner Datei, falls er eine hat
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@XmlRootElement
+public class KundeOverview {
+	private AbstractKunde kunde;
+	private List<Bestellung> bestellungen;
+	private List<Wartungsvertrag> wartungsvertraege;
+	private URI fileUri;
+
+	public AbstractKunde getKunde() {
+		return kunde;
+	}
+	public void setKunde(AbstractKunde kunde) {
+		this.kunde = kunde;
+	}
+	public List<Bestellung> getBestellungen() {
+		return bestellungen;
+	}
+	public void setBestellungen(List<Bestellung> bestellungen) {
+		this.bestellungen = bestellungen;
+	}
+	public List<Wartungsvertrag> getWartungsvertraege() {
+		return wartungsvertraege;
+	}
+	public void setWartungsvertraege(List<Wartungsvertrag> wartungsvertraege) {
+		this.wartungsvertraege = wartungsvertraege;
+	}
+	public URI getFileUri() {
+		return fileUri;
+	}
+	public void setFileUri(URI fileUri) {
+		this.fileUri = fileUri;
+	}
+
+	@Override
+	public String toString() {
+		return "KundeOverview [kunde=" + kunde
+		       + ", bestellungen=" + (bestellungen == null ? null : bestellungen.size())
+		       + ", wartungsvertraege=" + (wartungsvertraege == null ? null : wartungsvertraege.size())
+		       + ", fileUri=" + fileUri + "]";
+	}
+}
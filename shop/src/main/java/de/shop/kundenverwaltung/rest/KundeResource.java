@@ -1,46 +1,80 @@
 package de.shop.kundenverwaltung.rest;
 
+import static de.shop.kundenverwaltung.service.KundeImportService.CHUNK_GROESSE;
 import static de.shop.util.Constants.ADD_LINK;
+import static de.shop.util.Constants.CSV;
 import static de.shop.util.Constants.FIRST_LINK;
 import static de.shop.util.Constants.KEINE_ID;
 import static de.shop.util.Constants.LAST_LINK;
 import static de.shop.util.Constants.LIST_LINK;
+import static de.shop.util.Constants.MERGE_PATCH_JSON;
+import static de.shop.util.Constants.NDJSON;
 import static de.shop.util.Constants.REMOVE_LINK;
 import static de.shop.util.Constants.SELF_LINK;
 import static de.shop.util.Constants.UPDATE_LINK;
+import static de.shop.util.rest.AsyncResponseHelper.Pool.DATEIEN;
+import static de.shop.util.rest.AsyncResponseHelper.Pool.LISTEN;
+import static de.shop.util.rest.AsyncResponseHelper.Pool.TEILZUGRIFFE;
+import static de.shop.util.rest.ExportOutput.DATUM_PATTERN;
+import static de.shop.util.rest.SmileProvider.APPLICATION_SMILE;
+import static javax.ws.rs.core.HttpHeaders.IF_MATCH;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static javax.ws.rs.core.MediaType.TEXT_XML;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.persistence.OptimisticLockException;
 import javax.transaction.Transactional;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.Pattern;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Link;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
+import org.codehaus.jackson.node.ObjectNode;
 import org.hibernate.validator.constraints.Email;
 import org.jboss.logging.Logger;
 
@@ -52,12 +86,24 @@ import de.shop.bestellverwaltung.service.BestellungService;
 import de.shop.kundenverwaltung.domain.AbstractKunde;
 import de.shop.kundenverwaltung.domain.Adresse;
 import de.shop.kundenverwaltung.domain.GeschlechtType;
+import de.shop.kundenverwaltung.domain.Wartungsvertrag;
+import de.shop.kundenverwaltung.service.KundeImportErgebnis;
+import de.shop.kundenverwaltung.service.KundeImportService;
+import de.shop.kundenverwaltung.service.KundeImportZeile;
 import de.shop.kundenverwaltung.service.KundeService;
 import de.shop.kundenverwaltung.service.KundeService.FetchType;
 import de.shop.kundenverwaltung.service.KundeService.OrderByType;
 import de.shop.util.interceptor.Log;
 import de.shop.util.persistence.File;
+import de.shop.util.persistence.FileCache;
+import de.shop.util.persistence.MimeType;
+import de.shop.util.persistence.OffHeapCache.Eintrag;
+import de.shop.util.rest.AsyncResponseHelper;
+import de.shop.util.rest.CachedFileOutput;
+import de.shop.util.rest.EntityTagHelper;
+import de.shop.util.rest.ExportOutput;
 import de.shop.util.rest.NotFoundException;
+import de.shop.util.rest.PATCH;
 import de.shop.util.rest.UriHelper;
 
 
@@ -65,7 +111,7 @@ import de.shop.util.rest.UriHelper;
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
  */
 @Path("/kunden")
-@Produces({ APPLICATION_JSON, APPLICATION_XML + ";qs=0.75", TEXT_XML + ";qs=0.5" })
+@Produces({ APPLICATION_JSON, APPLICATION_XML + ";qs=0.75", TEXT_XML + ";qs=0.5", APPLICATION_SMILE + ";qs=0.25" })
 @Consumes
 @Log
 public class KundeResource {
@@ -77,19 +123,40 @@ public class KundeResource {
 	public static final String KUNDEN_PLZ_QUERY_PARAM = "plz";
 	public static final String KUNDEN_EMAIL_QUERY_PARAM = "email";
 	public static final String KUNDEN_GESCHLECHT_QUERY_PARAM = "geschlecht";
+	public static final String KUNDEN_SEIT_QUERY_PARAM = "seit";
+	public static final String KUNDEN_ERZEUGT_QUERY_PARAM = "erzeugt";
 	
 	private static final String NOT_FOUND_ID = "kunde.notFound.id";
 	private static final String NOT_FOUND_NACHNAME = "kunde.notFound.nachname";
 	private static final String NOT_FOUND_PLZ = "kunde.notFound.plz";
 	private static final String NOT_FOUND_EMAIL = "kunde.notFound.email";
 	private static final String NOT_FOUND_FILE = "kunde.notFound.file";
+	
+	// Reihenfolge wie in der SELECT-Klausel von AbstractKunde.EXPORT_KUNDEN
+	private static final String[] EXPORT_SPALTEN = { "id", "type", "nachname", "vorname", "email", "kategorie",
+		                                             "rabatt", "umsatz", "seit", "newsletter", "plz", "ort",
+		                                             "strasse", "hausnr", "erzeugt", "aktualisiert" };
+	
+	private static final long FIND_ALL_KUNDEN_TIMEOUT_MILLIS = 30000;
+	private static final long FILE_TIMEOUT_MILLIS = 60000;
+	private static final long OVERVIEW_TIMEOUT_MILLIS = 5000;
+	private static final long OVERVIEW_RETRY_AFTER_SEKUNDEN = 5;
 
 	@Context
 	private UriInfo uriInfo;
+	
+	@Context
+	private Request request;
+	
+	@Context
+	private HttpHeaders headers;
     
 	@Inject
 	private KundeService ks;
 	
+	@Inject
+	private KundeImportService importService;
+	
 	@Inject
 	private BestellungService bs;
 
@@ -99,6 +166,18 @@ public class KundeResource {
 	@Inject
 	private UriHelper uriHelper;
 	
+	@Inject
+	private EntityTagHelper entityTagHelper;
+	
+	@Inject
+	private AsyncResponseHelper asyncResponseHelper;
+	
+	@Inject
+	private FileCache fileCache;
+	
+	@Inject
+	private Validator validator;
+	
 	@PostConstruct
 	private void postConstruct() {
 		LOGGER.debugf("CDI-faehiges Bean %s wurde erzeugt", this);
@@ -117,6 +196,19 @@ public class KundeResource {
 	@GET
 	@Path("{" + KUNDEN_ID_PATH_PARAM + ":[1-9][0-9]*}")
 	public Response findKundeById(@PathParam(KUNDEN_ID_PATH_PARAM) Long id) {
+		// Bei "If-None-Match" zunaechst nur die Versionsnummer lesen: ggf. 304 ohne Laden und Serialisieren
+		if (headers.getHeaderString(IF_NONE_MATCH) != null) {
+			final Integer version = ks.findVersionById(id);
+			if (version == null) {
+				throw new NotFoundException(NOT_FOUND_ID, id);
+			}
+			final EntityTag etag = entityTagHelper.getEntityTag(id, version);
+			final ResponseBuilder notModified = request.evaluatePreconditions(etag);
+			if (notModified != null) {
+				return notModified.build();
+			}
+		}
+		
 		final AbstractKunde kunde = ks.findKundeById(id, FetchType.NUR_KUNDE);
 		if (kunde == null) {
 			throw new NotFoundException(NOT_FOUND_ID, id);
@@ -126,9 +218,14 @@ public class KundeResource {
 		
 		return Response.ok(kunde)
 				       .links(getTransitionalLinks(kunde, uriInfo))
+				       .tag(getEntityTag(kunde))
 				       .build();
 	}
 	
+	private EntityTag getEntityTag(AbstractKunde kunde) {
+		return entityTagHelper.getEntityTag(kunde.getId(), kunde.getVersion());
+	}
+	
 	public void setStructuralLinks(AbstractKunde kunde, UriInfo uriInfo) {
 		// URI fuer Bestellungen setzen
 		final URI uri = getUriBestellungen(kunde, uriInfo);
@@ -182,11 +279,14 @@ public class KundeResource {
 	/**
 	 * Mit der URL /kunden werden alle Kunden ermittelt oder
 	 * mit kunden?nachname=... diejenigen mit einem bestimmten Nachnamen.
+	 * Nur die Liste aller Kunden wird asynchron in einem eigenen Pool ermittelt; die Suche mit Query-Parametern
+	 * ist schnell genug fuer den Request-Thread.
 	 * @param nachname Der gemeinsame Nachname der gesuchten Kunden
-	 * @return Collection mit den gefundenen Kundendaten
+	 * @param uriInfo Die URI des Requests fuer die Links
+	 * @param asyncResponse Response mit den gefundenen Kundendaten bzw. 503 nach einem Timeout
 	 */
 	@GET
-	public Response findKunden(@QueryParam(KUNDEN_NACHNAME_QUERY_PARAM)
+	public void findKunden(@QueryParam(KUNDEN_NACHNAME_QUERY_PARAM)
 	                           @Pattern(regexp = AbstractKunde.NACHNAME_PATTERN, message = "{kunde.nachname.pattern}")
 	                           String nachname,
 	                           @QueryParam(KUNDEN_PLZ_QUERY_PARAM)
@@ -196,7 +296,21 @@ public class KundeResource {
 	                           @Email(message = "{kunde.email}")
                                String email,
                                @QueryParam(KUNDEN_GESCHLECHT_QUERY_PARAM)
-	                           GeschlechtType geschlecht) {
+	                           GeschlechtType geschlecht,
+	                           @Context UriInfo uriInfo,
+	                           @Suspended AsyncResponse asyncResponse) {
+		final Callable<Response> task = new FindKundenTask(nachname, plz, email, geschlecht, uriInfo);
+		if (Strings.isNullOrEmpty(nachname) && Strings.isNullOrEmpty(plz) && Strings.isNullOrEmpty(email)
+			&& geschlecht == null) {
+			asyncResponseHelper.execute(asyncResponse, LISTEN, FIND_ALL_KUNDEN_TIMEOUT_MILLIS, task);
+		}
+		else {
+			asyncResponseHelper.resume(asyncResponse, task);
+		}
+	}
+	
+	private Response findKunden(String nachname, String plz, String email, GeschlechtType geschlecht,
+			                    UriInfo uriInfo) {
 		List<? extends AbstractKunde> kunden = null;
 		AbstractKunde kunde = null;
 		// TODO Mehrere Query-Parameter koennen angegeben sein
@@ -247,6 +361,30 @@ public class KundeResource {
                        .build();
 	}
 	
+	/**
+	 * Suche mit den Query-Parametern von findKunden() im Request-Thread oder im Pool fuer Listen
+	 */
+	private class FindKundenTask implements Callable<Response> {
+		private final String nachname;
+		private final String plz;
+		private final String email;
+		private final GeschlechtType geschlecht;
+		private final UriInfo uriInfo;
+		
+		FindKundenTask(String nachname, String plz, String email, GeschlechtType geschlecht, UriInfo uriInfo) {
+			this.nachname = nachname;
+			this.plz = plz;
+			this.email = email;
+			this.geschlecht = geschlecht;
+			this.uriInfo = uriInfo;
+		}
+		
+		@Override
+		public Response call() {
+			return findKunden(nachname, plz, email, geschlecht, uriInfo);
+		}
+	}
+	
 	private Link[] getTransitionalLinksKunden(List<? extends AbstractKunde> kunden, UriInfo uriInfo) {
 		if (kunden == null || kunden.isEmpty()) {
 			return null;
@@ -263,6 +401,46 @@ public class KundeResource {
 		return new Link[] { first, last };
 	}
 	
+	/**
+	 * Mit der URL /kunden/export alle Kunden als NDJSON ermitteln, ohne die Liste im Speicher aufzubauen.
+	 * Mit den Query-Parametern seit und erzeugt werden z.B. nur die seit dem letzten Export neuen Kunden
+	 * ermittelt.
+	 * @param seit Nur Kunden, die seit diesem Datum registriert sind
+	 * @param erzeugt Nur Kunden, die ab diesem Zeitpunkt erzeugt wurden
+	 * @return Rumpf, der direkt aus der DB gelesen wird
+	 */
+	@GET
+	@Path("/export")
+	@Produces(NDJSON)
+	public StreamingOutput exportKundenNdjson(@QueryParam(KUNDEN_SEIT_QUERY_PARAM)
+	                                          @Pattern(regexp = DATUM_PATTERN, message = "{export.datum}")
+	                                          String seit,
+	                                          @QueryParam(KUNDEN_ERZEUGT_QUERY_PARAM)
+	                                          @Pattern(regexp = DATUM_PATTERN, message = "{export.datum}")
+	                                          String erzeugt) {
+		return ExportOutput.ndjson(ks.exportKunden(ExportOutput.toDate(seit), ExportOutput.toDate(erzeugt)),
+		                           EXPORT_SPALTEN);
+	}
+	
+	/**
+	 * Mit der URL /kunden/export alle Kunden als CSV ermitteln, ohne die Liste im Speicher aufzubauen.
+	 * @param seit Nur Kunden, die seit diesem Datum registriert sind
+	 * @param erzeugt Nur Kunden, die ab diesem Zeitpunkt erzeugt wurden
+	 * @return Rumpf mit Kopfzeile, der direkt aus der DB gelesen wird
+	 */
+	@GET
+	@Path("/export")
+	@Produces(CSV + ";qs=0.5")
+	public StreamingOutput exportKundenCsv(@QueryParam(KUNDEN_SEIT_QUERY_PARAM)
+	                                       @Pattern(regexp = DATUM_PATTERN, message = "{export.datum}")
+	                                       String seit,
+	                                       @QueryParam(KUNDEN_ERZEUGT_QUERY_PARAM)
+	                                       @Pattern(regexp = DATUM_PATTERN, message = "{export.datum}")
+	                                       String erzeugt) {
+		return ExportOutput.csv(ks.exportKunden(ExportOutput.toDate(seit), ExportOutput.toDate(erzeugt)),
+		                        EXPORT_SPALTEN);
+	}
+	
 	@GET
 	@Path("/prefix/nachname/{nachname}")
 	@Produces({ APPLICATION_JSON, TEXT_PLAIN })
@@ -365,6 +543,124 @@ public class KundeResource {
 				       .build();
 	}
 	
+	/**
+	 * Mit der URL /kunden/{id}/overview den Kunden mit seinen Bestellungen, Wartungsvertraegen und der URI
+	 * seiner Datei in einem Dokument ermitteln. Bestellungen, Wartungsvertraege und Datei werden parallel zum
+	 * Kunden im beschraenkten Pool TEILZUGRIFFE gelesen, jeweils ohne Transaktion mit einem eigenen
+	 * Persistenzkontext, so dass die Antwortzeit etwa der des langsamsten Zugriffs entspricht. Ist der Pool
+	 * ausgelastet, wird mit 503 und "Retry-After" geantwortet.
+	 * @param id ID des Kunden
+	 * @return Dokument mit den Kundendaten, falls die ID vorhanden ist
+	 */
+	@GET
+	@Path("{id:[1-9][0-9]*}/overview")
+	public Response findKundeOverviewById(@PathParam("id") final Long id) {
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(OVERVIEW_TIMEOUT_MILLIS);
+		final Future<List<Bestellung>> bestellungenFuture = asyncResponseHelper.submit(TEILZUGRIFFE,
+				                                                new Callable<List<Bestellung>>() {
+			@Override
+			public List<Bestellung> call() {
+				return bs.findBestellungenByKundeId(id, BestellungService.FetchType.NUR_BESTELLUNG);
+			}
+		});
+		final Future<List<Wartungsvertrag>> wartungsvertraegeFuture;
+		try {
+			wartungsvertraegeFuture = asyncResponseHelper.submit(TEILZUGRIFFE,
+					                                             new Callable<List<Wartungsvertrag>>() {
+				@Override
+				public List<Wartungsvertrag> call() {
+					return ks.findWartungsvertraege(id);
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			cancel(bestellungenFuture);
+			throw e;
+		}
+		final Future<MimeType> mimeTypeFuture;
+		try {
+			mimeTypeFuture = asyncResponseHelper.submit(TEILZUGRIFFE, new Callable<MimeType>() {
+				@Override
+				public MimeType call() {
+					return ks.findFileMimeTypeById(id);
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			cancel(bestellungenFuture, wartungsvertraegeFuture);
+			throw e;
+		}
+		
+		// Den Kunden im Request-Thread lesen, waehrend die uebrigen Zugriffe laufen
+		final AbstractKunde kunde;
+		try {
+			kunde = ks.findKundeById(id, FetchType.NUR_KUNDE);
+		}
+		catch (RuntimeException e) {
+			cancel(bestellungenFuture, wartungsvertraegeFuture, mimeTypeFuture);
+			throw e;
+		}
+		if (kunde == null) {
+			cancel(bestellungenFuture, wartungsvertraegeFuture, mimeTypeFuture);
+			throw new NotFoundException(NOT_FOUND_ID, id);
+		}
+		
+		final KundeOverview overview = new KundeOverview();
+		try {
+			final List<Bestellung> bestellungen = get(bestellungenFuture, deadline);
+			for (Bestellung bestellung : bestellungen) {
+				bestellungResource.setStructuralLinks(bestellung, uriInfo);
+			}
+			overview.setBestellungen(bestellungen);
+			overview.setWartungsvertraege(get(wartungsvertraegeFuture, deadline));
+			if (get(mimeTypeFuture, deadline) != null) {
+				overview.setFileUri(uriHelper.getUri(KundeResource.class, "download", id, uriInfo));
+			}
+		}
+		catch (RuntimeException e) {
+			cancel(bestellungenFuture, wartungsvertraegeFuture, mimeTypeFuture);
+			throw e;
+		}
+		
+		setStructuralLinks(kunde, uriInfo);
+		overview.setKunde(kunde);
+		return Response.ok(overview)
+				       .links(getTransitionalLinks(kunde, uriInfo))
+				       .build();
+	}
+	
+	/**
+	 * Auf das Ergebnis eines parallelen Zugriffs hoechstens bis zur gegebenen Frist warten
+	 * @param future Der parallele Zugriff
+	 * @param deadline Frist als Wert von System.nanoTime()
+	 * @return Das Ergebnis des Zugriffs
+	 */
+	private static <T> T get(Future<T> future, long deadline) {
+		try {
+			return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		}
+		catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new InternalServerErrorException(cause);
+		}
+		catch (TimeoutException e) {
+			throw new ServiceUnavailableException(Long.valueOf(OVERVIEW_RETRY_AFTER_SEKUNDEN), e);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceUnavailableException(Long.valueOf(OVERVIEW_RETRY_AFTER_SEKUNDEN), e);
+		}
+	}
+	
+	private static void cancel(Future<?>... futures) {
+		for (Future<?> future : futures) {
+			future.cancel(true);
+		}
+	}
+	
 
 	/**
 	 * Mit der URL /kunden einen Privatkunden per POST anlegen.
@@ -394,7 +690,34 @@ public class KundeResource {
 	}
 	
 	/**
-	 * Mit der URL /kunden einen Kunden per PUT aktualisieren
+	 * Mit der URL /kunden/import viele neue Kunden per POST anlegen, z.B. die Kunden eines Partners.
+	 * Der Rumpf wird als Stream in Teilmengen gelesen: entweder NDJSON mit einem Kunden pro Zeile wie bei
+	 * POST /kunden oder CSV mit einer Kopfzeile. Jede Teilmenge wird in einer eigenen Transaktion gespeichert,
+	 * und fehlerhafte Zeilen verhindern nicht den Import der uebrigen Zeilen.
+	 * @param stream Rumpf des Requests
+	 * @return Anzahl der gelesenen und angelegten Kunden sowie die Fehler mit Zeilennummer
+	 * @throws IOException Falls der Rumpf nicht gelesen werden kann
+	 */
+	@POST
+	@Path("/import")
+	@Consumes({ NDJSON, CSV })
+	public KundeImportErgebnis importKunden(InputStream stream) throws IOException {
+		final KundeImportErgebnis ergebnis = new KundeImportErgebnis();
+		try (final KundeImportReader reader = new KundeImportReader(stream, headers.getMediaType())) {
+			List<KundeImportZeile> zeilen = reader.read(CHUNK_GROESSE);
+			while (!zeilen.isEmpty()) {
+				importService.importKunden(zeilen, ergebnis);
+				zeilen = reader.read(CHUNK_GROESSE);
+			}
+		}
+		
+		LOGGER.debugf("Import beendet: %s", ergebnis);
+		return ergebnis;
+	}
+	
+	/**
+	 * Mit der URL /kunden einen Kunden per PUT aktualisieren. Mit dem Header "If-Match" wird
+	 * die Versionsnummer ueber den ETag geprueft, ansonsten ueber die Versionsnummer im Rumpf.
 	 * @param kunde zu aktualisierende Daten des Kunden
 	 */
 	@PUT
@@ -408,17 +731,80 @@ public class KundeResource {
 			throw new NotFoundException(NOT_FOUND_ID, kunde.getId());
 		}
 		LOGGER.tracef("Kunde vorher = %s", origKunde);
+		
+		// Veraltete Version? Ohne erneutes Lesen und ohne merge() bereits vor dem Update erkennen
+		final int origVersion = origKunde.getVersion();
+		if (headers.getHeaderString(IF_MATCH) == null) {
+			if (kunde.getVersion() != origVersion) {
+				throw new OptimisticLockException(null, null, origKunde);
+			}
+		}
+		else {
+			final ResponseBuilder preconditionFailed = request.evaluatePreconditions(getEntityTag(origKunde));
+			if (preconditionFailed != null) {
+				return preconditionFailed.build();
+			}
+		}
+		final String alteEmail = origKunde.getEmail();
 	
 		// Daten des vorhandenen Kunden ueberschreiben
 		origKunde.setValues(kunde);
+		origKunde.setVersion(origVersion);
 		LOGGER.tracef("Kunde nachher = %s", origKunde);
 		
 		// Update durchfuehren
-		kunde = ks.updateKunde(origKunde, false);
+		kunde = ks.updateKundeManaged(origKunde, alteEmail, false);
 		setStructuralLinks(kunde, uriInfo);
 		
 		return Response.ok(kunde)
 				       .links(getTransitionalLinks(kunde, uriInfo))
+				       .tag(getEntityTag(kunde))
+				       .build();
+	}
+	
+	
+	/**
+	 * Mit der URL /kunden/{id} einen Kunden per PATCH als JSON Merge Patch (RFC 7386) teilweise aktualisieren.
+	 * Es werden nur die gesendeten Attribute geaendert. Mit dem Header "If-Match" wird die Versionsnummer geprueft.
+	 * @param kundeId ID des zu aktualisierenden Kunden
+	 * @param patch Die zu aendernden Attribute
+	 */
+	@PATCH
+	@Path("{id:[1-9][0-9]*}")
+	@Consumes(MERGE_PATCH_JSON)
+	@Produces({ APPLICATION_JSON, APPLICATION_XML, TEXT_XML })
+	@Transactional
+	public Response patchKunde(@PathParam("id") Long kundeId, ObjectNode patch) {
+		final AbstractKunde kunde = ks.findKundeById(kundeId, FetchType.NUR_KUNDE);
+		if (kunde == null) {
+			throw new NotFoundException(NOT_FOUND_ID, kundeId);
+		}
+		
+		if (headers.getHeaderString(IF_MATCH) != null) {
+			final ResponseBuilder preconditionFailed = request.evaluatePreconditions(getEntityTag(kunde));
+			if (preconditionFailed != null) {
+				return preconditionFailed.build();
+			}
+		}
+		final String alteEmail = kunde.getEmail();
+		
+		// Nur die gesendeten Attribute des verwalteten Kunden ueberschreiben und dann validieren
+		KundeMergePatch.apply(patch, kunde);
+		LOGGER.tracef("Kunde nachher = %s", kunde);
+		final Set<ConstraintViolation<AbstractKunde>> violations = validator.validate(kunde);
+		if (!violations.isEmpty()) {
+			throw new BadRequestException(new ConstraintViolationException(violations));
+		}
+		
+		// Update durchfuehren: ein UPDATE nur mit den geaenderten Spalten
+		final AbstractKunde aktualisierterKunde = ks.updateKundeManaged(kunde,
+				                                                         alteEmail,
+				                                                         patch.has(KundeMergePatch.PASSWORD));
+		setStructuralLinks(aktualisierterKunde, uriInfo);
+		
+		return Response.ok(aktualisierterKunde)
+				       .links(getTransitionalLinks(aktualisierterKunde, uriInfo))
+				       .tag(getEntityTag(aktualisierterKunde))
 				       .build();
 	}
 	
@@ -440,29 +826,53 @@ public class KundeResource {
 	@Path("{id:[1-9][0-9]*}/file")
 	@POST
 	@Consumes({ "image/jpeg", "image/pjpeg", "image/png" })  // RESTEasy unterstuetzt nicht video/mp4
-	@Transactional
-	public Response upload(@PathParam("id") Long kundeId, byte[] bytes) {
-		ks.setFile(kundeId, bytes);
-		return Response.created(uriHelper.getUri(KundeResource.class, "download", kundeId, uriInfo))
-				       .build();
+	public void upload(@PathParam("id") final Long kundeId,
+			           final byte[] bytes,
+			           @Context final UriInfo uriInfo,
+			           @Suspended AsyncResponse asyncResponse) {
+		// Transaktion im Pool fuer Dateien, nicht im Request-Thread
+		asyncResponseHelper.executeTransactional(asyncResponse, DATEIEN, FILE_TIMEOUT_MILLIS,
+				                                 new Callable<Response>() {
+			@Override
+			public Response call() {
+				ks.setFile(kundeId, bytes);
+				return Response.created(uriHelper.getUri(KundeResource.class, "download", kundeId, uriInfo))
+						       .build();
+			}
+		});
 	}
 	
 	@Path("{id:[1-9][0-9]*}/file")
 	@GET
 	@Produces({ "image/jpeg", "image/pjpeg", "image/png" })
-	@Transactional  // Nachladen der Datei : AbstractKunde referenziert File mit Lazy Fetching
-	public byte[] download(@PathParam("id") Long kundeId) {
-		final AbstractKunde kunde = ks.findKundeById(kundeId, FetchType.NUR_KUNDE);
-		if (kunde == null) {
-			throw new NotFoundException(NOT_FOUND_ID, kundeId);
-		}
-		
-		final File file = kunde.getFile();
-		if (file == null) {
-			throw new NotFoundException(NOT_FOUND_FILE, kundeId);
-		}
-		LOGGER.tracef("%s", file.toString());
-		
-		return file.getBytes();
+	public void download(@PathParam("id") final Long kundeId, @Suspended AsyncResponse asyncResponse) {
+		// Transaktion fuer das Nachladen der Datei: AbstractKunde referenziert File mit Lazy Fetching
+		asyncResponseHelper.executeTransactional(asyncResponse, DATEIEN, FILE_TIMEOUT_MILLIS, new Callable<Object>() {
+			@Override
+			public Object call() {
+				// Zuerst nur ID und Version der Datei fuer den Cache, ohne die Bytes zu laden
+				final File ohneBytes = ks.findFileOhneBytesById(kundeId);
+				if (ohneBytes == null) {
+					final String key = ks.findVersionById(kundeId) == null ? NOT_FOUND_ID : NOT_FOUND_FILE;
+					throw new NotFoundException(key, kundeId);
+				}
+				Eintrag eintrag = fileCache.get(ohneBytes.getId(), ohneBytes.getVersion());
+				if (eintrag != null) {
+					return new CachedFileOutput(eintrag);
+				}
+				
+				final AbstractKunde kunde = ks.findKundeById(kundeId, FetchType.NUR_KUNDE);
+				final File file = kunde == null ? null : kunde.getFile();
+				if (file == null) {
+					// Inzwischen geloescht
+					throw new NotFoundException(kunde == null ? NOT_FOUND_ID : NOT_FOUND_FILE, kundeId);
+				}
+				LOGGER.tracef("%s", file.toString());
+				
+				eintrag = fileCache.put(file);
+				// Zu grosse Dateien werden nicht gecacht
+				return eintrag == null ? file.getBytes() : new CachedFileOutput(eintrag);
+			}
+		});
 	}
 }
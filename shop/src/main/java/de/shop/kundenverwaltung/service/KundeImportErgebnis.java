@@ -0,0 +1,58 @@
+package de.shop.kundenverwaltung.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * Ergebnis eines Imports von Kunden: Anzahl der gelesenen und der angelegten Kunden sowie die Fehler
+ * mit ihrer Zeilennummer
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@XmlRootElement
+public class KundeImportErgebnis {
+	private int zeilen;
+	private int importiert;
+	private List<KundeImportFehler> fehler = new ArrayList<>();
+
+	public int getZeilen() {
+		return zeilen;
+	}
+	public void setZeilen(int zeilen) {
+		this.zeilen = zeilen;
+	}
+	public int getImportiert() {
+		return importiert;
+	}
+	public void setImportiert(int importiert) {
+		this.importiert = importiert;
+	}
+	public List<KundeImportFehler> getFehler() {
+		return fehler;
+	}
+	public void setFehler(List<KundeImportFehler> fehler) {
+		this.fehler = fehler;
+	}
+
+	/**
+	 * Das Ergebnis einer verarbeiteten Zeile uebernehmen
+	 * @param zeile Die verarbeitete Zeile
+	 */
+	public void add(KundeImportZeile zeile) {
+		zeilen++;
+		if (zeile.isFehlerfrei()) {
+			importiert++;
+			return;
+		}
+		final String email = zeile.getKunde() == null ? null : zeile.getKunde().getEmail();
+		fehler.add(new KundeImportFehler(zeile.getNr(), email, zeile.getFehler()));
+	}
+
+	@Override
+	public String toString() {
+		return "KundeImportErgebnis [zeilen=" + zeilen + ", importiert=" + importiert
+		       + ", fehler=" + fehler.size() + "]";
+	}
+}
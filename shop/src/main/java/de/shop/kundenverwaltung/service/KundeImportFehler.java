@@ -0,0 +1,50 @@
+package de.shop.kundenverwaltung.service;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * Fehler in einer Zeile beim Import von Kunden
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@XmlRootElement
+public class KundeImportFehler {
+	private int zeile;
+	private String email;
+	private String meldung;
+
+	public KundeImportFehler() {
+		super();
+	}
+
+	public KundeImportFehler(int zeile, String email, String meldung) {
+		super();
+		this.zeile = zeile;
+		this.email = email;
+		this.meldung = meldung;
+	}
+
+	public int getZeile() {
+		return zeile;
+	}
+	public void setZeile(int zeile) {
+		this.zeile = zeile;
+	}
+	public String getEmail() {
+		return email;
+	}
+	public void setEmail(String email) {
+		this.email = email;
+	}
+	public String getMeldung() {
+		return meldung;
+	}
+	public void setMeldung(String meldung) {
+		this.meldung = meldung;
+	}
+
+	@Override
+	public String toString() {
+		return "KundeImportFehler [zeile=" + zeile + ", email=" + email + ", meldung=" + meldung + "]";
+	}
+}
@@ -0,0 +1,217 @@
+package de.shop.kundenverwaltung.service;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.jboss.logging.Logger;
+
+import de.shop.auth.service.AuthService;
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.util.interceptor.Log;
+
+
+/**
+ * Import vieler Kunden in Teilmengen: Validierung und Verschluesselung der Passwoerter laufen parallel im
+ * ManagedExecutorService, die Eindeutigkeit der Emailadressen wird mit 1 Query je Teilmenge geprueft, und
+ * jede Teilmenge wird in einer eigenen Transaktion mit JDBC-Batching gespeichert.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+@Log
+public class KundeImportService {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
+	
+	// Oracle erlaubt max. 1000 Ausdruecke bei IN
+	public static final int CHUNK_GROESSE = 500;
+	
+	// Eine Teilmenge wird auf hoechstens so viele parallele Teilaufgaben mit mindestens SCHWELLWERT Zeilen verteilt
+	private static final int PARALLELITAET = Runtime.getRuntime().availableProcessors();
+	private static final int SCHWELLWERT = 16;
+	
+	private static final String EMAIL_EXISTS = "Die Email-Adresse %s existiert bereits";
+	private static final String EMAIL_DOPPELT = "Die Email-Adresse %s ist bereits in Zeile %d enthalten";
+	private static final String NICHT_GESPEICHERT = "Die Teilmenge ab Zeile %d wurde nicht gespeichert: %s";
+	
+	@Inject
+	private KundeService ks;
+	
+	@Inject
+	private AuthService authService;
+	
+	@Inject
+	private Validator validator;
+	
+	@Inject
+	private ManagedExecutorService managedExecutorService;
+	
+	@PostConstruct
+	private void postConstruct() {
+		LOGGER.debugf("CDI-faehiges Bean %s wurde erzeugt mit Parallelitaet %d", this, PARALLELITAET);
+	}
+	
+	@PreDestroy
+	private void preDestroy() {
+		LOGGER.debugf("CDI-faehiges Bean %s wurde geloescht", this);
+	}
+	
+	/**
+	 * Eine Teilmenge von hoechstens CHUNK_GROESSE Zeilen importieren. Fehlerhafte Zeilen erhalten eine
+	 * Fehlermeldung, die restlichen Kunden werden in einer eigenen Transaktion angelegt.
+	 * @param zeilen Die gelesenen Zeilen
+	 * @param ergebnis Ergebnis des gesamten Imports, das um diese Teilmenge ergaenzt wird
+	 */
+	public void importKunden(List<KundeImportZeile> zeilen, KundeImportErgebnis ergebnis) {
+		if (zeilen.isEmpty()) {
+			return;
+		}
+		
+		// CPU-intensiv und ohne DB-Zugriff, deshalb parallel und ausserhalb einer Transaktion
+		pruefenParallel(zeilen);
+		
+		// Doppelte Emailadressen innerhalb der Teilmenge; vorherige Teilmengen sind bereits gespeichert
+		final Map<String, KundeImportZeile> zeilenByEmail = new HashMap<>();
+		final List<AbstractKunde> kunden = new ArrayList<>(zeilen.size());
+		for (KundeImportZeile zeile : zeilen) {
+			if (!zeile.isFehlerfrei()) {
+				continue;
+			}
+			final String email = zeile.getKunde().getEmail();
+			final KundeImportZeile vorher = zeilenByEmail.get(email.toUpperCase(Locale.ENGLISH));
+			if (vorher == null) {
+				zeilenByEmail.put(email.toUpperCase(Locale.ENGLISH), zeile);
+				kunden.add(zeile.getKunde());
+			}
+			else {
+				zeile.setFehler(String.format(EMAIL_DOPPELT, email, vorher.getNr()));
+			}
+		}
+		
+		try {
+			final Set<String> vorhanden = ks.createKunden(kunden);
+			for (String email : vorhanden) {
+				final KundeImportZeile zeile = zeilenByEmail.get(email);
+				if (zeile != null) {
+					zeile.setFehler(String.format(EMAIL_EXISTS, zeile.getKunde().getEmail()));
+				}
+			}
+		}
+		catch (PersistenceException e) {
+			// Die Transaktion der Teilmenge wurde zurueckgerollt, vorherige Teilmengen bleiben gespeichert
+			LOGGER.warnf(e, "Teilmenge ab Zeile %d nicht gespeichert", zeilen.get(0).getNr());
+			final String fehler = String.format(NICHT_GESPEICHERT, zeilen.get(0).getNr(), e.getMessage());
+			for (KundeImportZeile zeile : zeilenByEmail.values()) {
+				zeile.setFehler(fehler);
+			}
+		}
+		
+		for (KundeImportZeile zeile : zeilen) {
+			ergebnis.add(zeile);
+		}
+	}
+	
+	/**
+	 * Zeilen validieren und bei gueltigen Kunden das Passwort verschluesseln. Die Zeilen werden auf hoechstens
+	 * PARALLELITAET Teilaufgaben verteilt, die im ManagedExecutorService und damit mit dem Kontext der Anwendung
+	 * (Classloader, JNDI, Security) laufen; die erste Teilaufgabe bearbeitet der aufrufende Thread selbst.
+	 * @param zeilen Die Zeilen einer Teilmenge
+	 */
+	private void pruefenParallel(List<KundeImportZeile> zeilen) {
+		final int anzahl = zeilen.size();
+		final int teilaufgaben = Math.max(1, Math.min(PARALLELITAET, anzahl / SCHWELLWERT));
+		final int groesse = (anzahl + teilaufgaben - 1) / teilaufgaben;
+		
+		final List<Future<?>> futures = new ArrayList<>(teilaufgaben - 1);
+		try {
+			for (int von = groesse; von < anzahl; von += groesse) {
+				final List<KundeImportZeile> teil = zeilen.subList(von, Math.min(von + groesse, anzahl));
+				futures.add(managedExecutorService.submit(new Runnable() {
+					@Override
+					public void run() {
+						pruefenTeil(teil);
+					}
+				}));
+			}
+			pruefenTeil(zeilen.subList(0, Math.min(groesse, anzahl)));
+			
+			// get() macht die Aenderungen der Teilaufgaben an den Zeilen fuer diesen Thread sichtbar
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (ExecutionException e) {
+			cancel(futures);
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+		catch (InterruptedException e) {
+			cancel(futures);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		catch (RuntimeException e) {
+			cancel(futures);
+			throw e;
+		}
+	}
+	
+	private static void cancel(List<Future<?>> futures) {
+		for (Future<?> future : futures) {
+			future.cancel(true);
+		}
+	}
+	
+	private void pruefenTeil(List<KundeImportZeile> zeilen) {
+		for (KundeImportZeile zeile : zeilen) {
+			pruefen(zeile);
+		}
+	}
+	
+	private void pruefen(KundeImportZeile zeile) {
+		if (!zeile.isFehlerfrei()) {
+			return;
+		}
+		
+		final AbstractKunde kunde = zeile.getKunde();
+		final Set<ConstraintViolation<AbstractKunde>> violations = validator.validate(kunde);
+		if (!violations.isEmpty()) {
+			final StringBuilder sb = new StringBuilder();
+			for (ConstraintViolation<AbstractKunde> v : violations) {
+				if (sb.length() > 0) {
+					sb.append("; ");
+				}
+				// leerer Pfad bei Constraints fuer die Klasse, z.B. @PasswordEqual
+				final String pfad = v.getPropertyPath().toString();
+				if (!pfad.isEmpty()) {
+					sb.append(pfad)
+					  .append(": ");
+				}
+				sb.append(v.getMessage());
+			}
+			zeile.setFehler(sb.toString());
+			return;
+		}
+		
+		final String verschluesselt = authService.verschluesseln(kunde.getPassword());
+		kunde.setPassword(verschluesselt);
+		kunde.setPasswordWdh(verschluesselt);
+	}
+}
@@ -0,0 +1,55 @@
+package de.shop.kundenverwaltung.service;
+
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+
+
+/**
+ * Eine gelesene Zeile beim Import von Kunden: entweder ein Kunde oder eine Fehlermeldung
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class KundeImportZeile {
+	private final int nr;
+	private final AbstractKunde kunde;
+	private volatile String fehler;
+
+	public KundeImportZeile(int nr, AbstractKunde kunde) {
+		this.nr = nr;
+		this.kunde = kunde;
+	}
+
+	/**
+	 * Zeile, die nicht in einen Kunden umgewandelt werden konnte
+	 * @param nr Zeilennummer
+	 * @param fehler Fehlermeldung
+	 */
+	public KundeImportZeile(int nr, String fehler) {
+		this.nr = nr;
+		this.kunde = null;
+		this.fehler = fehler;
+	}
+
+	public int getNr() {
+		return nr;
+	}
+
+	public AbstractKunde getKunde() {
+		return kunde;
+	}
+
+	public String getFehler() {
+		return fehler;
+	}
+
+	public void setFehler(String fehler) {
+		this.fehler = fehler;
+	}
+
+	public boolean isFehlerfrei() {
+		return fehler == null;
+	}
+
+	@Override
+	public String toString() {
+		return "KundeImportZeile [nr=" + nr + ", kunde=" + kunde + ", fehler=" + fehler + "]";
+	}
+}
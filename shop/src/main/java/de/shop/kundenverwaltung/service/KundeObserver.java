@@ -2,9 +2,9 @@ package de.shop.kundenverwaltung.service;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.Executor;
 
 import javax.annotation.PostConstruct;
-import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
@@ -19,6 +19,7 @@ import org.jboss.logging.Logger;
 
 import de.shop.kundenverwaltung.domain.AbstractKunde;
 import de.shop.kundenverwaltung.domain.Adresse;
+import de.shop.util.concurrency.Blockierend;
 import de.shop.util.interceptor.Log;
 import de.shop.util.mail.AbsenderMail;
 import de.shop.util.mail.AbsenderName;
@@ -56,7 +57,8 @@ public class KundeObserver {
 	private String empfaengerName;
 	
 	@Inject
-	private transient ManagedExecutorService managedExecutorService;
+	@Blockierend
+	private transient Executor ioExecutor;
 	
 	@PostConstruct
 	// Attribute mit @Inject sind initialisiert
@@ -121,7 +123,7 @@ public class KundeObserver {
 				}
 			}
 		};
-		managedExecutorService.execute(sendMail);
+		ioExecutor.execute(sendMail);
 		
 		//final Future<?> future = managedExecutorService.submit(sendMail);
 		//LOGGER.debugf("future: %s", future);
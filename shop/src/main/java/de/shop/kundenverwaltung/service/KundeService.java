@@ -1,18 +1,25 @@
 package de.shop.kundenverwaltung.service;
 
 import static de.shop.util.Constants.MAX_AUTOCOMPLETE;
+import static javax.persistence.FlushModeType.COMMIT;
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
 
 import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
@@ -24,6 +31,7 @@ import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.transaction.Transactional;
 
 import org.jboss.logging.Logger;
 
@@ -42,8 +50,13 @@ import de.shop.kundenverwaltung.domain.GeschlechtType;
 import de.shop.kundenverwaltung.domain.Privatkunde;
 import de.shop.kundenverwaltung.domain.Wartungsvertrag;
 import de.shop.util.NoMimeTypeException;
+import de.shop.util.concurrency.Blockierend;
+import de.shop.util.interceptor.Coalesced;
 import de.shop.util.interceptor.Log;
+import de.shop.util.interceptor.ReadOnly;
 import de.shop.util.persistence.ConcurrentDeletedException;
+import de.shop.util.persistence.ExportCursor;
+import de.shop.util.persistence.ExportHelper;
 import de.shop.util.persistence.File;
 import de.shop.util.persistence.FileHelper;
 import de.shop.util.persistence.MimeType;
@@ -88,7 +101,11 @@ public class KundeService implements Serializable {
 	private FileHelper fileHelper;
 	
 	@Inject
-	private transient ManagedExecutorService managedExecutorService;
+	private ExportHelper exportHelper;
+	
+	@Inject
+	@Blockierend
+	private transient Executor ioExecutor;
 
 	@Inject
 	@NeuerKunde
@@ -110,6 +127,7 @@ public class KundeService implements Serializable {
 	 * @param fetch Angabe, welche Objekte mitgeladen werden sollen
 	 * @return Der gesuchte Kunde oder null, falls es keinen zur gegebenen ID gibt
 	 */
+	@Coalesced
 	public AbstractKunde findKundeById(Long id, FetchType fetch) {
 		if (id == null) {
 			return null;
@@ -145,12 +163,74 @@ public class KundeService implements Serializable {
 		return kunde;
 	}
 
+	/**
+	 * Nur die Versionsnummer eines Kunden ermitteln, z.B. fuer einen ETag, ohne den Kunden zu laden
+	 * @param id ID des Kunden
+	 * @return Die Versionsnummer oder null, falls es keinen Kunden zur gegebenen ID gibt
+	 */
+	public Integer findVersionById(Long id) {
+		if (id == null) {
+			return null;
+		}
+
+		try {
+			return em.createNamedQuery(AbstractKunde.FIND_VERSION_BY_ID, Integer.class)
+					 .setParameter(AbstractKunde.PARAM_KUNDE_ID, id)
+					 .getSingleResult();
+		}
+		catch (NoResultException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Nur den MIME-Type der Datei eines Kunden ermitteln, ohne die Datei zu laden
+	 * @param id ID des Kunden
+	 * @return Der MIME-Type oder null, falls es keinen Kunden oder keine Datei zur gegebenen ID gibt
+	 */
+	public MimeType findFileMimeTypeById(Long id) {
+		if (id == null) {
+			return null;
+		}
+
+		try {
+			return em.createNamedQuery(AbstractKunde.FIND_FILE_MIME_TYPE_BY_ID, MimeType.class)
+					 .setParameter(AbstractKunde.PARAM_KUNDE_ID, id)
+					 .getSingleResult();
+		}
+		catch (NoResultException e) {
+			return null;
+		}
+	}
+
+	
+	/**
+	 * ID, Version und MIME-Type der Datei eines Kunden ermitteln, ohne die Bytes zu laden
+	 * @param id ID des Kunden
+	 * @return Die Datei ohne Bytes oder null, falls es keinen Kunden oder keine Datei zur gegebenen ID gibt
+	 */
+	public File findFileOhneBytesById(Long id) {
+		if (id == null) {
+			return null;
+		}
+
+		try {
+			return em.createNamedQuery(AbstractKunde.FIND_FILE_OHNE_BYTES_BY_ID, File.class)
+					 .setParameter(AbstractKunde.PARAM_KUNDE_ID, id)
+					 .getSingleResult();
+		}
+		catch (NoResultException e) {
+			return null;
+		}
+	}
+
 	
 	/**
 	 * Potenzielle IDs zu einem gegebenen ID-Praefix suchen
 	 * @param idPrefix der Praefix zu potenziellen IDs als String
 	 * @return Liste der passenden Praefixe
 	 */
+	@Coalesced
 	public List<Long> findIdsByPrefix(String idPrefix) {
 		if (Strings.isNullOrEmpty(idPrefix)) {
 			return Collections.emptyList();
@@ -166,6 +246,7 @@ public class KundeService implements Serializable {
 	 * @param id Praefix der ID
 	 * @return Liste mit Kunden mit passender ID
 	 */
+	@Coalesced
 	public List<AbstractKunde> findKundenByIdPrefix(Long id) {
 		if (id == null) {
 			return Collections.emptyList();
@@ -183,6 +264,7 @@ public class KundeService implements Serializable {
 	 * @param order Sortierreihenfolge, z.B. nach aufsteigenden IDs.
 	 * @return Liste der Kunden
 	 */
+	@ReadOnly
 	public List<AbstractKunde> findAllKunden(FetchType fetch, OrderByType order) {
 		final TypedQuery<AbstractKunde> query = OrderByType.ID.equals(order)
 				                        ? em.createNamedQuery(AbstractKunde.FIND_KUNDEN_ORDER_BY_ID,
@@ -262,6 +344,7 @@ public class KundeService implements Serializable {
 	 * @param nachnamePrefix der gemeinsame Praefix fuer die potenziellen Nachnamen 
 	 * @return Liste der Nachnamen mit gleichem Praefix
 	 */
+	@Coalesced
 	public List<String> findNachnamenByPrefix(String nachnamePrefix) {
 		return em.createNamedQuery(AbstractKunde.FIND_NACHNAMEN_BY_PREFIX, String.class)
 				 .setParameter(AbstractKunde.PARAM_KUNDE_NACHNAME_PREFIX, nachnamePrefix + '%')
@@ -288,12 +371,47 @@ public class KundeService implements Serializable {
 		return kunde;
 	}
 
+	/**
+	 * Die Emailadressen ermitteln, die bereits fuer Kunden verwendet werden. Fuer alle gegebenen
+	 * Emailadressen wird nur 1 Query abgesetzt.
+	 * @param emails Die zu pruefenden Emailadressen
+	 * @return Die bereits verwendeten Emailadressen in Grossbuchstaben
+	 */
+	public Set<String> findVorhandeneEmails(Collection<String> emails) {
+		if (emails == null || emails.isEmpty()) {
+			return Collections.emptySet();
+		}
+		
+		final List<String> emailsUpper = new ArrayList<>(emails.size());
+		for (String email : emails) {
+			emailsUpper.add(email.toUpperCase(Locale.ENGLISH));
+		}
+		final List<String> vorhanden = em.createNamedQuery(AbstractKunde.FIND_EMAILS_BY_EMAILS, String.class)
+		                                 .setParameter(AbstractKunde.PARAM_KUNDE_EMAILS, emailsUpper)
+		                                 .getResultList();
+		return new HashSet<>(vorhanden);
+	}
+
+
+	/**
+	 * Kunden ohne Bestellungen, Rollen und Passwort fuer den Export lesen
+	 * @param seit Nur Kunden, die seit diesem Datum registriert sind
+	 * @param erzeugt Nur Kunden, die ab diesem Zeitpunkt erzeugt wurden
+	 * @return Cursor mit 1 Zeile pro Kunde, der nach dem Lesen geschlossen werden muss
+	 */
+	public ExportCursor exportKunden(Date seit, Date erzeugt) {
+		final Map<String, Object> params = new HashMap<>(2, 1);
+		params.put(AbstractKunde.PARAM_KUNDE_SEIT, seit);
+		params.put(AbstractKunde.PARAM_KUNDE_ERZEUGT, erzeugt);
+		return exportHelper.open(AbstractKunde.EXPORT_KUNDEN, params);
+	}
 
 	/**
 	 * Kunden mit gleicher Postleitzahl suchen
 	 * @param plz Die gegebene Postleitzahl
 	 * @return Liste der gefundenen Kunden
 	 */
+	@ReadOnly
 	public List<AbstractKunde> findKundenByPLZ(String plz) {
 		return em.createNamedQuery(AbstractKunde.FIND_KUNDEN_BY_PLZ, AbstractKunde.class)
 				 .setParameter(AbstractKunde.PARAM_KUNDE_ADRESSE_PLZ, plz)
@@ -422,6 +540,39 @@ public class KundeService implements Serializable {
 		
 		return kunde;
 	}
+	
+	/**
+	 * Mehrere neue Kunden in einer eigenen Transaktion anlegen, z.B. als Teilmenge beim Import. Die Passwoerter
+	 * muessen bereits verschluesselt sein. Kunden, deren Emailadresse bereits existiert, werden nicht angelegt.
+	 * Die INSERT-Anweisungen werden gemaess hibernate.jdbc.batch_size gebuendelt, und anschliessend wird der
+	 * Persistenzkontext geleert. Es wird kein Event @NeuerKunde ausgeloest.
+	 * @param kunden Die neuen Kunden
+	 * @return Die Emailadressen der nicht angelegten Kunden in Grossbuchstaben
+	 */
+	@Transactional(REQUIRES_NEW)
+	public Set<String> createKunden(List<? extends AbstractKunde> kunden) {
+		if (kunden == null || kunden.isEmpty()) {
+			return Collections.emptySet();
+		}
+		
+		final List<String> emails = new ArrayList<>(kunden.size());
+		for (AbstractKunde kunde : kunden) {
+			emails.add(kunde.getEmail());
+		}
+		final Set<String> vorhanden = findVorhandeneEmails(emails);
+		
+		for (AbstractKunde kunde : kunden) {
+			if (vorhanden.contains(kunde.getEmail().toUpperCase(Locale.ENGLISH))) {
+				continue;
+			}
+			kunde.addRollen(Sets.newHashSet(RolleType.KUNDE));
+			em.persist(kunde);
+		}
+		
+		em.flush();
+		em.clear();
+		return vorhanden;
+	}
 
 
 	/**
@@ -466,6 +617,43 @@ public class KundeService implements Serializable {
 		return kunde;
 	}
 
+	/**
+	 * Einen vom EntityManager verwalteten Kunden aktualisieren, der in derselben Transaktion gelesen wurde.
+	 * Im Gegensatz zu updateKunde() wird der Kunde weder erneut gelesen noch per merge() abgeglichen;
+	 * die Versionsnummer muss der Aufrufer vorher geprueft haben.
+	 * @param kunde Der verwaltete und bereits geaenderte Kunde
+	 * @param alteEmail Die Emailadresse vor der Aenderung
+	 * @param geaendertPassword Wurde das Passwort aktualisiert und muss es deshalb verschluesselt werden?
+	 * @return Der aktualisierte Kunde mit neuer Versionsnummer
+	 */
+	public <T extends AbstractKunde> T updateKundeManaged(T kunde, String alteEmail, boolean geaendertPassword) {
+		if (kunde == null) {
+			return null;
+		}
+
+		// Gibt es ein anderes Objekt mit gleicher Email-Adresse? Nur pruefen, falls sie geaendert wurde
+		if (kunde.getEmail() != null && !kunde.getEmail().equalsIgnoreCase(alteEmail)) {
+			// der geaenderte Kunde soll nicht vorher geschrieben werden
+			final List<Long> ids = em.createNamedQuery(AbstractKunde.FIND_ID_BY_EMAIL, Long.class)
+					                 .setParameter(AbstractKunde.PARAM_KUNDE_EMAIL, kunde.getEmail())
+					                 .setFlushMode(COMMIT)
+					                 .getResultList();
+			if (!ids.isEmpty() && !ids.contains(kunde.getId())) {
+				throw new EmailExistsException(kunde.getEmail());
+			}
+		}
+
+		// Password verschluesseln
+		if (geaendertPassword) {
+			passwordVerschluesseln(kunde);
+		}
+
+		// UPDATE sofort ausfuehren, damit die neue Versionsnummer z.B. fuer den ETag verfuegbar ist
+		em.flush();
+
+		return kunde;
+	}
+
 	/**
 	 * Einen Kunden in der DB loeschen.
 	 * @param kunde Der zu loeschende Kunde
@@ -528,7 +716,7 @@ public class KundeService implements Serializable {
 	
 	private void setFile(AbstractKunde kunde, byte[] bytes, MimeType mimeType) {
 		if (mimeType == null) {
-			throw new NoMimeTypeException();
+			throw NoMimeTypeException.INSTANCE;
 		}
 		
 		final String filename = fileHelper.getFilename(kunde.getClass(), kunde.getId(), mimeType);
@@ -555,7 +743,7 @@ public class KundeService implements Serializable {
 				fileHelper.store(newFile);
 			}
 		};
-		managedExecutorService.execute(storeFile);
+		ioExecutor.execute(storeFile);
 	}
 	
 	/**
@@ -13,6 +13,15 @@ public abstract class AbstractShopException extends RuntimeException {
 	public AbstractShopException(String msg, Throwable t) {
 		super(msg, t);
 	}
+	
+	/**
+	 * Exception ohne Stacktrace fuer erwartete Faelle, die z.B. vorab erzeugt und wiederverwendet werden
+	 * @param msg Die Meldung
+	 * @param writableStackTrace false, falls kein Stacktrace erzeugt werden soll
+	 */
+	protected AbstractShopException(String msg, boolean writableStackTrace) {
+		super(msg, null, false, writableStackTrace);
+	}
 
 	public abstract String getMessageKey();
 }
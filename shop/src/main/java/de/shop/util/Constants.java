@@ -15,10 +15,18 @@ public final class Constants {
 	public static final String FIRST_LINK = "first";
 	public static final String LAST_LINK = "last";
 	
+	// JSON Merge Patch (RFC 7386)
+	public static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+	
+	// Zeilenweise Formate fuer Import und Export
+	public static final String NDJSON = "application/x-ndjson";
+	public static final String CSV = "text/csv";
+	
 	// JPA
 	public static final Long KEINE_ID = null;
 	public static final long MIN_ID = 1L;
 	public static final int ERSTE_VERSION = 0;
+	public static final int ERSTE_GENERIERTE_ID = 1000;  // oberhalb der IDs aus load.sql
 	public static final int MAX_AUTOCOMPLETE = 10;
 	
 	// JAAS
@@ -4,6 +4,7 @@ import javax.enterprise.inject.Vetoed;
 
 
 /**
+ * Die Exception enthaelt keine variablen Daten und wird deshalb nur einmal und ohne Stacktrace erzeugt.
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
  */
 @Vetoed
@@ -11,9 +12,11 @@ public class NoMimeTypeException extends AbstractShopException {
 	private static final long serialVersionUID = -6174243392956089668L;
 	
 	private static final String MESSAGE_KEY = "file.noMimeType";
+	
+	public static final NoMimeTypeException INSTANCE = new NoMimeTypeException();
 
-	public NoMimeTypeException() {
-		super("Kein MIME-Type");
+	private NoMimeTypeException() {
+		super("Kein MIME-Type", false);
 	}
 	
 	@Override
@@ -2,20 +2,37 @@ package de.shop.util.cdi;
 
 import java.lang.invoke.MethodHandles;
 import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.Initialized;
 import javax.enterprise.event.Observes;
+import javax.inject.Inject;
 import javax.servlet.ServletContext;
+import javax.validation.Validator;
 
 import org.jboss.logging.Logger;
 
+import de.shop.artikelverwaltung.domain.Artikel;
+import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.kundenverwaltung.domain.Firmenkunde;
+import de.shop.kundenverwaltung.domain.Privatkunde;
+
 /**
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
  */
 public class Initializer {
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
 	
+	// Klassen, die bei POST und PUT sowie vor dem Abspeichern validiert werden
+	private static final Class<?>[] VALIDIERTE_KLASSEN = { Privatkunde.class, Firmenkunde.class, Bestellung.class,
+	                                                      Artikel.class };
+	private static final String NACHNAME = "nachname";
+	private static final String NACHNAME_BEISPIEL = "Alpha";
+	
+	@Inject
+	private Validator validator;
+	
 	//@Transactional
 	public void onStartup(@Observes @Initialized(ApplicationScoped.class) ServletContext ctx) {
 		LOGGER.infof("Der Web-Container %s unterstuetzt die Servlet-Spezifikation %s.%s",
@@ -24,5 +41,22 @@ public class Initializer {
 		LOGGER.infof("Default Charset: %s", Charset.defaultCharset().displayName());
 		
 		// Eigene Initialisierungen, z.B initiale Daten fuer die DB
+		initValidator();
+	}
+	
+	/**
+	 * Metadaten von Bean Validation vorab aufbauen und den Validator fuer den regulaeren Ausdruck
+	 * AbstractKunde.NACHNAME_PATTERN erzeugen, damit nicht der erste Request die Kosten dafuer traegt
+	 */
+	private void initValidator() {
+		final long start = System.nanoTime();
+		for (Class<?> clazz : VALIDIERTE_KLASSEN) {
+			validator.getConstraintsForClass(clazz);
+		}
+		// Die Validatoren werden je Constraint gecacht und bei validate() wiederverwendet
+		validator.validateValue(Privatkunde.class, NACHNAME, NACHNAME_BEISPIEL);
+		validator.validateValue(Firmenkunde.class, NACHNAME, NACHNAME_BEISPIEL);
+		LOGGER.debugf("Bean Validation initialisiert in %d ms",
+		              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
 	}
 }
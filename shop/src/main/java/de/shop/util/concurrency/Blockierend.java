@@ -0,0 +1,24 @@
+package de.shop.util.concurrency;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.inject.Qualifier;
+
+/**
+ * Executor fuer blockierende Aufgaben wie das Versenden von Emails oder das Schreiben von Dateien, der nicht
+ * mit dem ManagedExecutorService des Containers um dessen wenige Threads konkurriert.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Qualifier
+@Target({ FIELD, METHOD, PARAMETER })
+@Retention(RUNTIME)
+@Documented
+public @interface Blockierend {
+}
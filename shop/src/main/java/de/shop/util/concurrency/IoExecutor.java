@@ -0,0 +1,80 @@
+package de.shop.util.concurrency;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor fuer I/O-gebundene Aufgaben, die die meiste Zeit blockiert warten, z.B. auf den SMTP-Server. Es
+ * laufen hoechstens so viele Aufgaben gleichzeitig wie Threads erlaubt sind; weitere Aufgaben warten in einer
+ * Warteschlange, die standardmaessig unbeschraenkt ist, damit z.B. keine Email verloren geht. Nicht benoetigte
+ * Threads werden nach kurzer Zeit beendet, so dass ein hohes Limit im Leerlauf keine Ressourcen belegt.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class IoExecutor implements Executor {
+	private static final long LEERLAUF_SEKUNDEN = 30;
+
+	private final ThreadPoolExecutor pool;
+
+	/**
+	 * @param maxThreads Maximale Anzahl gleichzeitig laufender Aufgaben
+	 * @param threadFactory Erzeugt die Threads, im Applikationsserver eine ManagedThreadFactory
+	 */
+	public IoExecutor(int maxThreads, ThreadFactory threadFactory) {
+		this(maxThreads, Integer.MAX_VALUE, threadFactory);
+	}
+
+	/**
+	 * @param maxThreads Maximale Anzahl gleichzeitig laufender Aufgaben
+	 * @param maxWarteschlange Maximale Anzahl wartender Aufgaben; weitere werden mit
+	 *        RejectedExecutionException abgewiesen
+	 * @param threadFactory Erzeugt die Threads, im Applikationsserver eine ManagedThreadFactory
+	 */
+	public IoExecutor(int maxThreads, int maxWarteschlange, ThreadFactory threadFactory) {
+		pool = new ThreadPoolExecutor(maxThreads, maxThreads, LEERLAUF_SEKUNDEN, TimeUnit.SECONDS,
+		                              new LinkedBlockingQueue<Runnable>(maxWarteschlange), threadFactory);
+		// Bei Core = Max entstehen neue Threads, bevor Aufgaben warten muessen
+		pool.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		pool.execute(task);
+	}
+
+	/**
+	 * @return Anzahl der Aufgaben, die auf einen freien Thread warten
+	 */
+	public int getWarteschlange() {
+		return pool.getQueue().size();
+	}
+
+	/**
+	 * @return Maximale Anzahl gleichzeitig laufender Aufgaben
+	 */
+	public int getMaxThreads() {
+		return pool.getMaximumPoolSize();
+	}
+
+	/**
+	 * Keine neuen Aufgaben annehmen und hoechstens die gegebene Zeit auf die laufenden und wartenden warten
+	 * @param timeout Maximale Wartezeit
+	 * @param unit Einheit der Wartezeit
+	 * @return true, falls alle Aufgaben beendet wurden
+	 * @throws InterruptedException Falls der aufrufende Thread beim Warten unterbrochen wurde
+	 */
+	public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+		pool.shutdown();
+		return pool.awaitTermination(timeout, unit);
+	}
+
+	/**
+	 * Wartende Aufgaben verwerfen und laufende unterbrechen, z.B. wenn shutdown() nicht rechtzeitig fertig wurde
+	 * @return Anzahl der verworfenen Aufgaben
+	 */
+	public int abbrechen() {
+		return pool.shutdownNow().size();
+	}
+}
@@ -0,0 +1,95 @@
+package de.shop.util.concurrency;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ContextService;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Produces;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Executor mit dem Qualifier @Blockierend als Alternative zum ManagedExecutorService des Containers. Die Threads
+ * stammen von der ManagedThreadFactory des Containers, und jede Aufgabe wird mit dem Kontext des Aufrufers
+ * ausgefuehrt, d.h. mit dessen Security-Identitaet und JNDI-Namensraum.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+public class IoExecutorProducer {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
+	private static final int MAX_THREADS_DEFAULT = 32;
+	private static final long SHUTDOWN_SEKUNDEN = 10;
+
+	@Resource
+	private ManagedThreadFactory threadFactory;
+
+	@Resource
+	private ContextService contextService;
+
+	// In src\webapp\WEB-INF\web.xml kann das Limit gesetzt bzw. ueberschrieben werden
+	@Resource(name = "ioMaxThreads")
+	private Integer maxThreads;
+
+	private IoExecutor ioExecutor;
+
+	public IoExecutorProducer() {
+		super();
+	}
+
+	IoExecutorProducer(ManagedThreadFactory threadFactory, ContextService contextService, Integer maxThreads) {
+		super();
+		this.threadFactory = threadFactory;
+		this.contextService = contextService;
+		this.maxThreads = maxThreads;
+	}
+
+	@PostConstruct
+	void postConstruct() {
+		final int max = maxThreads == null || maxThreads <= 0 ? MAX_THREADS_DEFAULT : maxThreads;
+		ioExecutor = new IoExecutor(max, threadFactory);
+		LOGGER.infof("Executor fuer blockierende Aufgaben mit hoechstens %d Threads", max);
+	}
+
+	/**
+	 * Beim Undeployment auf die laufenden und wartenden Aufgaben warten; was danach noch wartet, wird verworfen,
+	 * damit keine Aufgabe mehr gegen die bereits beendete Anwendung laeuft.
+	 */
+	@PreDestroy
+	void preDestroy() {
+		preDestroy(SHUTDOWN_SEKUNDEN, TimeUnit.SECONDS);
+	}
+
+	void preDestroy(long timeout, TimeUnit unit) {
+		try {
+			if (ioExecutor.shutdown(timeout, unit)) {
+				return;
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		LOGGER.warnf("%d blockierende Aufgaben wurden nicht mehr ausgefuehrt", ioExecutor.abbrechen());
+	}
+
+	int getMaxThreads() {
+		return ioExecutor.getMaxThreads();
+	}
+
+	@Produces
+	@Blockierend
+	public Executor getExecutor() {
+		return new Executor() {
+			@Override
+			public void execute(Runnable task) {
+				// Den Kontext beim Aufruf erfassen, nicht erst beim Start im Thread des Pools
+				ioExecutor.execute(contextService.createContextualProxy(task, Runnable.class));
+			}
+		};
+	}
+}
@@ -0,0 +1,23 @@
+package de.shop.util.interceptor;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.interceptor.InterceptorBinding;
+
+/**
+ * Lesende Methoden, deren gleichzeitige Aufrufe mit gleichen Argumenten zu einem einzigen Aufruf
+ * zusammengefasst werden (siehe {@link CoalescingInterceptor})
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@InterceptorBinding
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+@Documented
+public @interface Coalesced {
+}
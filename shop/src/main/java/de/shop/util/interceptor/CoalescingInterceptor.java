@@ -0,0 +1,182 @@
+package de.shop.util.interceptor;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import de.shop.util.metrics.MetricsRegistry;
+
+
+/**
+ * Interceptor, der gleichzeitige Aufrufe derselben Methode mit gleichen Argumenten zusammenfasst ("single
+ * flight"): Der erste Aufruf fuehrt die Methode aus, die weiteren warten auf ihn und erhalten dasselbe Ergebnis
+ * bzw. dieselbe Exception. Die Anzahl der zusammengefassten Aufrufe wird pro Methode im {@link MetricsRegistry}
+ * gezaehlt.
+ * <p>
+ * Das gemeinsame Ergebnis ist ausserhalb einer Transaktion detached. Jeder Aufrufer erhaelt eine eigene flache
+ * Kopie, falls das Ergebnis eine Liste ist oder eine oeffentliche Methode clone() hat, z.B. AbstractKunde,
+ * damit z.B. die URIs pro Request gesetzt werden koennen. Andere Ergebnisse werden von allen Aufrufern
+ * gemeinsam verwendet und duerfen deshalb nicht veraendert werden. Innerhalb einer Transaktion wird nicht
+ * zusammengefasst, weil das Ergebnis zum eigenen Persistenzkontext gehoeren muss.
+ * </p>
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Interceptor
+@Coalesced
+public class CoalescingInterceptor implements Serializable {
+	private static final long serialVersionUID = 6027384105316285937L;
+
+	// Fuer alle Instanzen gemeinsam, weil es pro Bean-Instanz eine Interceptor-Instanz gibt
+	private static final ConcurrentMap<Key, FutureTask<Object>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+	@Resource
+	private transient TransactionSynchronizationRegistry tsr;
+
+	@Inject
+	private MetricsRegistry metricsRegistry;
+
+	public CoalescingInterceptor() {
+		super();
+	}
+
+	CoalescingInterceptor(TransactionSynchronizationRegistry tsr, MetricsRegistry metricsRegistry) {
+		super();
+		this.tsr = tsr;
+		this.metricsRegistry = metricsRegistry;
+	}
+
+	@AroundInvoke
+	public Object coalesce(final InvocationContext ctx) throws Exception {
+		if (tsr.getTransactionKey() != null) {
+			return ctx.proceed();
+		}
+
+		final Key key = new Key(ctx.getMethod(), ctx.getParameters());
+		final FutureTask<Object> neu = new FutureTask<>(new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				return ctx.proceed();
+			}
+		});
+		final FutureTask<Object> vorhanden = IN_FLIGHT.putIfAbsent(key, neu);
+		if (vorhanden == null) {
+			try {
+				neu.run();
+			}
+			finally {
+				// Nachfolgende Aufrufe laden wieder selbst, d.h. es wird nichts gecacht
+				IN_FLIGHT.remove(key, neu);
+			}
+			return kopie(get(neu));
+		}
+
+		metricsRegistry.getMethodStatistics(ctx.getMethod()).coalesced();
+		try {
+			return kopie(get(vorhanden));
+		}
+		catch (InterruptedException e) {
+			// Nicht laenger warten, sondern selbst laden
+			Thread.currentThread().interrupt();
+			return ctx.proceed();
+		}
+	}
+
+	private static Object get(FutureTask<Object> task) throws Exception {
+		try {
+			return task.get();
+		}
+		catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw (Error) cause;
+		}
+	}
+
+	/**
+	 * Eigene Kopie des gemeinsamen Ergebnisses fuer einen Aufrufer. Auch der erste Aufrufer erhaelt eine Kopie,
+	 * weil die uebrigen ihre Kopien moeglicherweise erst anlegen, waehrend er sein Ergebnis schon veraendert.
+	 * @param ergebnis Das gemeinsame Ergebnis
+	 * @return Flache Kopie bzw. das Ergebnis selbst, falls es nicht kopiert werden kann
+	 */
+	static Object kopie(Object ergebnis) throws Exception {
+		if (ergebnis instanceof List) {
+			final List<?> liste = (List<?>) ergebnis;
+			final List<Object> neueListe = new ArrayList<>(liste.size());
+			for (Object element : liste) {
+				neueListe.add(kopie(element));
+			}
+			return neueListe;
+		}
+		if (!(ergebnis instanceof Cloneable)) {
+			return ergebnis;
+		}
+
+		final Method clone;
+		try {
+			clone = ergebnis.getClass().getMethod("clone");
+		}
+		catch (NoSuchMethodException e) {
+			// Object.clone() ist protected
+			return ergebnis;
+		}
+		try {
+			return clone.invoke(ergebnis);
+		}
+		catch (InvocationTargetException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw (Error) cause;
+		}
+	}
+
+	/**
+	 * Methode und Argumente eines Aufrufs; die Argumente muessen equals() und hashCode() implementieren
+	 */
+	private static final class Key {
+		private final Method method;
+		private final Object[] args;
+		private final int hashCode;
+
+		Key(Method method, Object[] args) {
+			this.method = method;
+			this.args = args;
+			hashCode = 31 * method.hashCode() + Arrays.hashCode(args);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return method.equals(other.method) && Arrays.equals(args, other.args);
+		}
+	}
+}
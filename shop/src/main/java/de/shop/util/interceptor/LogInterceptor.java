@@ -101,7 +101,7 @@ public class LogInterceptor implements Serializable {
 	/**
 	 * Collection oder Array oder Objekt in einen String konvertieren
 	 */
-	private static String toString(Object obj) {
+	static String toString(Object obj) {
 		if (obj instanceof Collection<?>) {
 			// Collection: Elemente bei kleiner Anzahl ausgeben; sonst nur die Anzahl
 			final Collection<?> coll = (Collection<?>) obj;
@@ -126,7 +126,7 @@ public class LogInterceptor implements Serializable {
 	/**
 	 * Array in einen String konvertieren
 	 */
-	private static String arrayToString(Object obj) {
+	static String arrayToString(Object obj) {
 		final Class<?> componentClass = obj.getClass().getComponentType();
 
 		if (!componentClass.isPrimitive()) {
@@ -0,0 +1,22 @@
+package de.shop.util.interceptor;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.ElementType.METHOD;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import javax.interceptor.InterceptorBinding;
+
+/**
+ * Methoden, die nur lesen und deshalb die Replica-Datenbank verwenden duerfen (siehe {@link ReadOnlyInterceptor}).
+ * Das gilt nur innerhalb eines REST-Requests und ausserhalb einer JTA-Transaktion.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@InterceptorBinding
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+@Documented
+public @interface ReadOnly {
+}
@@ -0,0 +1,41 @@
+package de.shop.util.interceptor;
+
+import java.io.Serializable;
+
+import javax.annotation.Resource;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import de.shop.util.persistence.ReplicaRouting;
+
+
+/**
+ * Interceptor, der lesende Methoden auf die Replica-Datenbank umleitet. Die Primaer-Datenbank wird weiterhin
+ * verwendet, wenn eine Transaktion aktiv ist oder wenn im aktuellen Request bereits eine Transaktion mit der
+ * Primaer-Datenbank abgeschlossen wurde, damit ein Request seine eigenen Aenderungen immer sieht
+ * ("read your writes"). Details siehe {@link de.shop.util.persistence.EntityManagerProducer}.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Interceptor
+@ReadOnly
+public class ReadOnlyInterceptor implements Serializable {
+	private static final long serialVersionUID = 1583470862964301592L;
+
+	@Resource
+	private transient TransactionSynchronizationRegistry tsr;
+
+	@AroundInvoke
+	public Object route(InvocationContext ctx) throws Exception {
+		if (tsr.getTransactionKey() != null || !ReplicaRouting.beginReplica()) {
+			return ctx.proceed();
+		}
+		try {
+			return ctx.proceed();
+		}
+		finally {
+			ReplicaRouting.endReplica();
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package de.shop.util.interceptor;
+
+import java.io.Serializable;
+
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+
+import de.shop.util.metrics.MethodStatistics;
+import de.shop.util.metrics.MetricsRegistry;
+
+
+/**
+ * Interceptor zur Zeitmessung von public-Methoden der CDI-faehigen Beans und der Session Beans.
+ * Im Gegensatz zum {@link LogInterceptor} ist er unabhaengig vom Log-Level immer aktiv und zeichnet
+ * pro Methode Dauer, Anzahl der Aufrufe und Anzahl der Exceptions in einem Histogramm auf.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Interceptor
+@Log
+public class TimingInterceptor implements Serializable {
+	private static final long serialVersionUID = -2542358431425137581L;
+
+	@Inject
+	private MetricsRegistry metricsRegistry;
+
+	@AroundInvoke
+	public Object time(InvocationContext ctx) throws Exception {
+		final MethodStatistics stats = metricsRegistry.getMethodStatistics(ctx.getMethod());
+		final long start = System.nanoTime();
+		try {
+			return ctx.proceed();
+		}
+		catch (Exception e) {
+			stats.exception();
+			throw e;
+		}
+		finally {
+			stats.record(System.nanoTime() - start);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package de.shop.util.metrics;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * Momentaufnahme der Zaehler eines Caches fuer die Ausgabe ueber REST
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@XmlRootElement
+public class CacheSnapshot {
+	private String name;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private int size;
+	private long usedBytes;
+	private long maxBytes;
+
+	public String getName() {
+		return name;
+	}
+	public void setName(String name) {
+		this.name = name;
+	}
+	public long getHits() {
+		return hits;
+	}
+	public void setHits(long hits) {
+		this.hits = hits;
+	}
+	public long getMisses() {
+		return misses;
+	}
+	public void setMisses(long misses) {
+		this.misses = misses;
+	}
+	public long getEvictions() {
+		return evictions;
+	}
+	public void setEvictions(long evictions) {
+		this.evictions = evictions;
+	}
+	public int getSize() {
+		return size;
+	}
+	public void setSize(int size) {
+		this.size = size;
+	}
+	public long getUsedBytes() {
+		return usedBytes;
+	}
+	public void setUsedBytes(long usedBytes) {
+		this.usedBytes = usedBytes;
+	}
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheSnapshot [name=" + name + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+			   + ", size=" + size + ", usedBytes=" + usedBytes + ", maxBytes=" + maxBytes + "]";
+	}
+}
@@ -0,0 +1,91 @@
+package de.shop.util.metrics;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * Momentaufnahme der Hibernate-Statistik zu einer Entity-Klasse fuer die Ausgabe ueber REST. Die Zaehler
+ * fuer den L2-Cache beziehen sich auf die Region der Entity und sind 0, falls die Entity nicht gecacht wird.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@XmlRootElement
+public class EntitySnapshot {
+	private String name;
+	private long loads;
+	private long fetches;
+	private long inserts;
+	private long updates;
+	private long deletes;
+	private long optimisticFailures;
+	private long cacheHits;
+	private long cacheMisses;
+	private long cachePuts;
+
+	public String getName() {
+		return name;
+	}
+	public void setName(String name) {
+		this.name = name;
+	}
+	public long getLoads() {
+		return loads;
+	}
+	public void setLoads(long loads) {
+		this.loads = loads;
+	}
+	public long getFetches() {
+		return fetches;
+	}
+	public void setFetches(long fetches) {
+		this.fetches = fetches;
+	}
+	public long getInserts() {
+		return inserts;
+	}
+	public void setInserts(long inserts) {
+		this.inserts = inserts;
+	}
+	public long getUpdates() {
+		return updates;
+	}
+	public void setUpdates(long updates) {
+		this.updates = updates;
+	}
+	public long getDeletes() {
+		return deletes;
+	}
+	public void setDeletes(long deletes) {
+		this.deletes = deletes;
+	}
+	public long getOptimisticFailures() {
+		return optimisticFailures;
+	}
+	public void setOptimisticFailures(long optimisticFailures) {
+		this.optimisticFailures = optimisticFailures;
+	}
+	public long getCacheHits() {
+		return cacheHits;
+	}
+	public void setCacheHits(long cacheHits) {
+		this.cacheHits = cacheHits;
+	}
+	public long getCacheMisses() {
+		return cacheMisses;
+	}
+	public void setCacheMisses(long cacheMisses) {
+		this.cacheMisses = cacheMisses;
+	}
+	public long getCachePuts() {
+		return cachePuts;
+	}
+	public void setCachePuts(long cachePuts) {
+		this.cachePuts = cachePuts;
+	}
+
+	@Override
+	public String toString() {
+		return "EntitySnapshot [name=" + name + ", loads=" + loads + ", fetches=" + fetches + ", inserts=" + inserts
+			   + ", updates=" + updates + ", deletes=" + deletes + ", optimisticFailures=" + optimisticFailures
+			   + ", cacheHits=" + cacheHits + ", cacheMisses=" + cacheMisses + ", cachePuts=" + cachePuts + "]";
+	}
+}
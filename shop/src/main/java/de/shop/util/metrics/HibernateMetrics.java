@@ -0,0 +1,243 @@
+package de.shop.util.metrics;
+
+import static de.shop.util.persistence.EntityManagerProducer.PERSISTENCE_UNIT;
+import static de.shop.util.persistence.EntityManagerProducer.REPLICA_PERSISTENCE_UNIT;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import javax.servlet.ServletContext;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+
+import de.shop.util.persistence.SlowQueryStatistics;
+
+
+/**
+ * Momentaufnahmen der Hibernate-Statistik fuer die Primaer-Datenbank ("shopPU") und die Replica
+ * ("shopReplicaPU"). Die Zaehler werden von Hibernate nur bei eingeschalteter Statistik erfasst: beim Start
+ * gemaess "hibernateStatistics" in web.xml, zur Laufzeit mit setStatisticsEnabled().
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+public class HibernateMetrics {
+	// Absteigend nach der Gesamtzeit: die teuersten Queries zuerst
+	private static final Comparator<QuerySnapshot> NACH_GESAMTZEIT = new Comparator<QuerySnapshot>() {
+		@Override
+		public int compare(QuerySnapshot s1, QuerySnapshot s2) {
+			return Long.compare(s2.getTotalMillis(), s1.getTotalMillis());
+		}
+	};
+
+	// Absteigend nach den Zugriffen auf die DB: Laden und Nachladen
+	private static final Comparator<EntitySnapshot> NACH_DB_ZUGRIFFEN = new Comparator<EntitySnapshot>() {
+		@Override
+		public int compare(EntitySnapshot s1, EntitySnapshot s2) {
+			return Long.compare(s2.getLoads() + s2.getFetches(), s1.getLoads() + s1.getFetches());
+		}
+	};
+
+	@PersistenceUnit(unitName = PERSISTENCE_UNIT)
+	private EntityManagerFactory emf;
+
+	@PersistenceUnit(unitName = REPLICA_PERSISTENCE_UNIT)
+	private EntityManagerFactory replicaEmf;
+
+	// In src\webapp\WEB-INF\web.xml kann die Statistik fuer den Start ein- bzw. ausgeschaltet werden
+	@Resource(name = "hibernateStatistics")
+	private Boolean statisticsEnabled;
+
+	/**
+	 * Die Statistik beider Persistence Units beim Start gemaess web.xml ein- bzw. ausschalten. Ohne Eintrag
+	 * ist sie eingeschaltet.
+	 * @param ctx Der gestartete Web-Container
+	 */
+	public void onStartup(@Observes @Initialized(ApplicationScoped.class) ServletContext ctx) {
+		setStatisticsEnabled(statisticsEnabled == null || statisticsEnabled);
+	}
+
+	/**
+	 * @param replica true fuer die Replica, false fuer die Primaer-Datenbank
+	 * @return Die globalen Zaehler der Persistence Unit
+	 */
+	public HibernateSnapshot getSnapshot(boolean replica) {
+		final Statistics stats = getStatistics(replica);
+		final HibernateSnapshot snapshot = new HibernateSnapshot();
+		snapshot.setPersistenceUnit(replica ? REPLICA_PERSISTENCE_UNIT : PERSISTENCE_UNIT);
+		snapshot.setEnabled(stats.isStatisticsEnabled());
+		snapshot.setStart(new Date(stats.getStartTime()));
+		if (stats instanceof SlowQueryStatistics) {
+			snapshot.setSlowQueryMillis(((SlowQueryStatistics) stats).getSchwelleMillis());
+		}
+		snapshot.setSessionsOpened(stats.getSessionOpenCount());
+		snapshot.setSessionsClosed(stats.getSessionCloseCount());
+		snapshot.setConnects(stats.getConnectCount());
+		snapshot.setFlushes(stats.getFlushCount());
+		snapshot.setTransactions(stats.getTransactionCount());
+		snapshot.setStatements(stats.getPrepareStatementCount());
+		snapshot.setOptimisticFailures(stats.getOptimisticFailureCount());
+		snapshot.setQueries(stats.getQueryExecutionCount());
+		snapshot.setQueryMaxMillis(stats.getQueryExecutionMaxTime());
+		snapshot.setQueryMaxMillisQuery(stats.getQueryExecutionMaxTimeQueryString());
+		snapshot.setQueryCacheHits(stats.getQueryCacheHitCount());
+		snapshot.setQueryCacheMisses(stats.getQueryCacheMissCount());
+		snapshot.setQueryCachePuts(stats.getQueryCachePutCount());
+		snapshot.setSecondLevelCacheHits(stats.getSecondLevelCacheHitCount());
+		snapshot.setSecondLevelCacheMisses(stats.getSecondLevelCacheMissCount());
+		snapshot.setSecondLevelCachePuts(stats.getSecondLevelCachePutCount());
+		snapshot.setEntityLoads(stats.getEntityLoadCount());
+		snapshot.setEntityFetches(stats.getEntityFetchCount());
+		snapshot.setCollectionLoads(stats.getCollectionLoadCount());
+		snapshot.setCollectionFetches(stats.getCollectionFetchCount());
+		return snapshot;
+	}
+
+	/**
+	 * @param replica true fuer die Replica, false fuer die Primaer-Datenbank
+	 * @return Statistiken der ausgefuehrten Queries absteigend nach Gesamtzeit sortiert
+	 */
+	public List<QuerySnapshot> getQuerySnapshots(boolean replica) {
+		final Statistics stats = getStatistics(replica);
+		final String[] queries = stats.getQueries();
+		final List<QuerySnapshot> snapshots = new ArrayList<>(queries.length);
+		for (String query : queries) {
+			final QueryStatistics queryStats = stats.getQueryStatistics(query);
+			final QuerySnapshot snapshot = new QuerySnapshot();
+			snapshot.setQuery(query);
+			snapshot.setCount(queryStats.getExecutionCount());
+			snapshot.setRows(queryStats.getExecutionRowCount());
+			snapshot.setTotalMillis(queryStats.getExecutionCount() * queryStats.getExecutionAvgTime());
+			snapshot.setAvgMillis(queryStats.getExecutionAvgTime());
+			snapshot.setMaxMillis(queryStats.getExecutionMaxTime());
+			snapshot.setCacheHits(queryStats.getCacheHitCount());
+			snapshot.setCacheMisses(queryStats.getCacheMissCount());
+			snapshot.setCachePuts(queryStats.getCachePutCount());
+			snapshots.add(snapshot);
+		}
+		Collections.sort(snapshots, NACH_GESAMTZEIT);
+		return snapshots;
+	}
+
+	/**
+	 * @param replica true fuer die Replica, false fuer die Primaer-Datenbank
+	 * @return Statistiken der Entity-Klassen absteigend nach Laden und Nachladen sortiert
+	 */
+	public List<EntitySnapshot> getEntitySnapshots(boolean replica) {
+		final SessionFactoryImplementor sessionFactory = getSessionFactory(replica);
+		final Statistics stats = sessionFactory.getStatistics();
+		final String[] entityNames = stats.getEntityNames();
+		final List<EntitySnapshot> snapshots = new ArrayList<>(entityNames.length);
+		for (String entityName : entityNames) {
+			final EntityStatistics entityStats = stats.getEntityStatistics(entityName);
+			final EntitySnapshot snapshot = new EntitySnapshot();
+			snapshot.setName(entityName);
+			snapshot.setLoads(entityStats.getLoadCount());
+			snapshot.setFetches(entityStats.getFetchCount());
+			snapshot.setInserts(entityStats.getInsertCount());
+			snapshot.setUpdates(entityStats.getUpdateCount());
+			snapshot.setDeletes(entityStats.getDeleteCount());
+			snapshot.setOptimisticFailures(entityStats.getOptimisticFailureCount());
+
+			final EntityPersister persister = sessionFactory.getEntityPersister(entityName);
+			if (persister.hasCache()) {
+				final String regionName = persister.getCacheAccessStrategy().getRegion().getName();
+				final SecondLevelCacheStatistics regionStats = stats.getSecondLevelCacheStatistics(regionName);
+				if (regionStats != null) {
+					snapshot.setCacheHits(regionStats.getHitCount());
+					snapshot.setCacheMisses(regionStats.getMissCount());
+					snapshot.setCachePuts(regionStats.getPutCount());
+				}
+			}
+			snapshots.add(snapshot);
+		}
+		Collections.sort(snapshots, NACH_DB_ZUGRIFFEN);
+		return snapshots;
+	}
+
+	/**
+	 * @param replica true fuer die Replica, false fuer die Primaer-Datenbank
+	 * @return Statistiken der Regionen des L2-Caches einschliesslich des Query-Caches
+	 */
+	public List<RegionSnapshot> getRegionSnapshots(boolean replica) {
+		final Statistics stats = getStatistics(replica);
+		final String[] regionNames = stats.getSecondLevelCacheRegionNames();
+		final List<RegionSnapshot> snapshots = new ArrayList<>(regionNames.length);
+		for (String regionName : regionNames) {
+			final SecondLevelCacheStatistics regionStats = stats.getSecondLevelCacheStatistics(regionName);
+			if (regionStats == null) {
+				continue;
+			}
+			final RegionSnapshot snapshot = new RegionSnapshot();
+			snapshot.setName(regionName);
+			snapshot.setHits(regionStats.getHitCount());
+			snapshot.setMisses(regionStats.getMissCount());
+			snapshot.setPuts(regionStats.getPutCount());
+			snapshot.setElements(regionStats.getElementCountInMemory());
+			snapshots.add(snapshot);
+		}
+		return snapshots;
+	}
+
+	/**
+	 * @param replica true fuer die Replica, false fuer die Primaer-Datenbank
+	 * @return Die zuletzt protokollierten langsamen Queries, die neueste zuerst
+	 */
+	public List<SlowQuerySnapshot> getSlowQueries(boolean replica) {
+		final Statistics stats = getStatistics(replica);
+		if (stats instanceof SlowQueryStatistics) {
+			return ((SlowQueryStatistics) stats).getSlowQueries();
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Die Schwelle fuer langsame Queries bei beiden Persistence Units setzen
+	 * @param millis Mindestdauer in Millisekunden, ab der eine Query protokolliert wird
+	 */
+	public void setSlowQueryMillis(long millis) {
+		for (Statistics stats : new Statistics[] { getStatistics(false), getStatistics(true) }) {
+			if (stats instanceof SlowQueryStatistics) {
+				((SlowQueryStatistics) stats).setSchwelleMillis(millis);
+			}
+		}
+	}
+
+	/**
+	 * Die Statistik beider Persistence Units ein- bzw. ausschalten; die bisherigen Zaehler bleiben erhalten
+	 * @param enabled true zum Einschalten
+	 */
+	public void setStatisticsEnabled(boolean enabled) {
+		getStatistics(false).setStatisticsEnabled(enabled);
+		getStatistics(true).setStatisticsEnabled(enabled);
+	}
+
+	/**
+	 * Alle Zaehler und die protokollierten langsamen Queries beider Persistence Units zuruecksetzen
+	 */
+	public void resetStatistics() {
+		getStatistics(false).clear();
+		getStatistics(true).clear();
+	}
+
+	private Statistics getStatistics(boolean replica) {
+		return getSessionFactory(replica).getStatistics();
+	}
+
+	private SessionFactoryImplementor getSessionFactory(boolean replica) {
+		return (replica ? replicaEmf : emf).unwrap(SessionFactoryImplementor.class);
+	}
+}
@@ -0,0 +1,200 @@
+package de.shop.util.metrics;
+
+import java.util.Date;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * Momentaufnahme der globalen Zaehler der Hibernate-Statistik einer Persistence Unit fuer die Ausgabe ueber
+ * REST. Alle Zeiten in Millisekunden.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@XmlRootElement
+public class HibernateSnapshot {
+	private String persistenceUnit;
+	private boolean enabled;
+	private Date start;
+	private long slowQueryMillis;
+	private long sessionsOpened;
+	private long sessionsClosed;
+	private long connects;
+	private long flushes;
+	private long transactions;
+	private long statements;
+	private long optimisticFailures;
+	private long queries;
+	private long queryMaxMillis;
+	private String queryMaxMillisQuery;
+	private long queryCacheHits;
+	private long queryCacheMisses;
+	private long queryCachePuts;
+	private long secondLevelCacheHits;
+	private long secondLevelCacheMisses;
+	private long secondLevelCachePuts;
+	private long entityLoads;
+	private long entityFetches;
+	private long collectionLoads;
+	private long collectionFetches;
+
+	public String getPersistenceUnit() {
+		return persistenceUnit;
+	}
+	public void setPersistenceUnit(String persistenceUnit) {
+		this.persistenceUnit = persistenceUnit;
+	}
+	public boolean isEnabled() {
+		return enabled;
+	}
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+	public Date getStart() {
+		return start == null ? null : (Date) start.clone();
+	}
+	public void setStart(Date start) {
+		this.start = start == null ? null : (Date) start.clone();
+	}
+	public long getSlowQueryMillis() {
+		return slowQueryMillis;
+	}
+	public void setSlowQueryMillis(long slowQueryMillis) {
+		this.slowQueryMillis = slowQueryMillis;
+	}
+	public long getSessionsOpened() {
+		return sessionsOpened;
+	}
+	public void setSessionsOpened(long sessionsOpened) {
+		this.sessionsOpened = sessionsOpened;
+	}
+	public long getSessionsClosed() {
+		return sessionsClosed;
+	}
+	public void setSessionsClosed(long sessionsClosed) {
+		this.sessionsClosed = sessionsClosed;
+	}
+	public long getConnects() {
+		return connects;
+	}
+	public void setConnects(long connects) {
+		this.connects = connects;
+	}
+	public long getFlushes() {
+		return flushes;
+	}
+	public void setFlushes(long flushes) {
+		this.flushes = flushes;
+	}
+	public long getTransactions() {
+		return transactions;
+	}
+	public void setTransactions(long transactions) {
+		this.transactions = transactions;
+	}
+	public long getStatements() {
+		return statements;
+	}
+	public void setStatements(long statements) {
+		this.statements = statements;
+	}
+	public long getOptimisticFailures() {
+		return optimisticFailures;
+	}
+	public void setOptimisticFailures(long optimisticFailures) {
+		this.optimisticFailures = optimisticFailures;
+	}
+	public long getQueries() {
+		return queries;
+	}
+	public void setQueries(long queries) {
+		this.queries = queries;
+	}
+	public long getQueryMaxMillis() {
+		return queryMaxMillis;
+	}
+	public void setQueryMaxMillis(long queryMaxMillis) {
+		this.queryMaxMillis = queryMaxMillis;
+	}
+	public String getQueryMaxMillisQuery() {
+		return queryMaxMillisQuery;
+	}
+	public void setQueryMaxMillisQuery(String queryMaxMillisQuery) {
+		this.queryMaxMillisQuery = queryMaxMillisQuery;
+	}
+	public long getQueryCacheHits() {
+		return queryCacheHits;
+	}
+	public void setQueryCacheHits(long queryCacheHits) {
+		this.queryCacheHits = queryCacheHits;
+	}
+	public long getQueryCacheMisses() {
+		return queryCacheMisses;
+	}
+	public void setQueryCacheMisses(long queryCacheMisses) {
+		this.queryCacheMisses = queryCacheMisses;
+	}
+	public long getQueryCachePuts() {
+		return queryCachePuts;
+	}
+	public void setQueryCachePuts(long queryCachePuts) {
+		this.queryCachePuts = queryCachePuts;
+	}
+	public long getSecondLevelCacheHits() {
+		return secondLevelCacheHits;
+	}
+	public void setSecondLevelCacheHits(long secondLevelCacheHits) {
+		this.secondLevelCacheHits = secondLevelCacheHits;
+	}
+	public long getSecondLevelCacheMisses() {
+		return secondLevelCacheMisses;
+	}
+	public void setSecondLevelCacheMisses(long secondLevelCacheMisses) {
+		this.secondLevelCacheMisses = secondLevelCacheMisses;
+	}
+	public long getSecondLevelCachePuts() {
+		return secondLevelCachePuts;
+	}
+	public void setSecondLevelCachePuts(long secondLevelCachePuts) {
+		this.secondLevelCachePuts = secondLevelCachePuts;
+	}
+	public long getEntityLoads() {
+		return entityLoads;
+	}
+	public void setEntityLoads(long entityLoads) {
+		this.entityLoads = entityLoads;
+	}
+	public long getEntityFetches() {
+		return entityFetches;
+	}
+	public void setEntityFetches(long entityFetches) {
+		this.entityFetches = entityFetches;
+	}
+	public long getCollectionLoads() {
+		return collectionLoads;
+	}
+	public void setCollectionLoads(long collectionLoads) {
+		this.collectionLoads = collectionLoads;
+	}
+	public long getCollectionFetches() {
+		return collectionFetches;
+	}
+	public void setCollectionFetches(long collectionFetches) {
+		this.collectionFetches = collectionFetches;
+	}
+
+	@Override
+	public String toString() {
+		return "HibernateSnapshot [persistenceUnit=" + persistenceUnit + ", enabled=" + enabled + ", start=" + start
+			   + ", slowQueryMillis=" + slowQueryMillis + ", sessionsOpened=" + sessionsOpened
+			   + ", sessionsClosed=" + sessionsClosed + ", connects=" + connects + ", flushes=" + flushes
+			   + ", transactions=" + transactions + ", statements=" + statements
+			   + ", optimisticFailures=" + optimisticFailures + ", queries=" + queries
+			   + ", queryMaxMillis=" + queryMaxMillis + ", queryMaxMillisQuery=" + queryMaxMillisQuery
+			   + ", queryCacheHits=" + queryCacheHits + ", queryCacheMisses=" + queryCacheMisses
+			   + ", queryCachePuts=" + queryCachePuts + ", secondLevelCacheHits=" + secondLevelCacheHits
+			   + ", secondLevelCacheMisses=" + secondLevelCacheMisses
+			   + ", secondLevelCachePuts=" + secondLevelCachePuts + ", entityLoads=" + entityLoads
+			   + ", entityFetches=" + entityFetches + ", collectionLoads=" + collectionLoads
+			   + ", collectionFetches=" + collectionFetches + "]";
+	}
+}
@@ -0,0 +1,122 @@
+package de.shop.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Lock-freies Histogramm fuer Latenzen in Nanosekunden. Die Buckets sind log-linear angeordnet:
+ * jede Zweierpotenz ist in 8 gleich grosse Teilbereiche aufgeteilt, d.h. der relative Fehler
+ * eines Perzentils ist hoechstens 12,5 %. Das Aufzeichnen eines Werts kostet nur wenige
+ * atomare Inkremente und ist damit auch fuer sehr haeufig aufgerufene Methoden geeignet.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	private static final double HUNDERT_PROZENT = 100.0;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Eine Latenz aufzeichnen
+	 * @param nanos Dauer in Nanosekunden
+	 */
+	public void record(long nanos) {
+		final long wert = nanos < 0 ? 0 : nanos;
+		buckets.incrementAndGet(index(wert));
+		count.incrementAndGet();
+		sum.addAndGet(wert);
+
+		long bisherMax = max.get();
+		while (wert > bisherMax && !max.compareAndSet(bisherMax, wert)) {
+			bisherMax = max.get();
+		}
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getSum() {
+		return sum.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public long getMean() {
+		final long anzahl = count.get();
+		return anzahl == 0 ? 0 : sum.get() / anzahl;
+	}
+
+	/**
+	 * Mehrere Perzentile in einem einzigen Durchlauf ueber die Buckets ermitteln
+	 * @param percentiles aufsteigend sortierte Perzentile, z.B. 50.0, 99.0, 99.9
+	 * @return Obergrenzen der Buckets in Nanosekunden, in denen die Perzentile liegen
+	 */
+	public long[] getPercentiles(double... percentiles) {
+		final long[] counts = new long[BUCKETS];
+		long gesamt = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			gesamt += counts[i];
+		}
+
+		final long[] ergebnis = new long[percentiles.length];
+		if (gesamt == 0) {
+			return ergebnis;
+		}
+
+		final long maxWert = max.get();
+		long kumuliert = 0;
+		int bucket = -1;
+		for (int p = 0; p < percentiles.length; p++) {
+			final long rang = Math.max(1L, (long) Math.ceil(percentiles[p] / HUNDERT_PROZENT * gesamt));
+			while (kumuliert < rang && bucket < BUCKETS - 1) {
+				bucket++;
+				kumuliert += counts[bucket];
+			}
+			ergebnis[p] = Math.min(upperBound(bucket), maxWert);
+		}
+		return ergebnis;
+	}
+
+	/**
+	 * Alle Zaehler zuruecksetzen. Parallel aufgezeichnete Werte koennen dabei teilweise verloren gehen.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	static int index(long wert) {
+		if (wert < SUB_BUCKETS) {
+			return (int) wert;
+		}
+		final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(wert);
+		final int subBucket = (int) (wert >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long upperBound(int index) {
+		final int block = index / SUB_BUCKETS;
+		final int subBucket = index % SUB_BUCKETS;
+		if (block == 0) {
+			return subBucket;
+		}
+		final int exponent = block + SUB_BUCKET_BITS - 1;
+		final int shift = exponent - SUB_BUCKET_BITS;
+		final long untergrenze = (1L << exponent) + ((long) subBucket << shift);
+		return untergrenze + (1L << shift) - 1;
+	}
+}
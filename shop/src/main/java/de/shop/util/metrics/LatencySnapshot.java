@@ -0,0 +1,91 @@
+package de.shop.util.metrics;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * Momentaufnahme einer {@link MethodStatistics} fuer die Ausgabe ueber REST. Alle Zeiten in Mikrosekunden.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@XmlRootElement
+public class LatencySnapshot {
+	private String name;
+	private long count;
+	private long exceptions;
+	private long coalesced;
+	private long totalMicros;
+	private long meanMicros;
+	private long p50Micros;
+	private long p99Micros;
+	private long p999Micros;
+	private long maxMicros;
+
+	public String getName() {
+		return name;
+	}
+	public void setName(String name) {
+		this.name = name;
+	}
+	public long getCount() {
+		return count;
+	}
+	public void setCount(long count) {
+		this.count = count;
+	}
+	public long getExceptions() {
+		return exceptions;
+	}
+	public void setExceptions(long exceptions) {
+		this.exceptions = exceptions;
+	}
+	public long getCoalesced() {
+		return coalesced;
+	}
+	public void setCoalesced(long coalesced) {
+		this.coalesced = coalesced;
+	}
+	public long getTotalMicros() {
+		return totalMicros;
+	}
+	public void setTotalMicros(long totalMicros) {
+		this.totalMicros = totalMicros;
+	}
+	public long getMeanMicros() {
+		return meanMicros;
+	}
+	public void setMeanMicros(long meanMicros) {
+		this.meanMicros = meanMicros;
+	}
+	public long getP50Micros() {
+		return p50Micros;
+	}
+	public void setP50Micros(long p50Micros) {
+		this.p50Micros = p50Micros;
+	}
+	public long getP99Micros() {
+		return p99Micros;
+	}
+	public void setP99Micros(long p99Micros) {
+		this.p99Micros = p99Micros;
+	}
+	public long getP999Micros() {
+		return p999Micros;
+	}
+	public void setP999Micros(long p999Micros) {
+		this.p999Micros = p999Micros;
+	}
+	public long getMaxMicros() {
+		return maxMicros;
+	}
+	public void setMaxMicros(long maxMicros) {
+		this.maxMicros = maxMicros;
+	}
+
+	@Override
+	public String toString() {
+		return "LatencySnapshot [name=" + name + ", count=" + count + ", exceptions=" + exceptions
+			   + ", coalesced=" + coalesced + ", totalMicros=" + totalMicros + ", meanMicros=" + meanMicros
+			   + ", p50Micros=" + p50Micros
+			   + ", p99Micros=" + p99Micros + ", p999Micros=" + p999Micros + ", maxMicros=" + maxMicros + "]";
+	}
+}
@@ -0,0 +1,80 @@
+package de.shop.util.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Laufzeitstatistik fuer eine einzelne Methode bzw. einen einzelnen Endpunkt
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class MethodStatistics {
+	private static final double P50 = 50.0;
+	private static final double P99 = 99.0;
+	private static final double P999 = 99.9;
+
+	private final String name;
+	private final LatencyHistogram histogram = new LatencyHistogram();
+	private final AtomicLong exceptions = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+
+	public MethodStatistics(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void record(long nanos) {
+		histogram.record(nanos);
+	}
+
+	public void exception() {
+		exceptions.incrementAndGet();
+	}
+
+	/**
+	 * Einen Aufruf zaehlen, der mit einem gleichzeitigen gleichen Aufruf zusammengefasst wurde
+	 */
+	public void coalesced() {
+		coalesced.incrementAndGet();
+	}
+
+	public long getTotalNanos() {
+		return histogram.getSum();
+	}
+
+	public void reset() {
+		histogram.reset();
+		exceptions.set(0);
+		coalesced.set(0);
+	}
+
+	public LatencySnapshot getSnapshot() {
+		final long[] perzentile = histogram.getPercentiles(P50, P99, P999);
+
+		final LatencySnapshot snapshot = new LatencySnapshot();
+		snapshot.setName(name);
+		snapshot.setCount(histogram.getCount());
+		snapshot.setExceptions(exceptions.get());
+		snapshot.setCoalesced(coalesced.get());
+		snapshot.setTotalMicros(toMicros(histogram.getSum()));
+		snapshot.setMeanMicros(toMicros(histogram.getMean()));
+		snapshot.setP50Micros(toMicros(perzentile[0]));
+		snapshot.setP99Micros(toMicros(perzentile[1]));
+		snapshot.setP999Micros(toMicros(perzentile[2]));
+		snapshot.setMaxMicros(toMicros(histogram.getMax()));
+		return snapshot;
+	}
+
+	private static long toMicros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	@Override
+	public String toString() {
+		return "MethodStatistics [name=" + name + ", count=" + histogram.getCount()
+			   + ", exceptions=" + exceptions.get() + ", coalesced=" + coalesced.get() + "]";
+	}
+}
@@ -0,0 +1,117 @@
+package de.shop.util.metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.context.ApplicationScoped;
+
+
+/**
+ * Zentrale Ablage der Laufzeitstatistiken. Die Statistik zu einer Methode wird beim ersten Aufruf
+ * angelegt; danach ist der Zugriff ein einfaches get() auf einer ConcurrentHashMap.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+public class MetricsRegistry {
+	// Absteigend nach der Gesamtzeit: die teuersten Methoden zuerst
+	private static final Comparator<LatencySnapshot> NACH_GESAMTZEIT = new Comparator<LatencySnapshot>() {
+		@Override
+		public int compare(LatencySnapshot s1, LatencySnapshot s2) {
+			return Long.compare(s2.getTotalMicros(), s1.getTotalMicros());
+		}
+	};
+
+	private final ConcurrentMap<Method, MethodStatistics> methods = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Method, MethodStatistics> endpoints = new ConcurrentHashMap<>();
+
+	/**
+	 * Statistik zu einer Methode eines CDI-faehigen Beans ermitteln bzw. anlegen
+	 * @param method Die aufgerufene Methode
+	 * @return Die zugehoerige Statistik
+	 */
+	public MethodStatistics getMethodStatistics(Method method) {
+		return getOrCreate(methods, method);
+	}
+
+	/**
+	 * Momentaufnahmen aller Methodenstatistiken ermitteln
+	 * @return Absteigend nach Gesamtzeit sortierte Liste
+	 */
+	public List<LatencySnapshot> getMethodSnapshots() {
+		return getSnapshots(methods.values());
+	}
+
+	public void resetMethodStatistics() {
+		for (MethodStatistics stats : methods.values()) {
+			stats.reset();
+		}
+	}
+
+	/**
+	 * Statistik zu einer Resource-Methode von JAX-RS ermitteln bzw. anlegen
+	 * @param resourceMethod Die zum Request passende Resource-Methode
+	 * @return Die zugehoerige Statistik
+	 */
+	public MethodStatistics getEndpointStatistics(Method resourceMethod) {
+		return getOrCreate(endpoints, resourceMethod);
+	}
+
+	/**
+	 * Momentaufnahmen aller Endpunktstatistiken ermitteln
+	 * @return Absteigend nach Gesamtzeit sortierte Liste
+	 */
+	public List<LatencySnapshot> getEndpointSnapshots() {
+		return getSnapshots(endpoints.values());
+	}
+
+	public void resetEndpointStatistics() {
+		for (MethodStatistics stats : endpoints.values()) {
+			stats.reset();
+		}
+	}
+
+	private static MethodStatistics getOrCreate(ConcurrentMap<Method, MethodStatistics> map, Method method) {
+		final MethodStatistics stats = map.get(method);
+		if (stats != null) {
+			return stats;
+		}
+
+		final MethodStatistics neu = new MethodStatistics(getSignatur(method));
+		final MethodStatistics vorhanden = map.putIfAbsent(method, neu);
+		return vorhanden == null ? neu : vorhanden;
+	}
+
+	private static List<LatencySnapshot> getSnapshots(Collection<MethodStatistics> statistics) {
+		final List<LatencySnapshot> snapshots = new ArrayList<>(statistics.size());
+		for (MethodStatistics stats : statistics) {
+			snapshots.add(stats.getSnapshot());
+		}
+		Collections.sort(snapshots, NACH_GESAMTZEIT);
+		return snapshots;
+	}
+
+	/**
+	 * Signatur fuer die Ausgabe, z.B. "KundeService.findKundeById(Long, FetchType)"
+	 */
+	private static String getSignatur(Method method) {
+		final StringBuilder sb = new StringBuilder(method.getDeclaringClass().getSimpleName());
+		sb.append('.')
+		  .append(method.getName())
+		  .append('(');
+		final Class<?>[] paramTypes = method.getParameterTypes();
+		for (int i = 0; i < paramTypes.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(paramTypes[i].getSimpleName());
+		}
+		sb.append(')');
+		return sb.toString();
+	}
+}
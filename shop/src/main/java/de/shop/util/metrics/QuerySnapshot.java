@@ -0,0 +1,84 @@
+package de.shop.util.metrics;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * Momentaufnahme der Hibernate-Statistik zu einer Query fuer die Ausgabe ueber REST. Alle Zeiten in
+ * Millisekunden.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@XmlRootElement
+public class QuerySnapshot {
+	private String query;
+	private long count;
+	private long rows;
+	private long totalMillis;
+	private long avgMillis;
+	private long maxMillis;
+	private long cacheHits;
+	private long cacheMisses;
+	private long cachePuts;
+
+	public String getQuery() {
+		return query;
+	}
+	public void setQuery(String query) {
+		this.query = query;
+	}
+	public long getCount() {
+		return count;
+	}
+	public void setCount(long count) {
+		this.count = count;
+	}
+	public long getRows() {
+		return rows;
+	}
+	public void setRows(long rows) {
+		this.rows = rows;
+	}
+	public long getTotalMillis() {
+		return totalMillis;
+	}
+	public void setTotalMillis(long totalMillis) {
+		this.totalMillis = totalMillis;
+	}
+	public long getAvgMillis() {
+		return avgMillis;
+	}
+	public void setAvgMillis(long avgMillis) {
+		this.avgMillis = avgMillis;
+	}
+	public long getMaxMillis() {
+		return maxMillis;
+	}
+	public void setMaxMillis(long maxMillis) {
+		this.maxMillis = maxMillis;
+	}
+	public long getCacheHits() {
+		return cacheHits;
+	}
+	public void setCacheHits(long cacheHits) {
+		this.cacheHits = cacheHits;
+	}
+	public long getCacheMisses() {
+		return cacheMisses;
+	}
+	public void setCacheMisses(long cacheMisses) {
+		this.cacheMisses = cacheMisses;
+	}
+	public long getCachePuts() {
+		return cachePuts;
+	}
+	public void setCachePuts(long cachePuts) {
+		this.cachePuts = cachePuts;
+	}
+
+	@Override
+	public String toString() {
+		return "QuerySnapshot [query=" + query + ", count=" + count + ", rows=" + rows
+			   + ", totalMillis=" + totalMillis + ", avgMillis=" + avgMillis + ", maxMillis=" + maxMillis
+			   + ", cacheHits=" + cacheHits + ", cacheMisses=" + cacheMisses + ", cachePuts=" + cachePuts + "]";
+	}
+}
@@ -0,0 +1,54 @@
+package de.shop.util.metrics;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * Momentaufnahme der Hibernate-Statistik zu einer Region des L2-Caches fuer die Ausgabe ueber REST
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@XmlRootElement
+public class RegionSnapshot {
+	private String name;
+	private long hits;
+	private long misses;
+	private long puts;
+	private long elements;
+
+	public String getName() {
+		return name;
+	}
+	public void setName(String name) {
+		this.name = name;
+	}
+	public long getHits() {
+		return hits;
+	}
+	public void setHits(long hits) {
+		this.hits = hits;
+	}
+	public long getMisses() {
+		return misses;
+	}
+	public void setMisses(long misses) {
+		this.misses = misses;
+	}
+	public long getPuts() {
+		return puts;
+	}
+	public void setPuts(long puts) {
+		this.puts = puts;
+	}
+	public long getElements() {
+		return elements;
+	}
+	public void setElements(long elements) {
+		this.elements = elements;
+	}
+
+	@Override
+	public String toString() {
+		return "RegionSnapshot [name=" + name + ", hits=" + hits + ", misses=" + misses + ", puts=" + puts
+			   + ", elements=" + elements + "]";
+	}
+}
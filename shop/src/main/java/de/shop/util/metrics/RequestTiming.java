@@ -0,0 +1,73 @@
+package de.shop.util.metrics;
+
+
+/**
+ * Zeitanteile des aktuellen Requests, die an verschiedenen Stellen im selben Thread
+ * aufgesammelt werden, z.B. die Dauer der JDBC-Zugriffe.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public final class RequestTiming {
+	private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+	private final long start = System.nanoTime();
+	private long dbNanos;
+
+	private RequestTiming() {
+	}
+
+	/**
+	 * Zeitmessung fuer den Request im aktuellen Thread beginnen
+	 * @return Die neue Zeitmessung
+	 */
+	public static RequestTiming begin() {
+		final RequestTiming timing = new RequestTiming();
+		CURRENT.set(timing);
+		return timing;
+	}
+
+	/**
+	 * Eine begonnene Zeitmessung im aktuellen Thread fortsetzen, z.B. wenn ein asynchroner Request in einem
+	 * Executor weiterlaeuft. Der bisherige Thread muss die Zeitmessung zuvor mit end() abgegeben haben.
+	 * @param timing Die begonnene Zeitmessung oder null
+	 */
+	public static void resume(RequestTiming timing) {
+		if (timing != null) {
+			CURRENT.set(timing);
+		}
+	}
+
+	/**
+	 * Zeitmessung fuer den Request im aktuellen Thread beenden
+	 * @return Die beendete Zeitmessung oder null, falls keine begonnen wurde
+	 */
+	public static RequestTiming end() {
+		final RequestTiming timing = CURRENT.get();
+		CURRENT.remove();
+		return timing;
+	}
+
+	/**
+	 * Dauer eines Datenbankzugriffs zum aktuellen Request hinzufuegen.
+	 * Ausserhalb eines Requests, z.B. bei einem Timer, wird nichts aufgezeichnet.
+	 * @param nanos Dauer in Nanosekunden
+	 */
+	public static void addDbNanos(long nanos) {
+		final RequestTiming timing = CURRENT.get();
+		if (timing != null) {
+			timing.dbNanos += nanos;
+		}
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	public long getDbNanos() {
+		return dbNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "RequestTiming [start=" + start + ", dbNanos=" + dbNanos + "]";
+	}
+}
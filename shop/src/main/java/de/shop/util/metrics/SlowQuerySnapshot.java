@@ -0,0 +1,62 @@
+package de.shop.util.metrics;
+
+import java.util.Date;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * Eine Query, deren Ausfuehrung laenger als die eingestellte Schwelle gedauert hat
+ * (siehe {@link de.shop.util.persistence.SlowQueryStatistics})
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@XmlRootElement
+public class SlowQuerySnapshot {
+	private Date timestamp;
+	private String query;
+	private long millis;
+	private int rows;
+
+	public SlowQuerySnapshot() {
+		super();
+	}
+
+	public SlowQuerySnapshot(Date timestamp, String query, long millis, int rows) {
+		super();
+		this.timestamp = timestamp == null ? null : (Date) timestamp.clone();
+		this.query = query;
+		this.millis = millis;
+		this.rows = rows;
+	}
+
+	public Date getTimestamp() {
+		return timestamp == null ? null : (Date) timestamp.clone();
+	}
+	public void setTimestamp(Date timestamp) {
+		this.timestamp = timestamp == null ? null : (Date) timestamp.clone();
+	}
+	public String getQuery() {
+		return query;
+	}
+	public void setQuery(String query) {
+		this.query = query;
+	}
+	public long getMillis() {
+		return millis;
+	}
+	public void setMillis(long millis) {
+		this.millis = millis;
+	}
+	public int getRows() {
+		return rows;
+	}
+	public void setRows(int rows) {
+		this.rows = rows;
+	}
+
+	@Override
+	public String toString() {
+		return "SlowQuerySnapshot [timestamp=" + timestamp + ", query=" + query + ", millis=" + millis
+			   + ", rows=" + rows + "]";
+	}
+}
@@ -1,14 +1,131 @@
 package de.shop.util.persistence;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.RequestScoped;
 import javax.enterprise.inject.Produces;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 
 /**
+ * Der injizierte EntityManager verwendet die Primaer-Datenbank und innerhalb von Methoden mit
+ * {@link de.shop.util.interceptor.ReadOnly} die Replica-Datenbank (siehe {@link ReplicaRouting}):
+ * <ul>
+ * <li>Die Replica wird nur ausserhalb einer JTA-Transaktion verwendet, auch wenn eine Methode mit @ReadOnly
+ *     eine transaktionale Methode aufruft.</li>
+ * <li>Alle Methoden einschliesslich unwrap() und getDelegate() werden an denselben EntityManager weitergeleitet;
+ *     innerhalb von @ReadOnly liefert unwrap() also die Session der Replica.</li>
+ * <li>Schreibzugriffe sind nur in einer Transaktion moeglich. Wurde die Primaer-Datenbank in einer Transaktion
+ *     verwendet, die erfolgreich abgeschlossen wird, liest der Request danach nur noch von der Primaer-Datenbank.
+ *     Das gilt unabhaengig davon, ob ueber den EntityManager, eine Query oder die Hibernate-Session geschrieben
+ *     wurde.</li>
+ * <li>Fuer die Replica wird ein {@link ReplicaEntityManager} pro Request verwendet, damit gelesene Entities bis
+ *     zum Ende des Requests Lazy-Assoziationen nachladen koennen.</li>
+ * </ul>
+ * Der Proxy wird einmalig erzeugt, weil beide EntityManager thread-safe sind.
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
  */
+@ApplicationScoped
 public class EntityManagerProducer {
-	@PersistenceContext
-	@Produces
+	public static final String PERSISTENCE_UNIT = "shopPU";
+	public static final String REPLICA_PERSISTENCE_UNIT = "shopReplicaPU";
+	
+	// Schluessel, um die Synchronization nur einmal pro Transaktion zu registrieren
+	private static final String SYNCHRONIZATION_KEY = EntityManagerProducer.class.getName() + ".synchronization";
+	
+	@PersistenceContext(unitName = PERSISTENCE_UNIT)
 	private EntityManager em;
+	
+	@Inject
+	private ReplicaEntityManager replicaEm;
+	
+	@Resource
+	private TransactionSynchronizationRegistry tsr;
+	
+	@Inject
+	private BeanManager beanManager;
+	
+	private EntityManager proxy;
+	
+	@PostConstruct
+	private void postConstruct() {
+		proxy = (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+				                                       new Class<?>[] { EntityManager.class },
+				                                       new RoutingHandler());
+	}
+	
+	@Produces
+	private EntityManager getEntityManager() {
+		return proxy;
+	}
+	
+	private boolean isRequestAktiv() {
+		try {
+			return beanManager.getContext(RequestScoped.class).isActive();
+		}
+		catch (ContextNotActiveException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Nach dem Commit der aktuellen Transaktion liest der Request nur noch von der Primaer-Datenbank
+	 */
+	private void beiCommitGeschrieben() {
+		final ReplicaRouting routing = ReplicaRouting.current();
+		if (routing == null || routing.isGeschrieben() || tsr.getResource(SYNCHRONIZATION_KEY) != null) {
+			return;
+		}
+		tsr.putResource(SYNCHRONIZATION_KEY, Boolean.TRUE);
+		tsr.registerInterposedSynchronization(new Synchronization() {
+			@Override
+			public void beforeCompletion() {
+				// nichts zu tun
+			}
+			
+			@Override
+			public void afterCompletion(int status) {
+				// evtl. in einem anderen Thread, z.B. beim Timeout der Transaktion
+				if (status == Status.STATUS_COMMITTED) {
+					routing.setGeschrieben();
+				}
+			}
+		});
+	}
+	
+	private final class RoutingHandler implements InvocationHandler {
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			final EntityManager target;
+			if (tsr.getTransactionKey() != null) {
+				beiCommitGeschrieben();
+				target = em;
+			}
+			else if (ReplicaRouting.isReplica() && isRequestAktiv()) {
+				target = replicaEm.getEntityManager();
+			}
+			else {
+				target = em;
+			}
+			
+			try {
+				return method.invoke(target, args);
+			}
+			catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
 }
@@ -0,0 +1,60 @@
+package de.shop.util.persistence;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+import org.jboss.logging.Logger;
+
+
+/**
+ * Vorwaerts lesender Cursor ueber das Ergebnis einer Export-Query. Es ist immer nur die aktuelle Zeile im
+ * Speicher; die Zeilen werden in Bloecken der Fetch Size von der DB geholt. Mit close() werden der Cursor,
+ * die Session und die Verbindung zum Export-Pool freigegeben.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class ExportCursor implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
+	
+	private final Connection connection;
+	private final StatelessSession session;
+	private final ScrollableResults results;
+	private long zeilen;
+	
+	ExportCursor(Connection connection, StatelessSession session, ScrollableResults results) {
+		this.connection = connection;
+		this.session = session;
+		this.results = results;
+	}
+	
+	/**
+	 * @return Die Werte der naechsten Zeile in der Reihenfolge der SELECT-Klausel oder null am Ende
+	 */
+	public Object[] next() {
+		if (!results.next()) {
+			return null;
+		}
+		zeilen++;
+		return results.get();
+	}
+	
+	@Override
+	public void close() {
+		try {
+			results.close();
+			session.close();
+		}
+		finally {
+			try {
+				connection.close();
+			}
+			catch (SQLException e) {
+				LOGGER.warn("Verbindung fuer den Export konnte nicht geschlossen werden", e);
+			}
+		}
+		LOGGER.debugf("Export mit %d Zeilen beendet", zeilen);
+	}
+}
@@ -0,0 +1,94 @@
+package de.shop.util.persistence;
+
+import java.lang.invoke.MethodHandles;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import javax.persistence.PersistenceUnit;
+import javax.sql.DataSource;
+
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.jboss.logging.Logger;
+
+
+/**
+ * Named Queries fuer den Export als vorwaerts lesenden Cursor ausfuehren. Die Verbindungen kommen aus einem
+ * eigenen, kleinen Pool ohne JTA (siehe shop-ds.xml), damit lang laufende Exporte nicht die Verbindungen der
+ * uebrigen Requests belegen. Eine StatelessSession verwaltet weder einen Persistenzkontext noch den L2-Cache.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+public class ExportHelper {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
+	
+	public static final String EXPORT_DS = "java:jboss/datasources/shopExportDS";
+	
+	// Anzahl der Zeilen pro Roundtrip zur DB (Default bei Oracle: 10)
+	private static final int FETCH_SIZE = 1000;
+	
+	@Resource(lookup = EXPORT_DS)
+	private DataSource dataSource;
+	
+	@PersistenceUnit(unitName = EntityManagerProducer.PERSISTENCE_UNIT)
+	private EntityManagerFactory emf;
+	
+	private SessionFactory sessionFactory;
+	
+	@PostConstruct
+	private void postConstruct() {
+		sessionFactory = emf.unwrap(SessionFactory.class);
+		LOGGER.debugf("CDI-faehiges Bean %s wurde erzeugt", this);
+	}
+	
+	/**
+	 * Eine Named Query mit Projektion, d.h. ohne Entities, fuer den Export ausfuehren
+	 * @param queryName Name der Query
+	 * @param params Werte fuer die Parameter der Query
+	 * @return Cursor, der nach dem Lesen geschlossen werden muss
+	 * @throws PersistenceException Falls im Pool fuer den Export keine Verbindung verfuegbar ist
+	 */
+	public ExportCursor open(String queryName, Map<String, Object> params) {
+		final Connection connection;
+		try {
+			connection = dataSource.getConnection();
+			connection.setReadOnly(true);
+		}
+		catch (SQLException e) {
+			throw new PersistenceException("Keine Verbindung fuer den Export verfuegbar", e);
+		}
+		
+		StatelessSession session = null;
+		try {
+			session = sessionFactory.openStatelessSession(connection);
+			final Query query = session.getNamedQuery(queryName)
+			                           .setFetchSize(FETCH_SIZE)
+			                           .setReadOnly(true);
+			for (Entry<String, Object> param : params.entrySet()) {
+				query.setParameter(param.getKey(), param.getValue());
+			}
+			return new ExportCursor(connection, session, query.scroll(ScrollMode.FORWARD_ONLY));
+		}
+		catch (RuntimeException e) {
+			if (session != null) {
+				session.close();
+			}
+			try {
+				connection.close();
+			}
+			catch (SQLException e2) {
+				LOGGER.warn("Verbindung fuer den Export konnte nicht geschlossen werden", e2);
+			}
+			throw e;
+		}
+	}
+}
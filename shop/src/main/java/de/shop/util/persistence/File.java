@@ -1,7 +1,9 @@
 package de.shop.util.persistence;
 
+import static de.shop.util.Constants.ERSTE_GENERIERTE_ID;
 import static de.shop.util.Constants.ERSTE_VERSION;
 import static de.shop.util.Constants.KEINE_ID;
+import static javax.persistence.GenerationType.SEQUENCE;
 import static javax.persistence.TemporalType.TIMESTAMP;
 
 import java.io.Serializable;
@@ -17,6 +19,7 @@ import javax.persistence.Id;
 import javax.persistence.Lob;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.Version;
@@ -35,12 +38,17 @@ import org.jboss.logging.Logger;
 public class File implements Serializable {
 	private static final long serialVersionUID = 2632441781256478734L;
 	
+	private static final String ID_SEQUENCE = "file_seq";
+	private static final int ID_ALLOCATION_SIZE = 10;
+	
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
 
 	public static final int FILENAME_LENGTH_MAX = 128;
 	
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, initialValue = ERSTE_GENERIERTE_ID,
+	                   allocationSize = ID_ALLOCATION_SIZE)
 	@Column(nullable = false, updatable = false)
 	private Long id = KEINE_ID;
 	
@@ -77,6 +85,16 @@ public class File implements Serializable {
 		super();
 		set(bytes, dateiname, mimeType);
 	}
+	
+	/**
+	 * Projektion ohne die Bytes, z.B. fuer den Schluessel im {@link FileCache}
+	 */
+	public File(Long id, int version, MimeType mimeType) {
+		super();
+		this.id = id;
+		this.version = version;
+		this.mimeType = mimeType;
+	}
 
 	@PrePersist
 	protected void prePersist() {
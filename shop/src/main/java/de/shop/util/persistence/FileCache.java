@@ -0,0 +1,102 @@
+package de.shop.util.persistence;
+
+import java.lang.invoke.MethodHandles;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.jboss.logging.Logger;
+
+import de.shop.util.metrics.CacheSnapshot;
+import de.shop.util.persistence.OffHeapCache.Eintrag;
+
+
+/**
+ * Cache fuer haeufig heruntergeladene Dateien ausserhalb des Heaps (siehe {@link OffHeapCache}). Der Schluessel
+ * besteht aus ID und Version der Datei, so dass eine geaenderte Datei nie aus dem Cache gelesen wird; die alte
+ * Version wird spaeter verdraengt.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+public class FileCache {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
+	private static final long MAX_BYTES_DEFAULT = 64L * 1024 * 1024;
+
+	// In src\webapp\WEB-INF\web.xml kann die Obergrenze gesetzt bzw. ueberschrieben werden
+	@Resource(name = "fileCacheMaxBytes")
+	private Long maxBytes;
+
+	private OffHeapCache<Key> cache;
+
+	@PostConstruct
+	private void postConstruct() {
+		final long max = maxBytes == null || maxBytes < OffHeapCache.BLOCK_GROESSE ? MAX_BYTES_DEFAULT : maxBytes;
+		cache = new OffHeapCache<>(max);
+		LOGGER.infof("Cache fuer Dateien mit %d Bytes ausserhalb des Heaps", cache.getMaxBytes());
+	}
+
+	/**
+	 * @param id ID der Datei
+	 * @param version Version der Datei
+	 * @return Der geschuetzte Eintrag, fuer den release() aufgerufen werden muss, oder null
+	 */
+	public Eintrag get(Long id, int version) {
+		return cache.get(new Key(id, version));
+	}
+
+	/**
+	 * @param file Die geladene Datei mit ihren Bytes
+	 * @return Der geschuetzte Eintrag, fuer den release() aufgerufen werden muss, oder null, falls die Datei
+	 *         nicht in den Cache passt
+	 */
+	public Eintrag put(File file) {
+		return cache.put(new Key(file.getId(), file.getVersion()), file.getBytes());
+	}
+
+	/**
+	 * @return Die aktuellen Zaehler des Caches
+	 */
+	public CacheSnapshot getSnapshot() {
+		final CacheSnapshot snapshot = new CacheSnapshot();
+		snapshot.setName("files");
+		snapshot.setHits(cache.getHits());
+		snapshot.setMisses(cache.getMisses());
+		snapshot.setEvictions(cache.getEvictions());
+		snapshot.setSize(cache.getSize());
+		snapshot.setUsedBytes(cache.getUsedBytes());
+		snapshot.setMaxBytes(cache.getMaxBytes());
+		return snapshot;
+	}
+
+	public void resetStatistics() {
+		cache.resetStatistics();
+	}
+
+	private static final class Key {
+		private final Long id;
+		private final int version;
+
+		Key(Long id, int version) {
+			this.id = id;
+			this.version = version;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * id.hashCode() + version;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return id.equals(other.id) && version == other.version;
+		}
+	}
+}
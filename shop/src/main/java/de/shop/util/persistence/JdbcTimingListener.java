@@ -0,0 +1,61 @@
+package de.shop.util.persistence;
+
+import org.hibernate.BaseSessionEventListener;
+
+import de.shop.util.metrics.RequestTiming;
+
+
+/**
+ * Erfasst die Dauer der JDBC-Zugriffe einer Hibernate-Session und addiert sie zum aktuellen Request.
+ * Wird in persistence.xml mit "hibernate.session.events.auto" registriert; Hibernate erzeugt
+ * pro Session ein eigenes Objekt.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class JdbcTimingListener extends BaseSessionEventListener {
+	private static final long serialVersionUID = 3960297414356658376L;
+
+	private long connectionStart;
+	private long prepareStart;
+	private long executeStart;
+	private long batchStart;
+
+	@Override
+	public void jdbcConnectionAcquisitionStart() {
+		connectionStart = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcConnectionAcquisitionEnd() {
+		RequestTiming.addDbNanos(System.nanoTime() - connectionStart);
+	}
+
+	@Override
+	public void jdbcPrepareStatementStart() {
+		prepareStart = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcPrepareStatementEnd() {
+		RequestTiming.addDbNanos(System.nanoTime() - prepareStart);
+	}
+
+	@Override
+	public void jdbcExecuteStatementStart() {
+		executeStart = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteStatementEnd() {
+		RequestTiming.addDbNanos(System.nanoTime() - executeStart);
+	}
+
+	@Override
+	public void jdbcExecuteBatchStart() {
+		batchStart = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteBatchEnd() {
+		RequestTiming.addDbNanos(System.nanoTime() - batchStart);
+	}
+}
@@ -0,0 +1,266 @@
+package de.shop.util.persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+
+/**
+ * Groessenbeschraenkter LRU-Cache fuer Binaerdaten ausserhalb des Heaps. Der Speicher wird beim Erzeugen
+ * einmalig als Direct-ByteBuffer in Slabs zu je 16 MiB reserviert und in Bloecke zu 64 KiB aufgeteilt; ein
+ * Eintrag belegt so viele Bloecke wie noetig. Verdraengte Bloecke werden sofort wiederverwendet, d.h. der
+ * Cache erzeugt weder Heap-Objekte fuer die Daten noch Arbeit fuer den Garbage Collector.
+ * <p>
+ * Ein Eintrag, der von get() oder put() geliefert wird, ist gegen Verdraengung geschuetzt, bis release()
+ * aufgerufen wurde. Wird er in der Zwischenzeit verdraengt oder ersetzt, werden seine Bloecke erst danach
+ * freigegeben.
+ * </p>
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class OffHeapCache<K> {
+	public static final int BLOCK_GROESSE = 64 * 1024;
+	private static final int BLOECKE_PRO_SLAB = 256;
+	// Ein einzelner Eintrag darf hoechstens ein Viertel des Caches belegen
+	private static final int MAX_ANTEIL_EINTRAG = 4;
+
+	private final ByteBuffer[] slabs;
+	private final int anzahlBloecke;
+	private final long maxEintragBytes;
+
+	// Stack mit den Nummern der freien Bloecke
+	private final int[] freieBloecke;
+	private int anzahlFrei;
+
+	// Zugriffsreihenfolge: der am laengsten nicht gelesene Eintrag zuerst
+	private final LinkedHashMap<K, Eintrag> eintraege = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * @param maxBytes Obergrenze fuer den Speicher ausserhalb des Heaps; wird auf volle Bloecke abgerundet
+	 */
+	public OffHeapCache(long maxBytes) {
+		final long bloecke = maxBytes / BLOCK_GROESSE;
+		if (bloecke <= 0 || bloecke > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Ungueltige Groesse fuer den Cache: " + maxBytes);
+		}
+		anzahlBloecke = (int) bloecke;
+		maxEintragBytes = (long) anzahlBloecke * BLOCK_GROESSE / MAX_ANTEIL_EINTRAG;
+
+		slabs = new ByteBuffer[(anzahlBloecke + BLOECKE_PRO_SLAB - 1) / BLOECKE_PRO_SLAB];
+		for (int i = 0; i < slabs.length; i++) {
+			final int bloeckeImSlab = Math.min(BLOECKE_PRO_SLAB, anzahlBloecke - i * BLOECKE_PRO_SLAB);
+			slabs[i] = ByteBuffer.allocateDirect(bloeckeImSlab * BLOCK_GROESSE);
+		}
+
+		freieBloecke = new int[anzahlBloecke];
+		for (int i = 0; i < anzahlBloecke; i++) {
+			// Niedrige Blocknummern zuerst vergeben
+			freieBloecke[i] = anzahlBloecke - 1 - i;
+		}
+		anzahlFrei = anzahlBloecke;
+	}
+
+	/**
+	 * Einen Eintrag lesen und gegen Verdraengung schuetzen
+	 * @param key Der Schluessel
+	 * @return Der Eintrag, fuer den release() aufgerufen werden muss, oder null
+	 */
+	public synchronized Eintrag get(K key) {
+		final Eintrag eintrag = eintraege.get(key);
+		if (eintrag == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		eintrag.pins++;
+		return eintrag;
+	}
+
+	/**
+	 * Daten in den Cache kopieren. Dafuer werden bei Bedarf die am laengsten nicht gelesenen Eintraege
+	 * verdraengt; ein vorhandener Eintrag zum selben Schluessel wird ersetzt.
+	 * @param key Der Schluessel
+	 * @param bytes Die Daten
+	 * @return Der neue Eintrag, fuer den release() aufgerufen werden muss, oder null, falls die Daten zu gross
+	 *         sind oder nicht genug Bloecke verdraengt werden koennen
+	 */
+	public Eintrag put(K key, byte[] bytes) {
+		if (bytes.length > maxEintragBytes) {
+			return null;
+		}
+
+		final int[] bloecke = allokieren((bytes.length + BLOCK_GROESSE - 1) / BLOCK_GROESSE);
+		if (bloecke == null) {
+			return null;
+		}
+		final Eintrag eintrag = new Eintrag(this, bloecke, bytes.length);
+
+		// Kopieren ohne Sperre: die Bloecke gehoeren bis zum Einfuegen nur diesem Thread
+		int offset = 0;
+		for (int block : bloecke) {
+			final ByteBuffer buffer = getBlock(block);
+			final int laenge = Math.min(BLOCK_GROESSE, bytes.length - offset);
+			buffer.put(bytes, offset, laenge);
+			offset += laenge;
+		}
+
+		synchronized (this) {
+			final Eintrag alt = eintraege.put(key, eintrag);
+			if (alt != null) {
+				entfernen(alt);
+			}
+		}
+		return eintrag;
+	}
+
+	/**
+	 * Alle Eintraege verdraengen, z.B. nach einem Import. Geschuetzte Eintraege werden erst nach release()
+	 * freigegeben.
+	 */
+	public synchronized void clear() {
+		for (Eintrag eintrag : eintraege.values()) {
+			entfernen(eintrag);
+		}
+		eintraege.clear();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	public synchronized int getSize() {
+		return eintraege.size();
+	}
+
+	/**
+	 * @return Belegter Speicher einschliesslich der Bloecke verdraengter, aber noch geschuetzter Eintraege
+	 */
+	public synchronized long getUsedBytes() {
+		return (long) (anzahlBloecke - anzahlFrei) * BLOCK_GROESSE;
+	}
+
+	public long getMaxBytes() {
+		return (long) anzahlBloecke * BLOCK_GROESSE;
+	}
+
+	public synchronized void resetStatistics() {
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	private synchronized int[] allokieren(int anzahl) {
+		final Iterator<Eintrag> lru = eintraege.values().iterator();
+		while (anzahlFrei < anzahl && lru.hasNext()) {
+			final Eintrag eintrag = lru.next();
+			lru.remove();
+			entfernen(eintrag);
+			evictions++;
+		}
+		if (anzahlFrei < anzahl) {
+			// Die uebrigen Bloecke gehoeren geschuetzten Eintraegen
+			return null;
+		}
+
+		final int[] bloecke = new int[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			bloecke[i] = freieBloecke[--anzahlFrei];
+		}
+		return bloecke;
+	}
+
+	// Aufruf nur mit Sperre
+	private void entfernen(Eintrag eintrag) {
+		eintrag.entfernt = true;
+		if (eintrag.pins == 0) {
+			freigeben(eintrag);
+		}
+	}
+
+	// Aufruf nur mit Sperre
+	private void freigeben(Eintrag eintrag) {
+		for (int block : eintrag.bloecke) {
+			freieBloecke[anzahlFrei++] = block;
+		}
+	}
+
+	private synchronized void release(Eintrag eintrag) {
+		eintrag.pins--;
+		if (eintrag.pins == 0 && eintrag.entfernt) {
+			freigeben(eintrag);
+		}
+	}
+
+	/**
+	 * Eigene Sicht auf einen Block, damit Position und Limit nicht mit anderen Threads geteilt werden
+	 */
+	private ByteBuffer getBlock(int block) {
+		final ByteBuffer buffer = slabs[block / BLOECKE_PRO_SLAB].duplicate();
+		final int start = (block % BLOECKE_PRO_SLAB) * BLOCK_GROESSE;
+		buffer.limit(start + BLOCK_GROESSE)
+		      .position(start);
+		return buffer;
+	}
+
+	/**
+	 * Ein Eintrag im Cache, der bis zum Aufruf von release() nicht verdraengt wird
+	 */
+	public static final class Eintrag {
+		private final OffHeapCache<?> cache;
+		private final int[] bloecke;
+		private final int laenge;
+		// Zugriff nur mit der Sperre des Caches
+		private int pins = 1;
+		private boolean entfernt;
+
+		Eintrag(OffHeapCache<?> cache, int[] bloecke, int laenge) {
+			this.cache = cache;
+			this.bloecke = bloecke;
+			this.laenge = laenge;
+		}
+
+		public int getLaenge() {
+			return laenge;
+		}
+
+		/**
+		 * Die Daten direkt aus den Bloecken in einen Stream schreiben
+		 * @param out Der Stream, z.B. der Rumpf einer Response
+		 * @throws IOException Falls der Stream nicht beschrieben werden kann
+		 */
+		public void writeTo(OutputStream out) throws IOException {
+			final WritableByteChannel channel = Channels.newChannel(out);
+			int rest = laenge;
+			for (int block : bloecke) {
+				final ByteBuffer buffer = cache.getBlock(block);
+				buffer.limit(buffer.position() + Math.min(BLOCK_GROESSE, rest));
+				rest -= buffer.remaining();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+		}
+
+		/**
+		 * Den Schutz gegen Verdraengung aufheben; danach darf der Eintrag nicht mehr gelesen werden
+		 */
+		public void release() {
+			cache.release(this);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package de.shop.util.persistence;
+
+import static de.shop.util.persistence.EntityManagerProducer.REPLICA_PERSISTENCE_UNIT;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.RequestScoped;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+/**
+ * EntityManager fuer die Replica-Datenbank, der bis zum Ende des Requests geoeffnet bleibt, d.h. auch waehrend
+ * der Serialisierung der Response. Ein transaktionsgebundener EntityManager wuerde ausserhalb einer Transaktion
+ * nach jedem Aufruf geschlossen, so dass Lazy-Assoziationen der gelesenen Entities nicht mehr geladen werden
+ * koennten. Die Replica wird nur ausserhalb von Transaktionen verwendet (siehe {@link EntityManagerProducer}),
+ * deshalb wird der EntityManager nie an eine JTA-Transaktion gebunden.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@RequestScoped
+public class ReplicaEntityManager {
+	@PersistenceUnit(unitName = REPLICA_PERSISTENCE_UNIT)
+	private EntityManagerFactory emf;
+	
+	private EntityManager em;
+	
+	/**
+	 * @return Der EntityManager des aktuellen Requests; er wird beim ersten Aufruf erzeugt
+	 */
+	public EntityManager getEntityManager() {
+		if (em == null) {
+			em = emf.createEntityManager();
+		}
+		return em;
+	}
+	
+	@PreDestroy
+	private void preDestroy() {
+		if (em != null && em.isOpen()) {
+			em.close();
+		}
+	}
+}
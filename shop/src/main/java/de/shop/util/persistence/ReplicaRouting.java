@@ -0,0 +1,83 @@
+package de.shop.util.persistence;
+
+
+/**
+ * Zustand des aktuellen Requests fuer die Verteilung der Lesezugriffe auf die Replica-Datenbank.
+ * Ausserhalb eines Requests, z.B. bei einem Timer, und innerhalb einer JTA-Transaktion wird immer die
+ * Primaer-Datenbank verwendet (siehe {@link EntityManagerProducer}).
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public final class ReplicaRouting {
+	private static final ThreadLocal<ReplicaRouting> CURRENT = new ThreadLocal<>();
+
+	private boolean replica;
+	// wird evtl. im Thread des Transaktionsmanagers gesetzt
+	private volatile boolean geschrieben;
+
+	private ReplicaRouting() {
+	}
+
+	/**
+	 * Einen neuen Request im aktuellen Thread beginnen: Lesezugriffe duerfen auf die Replica
+	 */
+	public static void begin() {
+		CURRENT.set(new ReplicaRouting());
+	}
+
+	/**
+	 * Den Request im aktuellen Thread beenden
+	 */
+	public static void end() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Nachfolgende Zugriffe im aktuellen Thread auf die Replica umleiten
+	 * @return false, falls die Replica nicht verwendet werden darf oder bereits verwendet wird
+	 */
+	public static boolean beginReplica() {
+		final ReplicaRouting routing = CURRENT.get();
+		if (routing == null || routing.replica || routing.geschrieben) {
+			return false;
+		}
+		routing.replica = true;
+		return true;
+	}
+
+	/**
+	 * Nachfolgende Zugriffe im aktuellen Thread wieder auf die Primaer-Datenbank
+	 */
+	public static void endReplica() {
+		final ReplicaRouting routing = CURRENT.get();
+		if (routing != null) {
+			routing.replica = false;
+		}
+	}
+
+	/**
+	 * @return true, falls der aktuelle Zugriff auf die Replica umgeleitet wird
+	 */
+	public static boolean isReplica() {
+		final ReplicaRouting routing = CURRENT.get();
+		return routing != null && routing.replica;
+	}
+
+	/**
+	 * @return Der Zustand des Requests im aktuellen Thread oder null
+	 */
+	static ReplicaRouting current() {
+		return CURRENT.get();
+	}
+
+	boolean isGeschrieben() {
+		return geschrieben;
+	}
+
+	/**
+	 * Einen Schreibzugriff vermerken: Bis zum Ende des Requests wird nur noch die Primaer-Datenbank gelesen,
+	 * weil die Replica die Aenderung moeglicherweise noch nicht enthaelt.
+	 */
+	void setGeschrieben() {
+		geschrieben = true;
+	}
+}
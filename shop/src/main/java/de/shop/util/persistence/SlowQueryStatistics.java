@@ -0,0 +1,88 @@
+package de.shop.util.persistence;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.ConcurrentStatisticsImpl;
+
+import de.shop.util.metrics.SlowQuerySnapshot;
+
+
+/**
+ * Hibernate-Statistik, die zusaetzlich die letzten Queries protokolliert, deren Ausfuehrung mindestens so lange
+ * gedauert hat wie die Schwelle. Hibernate meldet die Dauer einer Query nur bei eingeschalteter Statistik
+ * (siehe HibernateMetrics) und in ganzen Millisekunden. Erzeugt wird das
+ * Objekt durch {@link SlowQueryStatisticsFactory}.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class SlowQueryStatistics extends ConcurrentStatisticsImpl {
+	public static final int MAX_SLOW_QUERIES = 100;
+
+	private volatile long schwelleMillis;
+
+	// Die neueste Query zuerst; Zugriff nur mit der Sperre der Deque
+	private final Deque<SlowQuerySnapshot> slowQueries = new ArrayDeque<>(MAX_SLOW_QUERIES);
+
+	SlowQueryStatistics(SessionFactoryImplementor sessionFactory, long schwelleMillis) {
+		super(sessionFactory);
+		this.schwelleMillis = schwelleMillis;
+	}
+
+	@Override
+	public void queryExecuted(String hql, int rows, long time) {
+		super.queryExecuted(hql, rows, time);
+		if (time < schwelleMillis) {
+			return;
+		}
+
+		final SlowQuerySnapshot slowQuery = new SlowQuerySnapshot(new Date(), hql, time, rows);
+		synchronized (slowQueries) {
+			if (slowQueries.size() == MAX_SLOW_QUERIES) {
+				slowQueries.removeLast();
+			}
+			slowQueries.addFirst(slowQuery);
+		}
+	}
+
+	/**
+	 * Alle Zaehler und die protokollierten Queries zuruecksetzen
+	 */
+	@Override
+	public void clear() {
+		super.clear();
+		// Der Konstruktor von ConcurrentStatisticsImpl ruft clear() auf, bevor die Deque initialisiert ist
+		if (slowQueries == null) {
+			return;
+		}
+		synchronized (slowQueries) {
+			slowQueries.clear();
+		}
+	}
+
+	/**
+	 * @return Die hoechstens MAX_SLOW_QUERIES zuletzt protokollierten Queries, die neueste zuerst
+	 */
+	public List<SlowQuerySnapshot> getSlowQueries() {
+		synchronized (slowQueries) {
+			return new ArrayList<>(slowQueries);
+		}
+	}
+
+	public long getSchwelleMillis() {
+		return schwelleMillis;
+	}
+
+	/**
+	 * @param schwelleMillis Mindestdauer in Millisekunden, ab der eine Query protokolliert wird
+	 */
+	public void setSchwelleMillis(long schwelleMillis) {
+		if (schwelleMillis < 0) {
+			throw new IllegalArgumentException("Ungueltige Schwelle fuer langsame Queries: " + schwelleMillis);
+		}
+		this.schwelleMillis = schwelleMillis;
+	}
+}
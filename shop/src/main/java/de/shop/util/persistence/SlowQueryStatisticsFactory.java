@@ -0,0 +1,30 @@
+package de.shop.util.persistence;
+
+import java.lang.invoke.MethodHandles;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+import org.jboss.logging.Logger;
+
+
+/**
+ * Erzeugt {@link SlowQueryStatistics} anstelle der Standard-Statistik von Hibernate. Wird in persistence.xml mit
+ * "hibernate.stats.factory" registriert; die Schwelle fuer langsame Queries kann dort mit SCHWELLE_MILLIS
+ * gesetzt und zur Laufzeit ueber /admin/metrics/hibernate/slowqueries geaendert werden.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class SlowQueryStatisticsFactory implements StatisticsFactory {
+	public static final String SCHWELLE_MILLIS = "shop.slow_query_millis";
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
+	private static final int SCHWELLE_MILLIS_DEFAULT = 200;
+
+	@Override
+	public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+		final long schwelleMillis = ConfigurationHelper.getLong(SCHWELLE_MILLIS, sessionFactory.getProperties(),
+				                                                SCHWELLE_MILLIS_DEFAULT);
+		LOGGER.infof("Queries ab %d ms werden protokolliert", schwelleMillis);
+		return new SlowQueryStatistics(sessionFactory, schwelleMillis);
+	}
+}
@@ -0,0 +1,25 @@
+package de.shop.util.persistence;
+
+import java.util.concurrent.Callable;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.transaction.Transactional;
+
+/**
+ * Aufgaben in einer Transaktion ausfuehren, die ausserhalb des Request-Threads laufen, z.B. bei asynchronen
+ * REST-Requests. @Transactional bei der Resource-Methode wuerde nur den Aufruf des Executors umfassen.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+public class TransactionHelper {
+	/**
+	 * Die Aufgabe in der aktuellen bzw. einer neuen Transaktion ausfuehren
+	 * @param task Die Aufgabe
+	 * @return Das Ergebnis der Aufgabe
+	 * @throws Exception Die Exception der Aufgabe; bei einer RuntimeException wird die Transaktion zurueckgerollt
+	 */
+	@Transactional
+	public <T> T call(Callable<T> task) throws Exception {
+		return task.call();
+	}
+}
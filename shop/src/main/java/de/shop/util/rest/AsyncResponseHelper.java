@@ -0,0 +1,359 @@
+package de.shop.util.rest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ContextService;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.TimeoutHandler;
+
+import org.jboss.logging.Logger;
+
+import de.shop.util.concurrency.IoExecutor;
+import de.shop.util.metrics.RequestTiming;
+import de.shop.util.persistence.ReplicaRouting;
+import de.shop.util.persistence.TransactionHelper;
+
+
+/**
+ * Langsame Resource-Methoden mit @Suspended AsyncResponse in einem eigenen, beschraenkten Pool ausfuehren,
+ * damit sie die Request-Threads des Servers nicht blockieren. Pro Pool laufen hoechstens maxThreads Aufgaben
+ * gleichzeitig und hoechstens maxWarteschlange Aufgaben warten; weitere Requests und Requests, die ihr
+ * Timeout ueberschreiten, werden mit 503 und dem Header "Retry-After" beantwortet. Bei Aufgaben mit Transaktion
+ * gibt es nach einem Timeout kein "Retry-After": Die Transaktion wird zurueckgerollt und erst danach wird mit
+ * 503 geantwortet, damit eine Wiederholung z.B. keine Bestellung doppelt anlegt.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+public class AsyncResponseHelper {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
+	static final int RETRY_AFTER_SEKUNDEN = 5;
+	private static final long SHUTDOWN_SEKUNDEN = 10;
+
+	/**
+	 * Getrennte Pools, damit z.B. viele Uploads keine Bestellungen verzoegern
+	 */
+	public enum Pool {
+		BESTELLUNGEN(16, 64),
+		DATEIEN(8, 32),
+		LISTEN(4, 16),
+		// Parallele Teilzugriffe, z.B. 3 pro Uebersicht eines Kunden
+		TEILZUGRIFFE(12, 36);
+
+		private final int maxThreads;
+		private final int maxWarteschlange;
+
+		private Pool(int maxThreads, int maxWarteschlange) {
+			this.maxThreads = maxThreads;
+			this.maxWarteschlange = maxWarteschlange;
+		}
+	}
+
+	@Resource
+	private ManagedThreadFactory threadFactory;
+
+	@Resource
+	private ContextService contextService;
+
+	@Inject
+	private TransactionHelper transactionHelper;
+
+	@Resource
+	private TransactionSynchronizationRegistry tsr;
+
+	private final Map<Pool, IoExecutor> executors = new EnumMap<>(Pool.class);
+
+	@PostConstruct
+	private void postConstruct() {
+		for (Pool pool : Pool.values()) {
+			executors.put(pool, new IoExecutor(pool.maxThreads, pool.maxWarteschlange, threadFactory));
+		}
+	}
+
+	@PreDestroy
+	private void preDestroy() {
+		for (Map.Entry<Pool, IoExecutor> entry : executors.entrySet()) {
+			try {
+				if (!entry.getValue().shutdown(SHUTDOWN_SEKUNDEN, TimeUnit.SECONDS)) {
+					LOGGER.warnf("Pool %s: %d Requests wurden nicht mehr ausgefuehrt",
+							     entry.getKey(), entry.getValue().getWarteschlange());
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Die Aufgabe im gegebenen Pool ausfuehren und den Request mit ihrem Ergebnis fortsetzen. Eine Exception
+	 * der Aufgabe wird wie bei synchronen Methoden von den ExceptionMappern in eine Response umgewandelt.
+	 * @param asyncResponse Der suspendierte Request
+	 * @param pool Der Pool fuer die Aufgabe
+	 * @param timeoutMillis Maximale Dauer bis zur Response
+	 * @param task Die Aufgabe; ein Rueckgabewert null entspricht einer Methode mit void, d.h. 204
+	 */
+	public <T> void execute(final AsyncResponse asyncResponse, Pool pool, long timeoutMillis,
+			                final Callable<T> task) {
+		asyncResponse.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+		asyncResponse.setTimeoutHandler(new TimeoutHandler() {
+			@Override
+			public void handleTimeout(AsyncResponse response) {
+				response.cancel(RETRY_AFTER_SEKUNDEN);
+			}
+		});
+
+		execute(asyncResponse, pool, new Runnable() {
+			@Override
+			public void run() {
+				resume(asyncResponse, task);
+			}
+		}, true);
+	}
+
+	/**
+	 * @param aufgabe Die Aufgabe, die den Request selbst fortsetzt
+	 * @param retryAfter false, falls bei einem ausgelasteten Pool kein "Retry-After" gesendet werden darf
+	 */
+	private void execute(final AsyncResponse asyncResponse, Pool pool, final Runnable aufgabe, boolean retryAfter) {
+		// Der Request-Thread gibt die ThreadLocals ab, weil seine Response-Filter nicht mehr aufgerufen werden
+		final RequestTiming timing = RequestTiming.end();
+		ReplicaRouting.end();
+
+		final Runnable runnable = new Runnable() {
+			@Override
+			public void run() {
+				RequestTiming.resume(timing);
+				ReplicaRouting.begin();
+				try {
+					aufgabe.run();
+				}
+				finally {
+					// Die Response-Filter laufen bei resume() in diesem Thread und raeumen i.d.R. schon auf
+					ReplicaRouting.end();
+					RequestTiming.end();
+				}
+			}
+		};
+
+		try {
+			// Security-Identitaet und JNDI-Namensraum des Requests auch im Pool verwenden
+			executors.get(pool).execute(contextService.createContextualProxy(runnable, Runnable.class));
+		}
+		catch (RejectedExecutionException e) {
+			LOGGER.debugf("Pool %s ist ausgelastet", pool);
+			if (retryAfter) {
+				asyncResponse.cancel(RETRY_AFTER_SEKUNDEN);
+			}
+			else {
+				asyncResponse.cancel();
+			}
+		}
+	}
+
+	/**
+	 * Wie execute(), aber die Aufgabe laeuft in einer Transaktion, die vor der Response abgeschlossen wird.
+	 * Bei einem Timeout wird die Transaktion zurueckgerollt, sofern sie noch nicht committet wird, und erst nach
+	 * dem Rollback mit 503 ohne "Retry-After" geantwortet. Eine noch wartende Aufgabe wird nicht mehr gestartet.
+	 * Hat der Commit bereits begonnen, wird auf sein Ergebnis gewartet und damit geantwortet.
+	 */
+	public <T> void executeTransactional(final AsyncResponse asyncResponse, Pool pool, final long timeoutMillis,
+			                             final Callable<T> task) {
+		final Abbruch abbruch = new Abbruch(tsr);
+		asyncResponse.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+		asyncResponse.setTimeoutHandler(new TimeoutHandler() {
+			@Override
+			public void handleTimeout(AsyncResponse response) {
+				if (abbruch.abbrechen()) {
+					// Die Aufgabe wurde noch nicht gestartet, d.h. es gibt nichts zurueckzurollen
+					response.cancel();
+					return;
+				}
+				// Auf den Rollback bzw. auf das Ergebnis des Commits im Pool warten
+				response.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+			}
+		});
+
+		execute(asyncResponse, pool, new Runnable() {
+			@Override
+			public void run() {
+				if (!abbruch.starten()) {
+					// Timeout vor dem Start: bereits mit 503 beantwortet
+					return;
+				}
+
+				final T result;
+				try {
+					result = transactionHelper.call(new Callable<T>() {
+						@Override
+						public T call() throws Exception {
+							tsr.registerInterposedSynchronization(abbruch);
+							return task.call();
+						}
+					});
+				}
+				catch (Exception e) {
+					if (abbruch.isAbgebrochen()) {
+						asyncResponse.cancel();
+					}
+					else {
+						asyncResponse.resume(e);
+					}
+					return;
+				}
+				if (abbruch.isAbgebrochen()) {
+					asyncResponse.cancel();
+					return;
+				}
+				resume(asyncResponse, result);
+			}
+		}, false);
+	}
+
+	/**
+	 * Eine Teilaufgabe eines Requests im gegebenen Pool starten, damit unabhaengige Zugriffe parallel laufen.
+	 * Die Teilaufgabe laeuft ohne Transaktion und ohne Zeitmessung und Replica des Requests.
+	 * @param pool Der Pool fuer die Teilaufgabe
+	 * @param task Die Teilaufgabe
+	 * @return Das Ergebnis der Teilaufgabe
+	 * @throws ServiceUnavailableException Falls der Pool ausgelastet ist, d.h. 503 mit "Retry-After"
+	 */
+	public <T> Future<T> submit(Pool pool, Callable<T> task) {
+		// Security-Identitaet und JNDI-Namensraum des Requests auch im Pool verwenden
+		@SuppressWarnings("unchecked")
+		final Callable<T> contextualTask = contextService.createContextualProxy(task, Callable.class);
+		final FutureTask<T> future = new FutureTask<>(contextualTask);
+		try {
+			executors.get(pool).execute(future);
+		}
+		catch (RejectedExecutionException e) {
+			LOGGER.debugf("Pool %s ist ausgelastet", pool);
+			throw new ServiceUnavailableException(Long.valueOf(RETRY_AFTER_SEKUNDEN), e);
+		}
+		return future;
+	}
+
+	/**
+	 * Die Aufgabe sofort im aktuellen Thread ausfuehren, z.B. wenn nur bestimmte Aufrufe einer Resource-Methode
+	 * langsam sind und die uebrigen keinen Threadwechsel benoetigen. Ein Ergebnis, das Closeable implementiert,
+	 * wird nach Abschluss der Response geschlossen, auch wenn der Rumpf nicht geschrieben wurde, z.B. bei HEAD,
+	 * nach einer Exception in einem Filter oder MessageBodyWriter oder nach einem Timeout.
+	 * @param asyncResponse Der suspendierte Request
+	 * @param task Die Aufgabe
+	 */
+	public <T> void resume(AsyncResponse asyncResponse, Callable<T> task) {
+		final T result;
+		try {
+			result = task.call();
+		}
+		catch (Exception e) {
+			asyncResponse.resume(e);
+			return;
+		}
+		resume(asyncResponse, result);
+	}
+
+	private static void resume(AsyncResponse asyncResponse, Object result) {
+		if (!(result instanceof Closeable)) {
+			asyncResponse.resume(result);
+			return;
+		}
+		
+		final Closeable closeable = (Closeable) result;
+		asyncResponse.register(new CompletionCallback() {
+			@Override
+			public void onComplete(Throwable throwable) {
+				close(closeable);
+			}
+		});
+		if (!asyncResponse.resume(result)) {
+			// Timeout: die Response wurde bereits abgeschlossen
+			close(closeable);
+		}
+	}
+	
+	private static void close(Closeable closeable) {
+		try {
+			closeable.close();
+		}
+		catch (IOException e) {
+			LOGGER.debugf(e, "Ergebnis nicht geschlossen");
+		}
+	}
+
+	/**
+	 * Entscheidung zwischen Timeout und Commit einer Aufgabe mit Transaktion: Wer zuerst kommt, gewinnt. Nach
+	 * einem Timeout wird die Transaktion in beforeCompletion() als rollback-only markiert, d.h. der Commit
+	 * scheitert. Nach Beginn des Commits aendert ein Timeout nichts mehr.
+	 */
+	static final class Abbruch implements Synchronization {
+		private enum Zustand { NEU, GESTARTET, ABGEBROCHEN, COMMIT }
+
+		private final TransactionSynchronizationRegistry tsr;
+		private Zustand zustand = Zustand.NEU;
+
+		Abbruch(TransactionSynchronizationRegistry tsr) {
+			this.tsr = tsr;
+		}
+
+		/**
+		 * @return false, falls die Aufgabe wegen eines Timeouts nicht mehr gestartet werden darf
+		 */
+		synchronized boolean starten() {
+			if (zustand != Zustand.NEU) {
+				return false;
+			}
+			zustand = Zustand.GESTARTET;
+			return true;
+		}
+
+		/**
+		 * Timeout
+		 * @return true, falls die Aufgabe noch nicht gestartet war und sofort geantwortet werden kann
+		 */
+		synchronized boolean abbrechen() {
+			final boolean neu = zustand == Zustand.NEU;
+			if (zustand != Zustand.COMMIT) {
+				zustand = Zustand.ABGEBROCHEN;
+			}
+			return neu;
+		}
+
+		synchronized boolean isAbgebrochen() {
+			return zustand == Zustand.ABGEBROCHEN;
+		}
+
+		@Override
+		public synchronized void beforeCompletion() {
+			if (zustand == Zustand.ABGEBROCHEN) {
+				tsr.setRollbackOnly();
+				return;
+			}
+			zustand = Zustand.COMMIT;
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			// Das Ergebnis liefert transactionHelper.call() im Thread des Pools
+		}
+	}
+}
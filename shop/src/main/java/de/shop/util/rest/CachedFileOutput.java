@@ -0,0 +1,47 @@
+package de.shop.util.rest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.ws.rs.core.StreamingOutput;
+
+import de.shop.util.persistence.OffHeapCache.Eintrag;
+
+
+/**
+ * Rumpf einer Response, der direkt aus einem Eintrag im {@link de.shop.util.persistence.FileCache} geschrieben
+ * wird, ohne die Datei in den Heap zu kopieren. Der Eintrag wird nach dem Schreiben freigegeben bzw. durch
+ * close(), falls der Rumpf nicht geschrieben wird, z.B. bei HEAD, nach einer Exception oder nach einem Timeout
+ * (siehe {@link AsyncResponseHelper#resume}). Mehrfache Aufrufe von close() geben den Eintrag nur einmal frei.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class CachedFileOutput implements StreamingOutput, Closeable {
+	private final Eintrag eintrag;
+	private final AtomicBoolean freigegeben = new AtomicBoolean();
+
+	public CachedFileOutput(Eintrag eintrag) {
+		this.eintrag = eintrag;
+	}
+
+	@Override
+	public void write(OutputStream out) throws IOException {
+		if (freigegeben.get()) {
+			throw new IllegalStateException("Der Eintrag wurde bereits freigegeben");
+		}
+		try {
+			eintrag.writeTo(out);
+		}
+		finally {
+			close();
+		}
+	}
+
+	@Override
+	public void close() {
+		if (freigegeben.compareAndSet(false, true)) {
+			eintrag.release();
+		}
+	}
+}
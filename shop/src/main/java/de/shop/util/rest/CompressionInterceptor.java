@@ -0,0 +1,273 @@
+package de.shop.util.rest;
+
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static javax.ws.rs.core.HttpHeaders.VARY;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+
+/**
+ * Komprimiert den Rumpf einer Response mit gzip oder deflate, falls der Client es gemaess "Accept-Encoding"
+ * akzeptiert. Rumpfe unter {@link #MIN_LENGTH} Bytes werden unkomprimiert gesendet, weil dort der CPU-Aufwand
+ * die Ersparnis uebersteigt. Bereits komprimierte Formate wie z.B. Bilder werden nicht komprimiert.
+ * Ruempfe mit strengem ETag (siehe {@link EntityTagHelper}) werden ebenfalls nicht komprimiert, weil der ETag
+ * sonst fuer unterschiedliche Bytes stuende oder schwach werden muesste.
+ * Dazu werden hoechstens {@link #MIN_LENGTH} Bytes gepuffert; ist der Rumpf laenger, wird direkt in den Stream
+ * des Containers komprimiert. Das gilt fuer serialisierte Entities ebenso wie z.B. fuer einen
+ * {@link StreamingOutput} beim Export.
+ * Wegen der hoeheren Prioritaet (ENTITY_CODER nach HEADER_DECORATOR) laeuft dieser Interceptor innerhalb des
+ * {@link ServerTimingFilter}, d.h. die Kompression ist in dessen Messung enthalten.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionInterceptor implements WriterInterceptor {
+	public static final int MIN_LENGTH = 1024;
+
+	private static final String GZIP = "gzip";
+	private static final String X_GZIP = "x-gzip";
+	private static final String DEFLATE = "deflate";
+	private static final String ANY = "*";
+	private static final String QUALITY = "q=";
+	private static final int BUFFER_SIZE = 4096;
+
+	@Context
+	private HttpHeaders headers;
+
+	@Override
+	public void aroundWriteTo(WriterInterceptorContext ctx) throws IOException {
+		if (!isCompressible(ctx.getMediaType())
+			|| ctx.getHeaders().containsKey(CONTENT_ENCODING)
+			|| hasStrongEntityTag(ctx.getHeaders())) {
+			ctx.proceed();
+			return;
+		}
+
+		// Caches muessen die Response abhaengig von "Accept-Encoding" ablegen
+		ctx.getHeaders().add(VARY, ACCEPT_ENCODING);
+		final String encoding = getEncoding(headers.getHeaderString(ACCEPT_ENCODING));
+		if (encoding == null) {
+			ctx.proceed();
+			return;
+		}
+
+		final OutputStream out = ctx.getOutputStream();
+		final KomprimierenderStream komprimiert = new KomprimierenderStream(out, encoding, ctx.getHeaders());
+		ctx.setOutputStream(komprimiert);
+		try {
+			ctx.proceed();
+		}
+		finally {
+			ctx.setOutputStream(out);
+		}
+		komprimiert.finish();
+	}
+
+	/**
+	 * Das zu verwendende Encoding gemaess "Accept-Encoding" ermitteln; bei gleicher Gewichtung wird gzip bevorzugt.
+	 * @param acceptEncoding Inhalt des Headers "Accept-Encoding"
+	 * @return "gzip", "deflate" oder null, falls keine Komprimierung akzeptiert wird
+	 */
+	static String getEncoding(String acceptEncoding) {
+		if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+			return null;
+		}
+
+		Double gzip = null;
+		Double deflate = null;
+		Double any = null;
+		for (String coding : acceptEncoding.split(",")) {
+			final String[] params = coding.split(";");
+			final double quality = getQuality(params);
+			switch (params[0].trim().toLowerCase(Locale.ENGLISH)) {
+				case GZIP:
+				case X_GZIP:
+					gzip = quality;
+					break;
+				case DEFLATE:
+					deflate = quality;
+					break;
+				case ANY:
+					any = quality;
+					break;
+				default:
+					break;
+			}
+		}
+
+		// "*" gilt nur fuer die nicht explizit aufgefuehrten Encodings
+		final double gzipQuality = gzip == null ? (any == null ? 0 : any) : gzip;
+		final double deflateQuality = deflate == null ? (any == null ? 0 : any) : deflate;
+		if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+			return GZIP;
+		}
+		return deflateQuality > 0 ? DEFLATE : null;
+	}
+
+	private static double getQuality(String[] params) {
+		for (int i = 1; i < params.length; i++) {
+			final String param = params[i].trim();
+			if (param.startsWith(QUALITY)) {
+				try {
+					return Double.parseDouble(param.substring(QUALITY.length()));
+				}
+				catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	static boolean hasStrongEntityTag(MultivaluedMap<String, Object> responseHeaders) {
+		final Object etag = responseHeaders.getFirst(ETAG);
+		if (etag == null) {
+			return false;
+		}
+		if (etag instanceof EntityTag) {
+			return !((EntityTag) etag).isWeak();
+		}
+		return !etag.toString().startsWith("W/");
+	}
+
+	private static boolean isCompressible(MediaType mediaType) {
+		if (mediaType == null) {
+			return false;
+		}
+		if ("text".equals(mediaType.getType())) {
+			return true;
+		}
+		final String subtype = mediaType.getSubtype();
+		return "json".equals(subtype)
+			   || "xml".equals(subtype)
+			   || subtype.endsWith("+json")
+			   || subtype.endsWith("+xml")
+			   || SmileProvider.APPLICATION_SMILE_TYPE.isCompatible(mediaType);
+	}
+
+	/**
+	 * Puffert die ersten {@link #MIN_LENGTH} Bytes und komprimiert erst danach ungepuffert in den Stream des
+	 * Containers; ein kuerzerer Rumpf wird bei finish() unkomprimiert geschrieben. "Content-Encoding" wird erst
+	 * beim Beginn der Kompression gesetzt, damit weitere Interceptoren fuer gzip (z.B. von RESTEasy) den Rumpf
+	 * nicht nochmals komprimieren und ein kurzer oder leerer Rumpf unveraendert bleibt.
+	 */
+	static final class KomprimierenderStream extends OutputStream {
+		private final OutputStream out;
+		private final String encoding;
+		private final MultivaluedMap<String, Object> headers;
+		private ByteArrayOutputStream puffer = new ByteArrayOutputStream(MIN_LENGTH);
+		private DeflaterOutputStream deflaterOut;
+		private boolean fertig;
+
+		KomprimierenderStream(OutputStream out, String encoding, MultivaluedMap<String, Object> headers) {
+			super();
+			this.out = out;
+			this.encoding = encoding;
+			this.headers = headers;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (puffern(1)) {
+				puffer.write(b);
+				return;
+			}
+			getDeflaterOut().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (puffern(len)) {
+				puffer.write(b, off, len);
+				return;
+			}
+			getDeflaterOut().write(b, off, len);
+		}
+
+		/**
+		 * Solange gepuffert wird, ist flush() wirkungslos, weil z.B. Jackson am Ende der Serialisierung flush()
+		 * aufruft und ein kurzer Rumpf sonst nicht mehr unkomprimiert gesendet werden koennte.
+		 */
+		@Override
+		public void flush() throws IOException {
+			if (deflaterOut != null) {
+				deflaterOut.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			finish();
+		}
+
+		/**
+		 * Die restlichen Daten komprimieren und den Deflater freigeben bzw. einen kurzen Rumpf unkomprimiert
+		 * schreiben, ohne den Stream des Containers zu schliessen
+		 */
+		void finish() throws IOException {
+			if (fertig) {
+				return;
+			}
+			fertig = true;
+			if (deflaterOut == null) {
+				// Kuerzer als MIN_LENGTH: unkomprimiert
+				puffer.writeTo(out);
+				puffer = null;
+				return;
+			}
+			deflaterOut.close();
+		}
+
+		private boolean puffern(int len) throws IOException {
+			if (fertig) {
+				throw new IOException("Der Stream ist bereits geschlossen");
+			}
+			return deflaterOut == null && puffer.size() + len < MIN_LENGTH;
+		}
+
+		private DeflaterOutputStream getDeflaterOut() throws IOException {
+			if (deflaterOut == null) {
+				headers.putSingle(CONTENT_ENCODING, encoding);
+				headers.remove(CONTENT_LENGTH);
+				final OutputStream nichtSchliessend = new FilterOutputStream(out) {
+					@Override
+					public void write(byte[] b, int off, int len) throws IOException {
+						out.write(b, off, len);
+					}
+
+					@Override
+					public void close() throws IOException {
+						flush();
+					}
+				};
+				deflaterOut = GZIP.equals(encoding)
+						      ? new GZIPOutputStream(nichtSchliessend, BUFFER_SIZE)
+						      : new DeflaterOutputStream(nichtSchliessend);
+				puffer.writeTo(deflaterOut);
+				puffer = null;
+			}
+			return deflaterOut;
+		}
+	}
+}
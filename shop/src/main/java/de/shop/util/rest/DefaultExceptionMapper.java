@@ -83,7 +83,7 @@ public class DefaultExceptionMapper implements ExceptionMapper<Throwable> {
 		for (ConstraintViolation<?> v : violations) {
 			final String path = v.getPropertyPath().toString();
 			final String message = v.getMessage();
-			final String value = v.getInvalidValue().toString();
+			final String value = String.valueOf(v.getInvalidValue());
 			final ResteasyConstraintViolation resteasyConstraintViolation =
 					                          new ResteasyConstraintViolation(PARAMETER, path, message, value);
 			parameterViolations.add(resteasyConstraintViolation);
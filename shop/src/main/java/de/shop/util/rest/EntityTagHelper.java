@@ -0,0 +1,20 @@
+package de.shop.util.rest;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.core.EntityTag;
+
+/**
+ * ETags werden aus ID und Versionsnummer (@Version) einer Entity gebildet. Da die Versionsnummer
+ * bei jeder Aenderung hochgezaehlt wird, muss der Rumpf fuer einen Vergleich nicht serialisiert werden.
+ * Die ETags sind streng, weil If-Match gemaess RFC 7232 nur strenge ETags vergleicht. Deshalb komprimiert
+ * der {@link CompressionInterceptor} keine Ruempfe mit strengem ETag.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+public class EntityTagHelper {
+	private static final char SEPARATOR = '-';
+
+	public EntityTag getEntityTag(Object id, int version) {
+		return new EntityTag(String.valueOf(id) + SEPARATOR + version);
+	}
+}
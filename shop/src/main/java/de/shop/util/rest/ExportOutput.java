@@ -0,0 +1,208 @@
+package de.shop.util.rest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.bind.DatatypeConverter;
+
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.util.MinimalPrettyPrinter;
+
+import de.shop.util.persistence.ExportCursor;
+
+
+/**
+ * Rumpf einer Response, in den die Zeilen eines {@link ExportCursor} direkt geschrieben werden, waehrend sie
+ * von der DB gelesen werden: NDJSON mit einem JSON-Objekt pro Zeile oder CSV mit einer Kopfzeile. Datumswerte
+ * werden im Format ISO 8601 ausgegeben, bei Spalten vom Typ DATE ohne Uhrzeit. Der Cursor wird am Ende
+ * geschlossen.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public abstract class ExportOutput implements StreamingOutput {
+	// Query-Parameter fuer inkrementelle Exporte, z.B. 2014-01-31 oder 2014-01-31T12:00:00
+	public static final String DATUM_PATTERN = "\\d{4}-\\d{2}-\\d{2}(T\\d{2}:\\d{2}(:\\d{2})?)?";
+	private static final int DATUM_LENGTH = 10;
+	private static final Date DATUM_MIN = new Date(0);
+	
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private static final String NEWLINE = "\n";
+	private static final String CSV_NEWLINE = "\r\n";
+	private static final char CSV_TRENNZEICHEN = ',';
+	private static final char CSV_QUOTE = '"';
+	
+	private final ExportCursor cursor;
+	private final String[] spalten;
+	
+	private ExportOutput(ExportCursor cursor, String[] spalten) {
+		this.cursor = cursor;
+		this.spalten = spalten;
+	}
+	
+	/**
+	 * @param cursor Cursor mit den Zeilen
+	 * @param spalten Namen der Spalten in der Reihenfolge der SELECT-Klausel
+	 * @return Rumpf im Format NDJSON
+	 */
+	public static ExportOutput ndjson(ExportCursor cursor, String[] spalten) {
+		return new NdjsonOutput(cursor, spalten);
+	}
+	
+	/**
+	 * @param cursor Cursor mit den Zeilen
+	 * @param spalten Namen der Spalten in der Reihenfolge der SELECT-Klausel
+	 * @return Rumpf im Format CSV
+	 */
+	public static ExportOutput csv(ExportCursor cursor, String[] spalten) {
+		return new CsvOutput(cursor, spalten);
+	}
+	
+	/**
+	 * Einen Query-Parameter mit einem Datum gemaess DATUM_PATTERN umwandeln
+	 * @param datum Der Query-Parameter oder null
+	 * @return Das Datum oder ein Datum vor allen Datensaetzen, falls der Query-Parameter fehlt
+	 */
+	public static Date toDate(String datum) {
+		if (datum == null || datum.isEmpty()) {
+			return DATUM_MIN;
+		}
+		final Calendar cal = datum.length() == DATUM_LENGTH
+		                     ? DatatypeConverter.parseDate(datum)
+		                     : DatatypeConverter.parseDateTime(datum);
+		return cal.getTime();
+	}
+	
+	@Override
+	public void write(OutputStream stream) throws IOException {
+		try (final ExportCursor c = cursor) {
+			final Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+			start(writer);
+			for (Object[] zeile = c.next(); zeile != null; zeile = c.next()) {
+				write(writer, zeile);
+			}
+			end(writer);
+			writer.flush();
+		}
+	}
+	
+	protected String[] getSpalten() {
+		return spalten;
+	}
+	
+	protected abstract void start(Writer writer) throws IOException;
+	protected abstract void write(Writer writer, Object[] zeile) throws IOException;
+	protected abstract void end(Writer writer) throws IOException;
+	
+	/**
+	 * Datum im Format ISO 8601; java.sql.Date fuer Spalten vom Typ DATE ohne Uhrzeit
+	 */
+	protected static String format(Date datum) {
+		final Calendar cal = new GregorianCalendar();
+		cal.setTime(datum);
+		return datum instanceof java.sql.Date
+		       ? DatatypeConverter.printDate(cal)
+		       : DatatypeConverter.printDateTime(cal);
+	}
+	
+	private static final class NdjsonOutput extends ExportOutput {
+		private JsonGenerator generator;
+		private boolean leer = true;
+		
+		NdjsonOutput(ExportCursor cursor, String[] spalten) {
+			super(cursor, spalten);
+		}
+		
+		@Override
+		protected void start(Writer writer) throws IOException {
+			generator = JSON_FACTORY.createJsonGenerator(writer);
+			// 1 JSON-Objekt pro Zeile
+			generator.setPrettyPrinter(new MinimalPrettyPrinter(NEWLINE));
+		}
+		
+		@Override
+		protected void write(Writer writer, Object[] zeile) throws IOException {
+			final String[] spalten = getSpalten();
+			generator.writeStartObject();
+			for (int i = 0; i < spalten.length; i++) {
+				final Object wert = zeile[i];
+				if (wert == null) {
+					continue;
+				}
+				generator.writeFieldName(spalten[i]);
+				if (wert instanceof BigDecimal) {
+					generator.writeNumber((BigDecimal) wert);
+				}
+				else if (wert instanceof Number) {
+					generator.writeNumber(((Number) wert).longValue());
+				}
+				else if (wert instanceof Boolean) {
+					generator.writeBoolean((Boolean) wert);
+				}
+				else if (wert instanceof Date) {
+					generator.writeString(format((Date) wert));
+				}
+				else {
+					generator.writeString(wert.toString());
+				}
+			}
+			generator.writeEndObject();
+			leer = false;
+		}
+		
+		@Override
+		protected void end(Writer writer) throws IOException {
+			if (!leer) {
+				generator.writeRaw(NEWLINE);
+			}
+			generator.flush();
+		}
+	}
+	
+	private static final class CsvOutput extends ExportOutput {
+		CsvOutput(ExportCursor cursor, String[] spalten) {
+			super(cursor, spalten);
+		}
+		
+		@Override
+		protected void start(Writer writer) throws IOException {
+			write(writer, getSpalten());
+		}
+		
+		@Override
+		protected void write(Writer writer, Object[] zeile) throws IOException {
+			for (int i = 0; i < zeile.length; i++) {
+				if (i > 0) {
+					writer.write(CSV_TRENNZEICHEN);
+				}
+				final Object wert = zeile[i];
+				if (wert == null) {
+					continue;
+				}
+				final String str = wert instanceof Date ? format((Date) wert) : wert.toString();
+				if (str.indexOf(CSV_TRENNZEICHEN) < 0 && str.indexOf(CSV_QUOTE) < 0 && str.indexOf('\n') < 0
+				    && str.indexOf('\r') < 0) {
+					writer.write(str);
+					continue;
+				}
+				writer.write(CSV_QUOTE);
+				writer.write(str.replace("\"", "\"\""));
+				writer.write(CSV_QUOTE);
+			}
+			writer.write(CSV_NEWLINE);
+		}
+		
+		@Override
+		protected void end(Writer writer) {
+			// keine Fusszeile
+		}
+	}
+}
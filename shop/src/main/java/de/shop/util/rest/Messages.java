@@ -5,13 +5,13 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.IllformedLocaleException;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -23,22 +23,29 @@ import org.jboss.logging.Logger;
 import com.google.common.base.Splitter;
 
 /**
+ * Meldungen aus ApplicationMessages in der Sprache des Clients. Die Zuordnung der Sprachen zu den Bundles wird
+ * beim Start einmalig berechnet, und die geparsten MessageFormat-Objekte werden je Locale und Schluessel
+ * zwischengespeichert, damit z.B. haeufige 404-Responses keinen Pattern-Parser durchlaufen. Da MessageFormat nicht
+ * thread-safe ist, formatiert jeder Aufruf mit einer Kopie; clone() kopiert das geparste Pattern ohne Sperre.
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
  */
 @ApplicationScoped
 public class Messages {
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass());
 	
-	private static final String APPLICATION_MESSAGES = "/ApplicationMessages";
+	private static final String APPLICATION_MESSAGES = "ApplicationMessages";
 	private static final List<Locale> LOCALES_DEFAULT = Arrays.asList(Locale.ENGLISH);
 	
 	@Resource(name = "locales")
 	private String locales;
 
-	private transient ResourceBundle defaultBundle;
+	private transient Locale defaultLocale;
 	
 	private transient Map<Locale, ResourceBundle> bundles;
-	private transient Map<String, ResourceBundle> bundlesLanguageStr;	 // z.B. "en" als Schluessel auch fuer en_US
+	private transient Map<String, Locale> localesLanguage;	 // z.B. "en" als Schluessel auch fuer en_US
+	
+	// MessageFormat je Locale und Schluessel; die inneren Maps werden in postConstruct() angelegt
+	private transient Map<Locale, ConcurrentMap<String, MessageFormat>> messageFormats;
 	
 	@PostConstruct
 	private void postConstruct() {
@@ -67,57 +74,61 @@ public class Messages {
 		LOGGER.infof("Locales fuer REST: %s", localesList);
 		
 		bundles = new HashMap<>();
-		bundlesLanguageStr = new HashMap<>();
-		final Set<String> languages = new HashSet<>();
+		localesLanguage = new HashMap<>();
+		messageFormats = new HashMap<>();
 		for (Locale locale : localesList) {
-			final ResourceBundle bundle = ResourceBundle.getBundle(APPLICATION_MESSAGES, locale);
-			bundles.put(locale, bundle);
+			bundles.put(locale, ResourceBundle.getBundle(APPLICATION_MESSAGES, locale));
+			messageFormats.put(locale, new ConcurrentHashMap<String, MessageFormat>());
 			
-			String localeStr = locale.toString();
-			if (localeStr.length() > 2) {
-				localeStr = localeStr.substring(0, 2);
-				if (!languages.contains(localeStr)) {
-					bundlesLanguageStr.put(localeStr, bundle);
-					languages.add(localeStr);
-				}
-				
+			// die erste Locale einer Sprache gilt auch fuer die uebrigen Laender, z.B. "en" fuer "en_US"
+			if (!localesLanguage.containsKey(locale.getLanguage())) {
+				localesLanguage.put(locale.getLanguage(), locale);
 			}
 		}
 		
-		defaultBundle = bundles.get(localesList.get(0));
+		defaultLocale = localesList.get(0);
 	}
 	
 	public String getMessage(HttpHeaders headers, String key, Object... args) {
-		final List<Locale> acceptableLocales = headers.getAcceptableLanguages();
-		final ResourceBundle bundle = getBundle(acceptableLocales);
-		
-		final String pattern = bundle.getString(key);
-		final Locale locale = acceptableLocales == null || acceptableLocales.isEmpty()
-				              ? Locale.getDefault()
-				              : acceptableLocales.get(0);
-		final MessageFormat messageFormat = new MessageFormat(pattern, locale);
+		final Locale locale = getLocale(headers.getAcceptableLanguages());
+		final MessageFormat messageFormat = (MessageFormat) getMessageFormat(locale, key).clone();
 		return messageFormat.format(args);
 	}
 	
-	private ResourceBundle getBundle(List<Locale> locales) {
-		ResourceBundle bundle = null;
+	private MessageFormat getMessageFormat(Locale locale, String key) {
+		final ConcurrentMap<String, MessageFormat> formats = messageFormats.get(locale);
+		final MessageFormat messageFormat = formats.get(key);
+		if (messageFormat != null) {
+			return messageFormat;
+		}
+		
+		final String pattern = bundles.get(locale).getString(key);
+		final MessageFormat newMessageFormat = new MessageFormat(pattern, locale);
+		final MessageFormat existingMessageFormat = formats.putIfAbsent(key, newMessageFormat);
+		return existingMessageFormat == null ? newMessageFormat : existingMessageFormat;
+	}
+	
+	/**
+	 * Die erste akzeptierte Locale, fuer die es ein Bundle gibt
+	 * @param locales Akzeptierte Locales gemaess "Accept-Language"
+	 * @return Konfigurierte Locale oder die Default-Locale
+	 */
+	private Locale getLocale(List<Locale> locales) {
+		if (locales == null) {
+			return defaultLocale;
+		}
 		
 		for (Locale locale : locales) {
-			bundle = bundles.get(locale);
-			if (bundle != null) {
-				break;
+			if (bundles.containsKey(locale)) {
+				return locale;
 			}
 			// wenn es z.B. "en_US" nicht gibt, dann evtl. nur "en"
-			String localeStr = locale.toString();
-			if (localeStr.length() > 2) {
-				localeStr = localeStr.substring(0, 2);
-				bundle = bundlesLanguageStr.get(localeStr);
-				if (bundle != null) {
-					break;
-				}				
+			final Locale localeLanguage = localesLanguage.get(locale.getLanguage());
+			if (localeLanguage != null) {
+				return localeLanguage;
 			}
 		}
 		
-		return bundle == null ? defaultBundle : bundle;
+		return defaultLocale;
 	}
 }
@@ -0,0 +1,223 @@
+package de.shop.util.rest;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.MediaType.APPLICATION_XML;
+import static javax.ws.rs.core.MediaType.TEXT_XML;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.Response;
+
+import de.shop.util.interceptor.Log;
+import de.shop.util.metrics.CacheSnapshot;
+import de.shop.util.metrics.EntitySnapshot;
+import de.shop.util.metrics.HibernateMetrics;
+import de.shop.util.metrics.HibernateSnapshot;
+import de.shop.util.metrics.LatencySnapshot;
+import de.shop.util.metrics.MetricsRegistry;
+import de.shop.util.metrics.QuerySnapshot;
+import de.shop.util.metrics.RegionSnapshot;
+import de.shop.util.metrics.SlowQuerySnapshot;
+import de.shop.util.persistence.FileCache;
+
+
+/**
+ * Administrations-Ressource fuer die Laufzeitstatistiken. Der Zugriff ist in web.xml auf die Rolle
+ * "admin" beschraenkt.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Path("/admin/metrics")
+@Produces({ APPLICATION_JSON, APPLICATION_XML + ";qs=0.75", TEXT_XML + ";qs=0.5" })
+@Log
+public class MetricsResource {
+	private static final String REPLICA_QUERY_PARAM = "replica";
+	private static final String MILLIS_QUERY_PARAM = "millis";
+	private static final String ENABLED_QUERY_PARAM = "enabled";
+
+	@Inject
+	private MetricsRegistry metricsRegistry;
+
+	@Inject
+	private FileCache fileCache;
+
+	@Inject
+	private HibernateMetrics hibernateMetrics;
+
+	/**
+	 * Mit der URL /admin/metrics/methods die Statistiken der Methoden ermitteln
+	 * @return Statistiken absteigend nach Gesamtzeit sortiert
+	 */
+	@GET
+	@Path("methods")
+	public Response findMethodStatistics() {
+		final List<LatencySnapshot> snapshots = metricsRegistry.getMethodSnapshots();
+		return Response.ok(new GenericEntity<List<LatencySnapshot>>(snapshots) {})
+				       .build();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/methods die Statistiken der Methoden per DELETE zuruecksetzen
+	 */
+	@DELETE
+	@Path("methods")
+	@Produces
+	public void resetMethodStatistics() {
+		metricsRegistry.resetMethodStatistics();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/endpoints die Statistiken der REST-Endpunkte ermitteln
+	 * @return Statistiken absteigend nach Gesamtzeit sortiert
+	 */
+	@GET
+	@Path("endpoints")
+	public Response findEndpointStatistics() {
+		final List<LatencySnapshot> snapshots = metricsRegistry.getEndpointSnapshots();
+		return Response.ok(new GenericEntity<List<LatencySnapshot>>(snapshots) {})
+				       .build();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/endpoints die Statistiken der REST-Endpunkte per DELETE zuruecksetzen
+	 */
+	@DELETE
+	@Path("endpoints")
+	@Produces
+	public void resetEndpointStatistics() {
+		metricsRegistry.resetEndpointStatistics();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/files die Zaehler des Caches fuer Dateien ermitteln
+	 * @return Treffer, Fehlzugriffe, Verdraengungen und belegter Speicher
+	 */
+	@GET
+	@Path("files")
+	public CacheSnapshot findFileCacheStatistics() {
+		return fileCache.getSnapshot();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/files die Zaehler des Caches fuer Dateien per DELETE zuruecksetzen
+	 */
+	@DELETE
+	@Path("files")
+	@Produces
+	public void resetFileCacheStatistics() {
+		fileCache.resetStatistics();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/hibernate die globalen Zaehler der Hibernate-Statistik ermitteln
+	 * @param replica true fuer die Replica, sonst die Primaer-Datenbank
+	 * @return Sessions, Verbindungen, Flushes, Queries und Zugriffe auf Query- und L2-Cache
+	 */
+	@GET
+	@Path("hibernate")
+	public HibernateSnapshot findHibernateStatistics(@QueryParam(REPLICA_QUERY_PARAM) @DefaultValue("false")
+	                                                 boolean replica) {
+		return hibernateMetrics.getSnapshot(replica);
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/hibernate?enabled=... die Hibernate-Statistik beider Persistence Units per PUT
+	 * ein- bzw. ausschalten
+	 * @param enabled true zum Einschalten, false zum Ausschalten
+	 */
+	@PUT
+	@Path("hibernate")
+	@Produces
+	public void updateHibernateStatisticsEnabled(@QueryParam(ENABLED_QUERY_PARAM) Boolean enabled) {
+		if (enabled == null) {
+			throw new IllegalArgumentException("Der Query-Parameter " + ENABLED_QUERY_PARAM + " fehlt");
+		}
+		hibernateMetrics.setStatisticsEnabled(enabled);
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/hibernate die Hibernate-Statistik beider Persistence Units einschliesslich der
+	 * langsamen Queries per DELETE zuruecksetzen
+	 */
+	@DELETE
+	@Path("hibernate")
+	@Produces
+	public void resetHibernateStatistics() {
+		hibernateMetrics.resetStatistics();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/hibernate/queries die Statistiken der Queries ermitteln
+	 * @param replica true fuer die Replica, sonst die Primaer-Datenbank
+	 * @return Statistiken absteigend nach Gesamtzeit sortiert
+	 */
+	@GET
+	@Path("hibernate/queries")
+	public Response findQueryStatistics(@QueryParam(REPLICA_QUERY_PARAM) @DefaultValue("false") boolean replica) {
+		final List<QuerySnapshot> snapshots = hibernateMetrics.getQuerySnapshots(replica);
+		return Response.ok(new GenericEntity<List<QuerySnapshot>>(snapshots) {})
+				       .build();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/hibernate/entities die Statistiken der Entity-Klassen ermitteln
+	 * @param replica true fuer die Replica, sonst die Primaer-Datenbank
+	 * @return Statistiken absteigend nach Laden und Nachladen sortiert
+	 */
+	@GET
+	@Path("hibernate/entities")
+	public Response findEntityStatistics(@QueryParam(REPLICA_QUERY_PARAM) @DefaultValue("false") boolean replica) {
+		final List<EntitySnapshot> snapshots = hibernateMetrics.getEntitySnapshots(replica);
+		return Response.ok(new GenericEntity<List<EntitySnapshot>>(snapshots) {})
+				       .build();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/hibernate/regions die Statistiken der Regionen des L2-Caches ermitteln
+	 * @param replica true fuer die Replica, sonst die Primaer-Datenbank
+	 * @return Treffer, Fehlzugriffe und Puts pro Region
+	 */
+	@GET
+	@Path("hibernate/regions")
+	public Response findRegionStatistics(@QueryParam(REPLICA_QUERY_PARAM) @DefaultValue("false") boolean replica) {
+		final List<RegionSnapshot> snapshots = hibernateMetrics.getRegionSnapshots(replica);
+		return Response.ok(new GenericEntity<List<RegionSnapshot>>(snapshots) {})
+				       .build();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/hibernate/slowqueries die zuletzt protokollierten langsamen Queries ermitteln
+	 * @param replica true fuer die Replica, sonst die Primaer-Datenbank
+	 * @return Die langsamen Queries, die neueste zuerst
+	 */
+	@GET
+	@Path("hibernate/slowqueries")
+	public Response findSlowQueries(@QueryParam(REPLICA_QUERY_PARAM) @DefaultValue("false") boolean replica) {
+		final List<SlowQuerySnapshot> slowQueries = hibernateMetrics.getSlowQueries(replica);
+		return Response.ok(new GenericEntity<List<SlowQuerySnapshot>>(slowQueries) {})
+				       .build();
+	}
+
+	/**
+	 * Mit der URL /admin/metrics/hibernate/slowqueries?millis=... die Schwelle fuer langsame Queries per PUT
+	 * setzen
+	 * @param millis Mindestdauer in Millisekunden, ab der eine Query protokolliert wird
+	 */
+	@PUT
+	@Path("hibernate/slowqueries")
+	@Produces
+	public void updateSlowQueryMillis(@QueryParam(MILLIS_QUERY_PARAM) Long millis) {
+		if (millis == null) {
+			throw new IllegalArgumentException("Der Query-Parameter " + MILLIS_QUERY_PARAM + " fehlt");
+		}
+		hibernateMetrics.setSlowQueryMillis(millis);
+	}
+}
@@ -2,6 +2,8 @@ package de.shop.util.rest;
 
 
 /**
+ * Ein nicht gefundenes Objekt ist ein erwartetes Ergebnis, z.B. bei GET /kunden/999. Deshalb wird kein
+ * Stacktrace erzeugt, der ohnehin nie ausgegeben wird.
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
  */
 public class NotFoundException extends RuntimeException {
@@ -10,7 +12,7 @@ public class NotFoundException extends RuntimeException {
 	private final Object[] args;
 
 	public NotFoundException(String msg, Object... args) {
-		super(msg);
+		super(msg, null, false, false);
 		this.args = args;
 	}
 
@@ -0,0 +1,21 @@
+package de.shop.util.rest;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.ws.rs.HttpMethod;
+
+/**
+ * HTTP-Methode PATCH (RFC 5789), die es in JAX-RS 2.0 noch nicht als Annotation gibt
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Target(METHOD)
+@Retention(RUNTIME)
+@HttpMethod("PATCH")
+@Documented
+public @interface PATCH {
+}
@@ -0,0 +1,30 @@
+package de.shop.util.rest;
+
+import java.io.IOException;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+import de.shop.util.persistence.ReplicaRouting;
+
+
+/**
+ * Lesezugriffe auf die Replica-Datenbank sind nur innerhalb eines REST-Requests erlaubt
+ * (siehe {@link ReplicaRouting}).
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Provider
+public class ReplicaRoutingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+	@Override
+	public void filter(ContainerRequestContext requestCtx) throws IOException {
+		ReplicaRouting.begin();
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestCtx, ContainerResponseContext responseCtx) throws IOException {
+		ReplicaRouting.end();
+	}
+}
@@ -0,0 +1,216 @@
+package de.shop.util.rest;
+
+import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import de.shop.util.metrics.MethodStatistics;
+import de.shop.util.metrics.MetricsRegistry;
+import de.shop.util.metrics.RequestTiming;
+
+
+/**
+ * Misst die Dauer jedes Requests, zeichnet sie pro Resource-Methode im {@link MetricsRegistry} auf
+ * und liefert die Aufteilung in Datenbank, Serialisierung und Rest im Header "Server-Timing". Der Header muss
+ * vor dem ersten Byte des Rumpfs gesetzt sein. Deshalb werden hoechstens {@link #PUFFER_GROESSE} Bytes des Rumpfs
+ * gepuffert: passt der Rumpf hinein, enthaelt "ser" die gesamte Serialisierung; sonst wird der Header beim
+ * Ueberlauf gesetzt und "ser" mit desc="partial" enthaelt nur die Zeit bis dahin. Die Statistik der
+ * Resource-Methode enthaelt immer die gesamte Serialisierung bzw. das Streamen des Rumpfs.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Provider
+@Priority(Priorities.HEADER_DECORATOR)
+public class ServerTimingFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+	public static final String SERVER_TIMING = "Server-Timing";
+
+	private static final String TIMING_PROPERTY = ServerTimingFilter.class.getName() + ".timing";
+	private static final String METHOD_PROPERTY = ServerTimingFilter.class.getName() + ".method";
+	private static final String STATUS_PROPERTY = ServerTimingFilter.class.getName() + ".status";
+	private static final double MICROS_PER_MILLI = 1000.0;
+	static final int PUFFER_GROESSE = 8192;
+
+	@Context
+	private ResourceInfo resourceInfo;
+
+	@Inject
+	private MetricsRegistry metricsRegistry;
+
+	@Override
+	public void filter(ContainerRequestContext requestCtx) throws IOException {
+		requestCtx.setProperty(TIMING_PROPERTY, RequestTiming.begin());
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestCtx, ContainerResponseContext responseCtx) throws IOException {
+		// Die Datenbankzugriffe sind abgeschlossen; aroundWriteTo() verwendet nur noch die Property.
+		// Ohne Rumpf (z.B. 204 oder HEAD) wird aroundWriteTo() nicht aufgerufen.
+		RequestTiming.end();
+		final RequestTiming timing = (RequestTiming) requestCtx.getProperty(TIMING_PROPERTY);
+		if (timing == null) {
+			return;
+		}
+
+		final Method method = resourceInfo.getResourceMethod();
+		final int status = responseCtx.getStatus();
+		if (!responseCtx.hasEntity()) {
+			// Keine Serialisierung: Messung sofort abschliessen
+			requestCtx.removeProperty(TIMING_PROPERTY);
+			final long totalNanos = addHeader(responseCtx.getHeaders(), timing, 0, false);
+			record(method, status, totalNanos, false);
+			return;
+		}
+
+		// Abschluss der Messung nach der Serialisierung in aroundWriteTo()
+		requestCtx.setProperty(METHOD_PROPERTY, method);
+		requestCtx.setProperty(STATUS_PROPERTY, status);
+	}
+
+	@Override
+	public void aroundWriteTo(WriterInterceptorContext ctx) throws IOException {
+		final RequestTiming timing = (RequestTiming) ctx.getProperty(TIMING_PROPERTY);
+		if (timing == null) {
+			ctx.proceed();
+			return;
+		}
+		ctx.removeProperty(TIMING_PROPERTY);
+
+		final OutputStream out = ctx.getOutputStream();
+		final MessenderStream messend = new MessenderStream(out, ctx.getHeaders(), timing);
+		ctx.setOutputStream(messend);
+		boolean failed = true;
+		try {
+			ctx.proceed();
+			messend.finish();
+			failed = false;
+		}
+		finally {
+			ctx.setOutputStream(out);
+			final Integer status = (Integer) ctx.getProperty(STATUS_PROPERTY);
+			record((Method) ctx.getProperty(METHOD_PROPERTY),
+				   status == null ? 0 : status,
+				   System.nanoTime() - timing.getStart(),
+				   failed);
+		}
+	}
+
+	/**
+	 * @param serNanos Dauer der Serialisierung bis jetzt
+	 * @param partial true, falls die Serialisierung noch nicht abgeschlossen ist
+	 * @return Die Dauer des Requests bis jetzt
+	 */
+	private static long addHeader(MultivaluedMap<String, Object> headers, RequestTiming timing, long serNanos,
+			                      boolean partial) {
+		final long totalNanos = System.nanoTime() - timing.getStart();
+		final long dbNanos = timing.getDbNanos();
+		final long appNanos = Math.max(0, totalNanos - dbNanos - serNanos);
+
+		headers.add(SERVER_TIMING, "db;dur=" + toMillis(dbNanos)
+				                   + ", app;dur=" + toMillis(appNanos)
+				                   + ", ser;dur=" + toMillis(serNanos) + (partial ? ";desc=\"partial\"" : "")
+				                   + ", total;dur=" + toMillis(totalNanos));
+		return totalNanos;
+	}
+
+	private void record(Method method, int status, long totalNanos, boolean failed) {
+		if (method == null) {
+			// keine passende Resource-Methode, z.B. 404 oder 405
+			return;
+		}
+		final MethodStatistics stats = metricsRegistry.getEndpointStatistics(method);
+		stats.record(totalNanos);
+		if (failed || status >= INTERNAL_SERVER_ERROR.getStatusCode()) {
+			stats.exception();
+		}
+	}
+
+	private static String toMillis(long nanos) {
+		return Double.toString(TimeUnit.NANOSECONDS.toMicros(nanos) / MICROS_PER_MILLI);
+	}
+
+	/**
+	 * Puffert den Anfang des Rumpfs, bis die Serialisierung abgeschlossen ist oder der Puffer ueberlaeuft, und
+	 * setzt dann den Header vor dem ersten Byte. flush() wird solange ignoriert, weil z.B. Jackson am Ende der
+	 * Serialisierung flush() aufruft und der Header sonst zu frueh gesetzt wuerde.
+	 */
+	static final class MessenderStream extends OutputStream {
+		private final OutputStream out;
+		private final MultivaluedMap<String, Object> headers;
+		private final RequestTiming timing;
+		private final long serStart = System.nanoTime();
+		private ByteArrayOutputStream puffer = new ByteArrayOutputStream(PUFFER_GROESSE);
+
+		MessenderStream(OutputStream out, MultivaluedMap<String, Object> headers, RequestTiming timing) {
+			super();
+			this.out = out;
+			this.headers = headers;
+			this.timing = timing;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (puffer != null && puffer.size() < PUFFER_GROESSE) {
+				puffer.write(b);
+				return;
+			}
+			durchreichen(true);
+			out.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (puffer != null && puffer.size() + len <= PUFFER_GROESSE) {
+				puffer.write(b, off, len);
+				return;
+			}
+			durchreichen(true);
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (puffer == null) {
+				out.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			finish();
+		}
+
+		/**
+		 * Die Serialisierung ist abgeschlossen: Header setzen und den restlichen Puffer schreiben
+		 */
+		void finish() throws IOException {
+			durchreichen(false);
+		}
+
+		private void durchreichen(boolean partial) throws IOException {
+			if (puffer == null) {
+				return;
+			}
+			addHeader(headers, timing, System.nanoTime() - serStart, partial);
+			final ByteArrayOutputStream bisher = puffer;
+			puffer = null;
+			bisher.writeTo(out);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package de.shop.util.rest;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.Provider;
+
+import org.codehaus.jackson.jaxrs.Annotations;
+import org.codehaus.jackson.jaxrs.JacksonJsonProvider;
+import org.codehaus.jackson.map.AnnotationIntrospector;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.introspect.JacksonAnnotationIntrospector;
+import org.codehaus.jackson.smile.SmileFactory;
+import org.codehaus.jackson.xc.JaxbAnnotationIntrospector;
+
+
+/**
+ * Binaeres JSON-Format "Smile" fuer REST-Clients, die keine Textdarstellung benoetigen.
+ * Wie bei JSON werden die Jackson- und die JAXB-Annotationen ausgewertet, z.B. @XmlTransient.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@Provider
+@Consumes(SmileProvider.APPLICATION_SMILE)
+@Produces(SmileProvider.APPLICATION_SMILE)
+public class SmileProvider extends JacksonJsonProvider {
+	public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+	public static final MediaType APPLICATION_SMILE_TYPE = new MediaType("application", "x-jackson-smile");
+
+	public SmileProvider() {
+		super(createObjectMapper(), new Annotations[] { Annotations.JACKSON, Annotations.JAXB });
+	}
+
+	/**
+	 * ObjectMapper fuer Smile mit derselben Auswertung der Annotationen wie beim JSON-Provider von RESTEasy
+	 * @return Neuer ObjectMapper
+	 */
+	public static ObjectMapper createObjectMapper() {
+		final ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+		mapper.setAnnotationIntrospector(new AnnotationIntrospector.Pair(new JacksonAnnotationIntrospector(),
+				                                                         new JaxbAnnotationIntrospector()));
+		return mapper;
+	}
+
+	@Override
+	protected boolean isJsonType(MediaType mediaType) {
+		return mediaType != null && APPLICATION_SMILE_TYPE.isCompatible(mediaType);
+	}
+}
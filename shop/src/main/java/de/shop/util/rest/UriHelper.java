@@ -1,25 +1,165 @@
 package de.shop.util.rest;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
 /**
+ * Die Pfade der Resource-Klassen und -Methoden werden beim ersten Aufruf einmalig per Reflection
+ * aus den JAX-RS-Annotationen ermittelt und zwischengespeichert. Danach ist das Bauen einer URI
+ * nur noch das Aneinanderhaengen von Basis-URI, Pfad und Parametern wie z.B. der ID.
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
  */
 @ApplicationScoped
 public class UriHelper {
+	private static final int PARAM_LAENGE = 20;
+	// z.B. mehrere Host-Header hinter einem Proxy; mehr Basis-URIs deuten auf beliebige Host-Header hin
+	static final int MAX_BASE_URIS = 16;
+
+	private final ConcurrentMap<Class<?>, String> classPaths = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Class<?>, ConcurrentMap<String, Template>> methodTemplates = new ConcurrentHashMap<>();
+
+	// Basis-URI und ihre String-Darstellung mit abschliessendem "/"
+	private final ConcurrentMap<URI, String> baseUris = new ConcurrentHashMap<>();
+
 	public URI getUri(Class<?> clazz, UriInfo uriInfo) {
-		return uriInfo.getBaseUriBuilder()
-				      .path(clazz)
-				      .build();
+		return URI.create(getBaseUri(uriInfo) + getClassPath(clazz));
 	}
 
 	public URI getUri(Class<?> clazz, String methodName, Long id, UriInfo uriInfo) {
-		return uriInfo.getBaseUriBuilder()
-		              .path(clazz)
-		              .path(clazz, methodName)
-		              .build(id);
+		return URI.create(getTemplate(clazz, methodName).expand(getBaseUri(uriInfo), id));
+	}
+
+	/**
+	 * URI fuer eine Resource-Methode mit beliebig vielen Pfad-Parametern bauen
+	 * @param params Werte der Pfad-Parameter in der Reihenfolge des Templates, z.B. IDs;
+	 *               sie werden nicht codiert und duerfen deshalb keine reservierten Zeichen enthalten
+	 * @throws IllegalArgumentException Falls die Anzahl der Werte nicht zum Template passt
+	 */
+	public URI getUri(Class<?> clazz, String methodName, UriInfo uriInfo, Object... params) {
+		return URI.create(getTemplate(clazz, methodName).expand(getBaseUri(uriInfo), params));
+	}
+
+	String getBaseUri(UriInfo uriInfo) {
+		final URI uri = uriInfo.getBaseUri();
+		String str = baseUris.get(uri);
+		if (str != null) {
+			return str;
+		}
+
+		final String s = uri.toString();
+		str = s.endsWith("/") ? s : s + "/";
+		if (baseUris.size() >= MAX_BASE_URIS) {
+			baseUris.clear();
+		}
+		baseUris.putIfAbsent(uri, str);
+		return str;
+	}
+
+	int getBaseUriCount() {
+		return baseUris.size();
+	}
+
+	private String getClassPath(Class<?> clazz) {
+		String path = classPaths.get(clazz);
+		if (path == null) {
+			path = relativePath(UriBuilder.fromPath("").path(clazz).toTemplate());
+			classPaths.putIfAbsent(clazz, path);
+		}
+		return path;
+	}
+
+	private Template getTemplate(Class<?> clazz, String methodName) {
+		ConcurrentMap<String, Template> templates = methodTemplates.get(clazz);
+		if (templates == null) {
+			final ConcurrentMap<String, Template> neu = new ConcurrentHashMap<>();
+			templates = methodTemplates.putIfAbsent(clazz, neu);
+			if (templates == null) {
+				templates = neu;
+			}
+		}
+
+		Template template = templates.get(methodName);
+		if (template == null) {
+			final String path = UriBuilder.fromPath("")
+					                      .path(clazz)
+					                      .path(clazz, methodName)
+					                      .toTemplate();
+			template = new Template(relativePath(path));
+			templates.putIfAbsent(methodName, template);
+		}
+		return template;
+	}
+
+	private static String relativePath(String path) {
+		return path.startsWith("/") ? path.substring(1) : path;
+	}
+
+	/**
+	 * Vorab zerlegtes URI-Template mit beliebig vielen Parametern, z.B. "kunden/{kundeId:[1-9][0-9]*}/file".
+	 * Ein regulaerer Ausdruck im Parameter darf selbst geschweifte Klammern enthalten.
+	 */
+	static class Template {
+		// Die festen Teile vor, zwischen und nach den Parametern, d.h. ein Element mehr als Parameter
+		private final String[] teile;
+		private final int laenge;
+
+		Template(String path) {
+			final List<String> liste = new ArrayList<>();
+			int tiefe = 0;
+			int teilStart = 0;
+			for (int i = 0; i < path.length(); i++) {
+				final char c = path.charAt(i);
+				if (c == '{') {
+					if (tiefe == 0) {
+						liste.add(path.substring(teilStart, i));
+					}
+					tiefe++;
+				}
+				else if (c == '}' && tiefe > 0) {
+					tiefe--;
+					if (tiefe == 0) {
+						teilStart = i + 1;
+					}
+				}
+			}
+			liste.add(path.substring(teilStart));
+
+			teile = liste.toArray(new String[liste.size()]);
+			int summe = 0;
+			for (String teil : teile) {
+				summe += teil.length();
+			}
+			laenge = summe;
+		}
+
+		int getParamCount() {
+			return teile.length - 1;
+		}
+
+		String expand(String baseUri, Object... params) {
+			if (params.length != getParamCount()) {
+				throw new IllegalArgumentException("Anzahl der Parameter: " + params.length + ", erwartet: "
+						                           + getParamCount());
+			}
+			if (params.length == 0) {
+				return baseUri + teile[0];
+			}
+
+			final StringBuilder sb = new StringBuilder(baseUri.length() + laenge + params.length * PARAM_LAENGE)
+			                         .append(baseUri)
+			                         .append(teile[0]);
+			for (int i = 0; i < params.length; i++) {
+				sb.append(params[i])
+				  .append(teile[i + 1]);
+			}
+			return sb.toString();
+		}
 	}
 }
@@ -150,12 +150,12 @@ INSERT INTO artikel (id, version, bezeichnung, ausgesondert, erzeugt, aktualisie
 --
 -- bestellung
 --
-INSERT INTO bestellung (id, version, kunde_fk, idx, erzeugt, aktualisiert) VALUES (400,0,101,0,'01.01.2007 01:00:00','01.01.2007 01:00:00');
-INSERT INTO bestellung (id, version, kunde_fk, idx, erzeugt, aktualisiert) VALUES (401,0,101,1,'01.01.2007 02:00:00','01.01.2007 02:00:00');
-INSERT INTO bestellung (id, version, kunde_fk, idx, erzeugt, aktualisiert) VALUES (402,0,102,0,'01.01.2007 03:00:00','01.01.2007 03:00:00');
-INSERT INTO bestellung (id, version, kunde_fk, idx, erzeugt, aktualisiert) VALUES (403,0,102,1,'01.01.2007 04:00:00','01.01.2007 04:00:00');
-INSERT INTO bestellung (id, version, kunde_fk, idx, erzeugt, aktualisiert) VALUES (404,0,104,0,'01.01.2007 05:00:00','01.01.2007 05:00:00');
-INSERT INTO bestellung (id, version, kunde_fk, idx, erzeugt, aktualisiert) VALUES (410,0,121,0,'01.01.2007 06:00:00','01.01.2007 06:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (400,0,101,'01.01.2007 01:00:00','01.01.2007 01:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (401,0,101,'01.01.2007 02:00:00','01.01.2007 02:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (402,0,102,'01.01.2007 03:00:00','01.01.2007 03:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (403,0,102,'01.01.2007 04:00:00','01.01.2007 04:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (404,0,104,'01.01.2007 05:00:00','01.01.2007 05:00:00');
+INSERT INTO bestellung (id, version, kunde_fk, erzeugt, aktualisiert) VALUES (410,0,121,'01.01.2007 06:00:00','01.01.2007 06:00:00');
 
 --
 -- bestellposition
@@ -189,3 +189,13 @@ INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk) VALUES (402,601);
 INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk) VALUES (402,602);
 INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk) VALUES (403,602);
 INSERT INTO bestellung_lieferung (bestellung_fk, lieferung_fk) VALUES (410,603);
+
+--
+-- lieferstatus
+--
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (400,600,'20051005-001','ST','01.01.2007 01:00:00','01.01.2007 01:00:00');
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (401,600,'20051005-001','ST','01.01.2007 01:00:00','01.01.2007 01:00:00');
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (402,601,'20051005-002','SCH','01.01.2007 02:00:00','01.01.2007 02:00:00');
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (402,602,'20051005-003','L','01.01.2007 03:00:00','01.01.2007 03:00:00');
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (403,602,'20051005-003','L','01.01.2007 03:00:00','01.01.2007 03:00:00');
+INSERT INTO lieferstatus (bestellung_fk, lieferung_fk, liefernr, transport_art, erzeugt, aktualisiert) VALUES (410,603,'20051008-001','W','01.01.2007 04:00:00','01.01.2007 04:00:00');
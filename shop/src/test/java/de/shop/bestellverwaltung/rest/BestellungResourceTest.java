@@ -1,14 +1,19 @@
 package de.shop.bestellverwaltung.rest;
 
+import static de.shop.util.Constants.NDJSON;
 import static de.shop.util.TestConstants.ARTIKEL_URI;
+import static de.shop.util.TestConstants.BESTELLUNGEN_EXPORT_URI;
 import static de.shop.util.TestConstants.BESTELLUNGEN_ID_KUNDE_URI;
+import static de.shop.util.TestConstants.BESTELLUNGEN_ID_LIEFERUNGEN_URI;
 import static de.shop.util.TestConstants.BESTELLUNGEN_ID_PATH_PARAM;
 import static de.shop.util.TestConstants.BESTELLUNGEN_ID_URI;
+import static de.shop.util.TestConstants.BESTELLUNGEN_STATISTIK_PLZ_URI;
 import static de.shop.util.TestConstants.BESTELLUNGEN_URI;
 import static de.shop.util.TestConstants.KUNDEN_ID_URI;
 import static de.shop.util.TestConstants.PASSWORD;
 import static de.shop.util.TestConstants.USERNAME;
 import static java.net.HttpURLConnection.HTTP_CREATED;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static javax.ws.rs.client.Entity.json;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
@@ -17,8 +22,10 @@ import static org.fest.assertions.api.Assertions.assertThat;
 import java.lang.invoke.MethodHandles;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.List;
 import java.util.logging.Logger;
 
+import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 
 import org.jboss.arquillian.junit.Arquillian;
@@ -28,6 +35,8 @@ import org.junit.runner.RunWith;
 
 import de.shop.bestellverwaltung.domain.Bestellposition;
 import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.bestellverwaltung.domain.Lieferstatus;
+import de.shop.bestellverwaltung.domain.TransportType;
 import de.shop.kundenverwaltung.domain.AbstractKunde;
 import de.shop.kundenverwaltung.rest.KundeResource;
 import de.shop.util.AbstractResourceTest;
@@ -43,8 +52,15 @@ public class BestellungResourceTest extends AbstractResourceTest {
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
 	
 	private static final Long BESTELLUNG_ID_VORHANDEN = Long.valueOf(400);
+	private static final Long BESTELLUNG_ID_ZWEI_LIEFERUNGEN = Long.valueOf(402);
+	private static final Long BESTELLUNG_ID_NICHT_VORHANDEN = Long.valueOf(999);
 	private static final Long ARTIKEL_ID_VORHANDEN_1 = Long.valueOf(300);
 	private static final Long ARTIKEL_ID_VORHANDEN_2 = Long.valueOf(301);
+	private static final Long ARTIKEL_ID_NICHT_VORHANDEN = Long.valueOf(999);
+	private static final String EXPORT_SPALTE = "\"bestellpositionId\"";
+	private static final String PLZ_VORHANDEN = "76133";
+	private static final String PLZ_PRAEFIX_MIN = "9";
+	private static final String PLZ_PRAEFIX_MAX = "1";
 	
 	@Test
 	@InSequence(1)
@@ -103,6 +119,111 @@ public class BestellungResourceTest extends AbstractResourceTest {
 		LOGGER.finer("ENDE");
 	}
 
+	@Test
+	@InSequence(3)
+	public void exportBestellungenNdjson() {
+		LOGGER.finer("BEGINN");
+		
+		// When
+		final Response response = getHttpsClient(USERNAME, PASSWORD).target(BESTELLUNGEN_EXPORT_URI)
+                                                                    .request()
+                                                                    .accept(NDJSON)
+                                                                    .get();
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		final String ndjson = response.readEntity(String.class);
+		response.close();
+		
+		final String[] zeilen = ndjson.split("\n");
+		assertThat(zeilen).isNotEmpty();    // siehe Testdaten
+		for (String zeile : zeilen) {
+			assertThat(zeile).startsWith("{").endsWith("}").contains(EXPORT_SPALTE);
+		}
+		
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	@InSequence(4)
+	public void countBestellungenByPlz() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final String plz = PLZ_VORHANDEN;
+		
+		// When
+		final Long gesamt = countBestellungenByPlz(null, null);
+		final Long anzahl = countBestellungenByPlz(plz, plz);
+		final Long leer = countBestellungenByPlz(PLZ_PRAEFIX_MIN, PLZ_PRAEFIX_MAX);
+		
+		// Then
+		assertThat(anzahl).isGreaterThan(0L);     // siehe Testdaten
+		assertThat(gesamt).isGreaterThanOrEqualTo(anzahl);
+		assertThat(leer).isEqualTo(0L);
+		
+		LOGGER.finer("ENDE");
+	}
+	
+	private Long countBestellungenByPlz(String min, String max) {
+		final Response response = getHttpsClient(USERNAME, PASSWORD)
+		                          .target(BESTELLUNGEN_STATISTIK_PLZ_URI)
+		                          .queryParam(BestellungResource.BESTELLUNGEN_PLZ_MIN_QUERY_PARAM, min)
+		                          .queryParam(BestellungResource.BESTELLUNGEN_PLZ_MAX_QUERY_PARAM, max)
+		                          .request()
+		                          .accept(APPLICATION_JSON)
+		                          .get();
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		return response.readEntity(Long.class);
+	}
+	
+	@Test
+	@InSequence(5)
+	public void findLieferungenByBestellungId() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long bestellungId = BESTELLUNG_ID_ZWEI_LIEFERUNGEN;
+		
+		// When
+		final Response response = getHttpsClient().target(BESTELLUNGEN_ID_LIEFERUNGEN_URI)
+                                                  .resolveTemplate(BESTELLUNGEN_ID_PATH_PARAM, bestellungId)
+                                                  .request()
+                                                  .accept(APPLICATION_JSON)
+                                                  .get();
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		final List<Lieferstatus> lieferstatus = response.readEntity(new GenericType<List<Lieferstatus>>() { });
+		assertThat(lieferstatus).hasSize(2);     // siehe Testdaten
+		assertThat(lieferstatus.get(0).getLieferNr()).isNotEmpty();
+		assertThat(lieferstatus.get(0).getTransportArt()).isEqualTo(TransportType.SCHIENE);
+		
+		LOGGER.finer("ENDE");
+	}
+	
+	@Test
+	@InSequence(6)
+	public void findLieferungenByBestellungIdNichtVorhanden() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long bestellungId = BESTELLUNG_ID_NICHT_VORHANDEN;
+		
+		// When
+		final Response response = getHttpsClient().target(BESTELLUNGEN_ID_LIEFERUNGEN_URI)
+                                                  .resolveTemplate(BESTELLUNGEN_ID_PATH_PARAM, bestellungId)
+                                                  .request()
+                                                  .accept(APPLICATION_JSON)
+                                                  .get();
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_NOT_FOUND);
+		response.close();
+		
+		LOGGER.finer("ENDE");
+	}
+
 	@Test
 	@InSequence(10)
 	public void createBestellung() throws URISyntaxException {
@@ -141,7 +262,7 @@ public class BestellungResourceTest extends AbstractResourceTest {
 		id = Long.valueOf(idStr);
 		assertThat(id).isPositive();
 		
-		// Gibt es die neue Bestellung?
+		// Gibt es die neue Bestellung? Die Transaktion im Pool BESTELLUNGEN wurde vor der Response committet
 		response = getHttpsClient().target(BESTELLUNGEN_ID_URI)
                                    .resolveTemplate(BESTELLUNGEN_ID_PATH_PARAM, id)
                                    .request()
@@ -152,4 +273,30 @@ public class BestellungResourceTest extends AbstractResourceTest {
 		
 		LOGGER.finer("ENDE");
 	}
+	
+	@Test
+	@InSequence(11)
+	public void createBestellungArtikelNichtVorhanden() throws URISyntaxException {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long artikelId = ARTIKEL_ID_NICHT_VORHANDEN;
+		final Bestellung bestellung = new Bestellung();
+		final Bestellposition bp = new Bestellposition();
+		bp.setArtikelUri(new URI(ARTIKEL_URI + "/" + artikelId));
+		bp.setAnzahl((short) 1);
+		bestellung.addBestellposition(bp);
+		
+		// When
+		final Response response = getHttpsClient(USERNAME, PASSWORD).target(BESTELLUNGEN_URI)
+                                                                    .request()
+                                                                    .post(json(bestellung));
+		
+		// Then
+		// Die NotFoundException aus dem Pool wird mit asyncResponse.resume(e) vom ExceptionMapper umgewandelt
+		assertThat(response.getStatus()).isEqualTo(HTTP_NOT_FOUND);
+		response.close();
+		
+		LOGGER.finer("ENDE");
+	}
 }
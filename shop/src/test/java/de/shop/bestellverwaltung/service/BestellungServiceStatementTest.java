@@ -0,0 +1,271 @@
+package de.shop.bestellverwaltung.service;
+
+import static de.shop.bestellverwaltung.service.BestellungService.FetchType.NUR_BESTELLUNG;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.junit.Arquillian;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import de.shop.artikelverwaltung.domain.Artikel;
+import de.shop.bestellverwaltung.domain.Bestellposition;
+import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.bestellverwaltung.domain.Lieferstatus;
+import de.shop.bestellverwaltung.domain.Lieferung;
+import de.shop.bestellverwaltung.domain.TransportType;
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.util.AbstractServiceTest;
+import de.shop.util.PersistenceStatistics;
+
+
+/**
+ * Anzahl der SQL-Anweisungen fuer die zentralen Operationen von BestellungService. Die Obergrenzen gelten
+ * fuer einen leeren L2-Cache; N+1-Zugriffe fallen zusaetzlich dadurch auf, dass Kunden mit unterschiedlich
+ * vielen Bestellungen unterschiedlich viele Anweisungen benoetigen.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@RunWith(Arquillian.class)
+public class BestellungServiceStatementTest extends AbstractServiceTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	// Privatkunden mit 2 bzw. 1 Bestellung
+	private static final Long KUNDE_ID_ZWEI_BESTELLUNGEN = Long.valueOf(102);
+	private static final Long KUNDE_ID_EINE_BESTELLUNG = Long.valueOf(121);
+	private static final Long ARTIKEL_ID_VORHANDEN_1 = Long.valueOf(300);
+	private static final Long ARTIKEL_ID_VORHANDEN_2 = Long.valueOf(301);
+	// Bestellungen ohne bzw. mit Lieferung
+	private static final Long BESTELLUNG_ID_OFFEN = Long.valueOf(404);
+	private static final Long BESTELLUNG_ID_GELIEFERT = Long.valueOf(400);
+	private static final String LIEFER_NR_NEU = "LTEST";
+
+	// Bestellungen, Bestellpositionen und Artikel mit jeweils 1 Anweisung
+	private static final long MAX_STATEMENTS_FIND_BY_KUNDE = 3;
+	// IDs, INSERT fuer Bestellung und Bestellpositionen; der Kunde wird nicht geaendert
+	private static final long MAX_STATEMENTS_CREATE = 8;
+	// Sperre, ID, INSERT fuer Lieferung, Zuordnung und Lieferstatus unabhaengig von der Anzahl der Bestellungen
+	private static final long MAX_STATEMENTS_SAMMELLIEFERUNG = 5;
+	private static final int ANZ_BESTELLUNGEN_SAMMELLIEFERUNG = 3;
+
+	@Inject
+	private BestellungService bs;
+
+	@Inject
+	private BestellungTestdaten testdaten;
+
+	@Test
+	public void findBestellungenByKunde() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final Long kundeId1 = KUNDE_ID_ZWEI_BESTELLUNGEN;
+		final Long kundeId2 = KUNDE_ID_EINE_BESTELLUNG;
+
+		// When
+		clearCaches();
+		AbstractKunde kunde = getEntityManager().find(AbstractKunde.class, kundeId1);
+		startStatistics();
+		final List<Bestellung> bestellungen1 = bs.findBestellungenByKunde(kunde, NUR_BESTELLUNG);
+		final PersistenceStatistics stats1 = stopStatistics();
+
+		clearCaches();
+		kunde = getEntityManager().find(AbstractKunde.class, kundeId2);
+		startStatistics();
+		final List<Bestellung> bestellungen2 = bs.findBestellungenByKunde(kunde, NUR_BESTELLUNG);
+		final PersistenceStatistics stats2 = stopStatistics();
+
+		// Then
+		assertThat(bestellungen1.size()).isGreaterThan(bestellungen2.size());
+		assertThat(stats1.getStatements()).as(stats1.toString()).isLessThanOrEqualTo(MAX_STATEMENTS_FIND_BY_KUNDE);
+		// Die Anzahl der Anweisungen darf nicht von der Anzahl der Bestellungen abhaengen
+		assertThat(stats1.getStatements()).as(stats1 + " / " + stats2).isEqualTo(stats2.getStatements());
+		assertThat(stats1.getCollectionFetches()).as(stats1 + " / " + stats2)
+		                                         .isEqualTo(stats2.getCollectionFetches());
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void createBestellung() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final Long kundeId1 = KUNDE_ID_ZWEI_BESTELLUNGEN;
+		final Long kundeId2 = KUNDE_ID_EINE_BESTELLUNG;
+
+		// When
+		final PersistenceStatistics stats1 = createBestellung(kundeId1);
+		final PersistenceStatistics stats2 = createBestellung(kundeId2);
+
+		// Then
+		assertThat(stats1.getStatements()).as(stats1.toString()).isLessThanOrEqualTo(MAX_STATEMENTS_CREATE);
+		// Die Anzahl der Anweisungen darf nicht von der Anzahl der bisherigen Bestellungen abhaengen
+		assertThat(stats1.getStatements()).as(stats1 + " / " + stats2).isEqualTo(stats2.getStatements());
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void createBestellungKundeDetached() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final Long kundeId = KUNDE_ID_ZWEI_BESTELLUNGEN;
+		// Den Kunden einschliesslich Adresse einmal lesen: so oft greifen die Observer hoechstens zu
+		clearCaches();
+		startStatistics();
+		final AbstractKunde kunde = getEntityManager().find(AbstractKunde.class, kundeId);
+		assertThat(kunde.getAdresse()).isNotNull();
+		final PersistenceStatistics statsLesen = stopStatistics();
+		final int version = kunde.getVersion();
+		getEntityManager().detach(kunde);
+
+		// When
+		clearCaches();
+		final Bestellung bestellung = neueBestellung();
+		startStatistics();
+		final Bestellung neueBestellung = bs.createBestellung(bestellung, kunde);
+		final PersistenceStatistics stats = stopStatistics();
+
+		// Then
+		// Der detachte Kunde wird durch eine Referenz ersetzt, die erst die Observer initialisieren
+		assertThat(neueBestellung.getId()).isNotNull();
+		assertThat(getEntityManager().contains(neueBestellung.getKunde())).isTrue();
+		assertThat(neueBestellung.getKunde().getId()).isEqualTo(kundeId);
+		assertThat(stats.getStatements()).as(stats + " / " + statsLesen)
+		                                 .isLessThanOrEqualTo(MAX_STATEMENTS_CREATE + statsLesen.getStatements());
+		assertThat(stats.getCollectionFetches()).as(stats.toString()).isZero();
+		getEntityManager().flush();
+		assertThat(getEntityManager().find(AbstractKunde.class, kundeId).getVersion()).isEqualTo(version);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void createBestellungBestellungenGeladen() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final AbstractKunde kunde = getEntityManager().find(AbstractKunde.class, KUNDE_ID_EINE_BESTELLUNG);
+		final int anzahl = kunde.getBestellungen().size();
+		final int version = kunde.getVersion();
+		final Bestellung bestellung = neueBestellung();
+
+		// When
+		final Bestellung neueBestellung = bs.createBestellung(bestellung, kunde);
+
+		// Then
+		// Die bereits geladene inverse Seite enthaelt die neue Bestellung, ohne dass der Kunde geaendert wird
+		assertThat(kunde.getBestellungen()).hasSize(anzahl + 1);
+		assertThat(kunde.getBestellungen()).contains(neueBestellung);
+		getEntityManager().flush();
+		assertThat(kunde.getVersion()).isEqualTo(version);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void createLieferung() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Bestellung bestellungOffen = getEntityManager().find(Bestellung.class, BESTELLUNG_ID_OFFEN);
+		final Bestellung bestellungGeliefert = getEntityManager().find(Bestellung.class, BESTELLUNG_ID_GELIEFERT);
+		final int anzahlGeliefert = bs.findLieferstatusByBestellungId(BESTELLUNG_ID_GELIEFERT).size();
+		final Lieferung lieferung = new Lieferung(new HashSet<>(Arrays.asList(bestellungOffen,
+				                                                              bestellungGeliefert)));
+		lieferung.setLieferNr(LIEFER_NR_NEU);
+		lieferung.setTransportArt(TransportType.STRASSE);
+		
+		// When
+		final Lieferung neueLieferung = bs.createLieferung(lieferung);
+		
+		// Then
+		// Der Lieferstatus wird in derselben Transaktion wie die Lieferung geschrieben
+		assertThat(neueLieferung.getId()).isNotNull();
+		final List<Lieferstatus> lieferstatus = bs.findLieferstatusByBestellungId(BESTELLUNG_ID_OFFEN);
+		assertThat(lieferstatus).hasSize(1);
+		assertThat(lieferstatus.get(0).getLieferungId()).isEqualTo(neueLieferung.getId());
+		assertThat(lieferstatus.get(0).getLieferNr()).isEqualTo(LIEFER_NR_NEU);
+		assertThat(lieferstatus.get(0).getTransportArt()).isEqualTo(TransportType.STRASSE);
+		// Eine weitere Lieferung fuer eine bereits gelieferte Bestellung wird hinten angefuegt
+		final List<Lieferstatus> lieferstatusGeliefert =
+				bs.findLieferstatusByBestellungId(BESTELLUNG_ID_GELIEFERT);
+		assertThat(lieferstatusGeliefert).hasSize(anzahlGeliefert + 1);
+		assertThat(lieferstatusGeliefert.get(anzahlGeliefert).getLieferungId()).isEqualTo(neueLieferung.getId());
+		
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void createSammellieferung() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		// REQUIRES_NEW: die Sammellieferung wird am Testende nicht zurueckgerollt. Deshalb werden eigene
+		// Bestellungen angelegt und am Ende mit der Sammellieferung wieder geloescht.
+		final List<Long> neueIds = testdaten.createBestellungen(KUNDE_ID_EINE_BESTELLUNG, ARTIKEL_ID_VORHANDEN_1,
+				                                                ANZ_BESTELLUNGEN_SAMMELLIEFERUNG);
+		try {
+			final List<Long> bestellungIds = new ArrayList<>(neueIds);
+			bestellungIds.add(BESTELLUNG_ID_GELIEFERT);
+			clearCaches();
+			
+			// When
+			startStatistics();
+			final int anzahl = bs.createSammellieferung(bestellungIds, TransportType.STRASSE);
+			final PersistenceStatistics stats = stopStatistics();
+			
+			// Then
+			// Die Bestellung mit Lieferung wird uebersprungen
+			assertThat(anzahl).isEqualTo(ANZ_BESTELLUNGEN_SAMMELLIEFERUNG);
+			assertThat(stats.getStatements()).as(stats.toString())
+			                                 .isLessThanOrEqualTo(MAX_STATEMENTS_SAMMELLIEFERUNG);
+			for (Long id : neueIds) {
+				final List<Lieferstatus> lieferstatus = bs.findLieferstatusByBestellungId(id);
+				assertThat(lieferstatus).hasSize(1);
+				assertThat(lieferstatus.get(0).getTransportArt()).isEqualTo(TransportType.STRASSE);
+			}
+		}
+		finally {
+			testdaten.deleteBestellungen(neueIds);
+		}
+		
+		LOGGER.finer("ENDE");
+	}
+
+	private PersistenceStatistics createBestellung(Long kundeId) {
+		clearCaches();
+		final AbstractKunde kunde = getEntityManager().find(AbstractKunde.class, kundeId);
+		final int version = kunde.getVersion();
+		final Bestellung bestellung = neueBestellung();
+
+		startStatistics();
+		final Bestellung neueBestellung = bs.createBestellung(bestellung, kunde);
+		final PersistenceStatistics stats = stopStatistics();
+
+		assertThat(neueBestellung.getId()).isNotNull();
+		assertThat(neueBestellung.getId().longValue()).isGreaterThan(0);
+		// Keine Konflikte bei gleichzeitigen Bestellungen desselben Kunden
+		getEntityManager().refresh(kunde);
+		assertThat(kunde.getVersion()).isEqualTo(version);
+		return stats;
+	}
+
+	private Bestellung neueBestellung() {
+		final Bestellung bestellung = new Bestellung();
+		bestellung.addBestellposition(new Bestellposition(getEntityManager().find(Artikel.class,
+				                                                                  ARTIKEL_ID_VORHANDEN_1)));
+		bestellung.addBestellposition(new Bestellposition(getEntityManager().find(Artikel.class,
+				                                                                  ARTIKEL_ID_VORHANDEN_2)));
+		return bestellung;
+	}
+}
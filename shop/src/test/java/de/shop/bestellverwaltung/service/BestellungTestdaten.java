@@ -0,0 +1,93 @@
+package de.shop.bestellverwaltung.service;
+
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import de.shop.artikelverwaltung.domain.Artikel;
+import de.shop.bestellverwaltung.domain.Bestellposition;
+import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.bestellverwaltung.domain.Lieferung;
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+
+
+/**
+ * Testdaten fuer Tests von Methoden mit REQUIRES_NEW, z.B. BestellungService.createSammellieferung(). Solche
+ * Methoden sehen keine Daten aus der zurueckgerollten Transaktion des Tests und werden selbst nicht
+ * zurueckgerollt. Deshalb werden die Testdaten in eigenen Transaktionen angelegt und wieder geloescht.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@ApplicationScoped
+public class BestellungTestdaten {
+	private static final String DELETE_LIEFERSTATUS = "DELETE FROM Lieferstatus s"
+			                                          + " WHERE s.bestellungId IN :bestellungIds";
+	
+	@Inject
+	private EntityManager em;
+	
+	@Inject
+	private BestellungService bs;
+	
+	/**
+	 * Offene Bestellungen mit je 1 Bestellposition anlegen und committen
+	 * @param kundeId ID des Kunden
+	 * @param artikelId ID des Artikels
+	 * @param anzahl Anzahl der Bestellungen
+	 * @return IDs der neuen Bestellungen
+	 */
+	@Transactional(REQUIRES_NEW)
+	public List<Long> createBestellungen(Long kundeId, Long artikelId, int anzahl) {
+		final AbstractKunde kunde = em.find(AbstractKunde.class, kundeId);
+		final Artikel artikel = em.find(Artikel.class, artikelId);
+		final List<Long> ids = new ArrayList<>(anzahl);
+		for (int i = 0; i < anzahl; i++) {
+			final Bestellung bestellung = new Bestellung();
+			bestellung.addBestellposition(new Bestellposition(artikel));
+			ids.add(bs.createBestellung(bestellung, kunde).getId());
+		}
+		return ids;
+	}
+	
+	/**
+	 * Bestellungen mit ihren Lieferungen und deren Lieferstatus loeschen und committen
+	 * @param bestellungIds IDs der Bestellungen aus createBestellungen()
+	 */
+	@Transactional(REQUIRES_NEW)
+	public void deleteBestellungen(List<Long> bestellungIds) {
+		if (bestellungIds == null || bestellungIds.isEmpty()) {
+			return;
+		}
+		
+		em.createQuery(DELETE_LIEFERSTATUS)
+		  .setParameter("bestellungIds", bestellungIds)
+		  .executeUpdate();
+		
+		final Set<Lieferung> lieferungen = new HashSet<>();
+		for (Long id : bestellungIds) {
+			final Bestellung bestellung = em.find(Bestellung.class, id);
+			if (bestellung == null) {
+				continue;
+			}
+			if (bestellung.getLieferungen() != null) {
+				lieferungen.addAll(bestellung.getLieferungen());
+			}
+			// Bestellpositionen und Zuordnungen zu Lieferungen werden mitgeloescht
+			em.remove(bestellung);
+		}
+		em.flush();
+		
+		// Die Lieferungen enthalten nur die geloeschten Bestellungen
+		for (Lieferung lieferung : lieferungen) {
+			em.remove(lieferung);
+		}
+		em.getEntityManagerFactory().getCache().evictAll();
+	}
+}
@@ -0,0 +1,189 @@
+package de.shop.bestellverwaltung.service;
+
+import static de.shop.bestellverwaltung.service.PlzStatistik.Zaehler.MAX_PLZ;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import de.shop.bestellverwaltung.service.PlzStatistik.Zaehler;
+
+
+/**
+ * Zaehler der PLZ-Statistik ohne Container: Bereichsgrenzen und Austausch der Zaehler beim Abgleich.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class PlzStatistikTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	private static final int PLZ_KARLSRUHE = 76133;
+	private static final int PLZ_BERLIN = 10115;
+	private static final int PLZ_MIN = 0;
+	private static final long ANZ_KARLSRUHE = 3;
+	private static final long ANZ_BERLIN = 2;
+	private static final long ANZ_MIN = 1;
+	private static final long ANZ_MAX = 4;
+	private static final long ANZ_GESAMT = ANZ_KARLSRUHE + ANZ_BERLIN + ANZ_MIN + ANZ_MAX;
+
+	private static final long SEED = 4711;
+	private static final int ANZ_ZUFALL = 1000;
+	private static final int ANZ_BEREICHE = 500;
+
+	@Test
+	public void countLeeresPraefix() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final PlzStatistik statistik = statistik();
+
+		// When
+		final long anzahlLeer = statistik.countBestellungen("", "");
+		final long anzahlNull = statistik.countBestellungen(null, null);
+
+		// Then
+		assertThat(anzahlLeer).isEqualTo(ANZ_GESAMT);
+		assertThat(anzahlNull).isEqualTo(ANZ_GESAMT);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void countVollstaendigePlz() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final PlzStatistik statistik = statistik();
+
+		// When
+		final long anzahl = statistik.countBestellungen(String.valueOf(PLZ_KARLSRUHE),
+				                                        String.valueOf(PLZ_KARLSRUHE));
+		final long anzahlNachbarn = statistik.countBestellungen(String.valueOf(PLZ_KARLSRUHE - 1),
+				                                                String.valueOf(PLZ_KARLSRUHE + 1));
+		final long anzahlDanach = statistik.countBestellungen(String.valueOf(PLZ_KARLSRUHE + 1),
+				                                              String.valueOf(PLZ_KARLSRUHE + 1));
+
+		// Then
+		assertThat(anzahl).isEqualTo(ANZ_KARLSRUHE);
+		assertThat(anzahlNachbarn).isEqualTo(ANZ_KARLSRUHE);
+		assertThat(anzahlDanach).isZero();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void countRaender() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final Zaehler zaehler = new Zaehler();
+		zaehler.add(PLZ_MIN, ANZ_MIN);
+		zaehler.add(MAX_PLZ, ANZ_MAX);
+		zaehler.add(PLZ_KARLSRUHE, ANZ_KARLSRUHE);
+
+		// When, Then
+		assertThat(zaehler.count(PLZ_MIN, PLZ_MIN)).isEqualTo(ANZ_MIN);
+		assertThat(zaehler.count(MAX_PLZ, MAX_PLZ)).isEqualTo(ANZ_MAX);
+		assertThat(zaehler.count(PLZ_MIN, MAX_PLZ)).isEqualTo(ANZ_MIN + ANZ_MAX + ANZ_KARLSRUHE);
+		assertThat(zaehler.count(PLZ_MIN + 1, MAX_PLZ - 1)).isEqualTo(ANZ_KARLSRUHE);
+		// leerer Bereich
+		assertThat(zaehler.count(PLZ_KARLSRUHE, PLZ_KARLSRUHE - 1)).isZero();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void countZufaelligeBereiche() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final Random random = new Random(SEED);
+		final Zaehler zaehler = new Zaehler();
+		final long[] erwartet = new long[MAX_PLZ + 1];
+		for (int i = 0; i < ANZ_ZUFALL; i++) {
+			final int plz = random.nextInt(MAX_PLZ + 1);
+			zaehler.add(plz);
+			erwartet[plz]++;
+		}
+
+		for (int i = 0; i < ANZ_BEREICHE; i++) {
+			final int a = random.nextInt(MAX_PLZ + 1);
+			final int b = random.nextInt(MAX_PLZ + 1);
+			final int min = Math.min(a, b);
+			final int max = Math.max(a, b);
+
+			// When
+			final long anzahl = zaehler.count(min, max);
+
+			// Then
+			long summe = 0;
+			for (int plz = min; plz <= max; plz++) {
+				summe += erwartet[plz];
+			}
+			assertThat(anzahl).as(min + "-" + max).isEqualTo(summe);
+		}
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void abgleichenTauschtZaehler() {
+		LOGGER.finer("BEGINN");
+
+		// Given: eine nach dem letzten Abgleich mitgezaehlte Bestellung ist inzwischen auch in der DB
+		final PlzStatistik statistik = statistik();
+		statistik.addBestellung(String.valueOf(PLZ_KARLSRUHE));
+		assertThat(statistik.countBestellungen("", "")).isEqualTo(ANZ_GESAMT + 1);
+
+		// When
+		statistik.abgleichen(zeilen(new Object[] { String.valueOf(PLZ_KARLSRUHE), ANZ_KARLSRUHE + 1 },
+				                    new Object[] { String.valueOf(PLZ_BERLIN), ANZ_BERLIN }));
+
+		// Then: die DB gilt, d.h. keine doppelte Zaehlung und keine Zaehler des alten Stands
+		assertThat(statistik.countBestellungen("", "")).isEqualTo(ANZ_KARLSRUHE + 1 + ANZ_BERLIN);
+		assertThat(statistik.countBestellungen("9", "9")).isZero();
+
+		// Bestellungen nach dem Austausch werden im neuen Zaehler mitgezaehlt
+		statistik.addBestellung(String.valueOf(PLZ_BERLIN));
+		assertThat(statistik.countBestellungen("1", "1")).isEqualTo(ANZ_BERLIN + 1);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void abgleichenIgnoriertUngueltigePlz() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final PlzStatistik statistik = new PlzStatistik();
+
+		// When
+		statistik.abgleichen(zeilen(new Object[] { null, 1L },
+				                    new Object[] { "7613", 1L },
+				                    new Object[] { "7613X", 1L },
+				                    new Object[] { String.valueOf(PLZ_KARLSRUHE), ANZ_KARLSRUHE }));
+
+		// Then
+		assertThat(statistik.countBestellungen("", "")).isEqualTo(ANZ_KARLSRUHE);
+
+		LOGGER.finer("ENDE");
+	}
+
+	private static PlzStatistik statistik() {
+		final PlzStatistik statistik = new PlzStatistik();
+		statistik.abgleichen(zeilen(new Object[] { String.valueOf(PLZ_KARLSRUHE), ANZ_KARLSRUHE },
+				                    new Object[] { String.valueOf(PLZ_BERLIN), ANZ_BERLIN },
+				                    new Object[] { "00000", ANZ_MIN },
+				                    new Object[] { String.valueOf(MAX_PLZ), ANZ_MAX }));
+		return statistik;
+	}
+
+	private static List<Object[]> zeilen(Object[]... zeilen) {
+		return new ArrayList<>(Arrays.asList(zeilen));
+	}
+}
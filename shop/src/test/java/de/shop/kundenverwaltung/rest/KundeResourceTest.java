@@ -1,12 +1,18 @@
 package de.shop.kundenverwaltung.rest;
 
+import static de.shop.util.Constants.CSV;
 import static de.shop.util.Constants.FIRST_LINK;
 import static de.shop.util.Constants.LAST_LINK;
+import static de.shop.util.Constants.MERGE_PATCH_JSON;
+import static de.shop.util.Constants.NDJSON;
 import static de.shop.util.Constants.SELF_LINK;
 import static de.shop.util.TestConstants.ARTIKEL_URI;
 import static de.shop.util.TestConstants.BESTELLUNGEN_URI;
+import static de.shop.util.TestConstants.KUNDEN_EXPORT_URI;
 import static de.shop.util.TestConstants.KUNDEN_ID_FILE_URI;
+import static de.shop.util.TestConstants.KUNDEN_ID_OVERVIEW_URI;
 import static de.shop.util.TestConstants.KUNDEN_ID_URI;
+import static de.shop.util.TestConstants.KUNDEN_IMPORT_URI;
 import static de.shop.util.TestConstants.KUNDEN_URI;
 import static de.shop.util.TestConstants.PASSWORD;
 import static de.shop.util.TestConstants.PASSWORD_ADMIN;
@@ -18,14 +24,20 @@ import static java.net.HttpURLConnection.HTTP_CONFLICT;
 import static java.net.HttpURLConnection.HTTP_CREATED;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_PRECON_FAILED;
 import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
 import static java.net.HttpURLConnection.HTTP_UNSUPPORTED_TYPE;
 import static java.util.Locale.ENGLISH;
 import static java.util.Locale.GERMAN;
 import static javax.ws.rs.client.Entity.entity;
 import static javax.ws.rs.client.Entity.json;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.IF_MATCH;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.fest.assertions.api.Assertions.fail;
@@ -38,6 +50,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
@@ -45,6 +58,7 @@ import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.logging.Logger;
 
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 
@@ -63,7 +77,11 @@ import de.shop.kundenverwaltung.domain.AbstractKunde;
 import de.shop.kundenverwaltung.domain.Adresse;
 import de.shop.kundenverwaltung.domain.GeschlechtType;
 import de.shop.kundenverwaltung.domain.Privatkunde;
+import de.shop.kundenverwaltung.service.KundeImportErgebnis;
+import de.shop.kundenverwaltung.service.KundeImportFehler;
 import de.shop.util.AbstractResourceTest;
+import de.shop.util.rest.ServerTimingFilter;
+import de.shop.util.rest.SmileProvider;
 
 
 //Logging durch java.util.logging
@@ -75,7 +93,7 @@ public class KundeResourceTest extends AbstractResourceTest {
 	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
 	
 	private static final Long KUNDE_ID_VORHANDEN_MIT_BESTELLUNGEN = Long.valueOf(101);
-	private static final Long KUNDE_ID_NICHT_VORHANDEN = Long.valueOf(1000);
+	private static final Long KUNDE_ID_NICHT_VORHANDEN = Long.valueOf(999);
 	private static final Long KUNDE_ID_UPDATE = Long.valueOf(120);
 	private static final Long KUNDE_ID_DELETE = Long.valueOf(122);
 	private static final Long KUNDE_ID_DELETE_MIT_BESTELLUNGEN = Long.valueOf(101);
@@ -86,6 +104,7 @@ public class KundeResourceTest extends AbstractResourceTest {
 	private static final String NEUER_NACHNAME = "Nachnameneu";
 	private static final String NEUER_NACHNAME_INVALID = "!";
 	private static final String NEUER_VORNAME = "Vorname";
+	private static final String NEUER_VORNAME_PATCH = "Vornamepatch";
 	private static final String NEUE_EMAIL = NEUER_NACHNAME + "@test.de";
 	private static final String NEUE_EMAIL_INVALID = "?";
 	private static final short NEUE_KATEGORIE = 1;
@@ -99,6 +118,22 @@ public class KundeResourceTest extends AbstractResourceTest {
 	private static final String NEUE_HAUSNR = "1";
 	private static final String NEUES_PASSWORD = "neuesPassword";
 	private static final Long ARTIKEL_ID_VORHANDEN = Long.valueOf(300);
+	private static final String PATCH = "PATCH";
+	
+	private static final String IMPORT_CSV =
+		"type,nachname,vorname,email,seit,password,agbAkzeptiert,plz,ort,strasse,hausnr\n"
+		+ "P,Importa,Anna,importa@test.de,2001-01-31,pass,true,76133,Karlsruhe,Testweg,1\n"
+		+ "P,Importb,Berta,IMPORTA@test.de,2001-01-31,pass,true,76133,Karlsruhe,Testweg,2\n"
+		+ "P,Importc,Carla,101@hs-karlsruhe.de,2001-01-31,pass,true,76133,Karlsruhe,Testweg,3\n"
+		+ "P,x,Dora,importd@test.de,2001-01-31,pass,true,76133,Karlsruhe,Testweg,4\n";
+	private static final int IMPORT_ZEILEN = 4;
+	private static final int IMPORT_IMPORTIERT = 1;
+	private static final Integer[] IMPORT_FEHLER_ZEILEN = { 3, 4, 5 };
+	
+	private static final String EXPORT_SEIT = "2002-01-01";
+	private static final String EXPORT_SEIT_INVALID = "01.01.2002";
+	private static final String EXPORT_KOPFZEILE = "id,type,nachname,vorname,email,";
+	private static final String GZIP = "gzip";
 	
 	private static final String IMAGE_FILENAME = "image.png";
 	private static final String IMAGE_PATH_UPLOAD = "src/test/resources/rest/" + IMAGE_FILENAME;
@@ -203,7 +238,147 @@ public class KundeResourceTest extends AbstractResourceTest {
 		
 		LOGGER.finer("ENDE");
 	}
+	
+	@Test
+	@InSequence(12)
+	public void findKundeByIdNichtGeaendert() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long kundeId = KUNDE_ID_VORHANDEN_MIT_BESTELLUNGEN;
+		Response response = getHttpsClient().target(KUNDEN_ID_URI)
+                                            .resolveTemplate(KundeResource.KUNDEN_ID_PATH_PARAM, kundeId)
+                                            .request()
+                                            .accept(APPLICATION_JSON)
+                                            .get();
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		final EntityTag etag = response.getEntityTag();
+		assertThat(etag).isNotNull();
+		// Strenger ETag, damit If-Match ihn vergleichen darf
+		assertThat(etag.isWeak()).isFalse();
+		response.close();
+		
+		// When
+		response = getHttpsClient().target(KUNDEN_ID_URI)
+                                   .resolveTemplate(KundeResource.KUNDEN_ID_PATH_PARAM, kundeId)
+                                   .request()
+                                   .accept(APPLICATION_JSON)
+                                   .header(IF_NONE_MATCH, etag)
+                                   .get();
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_NOT_MODIFIED);
+		assertThat(response.hasEntity()).isFalse();
+		response.close();
+		
+		LOGGER.finer("ENDE");
+	}
 
+	@Test
+	@InSequence(13)
+	public void findKundeByIdSmile() throws IOException {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long kundeId = KUNDE_ID_VORHANDEN_MIT_BESTELLUNGEN;
+		
+		// When
+		final Response response = getHttpsClient().target(KUNDEN_ID_URI)
+                                                  .resolveTemplate(KundeResource.KUNDEN_ID_PATH_PARAM, kundeId)
+                                                  .request()
+                                                  .accept(SmileProvider.APPLICATION_SMILE)
+                                                  .get();
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		assertThat(response.getMediaType().isCompatible(SmileProvider.APPLICATION_SMILE_TYPE)).isTrue();
+		final byte[] smile = response.readEntity(byte[].class);
+		response.close();
+		final AbstractKunde kunde = SmileProvider.createObjectMapper().readValue(smile, AbstractKunde.class);
+		assertThat(kunde.getId()).isEqualTo(kundeId);
+		
+		LOGGER.finer("ENDE");
+	}
+	
+	@Test
+	@InSequence(14)
+	public void findKundeOverviewById() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long kundeId = KUNDE_ID_VORHANDEN_MIT_BESTELLUNGEN;
+		
+		// When
+		final Response response = getHttpsClient().target(KUNDEN_ID_OVERVIEW_URI)
+                                                  .resolveTemplate(KundeResource.KUNDEN_ID_PATH_PARAM, kundeId)
+                                                  .request()
+                                                  .accept(APPLICATION_JSON)
+                                                  .get();
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		final KundeOverview overview = response.readEntity(KundeOverview.class);
+		assertThat(overview.getKunde().getId()).isEqualTo(kundeId);
+		assertThat(overview.getBestellungen()).isNotEmpty();
+		for (Bestellung b : overview.getBestellungen()) {
+			assertThat(b.getKundeUri().toString()).endsWith(String.valueOf(kundeId));
+		}
+		assertThat(overview.getWartungsvertraege()).isNotEmpty();
+		
+		LOGGER.finer("ENDE");
+	}
+	
+	@Test
+	@InSequence(15)
+	public void findKundeByIdServerTiming() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long kundeId = KUNDE_ID_VORHANDEN_MIT_BESTELLUNGEN;
+		
+		// When
+		final Response response = getHttpsClient().target(KUNDEN_ID_URI)
+                                                  .resolveTemplate(KundeResource.KUNDEN_ID_PATH_PARAM, kundeId)
+                                                  .request()
+                                                  .accept(APPLICATION_JSON)
+                                                  .get();
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		assertThat(response.getHeaderString(ServerTimingFilter.SERVER_TIMING)).contains("db;dur=")
+		                                                                      .contains("ser;dur=")
+		                                                                      .contains("total;dur=");
+		final AbstractKunde kunde = response.readEntity(AbstractKunde.class);
+		assertThat(kunde.getId()).isEqualTo(kundeId);
+		
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	@InSequence(16)
+	public void findKundeOverviewByIdNichtVorhanden() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long kundeId = KUNDE_ID_NICHT_VORHANDEN;
+		
+		// When
+		final Response response = getHttpsClient().target(KUNDEN_ID_OVERVIEW_URI)
+                                                  .resolveTemplate(KundeResource.KUNDEN_ID_PATH_PARAM, kundeId)
+                                                  .request()
+                                                  .acceptLanguage(GERMAN)
+                                                  .get();
+		
+		// Then
+		// Die parallelen Zugriffe werden abgebrochen, die NotFoundException wird zu 404
+		assertThat(response.getStatus()).isEqualTo(HTTP_NOT_FOUND);
+		final String fehlermeldung = response.readEntity(String.class);
+		assertThat(fehlermeldung).startsWith("Kein Kunde mit der ID")
+		                         .endsWith("gefunden.");
+		
+		LOGGER.finer("ENDE");
+	}
+	
 	@Test
 	@InSequence(20)
 	public void findKundenByNachnameVorhanden() {
@@ -332,6 +507,90 @@ public class KundeResourceTest extends AbstractResourceTest {
 		LOGGER.finer("ENDE");
 	}
 	
+	@Test
+	@InSequence(31)
+	public void exportKundenCsv() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final String seit = EXPORT_SEIT;
+		
+		// When
+		final Response response = getHttpsClient(USERNAME, PASSWORD)
+		                          .target(KUNDEN_EXPORT_URI)
+		                          .queryParam(KundeResource.KUNDEN_SEIT_QUERY_PARAM, seit)
+		                          .request()
+		                          .accept(CSV)
+		                          .get();
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		final String csv = response.readEntity(String.class);
+		response.close();
+		
+		final String[] zeilen = csv.split("\r\n");
+		assertThat(zeilen[0]).startsWith(EXPORT_KOPFZEILE);
+		assertThat(zeilen.length).isGreaterThan(1);       // siehe Testdaten
+		// ohne Kunden, die vor dem Datum registriert sind, z.B. 101
+		assertThat(csv).doesNotContain("101@hs-karlsruhe.de");
+		
+		LOGGER.finer("ENDE");
+	}
+	
+	@Test
+	@InSequence(32)
+	public void exportKundenDatumInvalid() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final String seit = EXPORT_SEIT_INVALID;
+		
+		// When
+		final Response response = getHttpsClient(USERNAME, PASSWORD)
+		                          .target(KUNDEN_EXPORT_URI)
+		                          .queryParam(KundeResource.KUNDEN_SEIT_QUERY_PARAM, seit)
+		                          .request()
+		                          .accept(NDJSON)
+		                          .get();
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_BAD_REQUEST);
+		response.close();
+		
+		LOGGER.finer("ENDE");
+	}
+	
+	@Test
+	@InSequence(33)
+	public void exportKundenCsvGzip() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final String seit = EXPORT_SEIT;
+		
+		// When
+		final Response response = getHttpsClient(USERNAME, PASSWORD)
+		                          .target(KUNDEN_EXPORT_URI)
+		                          .queryParam(KundeResource.KUNDEN_SEIT_QUERY_PARAM, seit)
+		                          .request()
+		                          .accept(CSV)
+		                          .header(ACCEPT_ENCODING, GZIP)
+		                          .get();
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		assertThat(response.getHeaderString(CONTENT_ENCODING)).isEqualTo(GZIP);
+		// Der Client von RESTEasy dekomprimiert den Rumpf gemaess "Content-Encoding"
+		final String csv = response.readEntity(String.class);
+		response.close();
+		
+		final String[] zeilen = csv.split("\r\n");
+		assertThat(zeilen[0]).startsWith(EXPORT_KOPFZEILE);
+		assertThat(zeilen.length).isGreaterThan(1);       // siehe Testdaten
+		
+		LOGGER.finer("ENDE");
+	}
+	
 	@Test
 	@InSequence(40)
 	public void createPrivatkunde() throws URISyntaxException {
@@ -477,7 +736,7 @@ public class KundeResourceTest extends AbstractResourceTest {
                                       .get()
                                       .iterator()
                                       .next();
-		// @ScriptAssert steht bei der Klasse und nicht bei einem Attribut:
+		// @PasswordEqual steht bei der Klasse und nicht bei einem Attribut:
 		// violation.getValue() ruft toString() auf dem Objekt der Klasse Privatkunde auf
 		assertThat(violation.getValue()).contains(password).contains(passwordWdh);
 		
@@ -524,6 +783,39 @@ public class KundeResourceTest extends AbstractResourceTest {
 	}
 	
 	
+	@Test
+	@InSequence(43)
+	public void importKundenCsv() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		// 1 gueltiger Kunde, 1 doppelte Email in der Datei, 1 vorhandene Email, 1 ungueltiger Nachname
+		final String csv = IMPORT_CSV;
+		
+		// When
+		final Response response = getHttpsClient(USERNAME, PASSWORD).target(KUNDEN_IMPORT_URI)
+                                                                    .request()
+                                                                    .accept(APPLICATION_JSON)
+                                                                    .post(entity(csv, CSV));
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		final KundeImportErgebnis ergebnis = response.readEntity(KundeImportErgebnis.class);
+		response.close();
+		
+		assertThat(ergebnis.getZeilen()).isEqualTo(IMPORT_ZEILEN);
+		assertThat(ergebnis.getImportiert()).isEqualTo(IMPORT_IMPORTIERT);
+		final List<Integer> fehlerZeilen = new ArrayList<>();
+		for (KundeImportFehler fehler : ergebnis.getFehler()) {
+			assertThat(fehler.getMeldung()).isNotEmpty();
+			fehlerZeilen.add(fehler.getZeile());
+		}
+		assertThat(fehlerZeilen).containsExactly(IMPORT_FEHLER_ZEILEN);
+		
+		LOGGER.finer("ENDE");
+	}
+	
+	
 	@Test
 	@InSequence(50)
 	public void updateKunde() {
@@ -572,6 +864,105 @@ public class KundeResourceTest extends AbstractResourceTest {
 		LOGGER.finer("ENDE");
    	}
 	
+	@Test
+	@InSequence(51)
+	public void updateKundeIfMatch() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long kundeId = KUNDE_ID_UPDATE;
+		Response response = getHttpsClient().target(KUNDEN_ID_URI)
+                                            .resolveTemplate(KundeResource.KUNDEN_ID_PATH_PARAM, kundeId)
+                                            .request()
+                                            .accept(APPLICATION_JSON)
+                                            .get();
+		final EntityTag etag = response.getEntityTag();
+		final AbstractKunde kunde = response.readEntity(AbstractKunde.class);
+		kunde.setVorname(NEUER_VORNAME);
+		
+		// When
+		response = getHttpsClient(USERNAME, PASSWORD).target(KUNDEN_URI)
+                                                     .request()
+                                                     .accept(APPLICATION_JSON)
+                                                     .header(IF_MATCH, etag)
+                                                     .put(json(kunde));
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		final EntityTag neuerEtag = response.getEntityTag();
+		assertThat(neuerEtag).isNotNull()
+		                     .isNotEqualTo(etag);
+		response.close();
+		
+		// Erneutes Update mit dem alten ETag funktioniert NICHT
+		response = getHttpsClient(USERNAME, PASSWORD).target(KUNDEN_URI)
+                                                     .request()
+                                                     .header(IF_MATCH, etag)
+                                                     .put(json(kunde));
+		assertThat(response.getStatus()).isEqualTo(HTTP_PRECON_FAILED);
+		response.close();
+		
+		LOGGER.finer("ENDE");
+	}
+	
+	@Test
+	@InSequence(52)
+	public void patchKunde() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long kundeId = KUNDE_ID_UPDATE;
+		Response response = getHttpsClient().target(KUNDEN_ID_URI)
+                                            .resolveTemplate(KundeResource.KUNDEN_ID_PATH_PARAM, kundeId)
+                                            .request()
+                                            .accept(APPLICATION_JSON)
+                                            .get();
+		AbstractKunde kunde = response.readEntity(AbstractKunde.class);
+		final int origVersion = kunde.getVersion();
+		final String origNachname = kunde.getNachname();
+		final String patch = "{\"vorname\":\"" + NEUER_VORNAME_PATCH + "\"}";
+		
+		// When
+		response = getHttpsClient(USERNAME, PASSWORD).target(KUNDEN_ID_URI)
+                                                     .resolveTemplate(KundeResource.KUNDEN_ID_PATH_PARAM, kundeId)
+                                                     .request()
+                                                     .accept(APPLICATION_JSON)
+                                                     .method(PATCH, entity(patch, MERGE_PATCH_JSON));
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		kunde = response.readEntity(AbstractKunde.class);
+		assertThat(kunde.getVorname()).isEqualTo(NEUER_VORNAME_PATCH);
+		assertThat(kunde.getNachname()).isEqualTo(origNachname);
+		assertThat(kunde.getVersion()).isGreaterThan(origVersion);
+		
+		LOGGER.finer("ENDE");
+	}
+	
+	@Test
+	@InSequence(53)
+	public void patchKundeInvalid() {
+		LOGGER.finer("BEGINN");
+		
+		// Given
+		final Long kundeId = KUNDE_ID_UPDATE;
+		final String patch = "{\"nachname\":\"" + NEUER_NACHNAME_INVALID + "\"}";
+		
+		// When
+		final Response response = getHttpsClient(USERNAME, PASSWORD)
+		                          .target(KUNDEN_ID_URI)
+		                          .resolveTemplate(KundeResource.KUNDEN_ID_PATH_PARAM, kundeId)
+		                          .request()
+		                          .accept(APPLICATION_JSON)
+		                          .method(PATCH, entity(patch, MERGE_PATCH_JSON));
+		
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_BAD_REQUEST);
+		response.close();
+		
+		LOGGER.finer("ENDE");
+	}
+	
 	@Test
 	@InSequence(60)
 	public void deleteKunde() {
@@ -690,7 +1081,7 @@ public class KundeResourceTest extends AbstractResourceTest {
 		assertThat(idStr).isEqualTo(kundeId.toString());
 		
 		// When (2)
-		// Download der zuvor hochgeladenen Datei
+		// Download der zuvor hochgeladenen Datei in einem eigenen Request, d.h. der Upload wurde im Pool committet
 		byte[] downloadBytes;
 		
 		response = getHttpsClient(USERNAME, PASSWORD).target(KUNDEN_ID_FILE_URI)
@@ -0,0 +1,211 @@
+package de.shop.kundenverwaltung.service;
+
+import static de.shop.kundenverwaltung.service.KundeService.FetchType.MIT_BESTELLUNGEN;
+import static de.shop.kundenverwaltung.service.KundeService.FetchType.MIT_WARTUNGSVERTRAEGEN;
+import static de.shop.kundenverwaltung.service.KundeService.FetchType.NUR_KUNDE;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandles;
+import java.util.logging.Logger;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.junit.Arquillian;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.util.AbstractServiceTest;
+import de.shop.util.PersistenceStatistics;
+
+
+/**
+ * Anzahl der SQL-Anweisungen fuer die zentralen Operationen von KundeService. Die Obergrenzen gelten fuer
+ * einen leeren Persistenzkontext und einen leeren L2-Cache; N+1-Zugriffe fallen zusaetzlich dadurch auf,
+ * dass Kunden mit unterschiedlich vielen Bestellungen unterschiedlich viele Anweisungen benoetigen.
+ * Fuer Aenderungen wird zuerst gemessen, wie viele Anweisungen das Lesen des Kunden im selben Test kostet;
+ * die Obergrenze ist dann das Lesen mal der Anzahl der Lesezugriffe zuzueglich der einzelnen Schreibzugriffe.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@RunWith(Arquillian.class)
+public class KundeServiceStatementTest extends AbstractServiceTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	// Privatkunden mit 2 bzw. 1 Bestellung
+	private static final Long KUNDE_ID_ZWEI_BESTELLUNGEN = Long.valueOf(101);
+	private static final Long KUNDE_ID_EINE_BESTELLUNG = Long.valueOf(121);
+	private static final Long KUNDE_ID_UPDATE = Long.valueOf(121);
+	private static final Long KUNDE_ID_DELETE = Long.valueOf(123);
+	private static final String NEUER_VORNAME = "Neuer";
+
+	// Kunde mit Adresse, Rollen und Hobbies
+	private static final long MAX_STATEMENTS_NUR_KUNDE = 3;
+	private static final long MAX_COLLECTION_FETCHES_NUR_KUNDE = 2;
+	// zusaetzlich die Bestellungen mit ihren Bestellpositionen und Artikeln
+	private static final long MAX_STATEMENTS_MIT_BESTELLUNGEN = 6;
+	private static final long MAX_STATEMENTS_MIT_WARTUNGSVERTRAEGEN = 4;
+	// updateKunde() liest den Kunden 3x: Kunde pruefen, Email pruefen (Query) und merge()
+	private static final long LESEZUGRIFFE_UPDATE = 3;
+	// Query fuer die Email und UPDATE fuer den Kunden
+	private static final long ANWEISUNGEN_UPDATE = 2;
+	// DELETE fuer Rollen, Hobbies, Adresse und Kunde
+	private static final long ANWEISUNGEN_DELETE = 4;
+
+	@Inject
+	private KundeService ks;
+
+	@Test
+	public void findKundeByIdNurKunde() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final Long kundeId = KUNDE_ID_ZWEI_BESTELLUNGEN;
+		clearCaches();
+
+		// When
+		startStatistics();
+		final AbstractKunde kunde = ks.findKundeById(kundeId, NUR_KUNDE);
+		final PersistenceStatistics stats = stopStatistics();
+
+		// Then
+		assertThat(kunde).isNotNull();
+		assertThat(stats.getStatements()).as(stats.toString()).isLessThanOrEqualTo(MAX_STATEMENTS_NUR_KUNDE);
+		assertThat(stats.getCollectionFetches()).as(stats.toString())
+		                                        .isLessThanOrEqualTo(MAX_COLLECTION_FETCHES_NUR_KUNDE);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void findKundeByIdMitBestellungen() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final Long kundeId1 = KUNDE_ID_ZWEI_BESTELLUNGEN;
+		final Long kundeId2 = KUNDE_ID_EINE_BESTELLUNG;
+
+		// When
+		clearCaches();
+		startStatistics();
+		final AbstractKunde kunde1 = ks.findKundeById(kundeId1, MIT_BESTELLUNGEN);
+		final int anzahlBestellungen = kunde1.getBestellungen().size();
+		final PersistenceStatistics stats1 = stopStatistics();
+
+		clearCaches();
+		startStatistics();
+		final AbstractKunde kunde2 = ks.findKundeById(kundeId2, MIT_BESTELLUNGEN);
+		kunde2.getBestellungen().size();
+		final PersistenceStatistics stats2 = stopStatistics();
+
+		// Then
+		assertThat(anzahlBestellungen).isGreaterThan(kunde2.getBestellungen().size());
+		assertThat(stats1.getStatements()).as(stats1.toString())
+		                                  .isLessThanOrEqualTo(MAX_STATEMENTS_MIT_BESTELLUNGEN);
+		// Die Anzahl der Anweisungen darf nicht von der Anzahl der Bestellungen abhaengen
+		assertThat(stats1.getStatements()).as(stats1 + " / " + stats2).isEqualTo(stats2.getStatements());
+		assertThat(stats1.getCollectionFetches()).as(stats1 + " / " + stats2)
+		                                         .isEqualTo(stats2.getCollectionFetches());
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void findKundeByIdMitWartungsvertraegen() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final Long kundeId = KUNDE_ID_ZWEI_BESTELLUNGEN;
+		clearCaches();
+
+		// When
+		startStatistics();
+		final AbstractKunde kunde = ks.findKundeById(kundeId, MIT_WARTUNGSVERTRAEGEN);
+		final int anzahlWartungsvertraege = kunde.getWartungsvertraege().size();
+		final PersistenceStatistics stats = stopStatistics();
+
+		// Then
+		assertThat(anzahlWartungsvertraege).isGreaterThan(0);
+		assertThat(stats.getStatements()).as(stats.toString())
+		                                 .isLessThanOrEqualTo(MAX_STATEMENTS_MIT_WARTUNGSVERTRAEGEN);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void findKundeByIdL2Cache() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final Long kundeId = KUNDE_ID_ZWEI_BESTELLUNGEN;
+		clearCaches();
+		ks.findKundeById(kundeId, NUR_KUNDE);
+		// nur den Persistenzkontext leeren, den L2-Cache aber nicht
+		getEntityManager().clear();
+
+		// When
+		startStatistics();
+		final AbstractKunde kunde = ks.findKundeById(kundeId, NUR_KUNDE);
+		final PersistenceStatistics stats = stopStatistics();
+
+		// Then
+		assertThat(kunde).isNotNull();
+		assertThat(stats.getSecondLevelCacheHits()).as(stats.toString()).isGreaterThan(0);
+		assertThat(stats.getStatements()).as(stats.toString()).isLessThanOrEqualTo(MAX_STATEMENTS_NUR_KUNDE);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void updateKunde() {
+		LOGGER.finer("BEGINN");
+
+		// Given: Anweisungen fuer einmaliges Lesen des Kunden, wenn er wie bei updateKunde() im L2-Cache ist
+		final Long kundeId = KUNDE_ID_UPDATE;
+		clearCaches();
+		ks.findKundeById(kundeId, NUR_KUNDE);
+		getEntityManager().clear();
+		startStatistics();
+		AbstractKunde kunde = ks.findKundeById(kundeId, NUR_KUNDE);
+		final PersistenceStatistics statsLesen = stopStatistics();
+		final int alteVersion = kunde.getVersion();
+		kunde.setVorname(NEUER_VORNAME);
+
+		// When
+		startStatistics();
+		kunde = ks.updateKunde(kunde, false);
+		final PersistenceStatistics stats = stopStatistics();
+
+		// Then: keine weiteren Anweisungen, z.B. fuer Bestellungen
+		assertThat(kunde.getVersion()).isGreaterThan(alteVersion);
+		assertThat(stats.getStatements()).as(statsLesen + " / " + stats)
+		                                 .isLessThanOrEqualTo(LESEZUGRIFFE_UPDATE * statsLesen.getStatements()
+		                                                      + ANWEISUNGEN_UPDATE);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void deleteKundeById() {
+		LOGGER.finer("BEGINN");
+
+		// Given: Anweisungen fuer das Lesen des Kunden mit Bestellungen, wie in deleteKundeById()
+		final Long kundeId = KUNDE_ID_DELETE;
+		clearCaches();
+		startStatistics();
+		ks.findKundeById(kundeId, MIT_BESTELLUNGEN);
+		final PersistenceStatistics statsLesen = stopStatistics();
+		clearCaches();
+
+		// When
+		startStatistics();
+		ks.deleteKundeById(kundeId);
+		final PersistenceStatistics stats = stopStatistics();
+
+		// Then: nur die DELETE-Anweisungen kommen hinzu
+		assertThat(ks.findKundeById(kundeId, NUR_KUNDE)).isNull();
+		assertThat(stats.getStatements()).as(statsLesen + " / " + stats)
+		                                 .isLessThanOrEqualTo(statsLesen.getStatements() + ANWEISUNGEN_DELETE);
+
+		LOGGER.finer("ENDE");
+	}
+}
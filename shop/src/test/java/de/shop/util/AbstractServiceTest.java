@@ -0,0 +1,79 @@
+package de.shop.util;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.NotSupportedException;
+import javax.transaction.SystemException;
+import javax.transaction.UserTransaction;
+
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * Basisklasse fuer Tests, die im Container laufen und die Services direkt aufrufen. Jeder Test laeuft in
+ * einer eigenen Transaktion, die am Ende zurueckgerollt wird. Mit der Hibernate-Statistik kann gemessen
+ * werden, wie viele SQL-Anweisungen ein Service-Aufruf verursacht.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public abstract class AbstractServiceTest {
+	@Inject
+	private UserTransaction trans;
+
+	@Inject
+	private EntityManager em;
+
+	private Statistics statistics;
+	private boolean statisticsEnabled;
+
+	@Deployment(name = ArchiveBuilder.TEST_WAR)  // Tests laufen im Container
+	protected static Archive<?> deployment() {
+		return ArchiveBuilder.getInstance().getArchiveMitTestklassen();
+	}
+
+	@Before
+	public void before() throws NotSupportedException, SystemException {
+		trans.begin();
+		statistics = em.unwrap(Session.class).getSessionFactory().getStatistics();
+		statisticsEnabled = statistics.isStatisticsEnabled();
+		statistics.setStatisticsEnabled(true);
+	}
+
+	@After
+	public void after() throws SystemException {
+		statistics.setStatisticsEnabled(statisticsEnabled);
+		// Testdaten fuer die nachfolgenden Tests unveraendert lassen
+		trans.rollback();
+	}
+
+	/**
+	 * Persistenzkontext und L2-Cache leeren, damit die naechste Messung nicht von vorherigen Zugriffen abhaengt
+	 */
+	protected void clearCaches() {
+		em.clear();
+		em.getEntityManagerFactory().getCache().evictAll();
+	}
+
+	/**
+	 * Zaehler der Hibernate-Statistik zuruecksetzen
+	 */
+	protected void startStatistics() {
+		statistics.clear();
+	}
+
+	/**
+	 * Ausstehende Aenderungen in die DB schreiben und die Zaehler seit startStatistics() auslesen
+	 * @return Die Zaehlerstaende
+	 */
+	protected PersistenceStatistics stopStatistics() {
+		em.flush();
+		return new PersistenceStatistics(statistics);
+	}
+
+	protected EntityManager getEntityManager() {
+		return em;
+	}
+}
@@ -18,7 +18,7 @@ import org.jboss.shrinkwrap.resolver.api.maven.PomEquippedResolveStage;
 public enum ArchiveBuilder {
 	INSTANCE;
 	
-	static final String TEST_WAR = WEB_PROJEKT + ".war";
+	public static final String TEST_WAR = WEB_PROJEKT + ".war";
 	
 	private static final String CLASSES_DIR = "target/classes";
 	private static final String WEBAPP_DIR = "src/main/webapp";
@@ -72,6 +72,12 @@ public enum ArchiveBuilder {
 		for (Class<?> c : TEST_CLASSES) {
 			archiveMitTestklassen.addClass(c);
 		}
+		
+		// Assertions fuer die Tests, die im Container laufen
+		final PomEquippedResolveStage pomResolver = Maven.resolver().offline().loadPomFromFile("pom.xml");
+		archiveMitTestklassen.addAsLibraries(pomResolver.resolve("org.easytesting:fest-assert-core")
+				                                        .withTransitivity()
+				                                        .asFile());
 	}
 
 	public static ArchiveBuilder getInstance() {
@@ -0,0 +1,55 @@
+package de.shop.util;
+
+import org.hibernate.stat.Statistics;
+
+/**
+ * Zaehlerstaende der Hibernate-Statistik nach einem Service-Aufruf
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public final class PersistenceStatistics {
+	private final long statements;
+	private final long entityLoads;
+	private final long collectionFetches;
+	private final long secondLevelCacheHits;
+
+	PersistenceStatistics(Statistics statistics) {
+		statements = statistics.getPrepareStatementCount();
+		entityLoads = statistics.getEntityLoadCount();
+		collectionFetches = statistics.getCollectionFetchCount();
+		secondLevelCacheHits = statistics.getSecondLevelCacheHitCount();
+	}
+
+	/**
+	 * @return Anzahl der an die DB geschickten SQL-Anweisungen
+	 */
+	public long getStatements() {
+		return statements;
+	}
+
+	/**
+	 * @return Anzahl der aus der DB geladenen Entities
+	 */
+	public long getEntityLoads() {
+		return entityLoads;
+	}
+
+	/**
+	 * @return Anzahl der Collections, die durch eine eigene SQL-Anweisung nachgeladen wurden
+	 */
+	public long getCollectionFetches() {
+		return collectionFetches;
+	}
+
+	/**
+	 * @return Anzahl der Treffer im L2-Cache
+	 */
+	public long getSecondLevelCacheHits() {
+		return secondLevelCacheHits;
+	}
+
+	@Override
+	public String toString() {
+		return "PersistenceStatistics [statements=" + statements + ", entityLoads=" + entityLoads
+		       + ", collectionFetches=" + collectionFetches + ", secondLevelCacheHits=" + secondLevelCacheHits + "]";
+	}
+}
@@ -2,6 +2,12 @@ package de.shop.util;
 
 import static de.shop.util.Constants.REST_PATH;
 
+import de.shop.bestellverwaltung.service.BestellungServiceStatementTest;
+import de.shop.bestellverwaltung.service.BestellungTestdaten;
+import de.shop.kundenverwaltung.service.KundeServiceStatementTest;
+import de.shop.util.persistence.ReplicaRoutingTest;
+import de.shop.util.rest.AsyncResponseHelperTest;
+
 
 /**
  * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
@@ -25,14 +31,26 @@ public final class TestConstants {
 	public static final String KUNDEN_ID_PATH_PARAM = "kundenId";
 	public static final String KUNDEN_ID_URI = KUNDEN_URI + "/{" + KUNDEN_ID_PATH_PARAM + "}";
 	public static final String KUNDEN_ID_FILE_URI = KUNDEN_ID_URI + "/file";
+	public static final String KUNDEN_ID_OVERVIEW_URI = KUNDEN_ID_URI + "/overview";
+	public static final String KUNDEN_IMPORT_URI = KUNDEN_URI + "/import";
+	public static final String KUNDEN_EXPORT_URI = KUNDEN_URI + "/export";
 	
 	public static final String BESTELLUNGEN_URI = BASE_URI + "/bestellungen";
 	public static final String BESTELLUNGEN_ID_PATH_PARAM = "bestellungId";
 	public static final String BESTELLUNGEN_ID_URI = BESTELLUNGEN_URI + "/{" + BESTELLUNGEN_ID_PATH_PARAM + "}";
 	public static final String BESTELLUNGEN_ID_KUNDE_URI = BESTELLUNGEN_ID_URI + "/kunde";
+	public static final String BESTELLUNGEN_ID_LIEFERUNGEN_URI = BESTELLUNGEN_ID_URI + "/lieferungen";
+	public static final String BESTELLUNGEN_EXPORT_URI = BESTELLUNGEN_URI + "/export";
+	public static final String BESTELLUNGEN_STATISTIK_PLZ_URI = BESTELLUNGEN_URI + "/statistik/plz";
 	
 	public static final String ARTIKEL_URI = BASE_URI + "/artikel";
 	
+	public static final String METRICS_HIBERNATE_URI = BASE_URI + "/admin/metrics/hibernate";
+	public static final String METRICS_HIBERNATE_QUERIES_URI = METRICS_HIBERNATE_URI + "/queries";
+	public static final String METRICS_HIBERNATE_ENTITIES_URI = METRICS_HIBERNATE_URI + "/entities";
+	public static final String METRICS_HIBERNATE_REGIONS_URI = METRICS_HIBERNATE_URI + "/regions";
+	public static final String METRICS_HIBERNATE_SLOWQUERIES_URI = METRICS_HIBERNATE_URI + "/slowqueries";
+	
 	// Username und Password
 	public static final String USERNAME = "102";
 	public static final String PASSWORD = "102";
@@ -41,7 +59,11 @@ public final class TestConstants {
 	public static final String PASSWORD_FALSCH = "falsch";
 	
 	// Testklassen fuer Service- und Domain-Tests (nicht in Software Engineering)
-	public static final Class<?>[] TEST_CLASSES = { };
+	public static final Class<?>[] TEST_CLASSES = { AbstractServiceTest.class, PersistenceStatistics.class,
+		                                            KundeServiceStatementTest.class,
+		                                            BestellungServiceStatementTest.class,
+		                                            BestellungTestdaten.class,
+		                                            ReplicaRoutingTest.class, AsyncResponseHelperTest.class };
 	
 	private TestConstants() {
 	}
@@ -0,0 +1,267 @@
+package de.shop.util.concurrency;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.enterprise.concurrent.ContextService;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+
+import org.junit.After;
+import org.junit.Test;
+
+
+/**
+ * IoExecutor und IoExecutorProducer ohne Container: die ManagedThreadFactory und der ContextService werden
+ * nachgebildet. Die erste Aufgabe blockiert jeweils, bis der Test sie freigibt.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class IoExecutorTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	private static final int MAX_THREADS = 2;
+	private static final int MAX_WARTESCHLANGE = 3;
+	private static final int ANZ_WARTEND_UNBESCHRAENKT = 1000;
+	private static final int MAX_THREADS_DEFAULT = 32;
+	private static final long TIMEOUT_SEKUNDEN = 10;
+	private static final long WARTEN_MILLIS = 50;
+
+	private final CountDownLatch freigabe = new CountDownLatch(1);
+	private final AtomicInteger ausgefuehrt = new AtomicInteger();
+	private final AtomicInteger unterbrochen = new AtomicInteger();
+	private IoExecutor executor;
+
+	@After
+	public void after() {
+		freigabe.countDown();
+		if (executor != null) {
+			executor.abbrechen();
+		}
+	}
+
+	@Test
+	public void warteschlangeBeschraenkt() throws InterruptedException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		executor = new IoExecutor(MAX_THREADS, MAX_WARTESCHLANGE, Executors.defaultThreadFactory());
+		blockieren(MAX_THREADS);
+		for (int i = 0; i < MAX_WARTESCHLANGE; i++) {
+			executor.execute(zaehlen());
+		}
+
+		// When
+		boolean abgewiesen = false;
+		try {
+			executor.execute(zaehlen());
+		}
+		catch (RejectedExecutionException e) {
+			abgewiesen = true;
+		}
+
+		// Then
+		assertThat(abgewiesen).isTrue();
+		assertThat(executor.getWarteschlange()).isEqualTo(MAX_WARTESCHLANGE);
+		freigabe.countDown();
+		assertThat(executor.shutdown(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS)).isTrue();
+		assertThat(ausgefuehrt.get()).isEqualTo(MAX_THREADS + MAX_WARTESCHLANGE);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void warteschlangeUnbeschraenkt() throws InterruptedException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		executor = new IoExecutor(MAX_THREADS, Executors.defaultThreadFactory());
+		blockieren(MAX_THREADS);
+
+		// When
+		for (int i = 0; i < ANZ_WARTEND_UNBESCHRAENKT; i++) {
+			executor.execute(zaehlen());
+		}
+
+		// Then
+		// Hoechstens MAX_THREADS Aufgaben laufen, alle weiteren warten, ohne abgewiesen zu werden
+		assertThat(executor.getMaxThreads()).isEqualTo(MAX_THREADS);
+		assertThat(executor.getWarteschlange()).isEqualTo(ANZ_WARTEND_UNBESCHRAENKT);
+		freigabe.countDown();
+		assertThat(executor.shutdown(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS)).isTrue();
+		assertThat(ausgefuehrt.get()).isEqualTo(MAX_THREADS + ANZ_WARTEND_UNBESCHRAENKT);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void shutdownMitWartenden() throws InterruptedException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		executor = new IoExecutor(MAX_THREADS, MAX_WARTESCHLANGE, Executors.defaultThreadFactory());
+		blockieren(MAX_THREADS);
+		executor.execute(zaehlen());
+
+		// When
+		final boolean beendet = executor.shutdown(WARTEN_MILLIS, TimeUnit.MILLISECONDS);
+		final int verworfen = executor.abbrechen();
+
+		// Then
+		// Die blockierten Aufgaben werden unterbrochen, die wartende wird nicht mehr ausgefuehrt
+		assertThat(beendet).isFalse();
+		assertThat(verworfen).isEqualTo(1);
+		assertThat(executor.shutdown(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS)).isTrue();
+		assertThat(unterbrochen.get()).isEqualTo(MAX_THREADS);
+		assertThat(ausgefuehrt.get()).isZero();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void nachShutdown() throws InterruptedException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		executor = new IoExecutor(MAX_THREADS, Executors.defaultThreadFactory());
+		assertThat(executor.shutdown(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS)).isTrue();
+
+		// When
+		executor.execute(zaehlen());
+	}
+
+	@Test
+	public void producerKontextUndUndeployment() throws InterruptedException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final AtomicInteger kontexte = new AtomicInteger();
+		final IoExecutorProducer producer = new IoExecutorProducer(threadFactory(), contextService(kontexte),
+		                                                           Integer.valueOf(1));
+		producer.postConstruct();
+		final Executor executorBlockierend = producer.getExecutor();
+		final CountDownLatch gestartet = new CountDownLatch(1);
+		executorBlockierend.execute(blockierend(gestartet));
+		assertThat(gestartet.await(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS)).isTrue();
+		executorBlockierend.execute(zaehlen());
+
+		// When
+		producer.preDestroy(WARTEN_MILLIS, TimeUnit.MILLISECONDS);
+
+		// Then
+		// Jede Aufgabe wird mit dem Kontext des Aufrufers ausgefuehrt
+		assertThat(kontexte.get()).isEqualTo(2);
+		// Nach dem Undeployment werden keine Aufgaben mehr angenommen oder ausgefuehrt
+		boolean abgewiesen = false;
+		try {
+			executorBlockierend.execute(zaehlen());
+		}
+		catch (RejectedExecutionException e) {
+			abgewiesen = true;
+		}
+		assertThat(abgewiesen).isTrue();
+		assertThat(ausgefuehrt.get()).isZero();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void producerDefault() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final IoExecutorProducer producer = new IoExecutorProducer(threadFactory(),
+		                                                           contextService(new AtomicInteger()), null);
+
+		// When
+		producer.postConstruct();
+
+		// Then
+		assertThat(producer.getMaxThreads()).isEqualTo(MAX_THREADS_DEFAULT);
+		producer.preDestroy(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS);
+
+		LOGGER.finer("ENDE");
+	}
+
+	/**
+	 * So viele blockierende Aufgaben starten, dass alle Threads belegt sind
+	 */
+	private void blockieren(int anzahl) throws InterruptedException {
+		final CountDownLatch gestartet = new CountDownLatch(anzahl);
+		for (int i = 0; i < anzahl; i++) {
+			executor.execute(blockierend(gestartet));
+		}
+		assertThat(gestartet.await(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS)).isTrue();
+	}
+
+	private Runnable blockierend(final CountDownLatch gestartet) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				gestartet.countDown();
+				try {
+					freigabe.await();
+				}
+				catch (InterruptedException e) {
+					unterbrochen.incrementAndGet();
+					return;
+				}
+				ausgefuehrt.incrementAndGet();
+			}
+		};
+	}
+
+	private Runnable zaehlen() {
+		return new Runnable() {
+			@Override
+			public void run() {
+				ausgefuehrt.incrementAndGet();
+			}
+		};
+	}
+
+	private static ManagedThreadFactory threadFactory() {
+		final ThreadFactory threadFactory = Executors.defaultThreadFactory();
+		return (ManagedThreadFactory) Proxy.newProxyInstance(
+				ManagedThreadFactory.class.getClassLoader(),
+				new Class<?>[] { ManagedThreadFactory.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						if ("newThread".equals(method.getName())) {
+							return threadFactory.newThread((Runnable) args[0]);
+						}
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	/**
+	 * ContextService, der die Aufgabe unveraendert zurueckliefert und die erfassten Kontexte zaehlt
+	 */
+	private static ContextService contextService(final AtomicInteger kontexte) {
+		return (ContextService) Proxy.newProxyInstance(
+				ContextService.class.getClassLoader(),
+				new Class<?>[] { ContextService.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						if ("createContextualProxy".equals(method.getName())) {
+							kontexte.incrementAndGet();
+							return args[0];
+						}
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+}
@@ -0,0 +1,367 @@
+package de.shop.util.interceptor;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.interceptor.InvocationContext;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.kundenverwaltung.domain.Privatkunde;
+import de.shop.util.metrics.MetricsRegistry;
+
+
+/**
+ * CoalescingInterceptor ohne Container: gleichzeitige Aufrufe mit nachgebildeten InvocationContexts.
+ * Der erste Aufruf blockiert, bis alle weiteren als zusammengefasst gezaehlt sind.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class CoalescingInterceptorTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	private static final int ANZ_AUFRUFE = 4;
+	private static final long TIMEOUT_SEKUNDEN = 10;
+	private static final long WARTEN_MILLIS = 10;
+	private static final Long KUNDE_ID_1 = Long.valueOf(1);
+	private static final Long KUNDE_ID_2 = Long.valueOf(2);
+	private static final Long KUNDE_ID_3 = Long.valueOf(3);
+	private static final Long KUNDE_ID_4 = Long.valueOf(4);
+	private static final String URI_PREFIX = "https://localhost/shop/rest/kunden/";
+
+	private final AtomicInteger ladevorgaenge = new AtomicInteger();
+	private final CountDownLatch freigabe = new CountDownLatch(1);
+	private MetricsRegistry metricsRegistry;
+	private ExecutorService executor;
+
+	@Before
+	public void before() {
+		metricsRegistry = new MetricsRegistry();
+		executor = Executors.newFixedThreadPool(ANZ_AUFRUFE);
+	}
+
+	@After
+	public void after() {
+		freigabe.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void gemeinsamerLadevorgang() throws Exception {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final CoalescingInterceptor interceptor = new CoalescingInterceptor(tsr(null), metricsRegistry);
+		final Method method = method("findKundeById");
+		final Callable<Object> laden = new Callable<Object>() {
+			@Override
+			public Object call() {
+				return kunde(KUNDE_ID_1);
+			}
+		};
+
+		// When
+		final List<Future<Object>> futures = aufrufen(interceptor, method, new Object[] { KUNDE_ID_1 }, laden);
+		warteAufZusammengefasste(method, ANZ_AUFRUFE - 1);
+		freigabe.countDown();
+
+		// Then
+		final Map<Object, Boolean> ergebnisse = new IdentityHashMap<>();
+		for (Future<Object> future : futures) {
+			final AbstractKunde kunde = (AbstractKunde) future.get(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS);
+			assertThat(kunde.getId()).isEqualTo(KUNDE_ID_1);
+			ergebnisse.put(kunde, Boolean.TRUE);
+		}
+		assertThat(ladevorgaenge.get()).isEqualTo(1);
+		assertThat(coalesced(method)).isEqualTo(ANZ_AUFRUFE - 1);
+		// Jeder Aufrufer hat eine eigene Kopie und kann z.B. die URI der Bestellungen setzen
+		assertThat(ergebnisse).hasSize(ANZ_AUFRUFE);
+		int i = 0;
+		for (Object kunde : ergebnisse.keySet()) {
+			((AbstractKunde) kunde).setBestellungenUri(new URI(URI_PREFIX + i++));
+		}
+		i = 0;
+		for (Object kunde : ergebnisse.keySet()) {
+			assertThat(((AbstractKunde) kunde).getBestellungenUri()).isEqualTo(new URI(URI_PREFIX + i++));
+		}
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void gemeinsamerLadevorgangListe() throws Exception {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final CoalescingInterceptor interceptor = new CoalescingInterceptor(tsr(null), metricsRegistry);
+		final Method method = method("findKundenByIdPrefix");
+		final Callable<Object> laden = new Callable<Object>() {
+			@Override
+			public Object call() {
+				return new ArrayList<>(Arrays.asList(kunde(KUNDE_ID_1), kunde(KUNDE_ID_2)));
+			}
+		};
+
+		// When
+		final List<Future<Object>> futures = aufrufen(interceptor, method, new Object[] { KUNDE_ID_1 }, laden);
+		warteAufZusammengefasste(method, ANZ_AUFRUFE - 1);
+		freigabe.countDown();
+
+		// Then
+		final Map<Object, Boolean> kunden = new IdentityHashMap<>();
+		for (Future<Object> future : futures) {
+			final List<?> liste = (List<?>) future.get(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS);
+			assertThat(liste).hasSize(2);
+			for (Object kunde : liste) {
+				kunden.put(kunde, Boolean.TRUE);
+			}
+		}
+		assertThat(ladevorgaenge.get()).isEqualTo(1);
+		assertThat(coalesced(method)).isEqualTo(ANZ_AUFRUFE - 1);
+		// Eigene Listen mit eigenen Kopien der Elemente
+		assertThat(kunden).hasSize(ANZ_AUFRUFE * 2);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void gemeinsameException() throws Exception {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final CoalescingInterceptor interceptor = new CoalescingInterceptor(tsr(null), metricsRegistry);
+		final Method method = method("findKundeById");
+		final IllegalStateException exception = new IllegalStateException("Test");
+		final Callable<Object> laden = new Callable<Object>() {
+			@Override
+			public Object call() {
+				throw exception;
+			}
+		};
+
+		// When
+		final List<Future<Object>> futures = aufrufen(interceptor, method, new Object[] { KUNDE_ID_2 }, laden);
+		warteAufZusammengefasste(method, ANZ_AUFRUFE - 1);
+		freigabe.countDown();
+
+		// Then
+		for (Future<Object> future : futures) {
+			try {
+				future.get(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS);
+				throw new AssertionError("Keine Exception");
+			}
+			catch (ExecutionException e) {
+				assertThat(e.getCause()).isSameAs(exception);
+			}
+		}
+		assertThat(ladevorgaenge.get()).isEqualTo(1);
+		assertThat(coalesced(method)).isEqualTo(ANZ_AUFRUFE - 1);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void nachAbschlussWiederLaden() throws Exception {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final CoalescingInterceptor interceptor = new CoalescingInterceptor(tsr(null), metricsRegistry);
+		final Method method = method("findKundeById");
+		freigabe.countDown();
+		final InvocationContext ctx = new Aufruf(method, new Object[] { KUNDE_ID_3 }, new Callable<Object>() {
+			@Override
+			public Object call() {
+				return kunde(KUNDE_ID_3);
+			}
+		});
+
+		// When
+		interceptor.coalesce(ctx);
+		interceptor.coalesce(ctx);
+
+		// Then: es wird nichts gecacht
+		assertThat(ladevorgaenge.get()).isEqualTo(2);
+		assertThat(coalesced(method)).isZero();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void inTransaktionNichtZusammenfassen() throws Exception {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final CoalescingInterceptor interceptor = new CoalescingInterceptor(tsr("TX"), metricsRegistry);
+		final Method method = method("findKundeById");
+		final Callable<Object> laden = new Callable<Object>() {
+			@Override
+			public Object call() {
+				return kunde(KUNDE_ID_4);
+			}
+		};
+
+		// When
+		final List<Future<Object>> futures = aufrufen(interceptor, method, new Object[] { KUNDE_ID_4 }, laden);
+		warteAufLadevorgaenge(ANZ_AUFRUFE);
+		freigabe.countDown();
+
+		// Then
+		for (Future<Object> future : futures) {
+			assertThat(future.get(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS)).isNotNull();
+		}
+		assertThat(ladevorgaenge.get()).isEqualTo(ANZ_AUFRUFE);
+		assertThat(coalesced(method)).isZero();
+
+		LOGGER.finer("ENDE");
+	}
+
+	private List<Future<Object>> aufrufen(final CoalescingInterceptor interceptor, Method method, Object[] args,
+			                              Callable<Object> laden) {
+		final List<Future<Object>> futures = new ArrayList<>(ANZ_AUFRUFE);
+		for (int i = 0; i < ANZ_AUFRUFE; i++) {
+			final InvocationContext ctx = new Aufruf(method, args.clone(), laden);
+			futures.add(executor.submit(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					return interceptor.coalesce(ctx);
+				}
+			}));
+		}
+		return futures;
+	}
+
+	private void warteAufZusammengefasste(Method method, long anzahl) throws InterruptedException {
+		final long ende = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SEKUNDEN);
+		while (coalesced(method) < anzahl && System.nanoTime() < ende) {
+			Thread.sleep(WARTEN_MILLIS);
+		}
+	}
+
+	private void warteAufLadevorgaenge(int anzahl) throws InterruptedException {
+		final long ende = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SEKUNDEN);
+		while (ladevorgaenge.get() < anzahl && System.nanoTime() < ende) {
+			Thread.sleep(WARTEN_MILLIS);
+		}
+	}
+
+	private long coalesced(Method method) {
+		return metricsRegistry.getMethodStatistics(method).getSnapshot().getCoalesced();
+	}
+
+	private static Method method(String name) throws NoSuchMethodException {
+		return KundeQuelle.class.getMethod(name, Long.class);
+	}
+
+	private static AbstractKunde kunde(Long id) {
+		final AbstractKunde kunde = new Privatkunde();
+		kunde.setId(id);
+		return kunde;
+	}
+
+	private static TransactionSynchronizationRegistry tsr(final Object transactionKey) {
+		return (TransactionSynchronizationRegistry) Proxy.newProxyInstance(
+				TransactionSynchronizationRegistry.class.getClassLoader(),
+				new Class<?>[] { TransactionSynchronizationRegistry.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						if ("getTransactionKey".equals(method.getName())) {
+							return transactionKey;
+						}
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	/**
+	 * Methoden, deren Aufrufe zusammengefasst werden
+	 */
+	public interface KundeQuelle {
+		AbstractKunde findKundeById(Long id);
+		List<AbstractKunde> findKundenByIdPrefix(Long id);
+	}
+
+	/**
+	 * Nachgebildeter Aufruf: proceed() zaehlt den Ladevorgang und wartet auf die Freigabe durch den Test
+	 */
+	private final class Aufruf implements InvocationContext {
+		private final Method method;
+		private Object[] parameters;
+		private final Callable<Object> laden;
+		private final Map<String, Object> contextData = new HashMap<>();
+
+		Aufruf(Method method, Object[] parameters, Callable<Object> laden) {
+			this.method = method;
+			this.parameters = parameters;
+			this.laden = laden;
+		}
+
+		@Override
+		public Object proceed() throws Exception {
+			ladevorgaenge.incrementAndGet();
+			if (!freigabe.await(TIMEOUT_SEKUNDEN, TimeUnit.SECONDS)) {
+				throw new IllegalStateException("Keine Freigabe");
+			}
+			return laden.call();
+		}
+
+		@Override
+		public Object getTarget() {
+			return null;
+		}
+
+		@Override
+		public Object getTimer() {
+			return null;
+		}
+
+		@Override
+		public Method getMethod() {
+			return method;
+		}
+
+		@Override
+		public Constructor<?> getConstructor() {
+			return null;
+		}
+
+		@Override
+		public Object[] getParameters() {
+			return parameters;
+		}
+
+		@Override
+		public void setParameters(Object[] params) {
+			parameters = params;
+		}
+
+		@Override
+		public Map<String, Object> getContextData() {
+			return contextData;
+		}
+	}
+}
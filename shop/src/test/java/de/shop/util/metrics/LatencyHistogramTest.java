@@ -0,0 +1,141 @@
+package de.shop.util.metrics;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandles;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+
+/**
+ * LatencyHistogram ohne Container: Bucket-Grenzen, Perzentile, leeres Histogramm und letzter Bucket.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class LatencyHistogramTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	// 61 Zweierpotenzen mit je 8 Teilbereichen
+	private static final int LETZTER_BUCKET = 61 * 8 - 1;
+
+	@Test
+	public void bucketGrenzen() {
+		LOGGER.finer("BEGINN");
+
+		// Werte unter 8 haben je einen eigenen Bucket
+		for (int wert = 0; wert < 8; wert++) {
+			assertThat(LatencyHistogram.index(wert)).isEqualTo(wert);
+			assertThat(LatencyHistogram.upperBound(wert)).isEqualTo(wert);
+		}
+
+		// [8, 16) in Schritten von 1, [16, 32) in Schritten von 2, [1024, 2048) in Schritten von 128
+		assertThat(LatencyHistogram.index(8)).isEqualTo(8);
+		assertThat(LatencyHistogram.index(15)).isEqualTo(15);
+		assertThat(LatencyHistogram.index(16)).isEqualTo(16);
+		assertThat(LatencyHistogram.index(17)).isEqualTo(16);
+		assertThat(LatencyHistogram.index(18)).isEqualTo(17);
+		assertThat(LatencyHistogram.upperBound(16)).isEqualTo(17);
+		assertThat(LatencyHistogram.index(1024)).isEqualTo(LatencyHistogram.index(1151));
+		assertThat(LatencyHistogram.index(1152)).isEqualTo(LatencyHistogram.index(1151) + 1);
+
+		// Jeder Wert liegt unterhalb der Obergrenze seines Buckets und oberhalb der des vorigen Buckets
+		for (long wert = 1; wert > 0 && wert < Long.MAX_VALUE / 3; wert = wert * 3 + 1) {
+			final int index = LatencyHistogram.index(wert);
+			assertThat(LatencyHistogram.upperBound(index)).as(String.valueOf(wert)).isGreaterThanOrEqualTo(wert);
+			assertThat(LatencyHistogram.upperBound(index - 1)).as(String.valueOf(wert)).isLessThan(wert);
+		}
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void perzentile() {
+		LOGGER.finer("BEGINN");
+
+		// Given: die Werte 1 bis 100, jeweils einmal
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (long wert = 1; wert <= 100; wert++) {
+			histogram.record(wert);
+		}
+
+		// When
+		final long[] perzentile = histogram.getPercentiles(0.0, 50.0, 99.0, 100.0);
+
+		// Then: Obergrenze des jeweiligen Buckets, hoechstens 12,5 % ueber dem exakten Wert
+		assertThat(perzentile[0]).isEqualTo(1);
+		assertThat(perzentile[1]).isEqualTo(LatencyHistogram.upperBound(LatencyHistogram.index(50)));
+		assertThat(perzentile[1]).isGreaterThanOrEqualTo(50).isLessThanOrEqualTo(56);
+		// Bucket [96, 103], begrenzt auf das Maximum
+		assertThat(LatencyHistogram.upperBound(LatencyHistogram.index(99))).isEqualTo(103);
+		assertThat(perzentile[2]).isEqualTo(100);
+		// nie ueber dem tatsaechlichen Maximum
+		assertThat(perzentile[3]).isEqualTo(100);
+
+		assertThat(histogram.getCount()).isEqualTo(100);
+		assertThat(histogram.getSum()).isEqualTo(5050);
+		assertThat(histogram.getMean()).isEqualTo(50);
+		assertThat(histogram.getMax()).isEqualTo(100);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void leer() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+		// When
+		final long[] perzentile = histogram.getPercentiles(0.0, 50.0, 99.0, 100.0);
+
+		// Then
+		assertThat(perzentile).isEqualTo(new long[] { 0, 0, 0, 0 });
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getMean()).isZero();
+		assertThat(histogram.getMax()).isZero();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void reset() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(42);
+
+		// When
+		histogram.reset();
+
+		// Then
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getSum()).isZero();
+		assertThat(histogram.getPercentiles(100.0)).isEqualTo(new long[] { 0 });
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void letzterBucket() {
+		LOGGER.finer("BEGINN");
+
+		// Given: der groesste Wert landet im letzten Bucket, negative Werte im ersten
+		assertThat(LatencyHistogram.index(Long.MAX_VALUE)).isEqualTo(LETZTER_BUCKET);
+		assertThat(LatencyHistogram.upperBound(LETZTER_BUCKET)).isEqualTo(Long.MAX_VALUE);
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+		// When
+		histogram.record(Long.MAX_VALUE);
+		histogram.record(-1);
+
+		// Then
+		assertThat(histogram.getMax()).isEqualTo(Long.MAX_VALUE);
+		final long[] perzentile = histogram.getPercentiles(50.0, 100.0);
+		assertThat(perzentile[0]).isZero();
+		assertThat(perzentile[1]).isEqualTo(Long.MAX_VALUE);
+
+		LOGGER.finer("ENDE");
+	}
+}
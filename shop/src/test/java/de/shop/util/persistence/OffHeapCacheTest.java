@@ -0,0 +1,188 @@
+package de.shop.util.persistence;
+
+import static de.shop.util.persistence.OffHeapCache.BLOCK_GROESSE;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import de.shop.util.persistence.OffHeapCache.Eintrag;
+
+
+/**
+ * OffHeapCache ohne Container: LRU-Reihenfolge, Schutz gegen Verdraengung, Ersetzen und Groessenlimit.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class OffHeapCacheTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	// Ein Eintrag darf hoechstens ein Viertel belegen, d.h. 1 bzw. 2 Bloecke
+	private static final int BLOECKE_KLEIN = 4;
+	private static final int BLOECKE_GROSS = 8;
+	private static final int MAX_EINTRAG_GROSS = BLOECKE_GROSS / 4 * BLOCK_GROESSE;
+
+	@Test
+	public void lruReihenfolge() throws IOException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final OffHeapCache<String> cache = new OffHeapCache<>(BLOECKE_KLEIN * BLOCK_GROESSE);
+		for (String key : new String[] { "a", "b", "c", "d" }) {
+			cache.put(key, daten(BLOCK_GROESSE, key)).release();
+		}
+		// "a" lesen, damit "b" der am laengsten nicht gelesene Eintrag ist
+		cache.get("a").release();
+
+		// When
+		cache.put("e", daten(BLOCK_GROESSE, "e")).release();
+
+		// Then
+		assertThat(cache.getEvictions()).isEqualTo(1);
+		assertThat(cache.get("b")).isNull();
+		for (String key : new String[] { "a", "c", "d", "e" }) {
+			final Eintrag eintrag = cache.get(key);
+			assertThat(eintrag).as(key).isNotNull();
+			assertThat(lesen(eintrag)).isEqualTo(daten(BLOCK_GROESSE, key));
+			eintrag.release();
+		}
+		assertThat(cache.getSize()).isEqualTo(BLOECKE_KLEIN);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void verdraengtWaehrendGeschuetzt() throws IOException {
+		LOGGER.finer("BEGINN");
+
+		// Given: "a" ist der am laengsten nicht gelesene Eintrag, wird aber noch gelesen
+		final OffHeapCache<String> cache = new OffHeapCache<>(BLOECKE_KLEIN * BLOCK_GROESSE);
+		final Eintrag a = cache.put("a", daten(BLOCK_GROESSE, "a"));
+		for (String key : new String[] { "b", "c", "d" }) {
+			cache.put(key, daten(BLOCK_GROESSE, key)).release();
+		}
+
+		// When
+		final Eintrag e = cache.put("e", daten(BLOCK_GROESSE, "e"));
+
+		// Then
+		// "a" wird verdraengt, belegt aber seine Bloecke weiter; deshalb muss auch "b" weichen
+		assertThat(e).isNotNull();
+		assertThat(cache.getEvictions()).isEqualTo(2);
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.get("b")).isNull();
+		assertThat(lesen(a)).isEqualTo(daten(BLOCK_GROESSE, "a"));
+		assertThat(cache.getUsedBytes()).isEqualTo(BLOECKE_KLEIN * BLOCK_GROESSE);
+
+		a.release();
+		assertThat(cache.getUsedBytes()).isEqualTo((BLOECKE_KLEIN - 1) * BLOCK_GROESSE);
+		e.release();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void alleGeschuetzt() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final OffHeapCache<String> cache = new OffHeapCache<>(BLOECKE_KLEIN * BLOCK_GROESSE);
+		final Eintrag[] eintraege = new Eintrag[BLOECKE_KLEIN];
+		for (int i = 0; i < BLOECKE_KLEIN; i++) {
+			eintraege[i] = cache.put(String.valueOf(i), daten(BLOCK_GROESSE, String.valueOf(i)));
+		}
+
+		// When
+		final Eintrag neu = cache.put("neu", daten(BLOCK_GROESSE, "neu"));
+
+		// Then: kein Block ist frei, bis die geschuetzten Eintraege freigegeben werden
+		assertThat(neu).isNull();
+		assertThat(cache.getUsedBytes()).isEqualTo(BLOECKE_KLEIN * BLOCK_GROESSE);
+		for (Eintrag eintrag : eintraege) {
+			eintrag.release();
+		}
+		assertThat(cache.getUsedBytes()).isZero();
+		assertThat(cache.put("neu", daten(BLOCK_GROESSE, "neu"))).isNotNull();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void ersetzen() throws IOException {
+		LOGGER.finer("BEGINN");
+
+		// Given: die alte Version wird noch gelesen
+		final OffHeapCache<String> cache = new OffHeapCache<>(BLOECKE_KLEIN * BLOCK_GROESSE);
+		final Eintrag alt = cache.put("a", daten(BLOCK_GROESSE, "alt"));
+
+		// When
+		cache.put("a", daten(BLOCK_GROESSE, "neu")).release();
+
+		// Then
+		assertThat(cache.getSize()).isEqualTo(1);
+		assertThat(cache.getEvictions()).isZero();
+		final Eintrag neu = cache.get("a");
+		assertThat(lesen(neu)).isEqualTo(daten(BLOCK_GROESSE, "neu"));
+		neu.release();
+		assertThat(lesen(alt)).isEqualTo(daten(BLOCK_GROESSE, "alt"));
+		assertThat(cache.getUsedBytes()).isEqualTo(2 * BLOCK_GROESSE);
+
+		alt.release();
+		assertThat(cache.getUsedBytes()).isEqualTo(BLOCK_GROESSE);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void groessenlimit() throws IOException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final OffHeapCache<String> cache = new OffHeapCache<>(BLOECKE_GROSS * BLOCK_GROESSE + BLOCK_GROESSE / 2);
+
+		// When
+		final Eintrag zuGross = cache.put("zuGross", daten(MAX_EINTRAG_GROSS + 1, "zuGross"));
+		final Eintrag maximal = cache.put("maximal", daten(MAX_EINTRAG_GROSS, "maximal"));
+
+		// Then
+		// Auf volle Bloecke abgerundet
+		assertThat(cache.getMaxBytes()).isEqualTo(BLOECKE_GROSS * BLOCK_GROESSE);
+		assertThat(zuGross).isNull();
+		assertThat(maximal).isNotNull();
+		assertThat(maximal.getLaenge()).isEqualTo(MAX_EINTRAG_GROSS);
+		// Ueber mehrere Bloecke verteilt
+		assertThat(lesen(maximal)).isEqualTo(daten(MAX_EINTRAG_GROSS, "maximal"));
+		assertThat(cache.getUsedBytes()).isEqualTo(MAX_EINTRAG_GROSS);
+		maximal.release();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void kleinerAlsEinBlock() {
+		LOGGER.finer("BEGINN");
+
+		new OffHeapCache<String>(BLOCK_GROESSE - 1);
+	}
+
+	/**
+	 * Daten, die sich fuer verschiedene Schluessel und Positionen unterscheiden
+	 */
+	private static byte[] daten(int laenge, String key) {
+		final byte[] bytes = new byte[laenge];
+		final int basis = key.hashCode();
+		for (int i = 0; i < laenge; i++) {
+			bytes[i] = (byte) (basis + i * 31);
+		}
+		return bytes;
+	}
+
+	private static byte[] lesen(Eintrag eintrag) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(eintrag.getLaenge());
+		eintrag.writeTo(out);
+		return out.toByteArray();
+	}
+}
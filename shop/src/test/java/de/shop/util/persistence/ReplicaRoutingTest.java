@@ -0,0 +1,268 @@
+package de.shop.util.persistence;
+
+import static de.shop.util.persistence.EntityManagerProducer.REPLICA_PERSISTENCE_UNIT;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import javax.transaction.UserTransaction;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.kundenverwaltung.service.KundeService;
+import de.shop.util.ArchiveBuilder;
+
+
+/**
+ * Verteilung der Lesezugriffe auf die Replica-Datenbank. Die Tests laufen nicht in einer umschliessenden
+ * Transaktion, weil Methoden mit {@link de.shop.util.interceptor.ReadOnly} innerhalb einer Transaktion
+ * immer die Primaer-Datenbank verwenden. Jeder Test simuliert mit {@link ReplicaRouting#begin()} einen Request.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@RunWith(Arquillian.class)
+public class ReplicaRoutingTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	private static final String PLZ = "76133";
+	private static final Long KUNDE_ID = Long.valueOf(101);
+	private static final String BEMERKUNGEN = "Replica-Test";
+	private static final String UPDATE_BEMERKUNGEN = "UPDATE AbstractKunde k SET k.bemerkungen = :bemerkungen"
+			                                         + " WHERE k.id = :id";
+	private static final String UPDATE_NATIV = "UPDATE kunde SET bemerkungen = NULL WHERE id = -1";
+
+	@Inject
+	private KundeService ks;
+
+	@Inject
+	private EntityManager em;
+
+	@Inject
+	private UserTransaction trans;
+
+	@PersistenceUnit(unitName = REPLICA_PERSISTENCE_UNIT)
+	private EntityManagerFactory replicaEmf;
+
+	private Statistics replicaStatistics;
+	private boolean statisticsEnabled;
+
+	@Deployment(name = ArchiveBuilder.TEST_WAR)  // Tests laufen im Container
+	protected static Archive<?> deployment() {
+		return ArchiveBuilder.getInstance().getArchiveMitTestklassen();
+	}
+
+	@Before
+	public void before() {
+		replicaStatistics = replicaEmf.unwrap(SessionFactory.class).getStatistics();
+		statisticsEnabled = replicaStatistics.isStatisticsEnabled();
+		replicaStatistics.setStatisticsEnabled(true);
+		ReplicaRouting.begin();
+	}
+
+	@After
+	public void after() {
+		ReplicaRouting.end();
+		replicaStatistics.setStatisticsEnabled(statisticsEnabled);
+	}
+
+	@Test
+	public void readOnlyVonReplica() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final long statements = replicaStatistics.getPrepareStatementCount();
+
+		// When
+		final List<AbstractKunde> kunden = ks.findKundenByPLZ(PLZ);
+
+		// Then
+		assertThat(kunden).isNotEmpty();
+		assertThat(replicaStatistics.getPrepareStatementCount()).isGreaterThan(statements);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void readOnlyOhneRequestVonPrimaer() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		ReplicaRouting.end();
+		final long statements = replicaStatistics.getPrepareStatementCount();
+
+		// When
+		final List<AbstractKunde> kunden = ks.findKundenByPLZ(PLZ);
+
+		// Then
+		assertThat(kunden).isNotEmpty();
+		assertThat(replicaStatistics.getPrepareStatementCount()).isEqualTo(statements);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void readOnlyInTransaktionVonPrimaer() throws Exception {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final long statements = replicaStatistics.getPrepareStatementCount();
+
+		// When
+		trans.begin();
+		try {
+			ks.findKundenByPLZ(PLZ);
+		}
+		finally {
+			trans.rollback();
+		}
+
+		// Then
+		assertThat(replicaStatistics.getPrepareStatementCount()).isEqualTo(statements);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void nachCommitVonPrimaer() throws Exception {
+		LOGGER.finer("BEGINN");
+
+		// Given: auch native Anweisungen z.B. ueber die Hibernate-Session werden erkannt
+		trans.begin();
+		em.createNativeQuery(UPDATE_NATIV).executeUpdate();
+		trans.commit();
+		final long statements = replicaStatistics.getPrepareStatementCount();
+
+		// When
+		ks.findKundenByPLZ(PLZ);
+
+		// Then
+		assertThat(replicaStatistics.getPrepareStatementCount()).isEqualTo(statements);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void nachRollbackVonReplica() throws Exception {
+		LOGGER.finer("BEGINN");
+
+		// Given: setParameter liefert die Query fuer verkettete Aufrufe
+		trans.begin();
+		try {
+			em.createQuery(UPDATE_BEMERKUNGEN)
+			  .setParameter("bemerkungen", BEMERKUNGEN)
+			  .setParameter("id", KUNDE_ID)
+			  .executeUpdate();
+		}
+		finally {
+			trans.rollback();
+		}
+		final long statements = replicaStatistics.getPrepareStatementCount();
+
+		// When
+		ks.findKundenByPLZ(PLZ);
+
+		// Then
+		assertThat(replicaStatistics.getPrepareStatementCount()).isGreaterThan(statements);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void nachUnwrapVonReplica() {
+		LOGGER.finer("BEGINN");
+
+		// Given: unwrap() und getDelegate() sind Lesezugriffe
+		assertThat(em.unwrap(Session.class)).isNotNull();
+		assertThat(em.getDelegate()).isNotNull();
+		final long statements = replicaStatistics.getPrepareStatementCount();
+
+		// When
+		ks.findKundenByPLZ(PLZ);
+
+		// Then
+		assertThat(replicaStatistics.getPrepareStatementCount()).isGreaterThan(statements);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void lazyNachladenVonReplica() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final AbstractKunde kunde = find(ks.findKundenByPLZ(PLZ), KUNDE_ID);
+		assertThat(kunde).isNotNull();
+		final long statements = replicaStatistics.getPrepareStatementCount();
+
+		// When: der EntityManager der Replica ist bis zum Ende des Requests geoeffnet
+		final int anzahlBestellungen = kunde.getBestellungen().size();
+
+		// Then
+		assertThat(anzahlBestellungen).isGreaterThan(0);
+		assertThat(replicaStatistics.getPrepareStatementCount()).isGreaterThan(statements);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void replicaEnthaeltGeschriebeneDaten() throws Exception {
+		LOGGER.finer("BEGINN");
+
+		// Given: Aenderung in einem vorherigen Request
+		trans.begin();
+		em.createQuery(UPDATE_BEMERKUNGEN)
+		  .setParameter("bemerkungen", BEMERKUNGEN)
+		  .setParameter("id", KUNDE_ID)
+		  .executeUpdate();
+		trans.commit();
+
+		try {
+			ReplicaRouting.begin();
+			final long statements = replicaStatistics.getPrepareStatementCount();
+
+			// When
+			final List<AbstractKunde> kunden = ks.findKundenByPLZ(PLZ);
+
+			// Then
+			assertThat(replicaStatistics.getPrepareStatementCount()).isGreaterThan(statements);
+			final AbstractKunde kunde = find(kunden, KUNDE_ID);
+			assertThat(kunde).isNotNull();
+			assertThat(kunde.getBemerkungen()).isEqualTo(BEMERKUNGEN);
+		}
+		finally {
+			// Testdaten fuer die nachfolgenden Tests wiederherstellen
+			trans.begin();
+			em.createQuery(UPDATE_BEMERKUNGEN)
+			  .setParameter("bemerkungen", null)
+			  .setParameter("id", KUNDE_ID)
+			  .executeUpdate();
+			trans.commit();
+		}
+
+		LOGGER.finer("ENDE");
+	}
+
+	private static AbstractKunde find(List<AbstractKunde> kunden, Long id) {
+		for (AbstractKunde kunde : kunden) {
+			if (id.equals(kunde.getId())) {
+				return kunde;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,121 @@
+package de.shop.util.persistence;
+
+import static de.shop.util.persistence.SlowQueryStatistics.MAX_SLOW_QUERIES;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import de.shop.util.metrics.SlowQuerySnapshot;
+
+
+/**
+ * Protokollierung langsamer Queries ohne Session Factory: Hibernate wuerde queryExecuted() nach jeder Query mit
+ * deren Dauer in Millisekunden aufrufen.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class SlowQueryStatisticsTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	private static final long SCHWELLE_MILLIS = 200;
+	private static final String QUERY = "SELECT k FROM AbstractKunde k WHERE k.id = :id";
+	private static final String QUERY_PREFIX = "SELECT b FROM Bestellung b WHERE b.id = ";
+	private static final int ROWS = 3;
+	private static final int UEBERZAEHLIGE = 5;
+
+	@Test
+	public void schwelle() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final SlowQueryStatistics stats = new SlowQueryStatistics(null, SCHWELLE_MILLIS);
+
+		// When
+		stats.queryExecuted(QUERY, ROWS, SCHWELLE_MILLIS - 1);
+		stats.queryExecuted(QUERY, ROWS, SCHWELLE_MILLIS);
+		stats.queryExecuted(QUERY, ROWS, SCHWELLE_MILLIS + 1);
+
+		// Then
+		// Ab der Schwelle einschliesslich, die neueste zuerst; gezaehlt werden alle Queries
+		final List<SlowQuerySnapshot> slowQueries = stats.getSlowQueries();
+		assertThat(slowQueries).hasSize(2);
+		assertThat(slowQueries.get(0).getMillis()).isEqualTo(SCHWELLE_MILLIS + 1);
+		assertThat(slowQueries.get(1).getMillis()).isEqualTo(SCHWELLE_MILLIS);
+		assertThat(slowQueries.get(0).getQuery()).isEqualTo(QUERY);
+		assertThat(slowQueries.get(0).getRows()).isEqualTo(ROWS);
+		assertThat(slowQueries.get(0).getTimestamp()).isNotNull();
+		assertThat(stats.getQueryExecutionCount()).isEqualTo(3);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void schwelleAendern() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final SlowQueryStatistics stats = new SlowQueryStatistics(null, SCHWELLE_MILLIS);
+
+		// When
+		stats.setSchwelleMillis(0);
+		stats.queryExecuted(QUERY, ROWS, 0);
+
+		// Then
+		assertThat(stats.getSchwelleMillis()).isZero();
+		assertThat(stats.getSlowQueries()).hasSize(1);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void schwelleNegativ() {
+		LOGGER.finer("BEGINN");
+		new SlowQueryStatistics(null, SCHWELLE_MILLIS).setSchwelleMillis(-1);
+	}
+
+	@Test
+	public void ringpuffer() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final SlowQueryStatistics stats = new SlowQueryStatistics(null, SCHWELLE_MILLIS);
+
+		// When
+		final int anzahl = MAX_SLOW_QUERIES + UEBERZAEHLIGE;
+		for (int i = 0; i < anzahl; i++) {
+			stats.queryExecuted(QUERY_PREFIX + i, ROWS, SCHWELLE_MILLIS);
+		}
+
+		// Then
+		// Die aeltesten Queries werden verdraengt, die neueste steht vorne
+		final List<SlowQuerySnapshot> slowQueries = stats.getSlowQueries();
+		assertThat(slowQueries).hasSize(MAX_SLOW_QUERIES);
+		assertThat(slowQueries.get(0).getQuery()).isEqualTo(QUERY_PREFIX + (anzahl - 1));
+		assertThat(slowQueries.get(MAX_SLOW_QUERIES - 1).getQuery()).isEqualTo(QUERY_PREFIX + UEBERZAEHLIGE);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void clear() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final SlowQueryStatistics stats = new SlowQueryStatistics(null, SCHWELLE_MILLIS);
+		stats.queryExecuted(QUERY, ROWS, SCHWELLE_MILLIS);
+
+		// When
+		stats.clear();
+
+		// Then
+		// Die Schwelle bleibt erhalten
+		assertThat(stats.getSlowQueries()).isEmpty();
+		assertThat(stats.getQueryExecutionCount()).isZero();
+		assertThat(stats.getSchwelleMillis()).isEqualTo(SCHWELLE_MILLIS);
+
+		LOGGER.finer("ENDE");
+	}
+}
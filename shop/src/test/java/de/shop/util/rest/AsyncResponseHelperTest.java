@@ -0,0 +1,464 @@
+package de.shop.util.rest;
+
+import static de.shop.util.rest.AsyncResponseHelper.RETRY_AFTER_SEKUNDEN;
+import static de.shop.util.rest.AsyncResponseHelper.Pool.BESTELLUNGEN;
+import static de.shop.util.rest.AsyncResponseHelper.Pool.LISTEN;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.TimeoutHandler;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import de.shop.artikelverwaltung.domain.Artikel;
+import de.shop.bestellverwaltung.domain.Bestellposition;
+import de.shop.bestellverwaltung.domain.Bestellung;
+import de.shop.bestellverwaltung.service.BestellungService;
+import de.shop.bestellverwaltung.service.BestellungTestdaten;
+import de.shop.kundenverwaltung.domain.AbstractKunde;
+import de.shop.util.ArchiveBuilder;
+
+
+/**
+ * Ausfuehrung suspendierter Requests in den Pools von AsyncResponseHelper. Statt eines echten Requests wird
+ * eine AsyncResponse verwendet, die nur aufzeichnet; cancel(RETRY_AFTER_SEKUNDEN) entspricht dem Status 503
+ * mit dem Header "Retry-After", cancel() dem Status 503 ohne "Retry-After". Die Tests laufen nicht in einer
+ * umschliessenden Transaktion, damit sichtbar ist, was die Transaktion im Pool committet.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@RunWith(Arquillian.class)
+public class AsyncResponseHelperTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	private static final Long KUNDE_ID = Long.valueOf(121);
+	private static final Long ARTIKEL_ID = Long.valueOf(300);
+	private static final long TIMEOUT_MILLIS = 10000;
+	// Obergrenze fuer Aufgaben, bis der Pool LISTEN voll sein muss
+	private static final int MAX_AUFGABEN = 1000;
+
+	@Inject
+	private AsyncResponseHelper asyncResponseHelper;
+
+	@Inject
+	private BestellungService bs;
+
+	@Inject
+	private BestellungTestdaten testdaten;
+
+	@Inject
+	private EntityManager em;
+
+	@Deployment(name = ArchiveBuilder.TEST_WAR)  // Tests laufen im Container
+	protected static Archive<?> deployment() {
+		return ArchiveBuilder.getInstance().getArchiveMitTestklassen();
+	}
+
+	@Test
+	public void poolVoll() throws InterruptedException {
+		LOGGER.finer("BEGINN");
+
+		// Given: alle Threads und Plaetze in der Warteschlange sind durch blockierte Aufgaben belegt
+		final CountDownLatch freigabe = new CountDownLatch(1);
+		final Callable<String> blockiert = new Callable<String>() {
+			@Override
+			public String call() throws InterruptedException {
+				freigabe.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+				return "";
+			}
+		};
+		final List<AufzeichnendeResponse> angenommen = new ArrayList<>();
+		AufzeichnendeResponse abgewiesen = null;
+
+		try {
+			// When
+			for (int i = 0; i < MAX_AUFGABEN && abgewiesen == null; i++) {
+				final AufzeichnendeResponse response = new AufzeichnendeResponse();
+				asyncResponseHelper.execute(response, LISTEN, TIMEOUT_MILLIS, blockiert);
+				if (response.retryAfter == null) {
+					angenommen.add(response);
+				}
+				else {
+					abgewiesen = response;
+				}
+			}
+		}
+		finally {
+			freigabe.countDown();
+		}
+
+		// Then
+		assertThat(abgewiesen).isNotNull();
+		assertThat(abgewiesen.retryAfter).isEqualTo(RETRY_AFTER_SEKUNDEN);
+		assertThat(abgewiesen.ergebnis).isNull();
+		// Die angenommenen Aufgaben werden nach der Freigabe noch ausgefuehrt
+		for (AufzeichnendeResponse response : angenommen) {
+			assertThat(response.await()).isTrue();
+			assertThat(response.ergebnis).isEqualTo("");
+			assertThat(response.retryAfter).isNull();
+		}
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void timeout() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final AufzeichnendeResponse response = new AufzeichnendeResponse();
+		asyncResponseHelper.execute(response, LISTEN, TIMEOUT_MILLIS, new Callable<String>() {
+			@Override
+			public String call() {
+				return "";
+			}
+		});
+		assertThat(response.await()).isTrue();
+
+		// When: der Container ruft nach Ablauf des Timeouts den TimeoutHandler auf
+		response.timeoutHandler.handleTimeout(response);
+
+		// Then
+		assertThat(response.timeoutMillis).isEqualTo(TIMEOUT_MILLIS);
+		assertThat(response.retryAfter).isEqualTo(RETRY_AFTER_SEKUNDEN);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void executeTransactionalCommit() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final AufzeichnendeResponse response = new AufzeichnendeResponse();
+
+		// When
+		asyncResponseHelper.executeTransactional(response, BESTELLUNGEN, TIMEOUT_MILLIS, new Callable<Long>() {
+			@Override
+			public Long call() {
+				return createBestellung().getId();
+			}
+		});
+
+		// Then
+		assertThat(response.await()).isTrue();
+		assertThat(response.ergebnis).isInstanceOf(Long.class);
+		final Long id = (Long) response.ergebnis;
+		try {
+			// Ausserhalb der Transaktion des Pools sichtbar, d.h. committet
+			em.clear();
+			assertThat(em.find(Bestellung.class, id)).isNotNull();
+		}
+		finally {
+			testdaten.deleteBestellungen(Arrays.asList(id));
+		}
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void executeTransactionalException() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final AufzeichnendeResponse response = new AufzeichnendeResponse();
+		final AtomicReference<Long> bestellungId = new AtomicReference<>();
+		final IllegalStateException exception = new IllegalStateException("Test");
+
+		// When
+		asyncResponseHelper.executeTransactional(response, BESTELLUNGEN, TIMEOUT_MILLIS, new Callable<Long>() {
+			@Override
+			public Long call() {
+				final Bestellung bestellung = createBestellung();
+				em.flush();
+				bestellungId.set(bestellung.getId());
+				throw exception;
+			}
+		});
+
+		// Then: die Exception geht an die ExceptionMapper, die Transaktion wurde zurueckgerollt
+		assertThat(response.await()).isTrue();
+		assertThat(response.ergebnis).isSameAs(exception);
+		assertThat(bestellungId.get()).isNotNull();
+		em.clear();
+		assertThat(em.find(Bestellung.class, bestellungId.get())).isNull();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void executeTransactionalTimeout() throws InterruptedException {
+		LOGGER.finer("BEGINN");
+
+		// Given: die Bestellung ist angelegt und geflusht, die Transaktion aber noch nicht committet
+		final AufzeichnendeResponse response = new AufzeichnendeResponse();
+		final AtomicReference<Long> bestellungId = new AtomicReference<>();
+		final CountDownLatch gestartet = new CountDownLatch(1);
+		final CountDownLatch freigabe = new CountDownLatch(1);
+		asyncResponseHelper.executeTransactional(response, BESTELLUNGEN, TIMEOUT_MILLIS, new Callable<Long>() {
+			@Override
+			public Long call() throws InterruptedException {
+				final Bestellung bestellung = createBestellung();
+				em.flush();
+				bestellungId.set(bestellung.getId());
+				gestartet.countDown();
+				freigabe.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+				return bestellung.getId();
+			}
+		});
+		assertThat(gestartet.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+
+		// When: der Container ruft den TimeoutHandler auf, waehrend die Transaktion noch laeuft
+		response.timeoutHandler.handleTimeout(response);
+		final boolean beantwortetVorRollback = response.isDone();
+		freigabe.countDown();
+
+		// Then: erst nach dem Rollback 503 ohne "Retry-After", d.h. eine Wiederholung legt keine 2. Bestellung an
+		assertThat(beantwortetVorRollback).isFalse();
+		assertThat(response.await()).isTrue();
+		assertThat(response.isCancelled()).isTrue();
+		assertThat(response.retryAfter).isNull();
+		assertThat(response.ergebnis).isNull();
+		assertThat(bestellungId.get()).isNotNull();
+		em.clear();
+		assertThat(em.find(Bestellung.class, bestellungId.get())).isNull();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void abbruchVorStart() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final AsyncResponseHelper.Abbruch abbruch = new AsyncResponseHelper.Abbruch(null);
+
+		// When
+		final boolean sofort = abbruch.abbrechen();
+
+		// Then: eine noch wartende Aufgabe wird nicht mehr gestartet
+		assertThat(sofort).isTrue();
+		assertThat(abbruch.starten()).isFalse();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void abbruchNachCommit() {
+		LOGGER.finer("BEGINN");
+
+		// Given: der Commit hat bereits begonnen
+		final AsyncResponseHelper.Abbruch abbruch = new AsyncResponseHelper.Abbruch(null);
+		assertThat(abbruch.starten()).isTrue();
+		abbruch.beforeCompletion();
+
+		// When
+		final boolean sofort = abbruch.abbrechen();
+
+		// Then: auf das Ergebnis des Commits warten und damit antworten
+		assertThat(sofort).isFalse();
+		assertThat(abbruch.isAbgebrochen()).isFalse();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void closeableNachAbschluss() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final AufzeichnendeResponse response = new AufzeichnendeResponse();
+		final AtomicBoolean geschlossen = new AtomicBoolean();
+
+		// When
+		asyncResponseHelper.execute(response, LISTEN, TIMEOUT_MILLIS, new Callable<Closeable>() {
+			@Override
+			public Closeable call() {
+				return closeable(geschlossen);
+			}
+		});
+
+		// Then: erst nach Abschluss der Response geschlossen, auch wenn der Rumpf nicht geschrieben wurde
+		assertThat(response.await()).isTrue();
+		assertThat(geschlossen.get()).isFalse();
+		assertThat(response.callbacks).hasSize(1);
+		response.callbacks.get(0).onComplete(null);
+		assertThat(geschlossen.get()).isTrue();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void closeableNachTimeout() {
+		LOGGER.finer("BEGINN");
+
+		// Given: die Response wurde durch ein Timeout bereits abgeschlossen
+		final AufzeichnendeResponse response = new AufzeichnendeResponse();
+		response.abgeschlossen = true;
+		final AtomicBoolean geschlossen = new AtomicBoolean();
+
+		// When
+		asyncResponseHelper.execute(response, LISTEN, TIMEOUT_MILLIS, new Callable<Closeable>() {
+			@Override
+			public Closeable call() {
+				return closeable(geschlossen);
+			}
+		});
+
+		// Then
+		assertThat(response.await()).isTrue();
+		assertThat(geschlossen.get()).isTrue();
+
+		LOGGER.finer("ENDE");
+	}
+
+	private static Closeable closeable(final AtomicBoolean geschlossen) {
+		return new Closeable() {
+			@Override
+			public void close() {
+				geschlossen.set(true);
+			}
+		};
+	}
+
+	private Bestellung createBestellung() {
+		final AbstractKunde kunde = em.find(AbstractKunde.class, KUNDE_ID);
+		final Bestellung bestellung = new Bestellung();
+		bestellung.addBestellposition(new Bestellposition(em.find(Artikel.class, ARTIKEL_ID)));
+		return bs.createBestellung(bestellung, kunde);
+	}
+
+	/**
+	 * AsyncResponse, die das Ergebnis bzw. den Abbruch nur aufzeichnet
+	 */
+	private static final class AufzeichnendeResponse implements AsyncResponse {
+		private final CountDownLatch fertig = new CountDownLatch(1);
+		private final List<CompletionCallback> callbacks = new CopyOnWriteArrayList<>();
+		// resume() liefert false, wie nach einem Timeout
+		private volatile boolean abgeschlossen;
+		private volatile Object ergebnis;
+		private volatile Integer retryAfter;
+		private volatile boolean cancelled;
+		private volatile long timeoutMillis;
+		private volatile TimeoutHandler timeoutHandler;
+
+		AufzeichnendeResponse() {
+			super();
+		}
+
+		boolean await() {
+			try {
+				return fertig.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+
+		@Override
+		public boolean resume(Object response) {
+			ergebnis = response;
+			fertig.countDown();
+			return !abgeschlossen;
+		}
+
+		@Override
+		public boolean resume(Throwable response) {
+			ergebnis = response;
+			fertig.countDown();
+			return true;
+		}
+
+		@Override
+		public boolean cancel() {
+			cancelled = true;
+			fertig.countDown();
+			return true;
+		}
+
+		@Override
+		public boolean cancel(int retryAfterSekunden) {
+			retryAfter = retryAfterSekunden;
+			return cancel();
+		}
+
+		@Override
+		public boolean cancel(Date retryAfterDatum) {
+			return cancel(0);
+		}
+
+		@Override
+		public boolean isSuspended() {
+			return fertig.getCount() > 0;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public boolean isDone() {
+			return fertig.getCount() == 0;
+		}
+
+		@Override
+		public boolean setTimeout(long time, TimeUnit unit) {
+			timeoutMillis = unit.toMillis(time);
+			return true;
+		}
+
+		@Override
+		public void setTimeoutHandler(TimeoutHandler handler) {
+			timeoutHandler = handler;
+		}
+
+		@Override
+		public Collection<Class<?>> register(Class<?> callback) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+			return Collections.emptyMap();
+		}
+
+		@Override
+		public Collection<Class<?>> register(Object callback) {
+			if (callback instanceof CompletionCallback) {
+				callbacks.add((CompletionCallback) callback);
+				return Collections.<Class<?>>singletonList(CompletionCallback.class);
+			}
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+			return Collections.emptyMap();
+		}
+	}
+}
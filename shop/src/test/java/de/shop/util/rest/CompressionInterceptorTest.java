@@ -0,0 +1,214 @@
+package de.shop.util.rest;
+
+import static de.shop.util.rest.CompressionInterceptor.MIN_LENGTH;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.junit.Test;
+
+import de.shop.util.rest.CompressionInterceptor.KomprimierenderStream;
+
+
+/**
+ * CompressionInterceptor ohne Container: Auswertung von "Accept-Encoding" und Schwellwert fuer die Kompression.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class CompressionInterceptorTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	private static final String GZIP = "gzip";
+	private static final String DEFLATE = "deflate";
+
+	@Test
+	public void getEncoding() {
+		LOGGER.finer("BEGINN");
+
+		assertThat(CompressionInterceptor.getEncoding(null)).isNull();
+		assertThat(CompressionInterceptor.getEncoding("")).isNull();
+		assertThat(CompressionInterceptor.getEncoding("identity")).isNull();
+		assertThat(CompressionInterceptor.getEncoding("br")).isNull();
+		assertThat(CompressionInterceptor.getEncoding(GZIP)).isEqualTo(GZIP);
+		assertThat(CompressionInterceptor.getEncoding("x-gzip")).isEqualTo(GZIP);
+		assertThat(CompressionInterceptor.getEncoding("GZip")).isEqualTo(GZIP);
+		assertThat(CompressionInterceptor.getEncoding(DEFLATE)).isEqualTo(DEFLATE);
+
+		// Bei gleicher Gewichtung gzip, sonst das hoeher gewichtete Encoding
+		assertThat(CompressionInterceptor.getEncoding("deflate, gzip")).isEqualTo(GZIP);
+		assertThat(CompressionInterceptor.getEncoding("gzip;q=0.5, deflate")).isEqualTo(DEFLATE);
+		assertThat(CompressionInterceptor.getEncoding("gzip; q=0.8, deflate;q=0.2")).isEqualTo(GZIP);
+		assertThat(CompressionInterceptor.getEncoding("gzip;q=0, deflate;q=0")).isNull();
+		assertThat(CompressionInterceptor.getEncoding("gzip;q=abc")).isNull();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void getEncodingStern() {
+		LOGGER.finer("BEGINN");
+
+		// "*" gilt nur fuer nicht aufgefuehrte Encodings; "identity;q=0" verbietet keine Kompression
+		assertThat(CompressionInterceptor.getEncoding("*")).isEqualTo(GZIP);
+		assertThat(CompressionInterceptor.getEncoding("identity;q=0, *")).isEqualTo(GZIP);
+		assertThat(CompressionInterceptor.getEncoding("gzip;q=0, *")).isEqualTo(DEFLATE);
+		assertThat(CompressionInterceptor.getEncoding("*;q=0")).isNull();
+		assertThat(CompressionInterceptor.getEncoding("deflate, *;q=0")).isEqualTo(DEFLATE);
+		assertThat(CompressionInterceptor.getEncoding("identity, *;q=0")).isNull();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void unterSchwellwert() throws IOException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+		headers.putSingle(CONTENT_LENGTH, MIN_LENGTH - 1);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final KomprimierenderStream komprimierend = new KomprimierenderStream(out, GZIP, headers);
+		final byte[] rumpf = daten(MIN_LENGTH - 1);
+
+		// When
+		komprimierend.write(rumpf, 0, 10);
+		komprimierend.flush();
+		assertThat(out.size()).isZero();
+		komprimierend.write(rumpf, 10, rumpf.length - 10);
+		komprimierend.finish();
+
+		// Then: unveraendert und ohne "Content-Encoding"
+		assertThat(out.toByteArray()).isEqualTo(rumpf);
+		assertThat(headers.containsKey(CONTENT_ENCODING)).isFalse();
+		assertThat(headers.containsKey(CONTENT_LENGTH)).isTrue();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void leer() throws IOException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// When
+		new KomprimierenderStream(out, GZIP, headers).close();
+
+		// Then
+		assertThat(out.size()).isZero();
+		assertThat(headers.containsKey(CONTENT_ENCODING)).isFalse();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void gzip() throws IOException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+		headers.putSingle(CONTENT_LENGTH, MIN_LENGTH * 10);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final KomprimierenderStream komprimierend = new KomprimierenderStream(out, GZIP, headers);
+		final byte[] rumpf = daten(MIN_LENGTH * 10);
+
+		// When: erst einzelne Bytes in den Puffer, dann ueber den Schwellwert
+		for (int i = 0; i < MIN_LENGTH - 1; i++) {
+			komprimierend.write(rumpf[i]);
+		}
+		assertThat(out.size()).isZero();
+		komprimierend.write(rumpf, MIN_LENGTH - 1, rumpf.length - MIN_LENGTH + 1);
+		komprimierend.finish();
+
+		// Then
+		assertThat(headers.getFirst(CONTENT_ENCODING)).isEqualTo(GZIP);
+		assertThat(headers.containsKey(CONTENT_LENGTH)).isFalse();
+		assertThat(out.size()).isLessThan(rumpf.length);
+		assertThat(lesen(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())))).isEqualTo(rumpf);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void deflateAbSchwellwert() throws IOException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final KomprimierenderStream komprimierend = new KomprimierenderStream(out, DEFLATE, headers);
+		final byte[] rumpf = daten(MIN_LENGTH);
+
+		// When
+		komprimierend.write(rumpf);
+		komprimierend.close();
+
+		// Then
+		assertThat(headers.getFirst(CONTENT_ENCODING)).isEqualTo(DEFLATE);
+		assertThat(lesen(new InflaterInputStream(new ByteArrayInputStream(out.toByteArray())))).isEqualTo(rumpf);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test(expected = IOException.class)
+	public void nachFinish() throws IOException {
+		LOGGER.finer("BEGINN");
+		final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+		final KomprimierenderStream komprimierend = new KomprimierenderStream(new ByteArrayOutputStream(), GZIP,
+				                                                              headers);
+		komprimierend.finish();
+		komprimierend.write(1);
+	}
+
+	@Test
+	public void hasStrongEntityTag() {
+		LOGGER.finer("BEGINN");
+
+		final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+		assertThat(CompressionInterceptor.hasStrongEntityTag(headers)).isFalse();
+		headers.putSingle(ETAG, new EntityTag("1-0"));
+		assertThat(CompressionInterceptor.hasStrongEntityTag(headers)).isTrue();
+		headers.putSingle(ETAG, new EntityTag("1-0", true));
+		assertThat(CompressionInterceptor.hasStrongEntityTag(headers)).isFalse();
+		headers.putSingle(ETAG, "\"1-0\"");
+		assertThat(CompressionInterceptor.hasStrongEntityTag(headers)).isTrue();
+		headers.putSingle(ETAG, "W/\"1-0\"");
+		assertThat(CompressionInterceptor.hasStrongEntityTag(headers)).isFalse();
+
+		LOGGER.finer("ENDE");
+	}
+
+	private static byte[] daten(int laenge) {
+		final byte[] daten = new byte[laenge];
+		for (int i = 0; i < laenge; i++) {
+			daten[i] = (byte) ('a' + i % 26);
+		}
+		return daten;
+	}
+
+	private static byte[] lesen(InputStream in) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[MIN_LENGTH];
+		try (final InputStream is = in) {
+			for (int n = is.read(buffer); n >= 0; n = is.read(buffer)) {
+				out.write(buffer, 0, n);
+			}
+		}
+		return out.toByteArray();
+	}
+}
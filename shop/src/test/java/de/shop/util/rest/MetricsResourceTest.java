@@ -0,0 +1,319 @@
+package de.shop.util.rest;
+
+import static de.shop.util.TestConstants.KUNDEN_URI;
+import static de.shop.util.TestConstants.METRICS_HIBERNATE_ENTITIES_URI;
+import static de.shop.util.TestConstants.METRICS_HIBERNATE_QUERIES_URI;
+import static de.shop.util.TestConstants.METRICS_HIBERNATE_REGIONS_URI;
+import static de.shop.util.TestConstants.METRICS_HIBERNATE_SLOWQUERIES_URI;
+import static de.shop.util.TestConstants.METRICS_HIBERNATE_URI;
+import static de.shop.util.TestConstants.PASSWORD;
+import static de.shop.util.TestConstants.PASSWORD_ADMIN;
+import static de.shop.util.TestConstants.USERNAME;
+import static de.shop.util.TestConstants.USERNAME_ADMIN;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
+import static javax.ws.rs.HttpMethod.PUT;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.Response;
+
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.junit.InSequence;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import de.shop.kundenverwaltung.rest.KundeResource;
+import de.shop.util.AbstractResourceTest;
+
+
+/**
+ * Die Endpunkte unter /admin/metrics/hibernate werden als JSON-Objekte bzw. -Arrays geprueft, damit auch die
+ * Namen der Properties abgesichert sind.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+@RunWith(Arquillian.class)
+public class MetricsResourceTest extends AbstractResourceTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	private static final String REPLICA_QUERY_PARAM = "replica";
+	private static final String MILLIS_QUERY_PARAM = "millis";
+	private static final String ENABLED_QUERY_PARAM = "enabled";
+	private static final String PERSISTENCE_UNIT = "shopPU";
+	private static final String REPLICA_PERSISTENCE_UNIT = "shopReplicaPU";
+	private static final String NACHNAME_VORHANDEN = "Alpha";
+	private static final long MILLIS_ALLE = 0;
+	private static final long MILLIS_NEGATIV = -1;
+
+	private static final GenericType<Map<String, Object>> JSON_OBJEKT = new GenericType<Map<String, Object>>() { };
+	private static final GenericType<List<Map<String, Object>>> JSON_ARRAY =
+		new GenericType<List<Map<String, Object>>>() { };
+
+	@Test
+	@InSequence(1)
+	public void findHibernateStatistics() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final boolean[] replicas = { false, true };
+
+		for (boolean replica : replicas) {
+			// When
+			final Response response = admin(METRICS_HIBERNATE_URI).queryParam(REPLICA_QUERY_PARAM, replica)
+			                                                      .request()
+			                                                      .accept(APPLICATION_JSON)
+			                                                      .get();
+
+			// Then
+			assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+			final Map<String, Object> snapshot = response.readEntity(JSON_OBJEKT);
+			assertThat(snapshot.get("persistenceUnit")).isEqualTo(replica ? REPLICA_PERSISTENCE_UNIT
+			                                                               : PERSISTENCE_UNIT);
+			assertThat(snapshot.get("enabled")).isEqualTo(Boolean.TRUE);
+			assertThat(snapshot).containsKey("start")
+			                    .containsKey("slowQueryMillis")
+			                    .containsKey("statements")
+			                    .containsKey("queries");
+		}
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	@InSequence(2)
+	public void findHibernateDetails() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final String[] uris = { METRICS_HIBERNATE_QUERIES_URI, METRICS_HIBERNATE_ENTITIES_URI,
+		                        METRICS_HIBERNATE_REGIONS_URI, METRICS_HIBERNATE_SLOWQUERIES_URI };
+
+		for (String uri : uris) {
+			// When
+			final Response response = admin(uri).request()
+			                                    .accept(APPLICATION_JSON)
+			                                    .get();
+
+			// Then
+			// Ein JSON-Array, auch wenn es leer ist
+			assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+			assertThat(response.readEntity(JSON_ARRAY)).isNotNull();
+		}
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	@InSequence(10)
+	public void slowQueriesAlle() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		Response response = admin(METRICS_HIBERNATE_URI).request()
+		                                                .accept(APPLICATION_JSON)
+		                                                .get();
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		final Number millisAlt = (Number) response.readEntity(JSON_OBJEKT).get("slowQueryMillis");
+
+		try {
+			response = updateSlowQueryMillis(MILLIS_ALLE);
+			assertThat(response.getStatus()).isEqualTo(HTTP_NO_CONTENT);
+			response.close();
+
+			// When
+			// Je nach Routing liest die Query von der Primaer-Datenbank oder der Replica
+			response = getHttpsClient().target(KUNDEN_URI)
+			                           .queryParam(KundeResource.KUNDEN_NACHNAME_QUERY_PARAM, NACHNAME_VORHANDEN)
+			                           .request()
+			                           .accept(APPLICATION_JSON)
+			                           .get();
+			assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+			response.close();
+
+			// Then
+			final List<Map<String, Object>> slowQueries = new ArrayList<>();
+			slowQueries.addAll(findSlowQueries(false));
+			slowQueries.addAll(findSlowQueries(true));
+			assertThat(slowQueries).isNotEmpty();
+			for (Map<String, Object> slowQuery : slowQueries) {
+				assertThat(slowQuery).containsKey("timestamp")
+				                     .containsKey("query")
+				                     .containsKey("millis")
+				                     .containsKey("rows");
+			}
+		}
+		finally {
+			response = updateSlowQueryMillis(millisAlt.longValue());
+			assertThat(response.getStatus()).isEqualTo(HTTP_NO_CONTENT);
+			response.close();
+		}
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	@InSequence(11)
+	public void updateSlowQueryMillisNegativ() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final long millis = MILLIS_NEGATIV;
+
+		// When
+		final Response response = updateSlowQueryMillis(millis);
+
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_BAD_REQUEST);
+		response.close();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	@InSequence(12)
+	public void updateSlowQueryMillisFehlt() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+
+		// When
+		final Response response = admin(METRICS_HIBERNATE_SLOWQUERIES_URI).request()
+		                                                                  .method(PUT);
+
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_BAD_REQUEST);
+		response.close();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	@InSequence(20)
+	public void updateHibernateStatisticsEnabled() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		Response response = updateEnabled(false);
+		assertThat(response.getStatus()).isEqualTo(HTTP_NO_CONTENT);
+		response.close();
+
+		try {
+			// When
+			response = admin(METRICS_HIBERNATE_URI).request()
+			                                       .accept(APPLICATION_JSON)
+			                                       .get();
+
+			// Then
+			assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+			assertThat(response.readEntity(JSON_OBJEKT).get("enabled")).isEqualTo(Boolean.FALSE);
+		}
+		finally {
+			response = updateEnabled(true);
+			assertThat(response.getStatus()).isEqualTo(HTTP_NO_CONTENT);
+			response.close();
+		}
+
+		response = admin(METRICS_HIBERNATE_URI).queryParam(REPLICA_QUERY_PARAM, true)
+		                                       .request()
+		                                       .accept(APPLICATION_JSON)
+		                                       .get();
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		assertThat(response.readEntity(JSON_OBJEKT).get("enabled")).isEqualTo(Boolean.TRUE);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	@InSequence(21)
+	public void updateHibernateStatisticsEnabledFehlt() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+
+		// When
+		final Response response = admin(METRICS_HIBERNATE_URI).request()
+		                                                      .method(PUT);
+
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_BAD_REQUEST);
+		response.close();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	@InSequence(30)
+	public void findHibernateStatisticsOhneLogin() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+
+		// When
+		final Response response = getHttpsClient().target(METRICS_HIBERNATE_URI)
+		                                          .request()
+		                                          .accept(APPLICATION_JSON)
+		                                          .get();
+
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_UNAUTHORIZED);
+		response.close();
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	@InSequence(31)
+	public void findHibernateStatisticsOhneAdmin() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+
+		// When
+		final Response response = getHttpsClient(USERNAME, PASSWORD).target(METRICS_HIBERNATE_URI)
+		                                                            .request()
+		                                                            .accept(APPLICATION_JSON)
+		                                                            .get();
+
+		// Then
+		assertThat(response.getStatus()).isEqualTo(HTTP_FORBIDDEN);
+		response.close();
+
+		LOGGER.finer("ENDE");
+	}
+
+	private WebTarget admin(String uri) {
+		return getHttpsClient(USERNAME_ADMIN, PASSWORD_ADMIN).target(uri);
+	}
+
+	private Response updateSlowQueryMillis(long millis) {
+		return admin(METRICS_HIBERNATE_SLOWQUERIES_URI).queryParam(MILLIS_QUERY_PARAM, millis)
+		                                               .request()
+		                                               .method(PUT);
+	}
+
+	private Response updateEnabled(boolean enabled) {
+		return admin(METRICS_HIBERNATE_URI).queryParam(ENABLED_QUERY_PARAM, enabled)
+		                                   .request()
+		                                   .method(PUT);
+	}
+
+	private List<Map<String, Object>> findSlowQueries(boolean replica) {
+		final Response response = admin(METRICS_HIBERNATE_SLOWQUERIES_URI).queryParam(REPLICA_QUERY_PARAM, replica)
+		                                                                  .request()
+		                                                                  .accept(APPLICATION_JSON)
+		                                                                  .get();
+		assertThat(response.getStatus()).isEqualTo(HTTP_OK);
+		return response.readEntity(JSON_ARRAY);
+	}
+}
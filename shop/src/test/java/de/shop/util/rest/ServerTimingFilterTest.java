@@ -0,0 +1,129 @@
+package de.shop.util.rest;
+
+import static de.shop.util.rest.ServerTimingFilter.PUFFER_GROESSE;
+import static de.shop.util.rest.ServerTimingFilter.SERVER_TIMING;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.junit.Test;
+
+import de.shop.util.metrics.RequestTiming;
+import de.shop.util.rest.ServerTimingFilter.MessenderStream;
+
+
+/**
+ * Header "Server-Timing" ohne Container: der Header muss vor dem ersten Byte des Rumpfs gesetzt sein.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class ServerTimingFilterTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	@Test
+	public void kleinerRumpf() throws IOException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+		final PruefenderStream out = new PruefenderStream(headers);
+		final MessenderStream messend = new MessenderStream(out, headers, timing());
+		final byte[] rumpf = daten(100);
+
+		// When
+		messend.write(rumpf);
+		messend.flush();
+		assertThat(out.size()).isZero();
+		messend.finish();
+
+		// Then: die gesamte Serialisierung ist gemessen
+		assertThat(out.toByteArray()).isEqualTo(rumpf);
+		final String serverTiming = (String) headers.getFirst(SERVER_TIMING);
+		assertThat(serverTiming).contains("db;dur=")
+		                        .contains("app;dur=")
+		                        .contains("ser;dur=")
+		                        .contains("total;dur=")
+		                        .doesNotContain("partial");
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void grosserRumpf() throws IOException {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+		final PruefenderStream out = new PruefenderStream(headers);
+		final MessenderStream messend = new MessenderStream(out, headers, timing());
+		final byte[] rumpf = daten(PUFFER_GROESSE * 3 + 1);
+
+		// When
+		messend.write(rumpf, 0, PUFFER_GROESSE);
+		assertThat(out.size()).isZero();
+		messend.write(rumpf[PUFFER_GROESSE]);
+		messend.write(rumpf, PUFFER_GROESSE + 1, rumpf.length - PUFFER_GROESSE - 1);
+		messend.finish();
+		messend.close();
+
+		// Then: der Header wurde beim Ueberlauf genau einmal gesetzt
+		assertThat(out.toByteArray()).isEqualTo(rumpf);
+		assertThat(headers.get(SERVER_TIMING)).hasSize(1);
+		assertThat((String) headers.getFirst(SERVER_TIMING)).contains("ser;dur=")
+		                                                    .contains(";desc=\"partial\"");
+
+		LOGGER.finer("ENDE");
+	}
+
+	private static RequestTiming timing() {
+		final RequestTiming timing = RequestTiming.begin();
+		RequestTiming.end();
+		return timing;
+	}
+
+	private static byte[] daten(int laenge) {
+		final byte[] daten = new byte[laenge];
+		Arrays.fill(daten, (byte) 'x');
+		return daten;
+	}
+
+	/**
+	 * Wie der Stream des Containers: beim ersten Byte muessen die Header vollstaendig sein
+	 */
+	private static final class PruefenderStream extends OutputStream {
+		private final ByteArrayOutputStream geschrieben = new ByteArrayOutputStream();
+		private final MultivaluedMap<String, Object> headers;
+
+		PruefenderStream(MultivaluedMap<String, Object> headers) {
+			super();
+			this.headers = headers;
+		}
+
+		@Override
+		public void write(int b) {
+			assertThat(headers.containsKey(SERVER_TIMING)).isTrue();
+			geschrieben.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			assertThat(headers.containsKey(SERVER_TIMING)).isTrue();
+			geschrieben.write(b, off, len);
+		}
+
+		int size() {
+			return geschrieben.size();
+		}
+
+		byte[] toByteArray() {
+			return geschrieben.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package de.shop.util.rest;
+
+import static de.shop.util.rest.UriHelper.MAX_BASE_URIS;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.logging.Logger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Test;
+
+import de.shop.util.rest.UriHelper.Template;
+
+
+/**
+ * UriHelper ohne Container: Templates mit mehreren Parametern und Cache der Basis-URIs.
+ * @author <a href="mailto:Juergen.Zimmermann@HS-Karlsruhe.de">J&uuml;rgen Zimmermann</a>
+ */
+public class UriHelperTest {
+	private static final Logger LOGGER = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+	private static final String BASE_URI = "https://localhost:8443/shop/rest";
+
+	@Test
+	public void ohneParameter() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final UriHelper uriHelper = new UriHelper();
+
+		// When
+		final URI uri = uriHelper.getUri(TestResource.class, uriInfo(BASE_URI));
+
+		// Then
+		assertThat(uri).isEqualTo(URI.create(BASE_URI + "/test"));
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void einParameter() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final UriHelper uriHelper = new UriHelper();
+
+		// When
+		final URI uri = uriHelper.getUri(TestResource.class, "findById", Long.valueOf(42), uriInfo(BASE_URI + "/"));
+
+		// Then
+		assertThat(uri).isEqualTo(URI.create(BASE_URI + "/test/42"));
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void mehrereParameter() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final UriHelper uriHelper = new UriHelper();
+
+		// When
+		final URI uri = uriHelper.getUri(TestResource.class, "findPosition", uriInfo(BASE_URI), 42L, 7L);
+
+		// Then
+		assertThat(uri).isEqualTo(URI.create(BASE_URI + "/test/42/positionen/7"));
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void template() {
+		LOGGER.finer("BEGINN");
+
+		// Regulaere Ausdruecke duerfen geschweifte Klammern enthalten
+		final Template template = new Template("a/{x:[0-9]{1,3}}/b/{y}/c/{z:[a-z]+}");
+		assertThat(template.getParamCount()).isEqualTo(3);
+		assertThat(template.expand("/", 1, 2, "z")).isEqualTo("/a/1/b/2/c/z");
+
+		final Template ohne = new Template("a/b");
+		assertThat(ohne.getParamCount()).isZero();
+		assertThat(ohne.expand("/")).isEqualTo("/a/b");
+
+		final Template amAnfang = new Template("{x}");
+		assertThat(amAnfang.expand("/", "x")).isEqualTo("/x");
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void falscheAnzahl() {
+		LOGGER.finer("BEGINN");
+		new UriHelper().getUri(TestResource.class, "findPosition", uriInfo(BASE_URI), 42L);
+	}
+
+	@Test
+	public void wechselndeBasisUris() {
+		LOGGER.finer("BEGINN");
+
+		// Given: zwei Host-Header im Wechsel
+		final UriHelper uriHelper = new UriHelper();
+		final UriInfo a = uriInfo("https://a.example.com/shop/rest");
+		final UriInfo b = uriInfo("https://b.example.com/shop/rest/");
+
+		// When
+		for (int i = 0; i < 3; i++) {
+			assertThat(uriHelper.getBaseUri(a)).isEqualTo("https://a.example.com/shop/rest/");
+			assertThat(uriHelper.getBaseUri(b)).isEqualTo("https://b.example.com/shop/rest/");
+		}
+
+		// Then: beide Basis-URIs bleiben im Cache
+		assertThat(uriHelper.getBaseUriCount()).isEqualTo(2);
+
+		LOGGER.finer("ENDE");
+	}
+
+	@Test
+	public void begrenzteBasisUris() {
+		LOGGER.finer("BEGINN");
+
+		// Given
+		final UriHelper uriHelper = new UriHelper();
+
+		// When
+		for (int i = 0; i < MAX_BASE_URIS * 3; i++) {
+			final String baseUri = "https://host" + i + ".example.com/shop/rest";
+			assertThat(uriHelper.getBaseUri(uriInfo(baseUri))).isEqualTo(baseUri + "/");
+		}
+
+		// Then
+		assertThat(uriHelper.getBaseUriCount()).isLessThanOrEqualTo(MAX_BASE_URIS);
+
+		LOGGER.finer("ENDE");
+	}
+
+	private static UriInfo uriInfo(String baseUri) {
+		final URI uri = URI.create(baseUri);
+		return (UriInfo) Proxy.newProxyInstance(UriInfo.class.getClassLoader(), new Class<?>[] { UriInfo.class },
+				                                new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if ("getBaseUri".equals(method.getName())) {
+					return uri;
+				}
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+
+	@Path("/test")
+	public static class TestResource {
+		@GET
+		@Path("{id:[1-9][0-9]*}")
+		public String findById(@PathParam("id") Long id) {
+			return null;
+		}
+
+		@GET
+		@Path("{id:[1-9][0-9]*}/positionen/{posId:[1-9][0-9]*}")
+		public String findPosition(@PathParam("id") Long id, @PathParam("posId") Long posId) {
+			return null;
+		}
+	}
+}